@@ -72,6 +72,7 @@ internal class VimTypedActionHandler(origHandler: TypedActionHandler) : TypedAct
 
     try {
       LOG.trace("Executing typed action")
+      VimPlugin.getEditor().ensureEditorStateInitialized(editor)
       val modifiers = if (charTyped == ' ' && VimKeyListener.isSpaceShift) KeyEvent.SHIFT_DOWN_MASK else 0
       val keyStroke = KeyStroke.getKeyStroke(charTyped, modifiers)
       val startTime = if (traceTime) System.currentTimeMillis() else null
@@ -117,6 +117,9 @@ internal class VimShortcutKeyAction : AnAction(), DumbAware/*, LightEditCompatib
         LOG.trace("Do not execute shortcut because it's disabled here")
         return false
       }
+      // The checks below depend on the mode. The update always runs before actionPerformed, so the state is ready
+      // when the key is handled
+      VimPlugin.getEditor().ensureEditorStateInitialized(editor)
       // Workaround for smart step into
       @Suppress("DEPRECATION", "LocalVariableName", "VariableNaming")
       val SMART_STEP_INPLACE_DATA = Key.findKeyByName("SMART_STEP_INPLACE_DATA")
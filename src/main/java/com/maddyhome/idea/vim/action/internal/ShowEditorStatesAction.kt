@@ -0,0 +1,133 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.action.internal
+
+import com.intellij.openapi.actionSystem.AnAction
+import com.intellij.openapi.actionSystem.AnActionEvent
+import com.intellij.openapi.diagnostic.logger
+import com.intellij.openapi.editor.Editor
+import com.intellij.openapi.ui.Messages
+import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.command.VimStateMachine
+import com.maddyhome.idea.vim.helper.EditorHelper
+import com.maddyhome.idea.vim.helper.VimNlsSafe
+import com.maddyhome.idea.vim.helper.localEditors
+import com.maddyhome.idea.vim.helper.vimStateDeferred
+import com.maddyhome.idea.vim.helper.vimStateMachine
+import java.lang.reflect.Field
+import java.lang.reflect.Modifier
+import java.util.*
+
+/**
+ * Shows how many editors have a Vim state and an estimate of the memory it takes
+ *
+ * The state of a non-file editor is created when the editor gets focus or the first key (see
+ *   [com.maddyhome.idea.vim.group.EditorGroup.editorCreated]), so most of the consoles and diffs should be deferred.
+ */
+internal class ShowEditorStatesAction : AnAction() {
+  override fun actionPerformed(e: AnActionEvent) {
+    val editors = localEditors()
+    val fileEditors = editors.count { EditorHelper.isFileEditor(it) }
+    val deferred = editors.count { it.vimStateDeferred }
+    val states = editors.mapNotNull { it.vimStateMachine }
+
+    @VimNlsSafe
+    val report = """
+      Editors: ${editors.size} ($fileEditors file, ${editors.size - fileEditors} other)
+      Deferred Vim state: $deferred
+      Created Vim state machines: ${states.size}
+      Estimated memory of the state machines: ${estimateRetainedBytes(states) / 1024} KiB
+    """.trimIndent()
+    LOG.info(report)
+    Messages.showInfoMessage(e.project, report, "IdeaVim Editor States")
+  }
+
+  /**
+   * Estimates the memory that only the [states] keep alive, from their object graphs
+   *
+   * Every object of a state is counted with its shallow size on a 64-bit JVM with compressed oops. The objects that
+   * more than one state reaches, like the tree of the key mappings, are shared and not counted. The editors and the
+   * enum constants are not part of a state.
+   */
+  private fun estimateRetainedBytes(states: List<VimStateMachine>): Long {
+    val owners = IdentityHashMap<Any, Int>()
+    for (state in states) {
+      for (obj in reachableObjects(state)) {
+        owners.merge(obj, 1, Int::plus)
+      }
+    }
+    return owners.entries.sumOf { (obj, count) -> if (count == 1) shallowSize(obj) else 0L }
+  }
+
+  private fun reachableObjects(root: Any): Set<Any> {
+    val reached = Collections.newSetFromMap(IdentityHashMap<Any, Boolean>())
+    val queue = ArrayDeque<Any>()
+    queue.add(root)
+    while (queue.isNotEmpty()) {
+      val obj = queue.removeLast()
+      if (!reached.add(obj)) continue
+      val type = obj.javaClass
+      if (type.isArray) {
+        if (!type.componentType.isPrimitive) {
+          for (element in obj as Array<*>) {
+            if (element != null && isPartOfState(element)) queue.add(element)
+          }
+        }
+        continue
+      }
+      for (field in instanceFields(type)) {
+        // Fields of the JDK that aren't open to the plugin are counted in the shallow size, but not followed
+        if (field.type.isPrimitive || !field.trySetAccessible()) continue
+        val value = field.get(obj) ?: continue
+        if (isPartOfState(value)) queue.add(value)
+      }
+    }
+    return reached
+  }
+
+  private fun isPartOfState(value: Any): Boolean {
+    if (value is Editor || value is VimEditor || value is Enum<*> || value is Class<*>) return false
+    val type = value.javaClass
+    return type.isArray || STATE_PACKAGES.any { type.name.startsWith(it) }
+  }
+
+  private fun shallowSize(obj: Any): Long {
+    val type = obj.javaClass
+    val size = if (type.isArray) {
+      ARRAY_HEADER_BYTES + java.lang.reflect.Array.getLength(obj).toLong() * valueSize(type.componentType)
+    } else {
+      OBJECT_HEADER_BYTES + instanceFields(type).sumOf { valueSize(it.type) }.toLong()
+    }
+    return (size + OBJECT_ALIGNMENT - 1) / OBJECT_ALIGNMENT * OBJECT_ALIGNMENT
+  }
+
+  private fun instanceFields(type: Class<*>): Sequence<Field> {
+    return generateSequence(type) { it.superclass }
+      .flatMap { it.declaredFields.asSequence() }
+      .filter { !Modifier.isStatic(it.modifiers) }
+  }
+
+  private fun valueSize(type: Class<*>): Int = when (type) {
+    java.lang.Long.TYPE, java.lang.Double.TYPE -> 8
+    Integer.TYPE, java.lang.Float.TYPE -> 4
+    java.lang.Short.TYPE, Character.TYPE -> 2
+    java.lang.Byte.TYPE, java.lang.Boolean.TYPE -> 1
+    else -> REFERENCE_BYTES
+  }
+
+  companion object {
+    private val LOG = logger<ShowEditorStatesAction>()
+
+    private val STATE_PACKAGES = listOf("com.maddyhome.idea.vim.", "java.util.", "java.lang.")
+    private const val OBJECT_HEADER_BYTES = 12
+    private const val ARRAY_HEADER_BYTES = 16
+    private const val REFERENCE_BYTES = 4
+    private const val OBJECT_ALIGNMENT = 8
+  }
+}
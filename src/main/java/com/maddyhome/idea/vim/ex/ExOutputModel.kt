@@ -8,6 +8,7 @@
 package com.maddyhome.idea.vim.ex
 
 import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.application.ModalityState
 import com.intellij.openapi.editor.Editor
 import com.maddyhome.idea.vim.api.VimExOutputPanel
 import com.maddyhome.idea.vim.helper.vimExOutput
@@ -20,13 +21,43 @@ public class ExOutputModel private constructor(private val myEditor: Editor) : V
   override var text: String? = null
     private set
 
+  private val pendingOutput = StringBuilder()
+  private var isFlushScheduled = false
+
   override fun output(text: String) {
     this.text = text
+    synchronized(pendingOutput) { pendingOutput.setLength(0) }
     if (!ApplicationManager.getApplication().isUnitTestMode) {
       ExOutputPanel.getInstance(myEditor).setText(text)
     }
   }
 
+  /**
+   * Shows a chunk of the output of a command that is still running
+   *
+   * Chunks that arrive before the panel is updated are shown together. The complete output should still be set with
+   * [output] when the command finishes. Can be called from any thread.
+   */
+  public fun appendStreamingOutput(chunk: String) {
+    if (ApplicationManager.getApplication().isUnitTestMode) return
+    synchronized(pendingOutput) {
+      pendingOutput.append(chunk)
+      if (isFlushScheduled) return
+      isFlushScheduled = true
+    }
+    // The command runs under a modal progress, so the update must not wait for it to finish
+    ApplicationManager.getApplication().invokeLater(
+      {
+        val pending = synchronized(pendingOutput) {
+          isFlushScheduled = false
+          pendingOutput.toString().also { pendingOutput.setLength(0) }
+        }
+        ExOutputPanel.getInstance(myEditor).appendText(pending)
+      },
+      ModalityState.any(),
+    )
+  }
+
   override fun clear() {
     text = null
     if (!ApplicationManager.getApplication().isUnitTestMode) {
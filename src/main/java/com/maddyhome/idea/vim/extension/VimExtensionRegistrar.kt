@@ -83,16 +83,18 @@ internal object VimExtensionRegistrar : VimExtensionRegistrator {
     if (injector.vimscriptExecutor.executingVimscript) {
       delayedExtensionEnabling += extensionBean
     } else {
-      extensionBean.instance.init()
+      injector.keyGroup.batchShortcutKeysRegistration { extensionBean.instance.init() }
       logger.info("IdeaVim extension '$name' initialized")
     }
   }
 
   @JvmStatic
   fun enableDelayedExtensions() {
-    delayedExtensionEnabling.forEach {
-      it.instance.init()
-      logger.info("IdeaVim extension '${it.name}' initialized")
+    injector.keyGroup.batchShortcutKeysRegistration {
+      delayedExtensionEnabling.forEach {
+        it.instance.init()
+        logger.info("IdeaVim extension '${it.name}' initialized")
+      }
     }
     delayedExtensionEnabling.clear()
   }
@@ -20,6 +20,7 @@ import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.editor.LogicalPosition;
+import com.intellij.openapi.editor.actionSystem.TypedActionHandler;
 import com.intellij.openapi.editor.event.EditorMouseEvent;
 import com.intellij.openapi.editor.event.EditorMouseListener;
 import com.intellij.openapi.editor.impl.TextRangeInterval;
@@ -37,6 +38,7 @@ import com.maddyhome.idea.vim.api.*;
 import com.maddyhome.idea.vim.command.*;
 import com.maddyhome.idea.vim.common.IndentConfig;
 import com.maddyhome.idea.vim.common.TextRange;
+import com.maddyhome.idea.vim.common.TextReplacement;
 import com.maddyhome.idea.vim.ex.ranges.LineRange;
 import com.maddyhome.idea.vim.group.visual.VimSelection;
 import com.maddyhome.idea.vim.group.visual.VisualModeHelperKt;
@@ -50,6 +52,7 @@ import com.maddyhome.idea.vim.newapi.IjEditorExecutionContextKt;
 import com.maddyhome.idea.vim.newapi.IjVimCaret;
 import com.maddyhome.idea.vim.newapi.IjVimEditor;
 import com.maddyhome.idea.vim.options.OptionConstants;
+import com.maddyhome.idea.vim.options.OptionSnapshot;
 import kotlin.Pair;
 import kotlin.Unit;
 import kotlin.jvm.functions.Function0;
@@ -65,6 +68,7 @@ import java.util.Comparator;
 import java.util.List;
 
 import static com.maddyhome.idea.vim.api.VimInjectorKt.injector;
+import static com.maddyhome.idea.vim.api.VimInjectorKt.optionSnapshot;
 import static com.maddyhome.idea.vim.api.VimInjectorKt.options;
 
 /**
@@ -107,6 +111,26 @@ public class ChangeGroup extends VimChangeGroupBase {
     injector.getScroll().scrollCaretIntoView(vimEditor);
   }
 
+  /**
+   * Types the text in one command and one write action, and scrolls once.
+   * The chars still go through the original typed handler, so the typed handlers of the IDE see every char as before.
+   */
+  @Override
+  public void type(@NotNull VimEditor vimEditor, @NotNull ExecutionContext context, @NotNull String text) {
+    Editor editor = ((IjVimEditor) vimEditor).getEditor();
+    DataContext ijContext = IjEditorExecutionContextKt.getIj(context);
+    final Document doc = editor.getDocument();
+    final TypedActionHandler handler = KeyHandlerKeeper.getInstance().getOriginalHandler();
+    CommandProcessor.getInstance().executeCommand(editor.getProject(), () -> ApplicationManager.getApplication()
+        .runWriteAction(() -> {
+          for (int i = 0; i < text.length(); i++) {
+            handler.execute(editor, text.charAt(i), ijContext);
+          }
+        }), "", doc,
+      UndoConfirmationPolicy.DEFAULT, doc);
+    injector.getScroll().scrollCaretIntoView(vimEditor);
+  }
+
 
   @Override
   public @Nullable
@@ -230,8 +254,17 @@ public class ChangeGroup extends VimChangeGroupBase {
   public boolean changeCaseRange(@NotNull VimEditor editor, @NotNull VimCaret caret, @NotNull TextRange range, char type) {
     int[] starts = range.getStartOffsets();
     int[] ends = range.getEndOffsets();
-    for (int i = ends.length - 1; i >= 0; i--) {
-      changeCase(editor, caret, starts[i], ends[i], type);
+    if (starts.length == 1) {
+      changeCase(editor, caret, starts[0], ends[0], type);
+    } else {
+      // Change all the rows of a block in one batched edit
+      CharSequence chars = editor.text();
+      List<TextReplacement> replacements = new ArrayList<>(starts.length);
+      for (int i = 0; i < starts.length; i++) {
+        replacements.add(getChangeCaseReplacement(editor, chars, starts[i], ends[i], type));
+      }
+      replacements.sort(Comparator.comparingInt(TextReplacement::getStartOffset));
+      replaceTexts(editor, caret, replacements);
     }
     caret.moveToOffset(range.getStartOffset());
     return true;
@@ -246,6 +279,15 @@ public class ChangeGroup extends VimChangeGroupBase {
    * @param type   The type of change (TOGGLE, UPPER, LOWER)
    */
   private void changeCase(@NotNull VimEditor editor, @NotNull VimCaret caret, int start, int end, char type) {
+    TextReplacement replacement = getChangeCaseReplacement(editor, editor.text(), start, end, type);
+    replaceText(editor, caret, replacement.getStartOffset(), replacement.getEndOffset(), replacement.getText());
+  }
+
+  private static @NotNull TextReplacement getChangeCaseReplacement(@NotNull VimEditor editor,
+                                                                   @NotNull CharSequence chars,
+                                                                   int start,
+                                                                   int end,
+                                                                   char type) {
     if (start > end) {
       int t = end;
       end = start;
@@ -253,12 +295,11 @@ public class ChangeGroup extends VimChangeGroupBase {
     }
     end = EngineEditorHelperKt.normalizeOffset(editor, end, true);
 
-    CharSequence chars = editor.text();
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = new StringBuilder(Math.max(end - start, 0));
     for (int i = start; i < end; i++) {
       sb.append(CharacterHelper.changeCase(chars.charAt(i), type));
     }
-    replaceText(editor, caret, start, end, sb.toString());
+    return new TextReplacement(start, end, sb.toString());
   }
 
   private void restoreCursor(@NotNull VimEditor editor, @NotNull VimCaret caret, int startLine) {
@@ -567,28 +608,29 @@ public class ChangeGroup extends VimChangeGroupBase {
       }
     }
 
-    List<String> nf = options(injector, editor).getStringListValues(OptionConstants.nrformats);
-    boolean alpha = nf.contains("alpha");
-    boolean hex = nf.contains("hex");
-    boolean octal = nf.contains("octal");
+    OptionSnapshot options = optionSnapshot(injector, editor);
+    boolean alpha = options.isAlphaNumberFormat();
+    boolean hex = options.isHexNumberFormat();
+    boolean octal = options.isOctalNumberFormat();
 
-    @NotNull List<Pair<TextRange, NumberType>> numberRanges =
+    SearchHelper.NumberRanges numberRanges =
       SearchHelper.findNumbersInRange(((IjVimEditor) editor).getEditor(), selectedRange, alpha, hex, octal);
 
-    List<String> newNumbers = new ArrayList<>();
+    // Replace all numbers in one batch. The offsets of all replacements refer to the original text, so the ranges
+    // don't get desynchronized after inc numbers like 99, and the lines between the numbers keep their marks
+    CharSequence chars = editor.text();
+    StringBuilder buffer = new StringBuilder();
+    List<TextReplacement> replacements = new ArrayList<>(numberRanges.size());
     for (int i = 0; i < numberRanges.size(); i++) {
-      Pair<TextRange, NumberType> numberRange = numberRanges.get(i);
+      int start = numberRanges.getStartOffset(i);
+      int end = numberRanges.getEndOffset(i);
       int iCount = avalanche ? (i + 1) * count : count;
-      String newNumber = changeNumberInRange(editor, numberRange, iCount, alpha, hex, octal);
-      newNumbers.add(newNumber);
-    }
-
-    for (int i = newNumbers.size() - 1; i >= 0; i--) {
-      // Replace text bottom up. In other direction ranges will be desynchronized after inc numbers like 99
-      Pair<TextRange, NumberType> rangeToReplace = numberRanges.get(i);
-      String newNumber = newNumbers.get(i);
-      replaceText(editor, caret, rangeToReplace.getFirst().getStartOffset(), rangeToReplace.getFirst().getEndOffset(), newNumber);
+      String newNumber = changeNumberInRange(chars, start, end, numberRanges.getType(i), iCount, alpha, hex, octal, buffer);
+      if (newNumber != null) {
+        replacements.add(new TextReplacement(start, end, newNumber));
+      }
     }
+    replaceTexts(editor, caret, replacements);
 
     InlayHelperKt.moveToInlayAwareOffset(((IjVimCaret) caret).getCaret(), selectedRange.getStartOffset());
     return true;
@@ -597,10 +639,10 @@ public class ChangeGroup extends VimChangeGroupBase {
 
   @Override
   public boolean changeNumber(final @NotNull VimEditor editor, @NotNull VimCaret caret, final int count) {
-    final List<String> nf = options(injector, editor).getStringListValues(OptionConstants.nrformats);
-    final boolean alpha = nf.contains("alpha");
-    final boolean hex = nf.contains("hex");
-    final boolean octal = nf.contains("octal");
+    final OptionSnapshot options = optionSnapshot(injector, editor);
+    final boolean alpha = options.isAlphaNumberFormat();
+    final boolean hex = options.isHexNumberFormat();
+    final boolean octal = options.isOctalNumberFormat();
 
     @Nullable Pair<TextRange, NumberType> range =
       SearchHelper.findNumberUnderCursor(((IjVimEditor) editor).getEditor(), ((IjVimCaret) caret).getCaret(), alpha, hex, octal);
@@ -609,7 +651,8 @@ public class ChangeGroup extends VimChangeGroupBase {
       return false;
     }
 
-    String newNumber = changeNumberInRange(editor, range, count, alpha, hex, octal);
+    String newNumber = changeNumberInRange(editor.text(), range.getFirst().getStartOffset(), range.getFirst().getEndOffset(),
+      range.getSecond(), count, alpha, hex, octal, new StringBuilder());
     if (newNumber == null) {
       return false;
     } else {
@@ -634,23 +677,37 @@ public class ChangeGroup extends VimChangeGroupBase {
     strokes.add(chars);
   }
 
+  /**
+   * Returns the number in {@code [start, end)} of the text changed by count
+   *
+   * @param buffer A builder that can be reused between the calls
+   */
   private @Nullable
-  String changeNumberInRange(final @NotNull VimEditor editor,
-                             Pair<TextRange, NumberType> range,
+  String changeNumberInRange(final @NotNull CharSequence chars,
+                             int start,
+                             int end,
+                             @NotNull NumberType numberType,
                              final int count,
                              boolean alpha,
                              boolean hex,
-                             boolean octal) {
-    String text = EngineEditorHelperKt.getText(editor, range.getFirst());
-    NumberType numberType = range.getSecond();
+                             boolean octal,
+                             @NotNull StringBuilder buffer) {
+    if (start >= end) {
+      return null;
+    }
+    if (NumberType.DEC.equals(numberType)) {
+      String number = changeShortDecimalNumber(chars, start, end, count, octal, buffer);
+      if (number != null) {
+        return number;
+      }
+    }
+
+    String text = chars.subSequence(start, end).toString();
     if (logger.isDebugEnabled()) {
-      logger.debug("found range " + range);
+      logger.debug("found range " + start + ":" + end);
       logger.debug("text=" + text);
     }
     String number = text;
-    if (text.length() == 0) {
-      return null;
-    }
 
     char ch = text.charAt(0);
     if (hex && NumberType.HEX.equals(numberType)) {
@@ -722,6 +779,49 @@ public class ChangeGroup extends VimChangeGroupBase {
     return number;
   }
 
+  /**
+   * Changes a decimal number that fits into a long, without the intermediate strings of the generic path
+   *
+   * @return the changed number, or null if the number doesn't fit into a long
+   */
+  private static @Nullable String changeShortDecimalNumber(final @NotNull CharSequence chars,
+                                                           int start,
+                                                           int end,
+                                                           int count,
+                                                           boolean octal,
+                                                           @NotNull StringBuilder buffer) {
+    boolean negative = chars.charAt(start) == '-';
+    int digitsStart = negative ? start + 1 : start;
+    int digits = end - digitsStart;
+    if (digits <= 0 || digits > MAX_SHORT_DECIMAL_DIGITS) {
+      return null;
+    }
+
+    long value = 0;
+    for (int i = digitsStart; i < end; i++) {
+      char ch = chars.charAt(i);
+      if (ch < '0' || ch > '9') return null;
+      value = value * 10 + (ch - '0');
+    }
+    value = (negative ? -value : value) + count;
+
+    buffer.setLength(0);
+    if (value < 0) {
+      buffer.append('-');
+    }
+    int numberStart = buffer.length();
+    buffer.append(Math.abs(value));
+
+    // Keep the leading zeros, e.g. 007 -> 008
+    boolean pad = chars.charAt(digitsStart) == '0';
+    if (!octal && pad) {
+      for (int i = buffer.length() - numberStart; i < digits; i++) {
+        buffer.insert(numberStart, '0');
+      }
+    }
+    return buffer.toString();
+  }
+
   public void addInsertListener(VimInsertListener listener) {
     insertListeners.add(listener);
   }
@@ -742,5 +842,10 @@ public class ChangeGroup extends VimChangeGroupBase {
   }
 
 
+  /**
+   * Any decimal number with this many digits fits into a long, even after adding an int count
+   */
+  private static final int MAX_SHORT_DECIMAL_DIGITS = 18;
+
   private static final Logger logger = Logger.getInstance(ChangeGroup.class.getName());
 }
@@ -10,6 +10,7 @@ package com.maddyhome.idea.vim.group;
 
 import com.intellij.find.EditorSearchSession;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
 import com.intellij.openapi.components.PersistentStateComponent;
 import com.intellij.openapi.components.State;
 import com.intellij.openapi.components.Storage;
@@ -38,6 +39,7 @@ import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.awt.Rectangle;
 import java.util.Collection;
 import java.util.stream.Collectors;
 
@@ -58,8 +60,9 @@ public class EditorGroup implements PersistentStateComponent<Element>, VimEditor
     @Override
     public void caretPositionChanged(@NotNull CaretEvent e) {
       final boolean requiresRepaint = e.getNewPosition().line != e.getOldPosition().line;
-      if (requiresRepaint && options(injector, new IjVimEditor(e.getEditor())).isSet(OptionConstants.relativenumber)) {
-        repaintRelativeLineNumbers(e.getEditor());
+      // The relative line numbers are installed exactly while 'relativenumber' is set
+      if (requiresRepaint && hasRelativeLineNumbersInstalled(e.getEditor())) {
+        scheduleRelativeLineNumbersRepaint(e.getEditor());
       }
     }
   };
@@ -149,6 +152,7 @@ public class EditorGroup implements PersistentStateComponent<Element>, VimEditor
       final EditorGutter gutter = editor.getGutter();
       gutter.setLineNumberConverter(new RelativeLineNumberConverter());
       UserDataManager.setVimHasRelativeLineNumbersInstalled(editor, true);
+      UserDataManager.setVimRelativeLineNumbersLine(editor, null);
     }
   }
 
@@ -157,14 +161,44 @@ public class EditorGroup implements PersistentStateComponent<Element>, VimEditor
       final EditorGutter gutter = editor.getGutter();
       gutter.setLineNumberConverter(LineNumberConverter.DEFAULT);
       UserDataManager.setVimHasRelativeLineNumbersInstalled(editor, false);
+      UserDataManager.setVimRelativeLineNumbersLine(editor, null);
     }
   }
 
+  /**
+   * Repaints the relative line numbers once the pending events are processed, so any number of caret moves in a row
+   * (holding `j`, a count, a macro) cause a single repaint. The repaint runs in the modality of the editor, so it
+   * waits while a modal dialog is open over the editor
+   */
+  private static void scheduleRelativeLineNumbersRepaint(final @NotNull Editor editor) {
+    if (UserDataManager.getVimRelativeLineNumbersRepaintScheduled(editor)) return;
+    UserDataManager.setVimRelativeLineNumbersRepaintScheduled(editor, true);
+    ApplicationManager.getApplication().invokeLater(() -> {
+      UserDataManager.setVimRelativeLineNumbersRepaintScheduled(editor, false);
+      if (editor.isDisposed() || !hasRelativeLineNumbersInstalled(editor)) return;
+      repaintRelativeLineNumbers(editor);
+    }, ModalityState.stateForComponent(editor.getComponent()));
+  }
+
   private static void repaintRelativeLineNumbers(final @NotNull Editor editor) {
+    // The moves since the last repaint can bring the caret back to the line the numbers are relative to
+    final int line = editor.getCaretModel().getPrimaryCaret().getLogicalPosition().line;
+    final Integer paintedLine = UserDataManager.getVimRelativeLineNumbersLine(editor);
+    if (paintedLine != null && paintedLine == line) return;
+    UserDataManager.setVimRelativeLineNumbersLine(editor, line);
+
     final EditorGutter gutter = editor.getGutter();
     final EditorGutterComponentEx gutterComponent = gutter instanceof EditorGutterComponentEx ? (EditorGutterComponentEx) gutter : null;
     if (gutterComponent != null) {
-      gutterComponent.repaint();
+      // Only the line numbers change. The line number area comes before the line markers (VCS, breakpoints, etc.),
+      // which keep their painting
+      final Rectangle visibleArea = editor.getScrollingModel().getVisibleArea();
+      final int lineNumbersWidth = gutterComponent.getLineMarkerAreaOffset();
+      if (lineNumbersWidth > 0) {
+        gutterComponent.repaint(0, visibleArea.y, lineNumbersWidth, visibleArea.height);
+      } else {
+        gutterComponent.repaint();
+      }
     }
   }
 
@@ -210,9 +244,34 @@ public class EditorGroup implements PersistentStateComponent<Element>, VimEditor
 
   public void editorCreated(@NotNull Editor editor) {
     DocumentManager.INSTANCE.addListeners(editor.getDocument());
+    // The line numbers follow the options even in editors that never get a Vim key
+    initLineNumbers(editor);
+
+    if (EditorHelper.isFileEditor(editor)) {
+      initEditorState(editor);
+    } else {
+      // Consoles, diffs, the commit message, debugger watches and search fields are many, and most of them never get a
+      // Vim key. Their shortcut keys, mode and caret shape are set up when they get focus or the first key
+      UserDataManager.setVimStateDeferred(editor, true);
+    }
+  }
+
+  /**
+   * Sets up the Vim state of a non-file editor that was deferred by {@link #editorCreated}. Called when the editor gets
+   * focus and on every path of a key to the {@link KeyHandler}: the typed action, the shortcut key action and the
+   * editor action handlers for Enter and Esc
+   */
+  public void ensureEditorStateInitialized(@NotNull Editor editor) {
+    if (!UserDataManager.getVimStateDeferred(editor)) {
+      return;
+    }
+    UserDataManager.setVimStateDeferred(editor, false);
+    initEditorState(editor);
+  }
+
+  private void initEditorState(@NotNull Editor editor) {
     VimPlugin.getKey().registerRequiredShortcutKeys(new IjVimEditor(editor));
 
-    initLineNumbers(editor);
     // Turn on insert mode if editor doesn't have any file
     if (!EditorHelper.isFileEditor(editor) &&
       editor.getDocument().isWritable() &&
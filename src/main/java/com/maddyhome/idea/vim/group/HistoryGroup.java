@@ -22,7 +22,9 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.maddyhome.idea.vim.history.HistoryConstants.*;
 
@@ -49,15 +51,22 @@ public class HistoryGroup extends VimHistoryBase implements PersistentStateCompo
       return;
     }
 
-    final Element root = new Element("history-" + key);
+    // Only the blocks changed since the last save are serialized again
+    SavedBlock saved = savedBlocks.get(key);
+    if (saved == null || saved.block != block || saved.modificationCount != block.getModificationCount()) {
+      final Element root = new Element("history-" + key);
 
-    for (HistoryEntry entry : block.getEntries()) {
-      final Element entryElement = new Element("entry");
-      VimPlugin.getXML().setSafeXmlText(entryElement, entry.getEntry());
-      root.addContent(entryElement);
+      for (HistoryEntry entry : block.getEntries()) {
+        final Element entryElement = new Element("entry");
+        VimPlugin.getXML().setSafeXmlText(entryElement, entry.getEntry());
+        root.addContent(entryElement);
+      }
+
+      saved = new SavedBlock(block, block.getModificationCount(), root);
+      savedBlocks.put(key, saved);
     }
 
-    element.addContent(root);
+    element.addContent(saved.element.clone());
   }
 
   public void readData(@NotNull Element element) {
@@ -110,7 +119,22 @@ public class HistoryGroup extends VimHistoryBase implements PersistentStateCompo
   @TestOnly
   public void clear() {
     getHistories().clear();
+    savedBlocks.clear();
   }
 
+  private static class SavedBlock {
+    private final @NotNull HistoryBlock block;
+    private final int modificationCount;
+    private final @NotNull Element element;
+
+    private SavedBlock(@NotNull HistoryBlock block, int modificationCount, @NotNull Element element) {
+      this.block = block;
+      this.modificationCount = modificationCount;
+      this.element = element;
+    }
+  }
+
+  private final Map<String, SavedBlock> savedBlocks = new HashMap<>();
+
   private static final Logger logger = Logger.getInstance(HistoryGroup.class.getName());
 }
@@ -11,6 +11,8 @@ package com.maddyhome.idea.vim.group
 import com.maddyhome.idea.vim.api.VimStatistics
 import com.maddyhome.idea.vim.statistic.ActionTracker
 import com.maddyhome.idea.vim.statistic.VimscriptState
+import com.maddyhome.idea.vim.vimscript.model.Executable
+import com.maddyhome.idea.vim.vimscript.model.expressions.Expression
 
 internal class IjStatisticsService : VimStatistics {
 
@@ -22,24 +24,16 @@ internal class IjStatisticsService : VimStatistics {
     ActionTracker.logCopiedAction(actionId)
   }
 
-  override fun setIfLoopUsed(value: Boolean) {
-    VimscriptState.isLoopUsed = value
-  }
-
   override fun setIfMapExprUsed(value: Boolean) {
     VimscriptState.isMapExprUsed = value
   }
 
-  override fun setIfFunctionCallUsed(value: Boolean) {
-    VimscriptState.isFunctionCallUsed = value
-  }
-
-  override fun setIfFunctionDeclarationUsed(value: Boolean) {
-    VimscriptState.isFunctionDeclarationUsed = value
+  override fun addParsedCode(code: Executable) {
+    VimscriptState.addParsedCode(code)
   }
 
-  override fun setIfIfUsed(value: Boolean) {
-    VimscriptState.isIfUsed = value
+  override fun addParsedExpression(expression: Expression) {
+    VimscriptState.addParsedExpression(expression)
   }
 
   override fun addExtensionEnabledWithPlug(extension: String) {
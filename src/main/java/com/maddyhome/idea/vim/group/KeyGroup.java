@@ -66,18 +66,33 @@ public class KeyGroup extends VimKeyGroupBase implements PersistentStateComponen
 
   private static final Logger logger = Logger.getInstance(KeyGroup.class);
 
+  /**
+   * The shortcut set of the required shortcut keys, shared by all editors and lookups. Built on the first use after
+   * the required keys change
+   */
+  private @Nullable ShortcutSet requiredShortcutSet = null;
+
   public void registerRequiredShortcutKeys(@NotNull VimEditor editor) {
     EventFacade.getInstance()
-      .registerCustomShortcutSet(VimShortcutKeyAction.getInstance(), toShortcutSet(getRequiredShortcutKeys()),
+      .registerCustomShortcutSet(VimShortcutKeyAction.getInstance(), getRequiredShortcutSet(),
         ((IjVimEditor) editor).getEditor().getComponent());
   }
 
   public void registerShortcutsForLookup(@NotNull LookupImpl lookup) {
     EventFacade.getInstance()
-      .registerCustomShortcutSet(VimShortcutKeyAction.getInstance(), toShortcutSet(getRequiredShortcutKeys()),
+      .registerCustomShortcutSet(VimShortcutKeyAction.getInstance(), getRequiredShortcutSet(),
         lookup.getComponent(), lookup);
   }
 
+  private @NotNull ShortcutSet getRequiredShortcutSet() {
+    ShortcutSet shortcutSet = requiredShortcutSet;
+    if (shortcutSet == null) {
+      shortcutSet = toShortcutSet(getRequiredShortcutKeys());
+      requiredShortcutSet = shortcutSet;
+    }
+    return shortcutSet;
+  }
+
   void unregisterShortcutKeys(@NotNull VimEditor editor) {
     EventFacade.getInstance().unregisterCustomShortcutSet(VimShortcutKeyAction.getInstance(),
       ((IjVimEditor) editor).getEditor().getComponent());
@@ -104,6 +119,7 @@ public class KeyGroup extends VimKeyGroupBase implements PersistentStateComponen
 
   @Override
   public void updateShortcutKeysRegistration() {
+    requiredShortcutSet = null;
     for (Editor editor : HelperKt.localEditors()) {
       unregisterShortcutKeys(new IjVimEditor(editor));
       registerRequiredShortcutKeys(new IjVimEditor(editor));
@@ -257,11 +273,19 @@ public class KeyGroup extends VimKeyGroupBase implements PersistentStateComponen
   private void registerRequiredShortcut(@NotNull List<KeyStroke> keys, MappingOwner owner) {
     for (KeyStroke key : keys) {
       if (key.getKeyChar() == KeyEvent.CHAR_UNDEFINED) {
-        getRequiredShortcutKeys().add(new RequiredShortcut(key, owner));
+        if (getRequiredShortcutKeys().add(new RequiredShortcut(key, owner))) {
+          requiredShortcutSet = null;
+        }
       }
     }
   }
 
+  @Override
+  public void unregisterCommandActions() {
+    super.unregisterCommandActions();
+    requiredShortcutSet = null;
+  }
+
   public static @NotNull
   ShortcutSet toShortcutSet(@NotNull Collection<RequiredShortcut> requiredShortcuts) {
     final List<Shortcut> shortcuts = new ArrayList<>();
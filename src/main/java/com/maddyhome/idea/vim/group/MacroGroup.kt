@@ -9,16 +9,20 @@ package com.maddyhome.idea.vim.group
 
 import com.intellij.openapi.application.ApplicationManager
 import com.intellij.openapi.diagnostic.logger
+import com.intellij.openapi.editor.Editor
 import com.intellij.openapi.progress.ProcessCanceledException
 import com.intellij.openapi.progress.ProgressManager
 import com.intellij.openapi.progress.util.PotemkinProgress
 import com.maddyhome.idea.vim.KeyHandler.Companion.getInstance
+import com.maddyhome.idea.vim.VimPlugin
 import com.maddyhome.idea.vim.api.ExecutionContext
 import com.maddyhome.idea.vim.api.VimEditor
 import com.maddyhome.idea.vim.api.injector
 import com.maddyhome.idea.vim.helper.MessageHelper.message
+import com.maddyhome.idea.vim.helper.updateCaretsVisualAttributes
 import com.maddyhome.idea.vim.macro.VimMacroBase
 import com.maddyhome.idea.vim.newapi.IjVimEditor
+import com.maddyhome.idea.vim.ui.ShowCmd
 
 /**
  * Used to handle playback of macros
@@ -28,6 +32,49 @@ internal class MacroGroup : VimMacroBase() {
   // If it's null, this is the top macro (as in most cases). If it's not null, this macro is executed from top macro
   private var potemkinProgress: PotemkinProgress? = null
 
+  private val deferredCaretUpdates = LinkedHashSet<Editor>()
+  private val scrollAnimationDisabled = LinkedHashSet<Editor>()
+  private var searchHighlightsDeferred = false
+  private var statusBarDeferred = false
+
+  /**
+   * True while a macro is played back
+   *
+   * Like Vim, which doesn't redraw while it executes a register, updates that only change what is shown (the caret
+   *   shape, search highlights and the status bar) are deferred until the playback ends. Scrolling is not deferred,
+   *   because each scroll depends on the visible area left by the previous one and commands like `H` and `<C-D>` read
+   *   it. It is done without animation instead, see [disableScrollAnimation].
+   */
+  val isPlayingBack: Boolean
+    get() = potemkinProgress != null
+
+  /** Returns true if the update of the caret shapes of the [editor] is deferred until the end of the playback */
+  fun deferCaretsVisualAttributes(editor: Editor): Boolean {
+    if (!isPlayingBack) return false
+    deferredCaretUpdates.add(editor)
+    return true
+  }
+
+  /** Turns off the scroll animation of the [editor] until the end of the playback, so every key scrolls at once */
+  fun disableScrollAnimation(editor: Editor) {
+    if (!isPlayingBack || !scrollAnimationDisabled.add(editor)) return
+    editor.scrollingModel.disableAnimation()
+  }
+
+  /** Returns true if the update of the search highlights is deferred until the end of the playback */
+  fun deferSearchHighlights(): Boolean {
+    if (!isPlayingBack) return false
+    searchHighlightsDeferred = true
+    return true
+  }
+
+  /** Returns true if the update of the status bar is deferred until the end of the playback */
+  fun deferStatusBar(): Boolean {
+    if (!isPlayingBack) return false
+    statusBarDeferred = true
+    return true
+  }
+
   /**
    * This puts a single keystroke at the end of the event queue for playback
    */
@@ -62,14 +109,20 @@ internal class MacroGroup : VimMacroBase() {
       myPotemkinProgress.text2 = if (isInternalMacro) "Executing internal macro" else ""
       val runnable = runnable@{
         // Handle one keystroke then queue up the next key
+        var nextProgressUpdate = 0L
         for (i in 0 until total) {
-          myPotemkinProgress.fraction = (i + 1).toDouble() / total
           while (keyStack.hasStroke()) {
             val key = keyStack.feedStroke()
-            try {
-              myPotemkinProgress.checkCanceled()
-            } catch (e: ProcessCanceledException) {
-              return@runnable
+            // Updating the progress and checking for cancellation repaints the progress, so do it once per interval
+            val now = System.nanoTime()
+            if (now >= nextProgressUpdate) {
+              nextProgressUpdate = now + PROGRESS_UPDATE_INTERVAL_NANOS
+              myPotemkinProgress.fraction = (i + 1).toDouble() / total
+              try {
+                myPotemkinProgress.checkCanceled()
+              } catch (e: ProcessCanceledException) {
+                return@runnable
+              }
             }
             ProgressManager.getInstance().executeNonCancelableSection { getInstance().handleKey(editor, key, context) }
             if (injector.messages.isError()) return@runnable
@@ -85,11 +138,35 @@ internal class MacroGroup : VimMacroBase() {
         myPotemkinProgress.runInSwingThread(runnable)
       }
     } finally {
-      potemkinProgress = null
+      if (!isInternalMacro) {
+        potemkinProgress = null
+        flushDeferredUpdates()
+      }
+    }
+  }
+
+  private fun flushDeferredUpdates() {
+    for (editor in scrollAnimationDisabled) {
+      if (!editor.isDisposed) editor.scrollingModel.enableAnimation()
+    }
+    scrollAnimationDisabled.clear()
+    for (editor in deferredCaretUpdates) {
+      if (!editor.isDisposed) editor.updateCaretsVisualAttributes()
+    }
+    deferredCaretUpdates.clear()
+    if (searchHighlightsDeferred) {
+      searchHighlightsDeferred = false
+      VimPlugin.getSearch().forceUpdateSearchHighlights()
+    }
+    if (statusBarDeferred) {
+      statusBarDeferred = false
+      ShowCmd.update()
     }
   }
 
   companion object {
     private val logger = logger<MacroGroup>()
+
+    private const val PROGRESS_UPDATE_INTERVAL_NANOS = 50_000_000L
   }
 }
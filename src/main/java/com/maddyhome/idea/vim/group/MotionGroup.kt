@@ -34,6 +34,7 @@ import com.maddyhome.idea.vim.api.VimMotionGroupBase
 import com.maddyhome.idea.vim.api.addJump
 import com.maddyhome.idea.vim.api.anyNonWhitespace
 import com.maddyhome.idea.vim.api.getLeadingCharacterOffset
+import com.maddyhome.idea.vim.api.getTextChars
 import com.maddyhome.idea.vim.api.getVisualLineCount
 import com.maddyhome.idea.vim.api.injector
 import com.maddyhome.idea.vim.api.lineLength
@@ -402,8 +403,7 @@ internal class MotionGroup : VimMotionGroupBase() {
       // This is a kludge for dw, dW, and d[w. Without this kludge, an extra newline is operated when it shouldn't be.
       val id = argument.motion.action.id
       if (id == VimChangeGroupBase.VIM_MOTION_WORD_RIGHT || id == VimChangeGroupBase.VIM_MOTION_BIG_WORD_RIGHT || id == VimChangeGroupBase.VIM_MOTION_CAMEL_RIGHT) {
-        val text = editor.document.charsSequence.subSequence(start, end).toString()
-        val lastNewLine = text.lastIndexOf('\n')
+        val lastNewLine = editor.vim.getTextChars(start, end).lastIndexOf('\n')
         if (lastNewLine > 0) {
           if (!editor.vim.anyNonWhitespace(end, -1)) {
             end = start + lastNewLine
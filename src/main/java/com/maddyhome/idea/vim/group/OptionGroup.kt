@@ -75,6 +75,7 @@ internal class OptionGroup : VimOptionGroupBase() {
     )
     addOption(ToggleOption(IjOptionConstants.oldundo, IjOptionConstants.oldundo, true))
     addOption(ToggleOption(IjOptionConstants.trackactionids, "tai", false))
+    addOption(ToggleOption(IjOptionConstants.undojournal, IjOptionConstants.undojournal, false))
     addOption(UnsignedNumberOption(IjOptionConstants.visualdelay, IjOptionConstants.visualdelay, 100))
 
     // This options overrides Vim's default value, so we keep it here
@@ -124,6 +125,7 @@ internal class IjOptionConstants {
     const val lookupkeys = "lookupkeys"
     const val oldundo = "oldundo"
     const val trackactionids = "trackactionids"
+    const val undojournal = "undojournal"
     const val visualdelay = "visualdelay"
 
     val ideaStatusIconValues = setOf(ideastatusicon_enabled, ideastatusicon_gray, ideastatusicon_disabled)
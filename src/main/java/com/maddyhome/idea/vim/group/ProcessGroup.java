@@ -10,17 +10,20 @@ package com.maddyhome.idea.vim.group;
 
 import com.intellij.execution.ExecutionException;
 import com.intellij.execution.configurations.GeneralCommandLine;
-import com.intellij.execution.process.CapturingProcessHandler;
+import com.intellij.execution.process.OSProcessHandler;
 import com.intellij.execution.process.ProcessAdapter;
 import com.intellij.execution.process.ProcessEvent;
-import com.intellij.execution.process.ProcessOutput;
+import com.intellij.execution.process.ProcessOutputType;
 import com.intellij.openapi.actionSystem.DataContext;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.progress.DumbProgressIndicator;
 import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.ProgressIndicatorProvider;
 import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.util.Key;
 import com.intellij.util.execution.ParametersListUtil;
 import com.intellij.util.text.CharSequenceReader;
 import com.maddyhome.idea.vim.KeyHandler;
@@ -44,7 +47,11 @@ import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 import java.io.*;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 import static com.maddyhome.idea.vim.api.VimInjectorKt.globalOptions;
 import static com.maddyhome.idea.vim.api.VimInjectorKt.injector;
@@ -179,6 +186,41 @@ public class ProcessGroup extends VimProcessGroupBase {
   public @Nullable
   String executeCommand(@NotNull VimEditor editor, @NotNull String command, @Nullable CharSequence input, @Nullable String currentDirectoryPath)
     throws ExecutionException, ProcessCanceledException {
+    return executeCommand(editor, command, input, currentDirectoryPath, null);
+  }
+
+  /**
+   * Runs the shell command and returns its output, stderr followed by stdout
+   *
+   * The input is written to the process from a pooled thread, so a process that fills its output pipe before reading
+   * all of its input doesn't block. The output is decoded and stripped of color codes as it arrives, and every chunk of
+   * it is also passed to the {@code outputListener}, on the process reader threads.
+   */
+  public @Nullable
+  String executeCommand(@NotNull VimEditor editor,
+                        @NotNull String command,
+                        @Nullable CharSequence input,
+                        @Nullable String currentDirectoryPath,
+                        @Nullable Consumer<String> outputListener)
+    throws ExecutionException, ProcessCanceledException {
+    return executeCommand(editor, command, input, currentDirectoryPath, outputListener,
+                          (output, indicator) -> output.toString());
+  }
+
+  /**
+   * Runs the shell command and passes its output, stderr followed by stdout, to the {@code outputProcessor}
+   *
+   * The processor runs in the same background task as the command, with the indicator of the task, so the work that
+   * it does with the output can be cancelled together with the command. The output it gets is only valid during the
+   * call.
+   */
+  public @Nullable <T> T executeCommand(@NotNull VimEditor editor,
+                                        @NotNull String command,
+                                        @Nullable CharSequence input,
+                                        @Nullable String currentDirectoryPath,
+                                        @Nullable Consumer<String> outputListener,
+                                        @NotNull BiFunction<CharSequence, ProgressIndicator, T> outputProcessor)
+    throws ExecutionException, ProcessCanceledException {
 
     // This is a much simplified version of how Vim does this. We're using stdin/stdout directly, while Vim will
     // redirect to temp files ('shellredir' and 'shelltemp') or use pipes. We don't support 'shellquote', because we're
@@ -219,29 +261,43 @@ public class ProcessGroup extends VimProcessGroupBase {
       if (currentDirectoryPath != null) {
         commandLine.setWorkDirectory(currentDirectoryPath);
       }
-      final CapturingProcessHandler handler = new CapturingProcessHandler(commandLine);
-      if (input != null) {
-        handler.addProcessListener(new ProcessAdapter() {
-          @Override
-          public void startNotified(@NotNull ProcessEvent event) {
-            try {
-              final CharSequenceReader charSequenceReader = new CharSequenceReader(input);
-              final BufferedWriter outputStreamWriter = new BufferedWriter(new OutputStreamWriter(handler.getProcessInput()));
-              copy(charSequenceReader, outputStreamWriter);
-              outputStreamWriter.close();
-            } catch (IOException e) {
-              logger.error(e);
-            }
+      final OSProcessHandler handler = new OSProcessHandler(commandLine);
+      final StringBuilder stdout = new StringBuilder();
+      final StringBuilder stderr = new StringBuilder();
+      final ColorCodeFilter stdoutFilter = new ColorCodeFilter();
+      final ColorCodeFilter stderrFilter = new ColorCodeFilter();
+      handler.addProcessListener(new ProcessAdapter() {
+        @Override
+        public void startNotified(@NotNull ProcessEvent event) {
+          if (input != null) {
+            ApplicationManager.getApplication().executeOnPooledThread(() -> writeInput(handler, input));
           }
-        });
-      }
+        }
+
+        @Override
+        public void onTextAvailable(@NotNull ProcessEvent event, @NotNull Key outputType) {
+          final boolean isStderr = ProcessOutputType.isStderr(outputType);
+          if (!isStderr && !ProcessOutputType.isStdout(outputType)) return;
+
+          final ColorCodeFilter filter = isStderr ? stderrFilter : stdoutFilter;
+          final StringBuilder buffer = isStderr ? stderr : stdout;
+          final String text;
+          synchronized (buffer) {
+            text = filter.filter(event.getText());
+            buffer.append(text);
+          }
+          if (outputListener != null && !text.isEmpty()) {
+            outputListener.accept(text);
+          }
+        }
+      });
 
       final ProgressIndicator progressIndicator = ProgressIndicatorProvider.getInstance().getProgressIndicator();
-      final ProcessOutput output = handler.runProcessWithProgressIndicator(progressIndicator);
+      final boolean cancelled = waitForProcess(handler, progressIndicator);
 
       lastCommand = command;
 
-      if (output.isCancelled()) {
+      if (cancelled) {
         // TODO: Vim will use whatever text has already been written to stdout
         // For whatever reason, we're not getting any here, so just throw an exception
         throw new ProcessCanceledException();
@@ -253,8 +309,16 @@ public class ProcessGroup extends VimProcessGroupBase {
         VimPlugin.indicateError();
       }
 
-      // Get stderr; stdout and strip colors, which are not handles properly.
-      return (output.getStderr() + output.getStdout()).replaceAll("\u001B\\[[;\\d]*m", "");
+      // Get stderr; stdout. Colors are already stripped, as they are not handled properly. The usually short stderr is
+      // put in front of stdout in its own buffer, so the output isn't copied into another one
+      synchronized (stderr) {
+        stderr.append(stderrFilter.flush());
+      }
+      synchronized (stdout) {
+        stdout.append(stdoutFilter.flush());
+        stdout.insert(0, stderr);
+      }
+      return outputProcessor.apply(stdout, progressIndicator != null ? progressIndicator : DumbProgressIndicator.INSTANCE);
     }, "IdeaVim - !" + command, true, ((IjVimEditor) editor).getEditor().getProject());
   }
 
@@ -266,15 +330,89 @@ public class ProcessGroup extends VimProcessGroupBase {
     return result;
   }
 
+  private static void writeInput(@NotNull OSProcessHandler handler, @NotNull CharSequence input) {
+    final Charset charset = handler.getCharset();
+    try (Writer writer = new OutputStreamWriter(handler.getProcessInput(), charset)) {
+      copy(new CharSequenceReader(input), writer);
+    } catch (IOException e) {
+      // The process can exit without reading all of its input, e.g. `head`
+      if (!handler.isProcessTerminating() && !handler.isProcessTerminated()) {
+        logger.error(e);
+      }
+    }
+  }
+
+  /**
+   * Waits for the process to terminate, destroying it if the user cancels the progress
+   *
+   * @return true if the process was cancelled
+   */
+  private static boolean waitForProcess(@NotNull OSProcessHandler handler, @Nullable ProgressIndicator indicator) {
+    handler.startNotify();
+    while (!handler.waitFor(WAIT_INTERVAL_MS)) {
+      if (indicator != null && indicator.isCanceled()) {
+        handler.destroyProcess();
+        handler.waitFor();
+        return true;
+      }
+    }
+    return false;
+  }
+
   // TODO: Java 10 has a transferTo method we could use instead
-  private void copy(@NotNull Reader from, @NotNull Writer to) throws IOException {
-    char[] buf = new char[2048];
+  private static void copy(@NotNull Reader from, @NotNull Writer to) throws IOException {
+    char[] buf = new char[INPUT_CHUNK_SIZE];
     int cnt;
     while ((cnt = from.read(buf)) != -1) {
       to.write(buf, 0, cnt);
     }
   }
 
+  /**
+   * Strips the color codes from the output of a process as it arrives
+   *
+   * A color code can be split between two chunks of output, so an incomplete code at the end of a chunk is held back
+   * until the next chunk.
+   */
+  private static final class ColorCodeFilter {
+    private static final Pattern COLOR_CODE = Pattern.compile("\u001B\\[[;\\d]*m");
+
+    private @NotNull String pending = "";
+
+    @NotNull String filter(@NotNull String text) {
+      final String data = pending.isEmpty() ? text : pending + text;
+      final int escape = data.lastIndexOf('\u001B');
+      if (escape == -1) {
+        pending = "";
+        return data;
+      }
+
+      final int end = isIncompleteColorCode(data, escape) ? escape : data.length();
+      pending = data.substring(end);
+      return COLOR_CODE.matcher(data.substring(0, end)).replaceAll("");
+    }
+
+    @NotNull String flush() {
+      final String rest = pending;
+      pending = "";
+      return rest;
+    }
+
+    private static boolean isIncompleteColorCode(@NotNull String data, int escape) {
+      int i = escape + 1;
+      if (i == data.length()) return true;
+      if (data.charAt(i) != '[') return false;
+      for (i++; i < data.length(); i++) {
+        final char c = data.charAt(i);
+        if (c != ';' && (c < '0' || c > '9')) return false;
+      }
+      return true;
+    }
+  }
+
+  private static final int INPUT_CHUNK_SIZE = 8192;
+  private static final long WAIT_INTERVAL_MS = 100;
+
   private String lastCommand;
 
   private static final Logger logger = Logger.getInstance(ProcessGroup.class.getName());
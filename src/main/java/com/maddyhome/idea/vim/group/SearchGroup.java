@@ -1062,15 +1062,17 @@ public class SearchGroup extends VimSearchGroupBase implements PersistentStateCo
     updateSearchHighlights();
   }
 
-  private void forceUpdateSearchHighlights() {
+  void forceUpdateSearchHighlights() {
     // Sync the search highlights to the current state, potentially hiding or showing highlights. Will always update,
     // even if the pattern hasn't changed.
+    if (VimPlugin.getMacro().deferSearchHighlights()) return;
     SearchHighlightsHelper.updateSearchHighlights(getLastUsedPattern(), lastIgnoreSmartCase, showSearchHighlight, true);
   }
 
   private void updateSearchHighlights() {
     // Sync the search highlights to the current state, potentially hiding or showing highlights. Will only update if
     // the pattern has changed.
+    if (VimPlugin.getMacro().deferSearchHighlights()) return;
     SearchHighlightsHelper.updateSearchHighlights(getLastUsedPattern(), lastIgnoreSmartCase, showSearchHighlight, false);
   }
 
@@ -1130,6 +1132,9 @@ public class SearchGroup extends VimSearchGroupBase implements PersistentStateCo
 
     @Override
     public void documentChanged(@NotNull DocumentEvent event) {
+      // All highlights are synced when the macro playback ends
+      if (VimPlugin.getMacro().deferSearchHighlights()) return;
+
       for (Project project : ProjectManager.getInstance().getOpenProjects()) {
         final Document document = event.getDocument();
 
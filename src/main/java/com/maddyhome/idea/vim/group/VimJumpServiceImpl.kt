@@ -64,7 +64,7 @@ internal class VimJumpServiceImpl : VimJumpServiceBase(), PersistentStateCompone
         Integer.parseInt(jumpElement.getAttributeValue("column")),
         jumpElement.getAttributeValue("filename"),
       )
-      jumps.add(jump)
+      restoreJump(jump)
     }
 
     if (logger.isDebug()) {
@@ -209,8 +209,9 @@ internal class VimMarkServiceImpl : VimMarkServiceBase(), PersistentStateCompone
       if (event.oldLength == 0) return
       val doc = event.document
       val anEditor = getAnEditor(doc) ?: return
-      injector.markService
-        .updateMarksFromDelete(IjVimEditor(anEditor), event.offset, event.oldLength)
+      val vimEditor = IjVimEditor(anEditor)
+      injector.markService.updateMarksFromDelete(vimEditor, event.offset, event.oldLength)
+      injector.jumpService.updateJumpsFromDelete(vimEditor, event.offset, event.oldLength)
     }
 
     /**
@@ -225,8 +226,9 @@ internal class VimMarkServiceImpl : VimMarkServiceBase(), PersistentStateCompone
       if (event.newLength == 0 || event.newLength == 1 && event.newFragment[0] != '\n') return
       val doc = event.document
       val anEditor = getAnEditor(doc) ?: return
-      injector.markService
-        .updateMarksFromInsert(IjVimEditor(anEditor), event.offset, event.newLength)
+      val vimEditor = IjVimEditor(anEditor)
+      injector.markService.updateMarksFromInsert(vimEditor, event.offset, event.newLength)
+      injector.jumpService.updateJumpsFromInsert(vimEditor, event.offset, event.newLength)
     }
 
     private fun getAnEditor(doc: Document): Editor? {
@@ -24,8 +24,8 @@ import com.maddyhome.idea.vim.api.ExecutionContext
 import com.maddyhome.idea.vim.api.VimCaret
 import com.maddyhome.idea.vim.api.VimEditor
 import com.maddyhome.idea.vim.api.getLineEndOffset
-import com.maddyhome.idea.vim.api.globalOptions
 import com.maddyhome.idea.vim.api.injector
+import com.maddyhome.idea.vim.api.optionSnapshot
 import com.maddyhome.idea.vim.api.setChangeMarks
 import com.maddyhome.idea.vim.command.SelectionType
 import com.maddyhome.idea.vim.command.VimStateMachine
@@ -42,7 +42,6 @@ import com.maddyhome.idea.vim.newapi.IjVimCaret
 import com.maddyhome.idea.vim.newapi.IjVimEditor
 import com.maddyhome.idea.vim.newapi.ij
 import com.maddyhome.idea.vim.newapi.vim
-import com.maddyhome.idea.vim.options.OptionConstants
 import com.maddyhome.idea.vim.options.helpers.ClipboardOptionHelper
 import com.maddyhome.idea.vim.put.ProcessedTextData
 import com.maddyhome.idea.vim.put.PutData
@@ -209,7 +208,7 @@ internal class PutGroup : VimPutBase() {
   override fun notifyAboutIdeaPut(editor: VimEditor?) {
     val project = editor?.ij?.project
     if (VimPlugin.getVimState().isIdeaPutNotified || ClipboardOptionHelper.ideaputDisabled ||
-      injector.globalOptions().hasValue(OptionConstants.clipboard, OptionConstants.clipboard_ideaput)
+      injector.optionSnapshot(null).isIdeaPutClipboard
     ) {
       return
     }
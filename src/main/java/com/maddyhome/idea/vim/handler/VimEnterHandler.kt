@@ -18,6 +18,7 @@ import com.maddyhome.idea.vim.api.globalOptions
 import com.maddyhome.idea.vim.api.injector
 import com.maddyhome.idea.vim.api.key
 import com.maddyhome.idea.vim.command.CommandState
+import com.maddyhome.idea.vim.helper.isIdeaVimDisabledHere
 import com.maddyhome.idea.vim.helper.mode
 import com.maddyhome.idea.vim.helper.vimStateMachine
 import com.maddyhome.idea.vim.newapi.runFromVimKey
@@ -47,6 +48,10 @@ internal abstract class OctopusHandler(private val nextHandler: EditorActionHand
   @Suppress("RedundantIf")
   private fun isThisHandlerEnabled(editor: Editor, caret: Caret?, dataContext: DataContext?): Boolean {
     if (!VimPlugin.isEnabled()) return false
+    if (!editor.isIdeaVimDisabledHere) {
+      // The handlers check the mode of the editor
+      VimPlugin.getEditor().ensureEditorStateInitialized(editor)
+    }
     if (!isHandlerEnabled(editor, dataContext)) return false
     if (dataContext?.getData(runFromVimKey) == true) return false
     if (!enableOctopus) return false
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.helper
+
+import com.intellij.openapi.editor.Document
+import com.intellij.openapi.editor.event.DocumentEvent
+import com.intellij.openapi.editor.event.DocumentListener
+import com.maddyhome.idea.vim.common.Direction
+
+/**
+ * Index of the bracket and quote structure of a text, used by the block motions and text objects (`%`, `[(`, `i{`...)
+ *
+ * The index keeps the sorted offsets of all newlines, quotes and block characters (`{}()[]<>`), so a block search
+ *   jumps from one candidate character to the next with a binary search instead of stepping through every character.
+ *   It also caches the quote changes of every line, so [isInString] doesn't rescan the line on each call.
+ *
+ * Both parts are built lazily, only as far as the queries need them. The index of a document is kept in its user data
+ *   and is truncated at the changed offset on every document change (see [Invalidator]), so an edit keeps the part of
+ *   the index that precedes it.
+ */
+internal class BlockStructureIndex(chars: CharSequence) {
+  var chars: CharSequence = chars
+    private set
+
+  /** Sorted offsets of the indexed characters in `[0, scannedTo)` */
+  private var positions = IntArray(INITIAL_CAPACITY)
+  private var size = 0
+  private var scannedTo = 0
+
+  /** Quote changes of a line, keyed by the offset the line scan begins at */
+  private val lineQuoteChanges = HashMap<Int, LineQuoteChanges>()
+
+  private class LineQuoteChanges(val changes: List<QuoteState>, val end: Int)
+
+  val length: Int
+    get() = chars.length
+
+  /**
+   * Returns true if the [pos] is inside a string ([str] is true) or inside a char literal ([str] is false)
+   *
+   * The result is the same as [checkInString] for the indexed text.
+   */
+  fun isInString(pos: Int, str: Boolean): Boolean {
+    val begin = findLineScanBegin(pos)
+    val lineChanges = lineQuoteChanges.getOrPut(begin) {
+      val end = SearchHelper.findPositionOfFirstCharacter(chars, begin, NEWLINE, false, Direction.FORWARDS)?.second
+        ?: chars.length
+      LineQuoteChanges(quoteChanges(chars, begin).toList(), end)
+    }
+    return checkInString(lineChanges.changes, pos, str)
+  }
+
+  /**
+   * Finds the first character from [pos] (inclusive) in the given [direction] that is a quote, a newline, [found] or
+   *   [match]. Escaped characters are not skipped.
+   *
+   * @return the offset of the character or -1 if there is no such character
+   */
+  fun findNextCandidate(pos: Int, found: Char, match: Char, direction: Direction): Int {
+    if (!isIndexed(found) || !isIndexed(match)) {
+      return SearchHelper.findPositionOfFirstCharacter(chars, pos, setOf('\'', '"', '\n', found, match), true, direction)
+        ?.second ?: -1
+    }
+    if (pos < 0 || pos >= chars.length) return -1
+
+    if (direction == Direction.FORWARDS) {
+      ensureScanned(pos + 1)
+      var i = lowerBound(pos)
+      while (true) {
+        if (i == size) {
+          if (scannedTo >= chars.length) return -1
+          ensureScanned(scannedTo + SCAN_CHUNK)
+          continue
+        }
+        val offset = positions[i]
+        if (isCandidate(chars[offset], found, match)) return offset
+        i++
+      }
+    } else {
+      ensureScanned(pos + 1)
+      var i = lowerBound(pos + 1) - 1
+      while (i >= 0) {
+        val offset = positions[i]
+        if (isCandidate(chars[offset], found, match)) return offset
+        i--
+      }
+      return -1
+    }
+  }
+
+  /**
+   * Drops every part of the index that depends on the text at [offset] or after it, and switches the index to the
+   *   [newChars]
+   */
+  fun invalidateFrom(offset: Int, newChars: CharSequence) {
+    chars = newChars
+    size = lowerBound(offset)
+    scannedTo = scannedTo.coerceAtMost(offset)
+    lineQuoteChanges.values.removeIf { it.end >= offset }
+  }
+
+  /**
+   * Finds the offset where [checkInString] starts its line scan: the last unescaped newline at or before [pos], or 0
+   */
+  private fun findLineScanBegin(pos: Int): Int {
+    if (pos < 0 || pos >= chars.length) return 0
+    ensureScanned(pos + 1)
+    var i = lowerBound(pos + 1) - 1
+    while (i >= 0) {
+      val offset = positions[i]
+      if (chars[offset] == '\n' && (offset == 0 || !isEscaped(offset))) return offset
+      i--
+    }
+    return 0
+  }
+
+  private fun isEscaped(pos: Int): Boolean {
+    var backslashCounter = 0
+    var i = pos
+    while (i-- > 0 && chars[i] == '\\') {
+      backslashCounter++
+    }
+    return backslashCounter % 2 != 0
+  }
+
+  private fun ensureScanned(upTo: Int) {
+    val end = upTo.coerceAtMost(chars.length)
+    while (scannedTo < end) {
+      if (isIndexed(chars[scannedTo])) {
+        if (size == positions.size) positions = positions.copyOf(size * 2)
+        positions[size++] = scannedTo
+      }
+      scannedTo++
+    }
+  }
+
+  /** Index of the first position that is greater or equal to [offset] */
+  private fun lowerBound(offset: Int): Int {
+    var low = 0
+    var high = size
+    while (low < high) {
+      val mid = (low + high) ushr 1
+      if (positions[mid] < offset) low = mid + 1 else high = mid
+    }
+    return low
+  }
+
+  object Invalidator : DocumentListener {
+    override fun documentChanged(event: DocumentEvent) {
+      val document = event.document
+      val index = document.vimBlockStructureIndex ?: return
+      index.invalidateFrom(event.offset, document.immutableCharSequence)
+      document.vimBlockStructureIndexStamp = document.modificationStamp
+    }
+  }
+
+  companion object {
+    private const val INITIAL_CAPACITY = 64
+    private const val SCAN_CHUNK = 64 * 1024
+    private const val INDEXED_CHARS = "'\"\n{}()[]<>"
+    private val NEWLINE = setOf('\n')
+
+    private fun isIndexed(c: Char): Boolean = INDEXED_CHARS.indexOf(c) >= 0
+
+    private fun isCandidate(c: Char, found: Char, match: Char): Boolean =
+      c == '\'' || c == '"' || c == '\n' || c == found || c == match
+
+    /**
+     * Returns the index of the [document], reusing the cached one if the document wasn't changed behind the back of
+     *   the [Invalidator]
+     */
+    @JvmStatic
+    fun forDocument(document: Document): BlockStructureIndex {
+      val cached = document.vimBlockStructureIndex
+      if (cached != null && document.vimBlockStructureIndexStamp == document.modificationStamp) {
+        return cached
+      }
+      val index = BlockStructureIndex(document.immutableCharSequence)
+      document.vimBlockStructureIndex = index
+      document.vimBlockStructureIndexStamp = document.modificationStamp
+      return index
+    }
+  }
+}
+
+private var Document.vimBlockStructureIndex: BlockStructureIndex? by userData()
+private var Document.vimBlockStructureIndexStamp: Long? by userData()
@@ -13,6 +13,7 @@ import com.intellij.openapi.editor.CaretVisualAttributes
 import com.intellij.openapi.editor.Editor
 import com.intellij.openapi.editor.ex.EditorEx
 import com.intellij.openapi.editor.ex.EditorSettingsExternalizable
+import com.maddyhome.idea.vim.VimPlugin
 import com.maddyhome.idea.vim.command.VimStateMachine
 import com.maddyhome.idea.vim.newapi.vim
 import com.maddyhome.idea.vim.options.OptionChangeListener
@@ -34,6 +35,8 @@ internal fun Caret.forceBarCursor() {
 }
 
 internal fun Editor.updateCaretsVisualAttributes() {
+  if (VimPlugin.getMacro().deferCaretsVisualAttributes(this)) return
+
   // In notebooks command mode the caret is hidden
   // Without this if the caret appears inside a cell while it shouldn't
   if (!HandlerInjector.notebookCommandMode(this)) {
@@ -22,6 +22,9 @@ internal object DocumentManager {
   init {
     docListeners += VimMarkServiceImpl.MarkUpdater
     docListeners += SearchGroup.DocumentSearchListener.INSTANCE
+    docListeners += BlockStructureIndex.Invalidator
+    docListeners += LineClassificationIndex.Invalidator
+    docListeners += UndoRedoHelper.JournalRecorder
   }
 
   fun addListeners(doc: Document) {
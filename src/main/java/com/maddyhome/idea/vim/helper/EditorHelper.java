@@ -14,6 +14,7 @@ import com.intellij.openapi.editor.ex.util.EditorUtil;
 import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.testFramework.LightVirtualFile;
+import com.maddyhome.idea.vim.VimPlugin;
 import com.maddyhome.idea.vim.api.EngineEditorHelperKt;
 import com.maddyhome.idea.vim.api.VimEditor;
 import com.maddyhome.idea.vim.common.IndentConfig;
@@ -54,6 +55,7 @@ public class EditorHelper {
   }
 
   public static boolean scrollVertically(@NotNull Editor editor, int verticalOffset) {
+    VimPlugin.getMacro().disableScrollAnimation(editor);
     final ScrollingModel scrollingModel = editor.getScrollingModel();
     final Rectangle area = scrollingModel.getVisibleAreaOnScrollingFinished();
     scrollingModel.scroll(area.x, verticalOffset);
@@ -61,36 +63,28 @@ public class EditorHelper {
   }
 
   public static void scrollHorizontally(@NotNull Editor editor, int horizontalOffset) {
+    VimPlugin.getMacro().disableScrollAnimation(editor);
     final ScrollingModel scrollingModel = editor.getScrollingModel();
     final Rectangle area = scrollingModel.getVisibleAreaOnScrollingFinished();
     scrollingModel.scroll(horizontalOffset, area.y);
   }
 
   public static int getVisualLineAtTopOfScreen(final @NotNull Editor editor) {
-    final Rectangle visibleArea = getVisibleArea(editor);
-    return getFullVisualLine(editor, visibleArea.y, visibleArea.y, visibleArea.y + visibleArea.height);
+    return ViewportModel.forEditor(editor).getVisualLineAtTopOfScreen();
   }
 
   public static int getVisualLineAtMiddleOfScreen(final @NotNull Editor editor) {
-    // The editor will return line numbers of virtual space if the text doesn't reach the end of the visible area
-    // (either because it's too short, or it's been scrolled up)
-    final int lastLineBaseline = editor.logicalPositionToXY(new LogicalPosition(new IjVimEditor(editor).lineCount(), 0)).y;
-    final Rectangle visibleArea = getVisibleArea(editor);
-    final int height = min(lastLineBaseline - visibleArea.y, visibleArea.height);
-    return editor.yToVisualLine(visibleArea.y + (height / 2));
+    return ViewportModel.forEditor(editor).getVisualLineAtMiddleOfScreen();
   }
 
   public static int getNonNormalizedVisualLineAtBottomOfScreen(final @NotNull Editor editor) {
     // The editor will return line numbers of virtual space if the text doesn't reach the end of the visible area
     // (either because it's too short, or it's been scrolled up)
-    final Rectangle visibleArea = getVisibleArea(editor);
-    return getFullVisualLine(editor, visibleArea.y + visibleArea.height, visibleArea.y,
-      visibleArea.y + visibleArea.height);
+    return ViewportModel.forEditor(editor).getNonNormalizedVisualLineAtBottomOfScreen();
   }
 
   public static int getVisualLineAtBottomOfScreen(final @NotNull Editor editor) {
-    final int line = getNonNormalizedVisualLineAtBottomOfScreen(editor);
-    return EngineEditorHelperKt.normalizeVisualLine(new IjVimEditor(editor), line);
+    return ViewportModel.forEditor(editor).getVisualLineAtBottomOfScreen();
   }
 
   /**
@@ -142,7 +136,7 @@ public class EditorHelper {
    * @return The number of screen lines
    */
   public static int getApproximateScreenHeight(final @NotNull Editor editor) {
-    return getVisibleArea(editor).height / editor.getLineHeight();
+    return ViewportModel.forEditor(editor).getApproximateScreenHeight();
   }
 
   /**
@@ -156,7 +150,7 @@ public class EditorHelper {
    * @return The number of screen columns
    */
   public static int getApproximateScreenWidth(final @NotNull Editor editor) {
-    return (int) (getVisibleArea(editor).width / getPlainSpaceWidthFloat(editor));
+    return ViewportModel.forEditor(editor).getApproximateScreenWidth();
   }
 
   /**
@@ -170,7 +164,7 @@ public class EditorHelper {
    * @return The width of the space character in the editor's plain font in pixels. It might be a fractional value.
    */
   public static float getPlainSpaceWidthFloat(final @NotNull Editor editor) {
-    return EditorUtil.fontForChar(' ', Font.PLAIN, editor).charWidth2D(' ');
+    return ViewportModel.forEditor(editor).getPlainSpaceWidth();
   }
 
   /**
@@ -181,8 +175,7 @@ public class EditorHelper {
    * @return The visual column number
    */
   public static int getVisualColumnAtLeftOfDisplay(final @NotNull Editor editor, int visualLine) {
-    final Rectangle area = getVisibleArea(editor);
-    return getFullVisualColumn(editor, area.x, editor.visualLineToY(visualLine), area.x, area.x + area.width);
+    return ViewportModel.forEditor(editor).getVisualColumnAtLeftOfDisplay(visualLine);
   }
 
   /**
@@ -193,9 +186,7 @@ public class EditorHelper {
    * @return The visual column number
    */
   public static int getVisualColumnAtRightOfDisplay(final @NotNull Editor editor, int visualLine) {
-    final Rectangle area = getVisibleArea(editor);
-    return getFullVisualColumn(editor, area.x + area.width - 1, editor.visualLineToY(visualLine), area.x,
-      area.x + area.width);
+    return ViewportModel.forEditor(editor).getVisualColumnAtRightOfDisplay(visualLine);
   }
 
   /**
@@ -273,8 +264,9 @@ public class EditorHelper {
     // We try to keep the caret in the same location, but only if there's enough space all around for the line's
     // inlays. E.g. caret on top screen line and the line has inlays above, or caret on bottom screen line and has
     // inlays below
-    final int topInlayHeight = EditorUtil.getInlaysHeight(editor, visualLine, true);
-    final int bottomInlayHeight = EditorUtil.getInlaysHeight(editor, visualLine, false);
+    final ViewportModel viewport = ViewportModel.forEditor(editor);
+    final int topInlayHeight = viewport.getInlaysHeight(visualLine, true);
+    final int bottomInlayHeight = viewport.getInlaysHeight(visualLine, false);
 
     int inlayOffset = 0;
     if (topInlayHeight > caretScreenOffset) {
@@ -285,8 +277,7 @@ public class EditorHelper {
 
     // Scroll the given visual line to the caret location, but do not scroll down passed the end of file, or the current
     // virtual space at the bottom of the screen
-    @NotNull final VimEditor editor1 = new IjVimEditor(editor);
-    final int lastVisualLine = EngineEditorHelperKt.getVisualLineCount(editor1) - 1;
+    final int lastVisualLine = viewport.getVisualLineCount() - 1;
     final int yBottomLineOffset = max(getOffsetToScrollVisualLineToBottomOfScreen(editor, lastVisualLine), visibleArea.y);
     scrollVertically(editor, min(yVisualLine - caretScreenOffset - inlayOffset, yBottomLineOffset));
   }
@@ -301,7 +292,7 @@ public class EditorHelper {
    */
   public static boolean scrollVisualLineToTopOfScreen(final @NotNull Editor editor, int visualLine) {
 
-    final int inlayHeight = EditorUtil.getInlaysHeight(editor, visualLine, true);
+    final int inlayHeight = ViewportModel.forEditor(editor).getInlaysHeight(visualLine, true);
     final int maxInlayHeight = BLOCK_INLAY_MAX_LINE_HEIGHT * editor.getLineHeight();
     int y = editor.visualLineToY(visualLine) - Math.min(inlayHeight, maxInlayHeight);
 
@@ -337,8 +328,7 @@ public class EditorHelper {
     final int lineHeight = editor.getLineHeight();
 
     final int offset = y - ((screenHeight - lineHeight) / lineHeight / 2 * lineHeight);
-    @NotNull final VimEditor editor1 = new IjVimEditor(editor);
-    final int lastVisualLine = EngineEditorHelperKt.getVisualLineCount(editor1) - 1;
+    final int lastVisualLine = ViewportModel.forEditor(editor).getVisualLineCount() - 1;
     final int offsetForLastLineAtBottom = getOffsetToScrollVisualLineToBottomOfScreen(editor, lastVisualLine);
 
     // For `zz`, we want to use virtual space and move any line, including the last one, to the middle of the screen.
@@ -381,7 +371,7 @@ public class EditorHelper {
     // end of the file
     final int lineHeight = editor.getLineHeight();
     final int screenHeight = getVisibleArea(editor).height - exPanelHeight;
-    final int inlayHeight = EditorUtil.getInlaysHeight(editor, nonNormalisedVisualLine, false);
+    final int inlayHeight = ViewportModel.forEditor(editor).getInlaysHeight(nonNormalisedVisualLine, false);
     final int maxInlayHeight = BLOCK_INLAY_MAX_LINE_HEIGHT * lineHeight;
     final int y = editor.visualLineToY(nonNormalisedVisualLine) + lineHeight + min(inlayHeight, maxInlayHeight);
     return max(0, y - screenHeight);
@@ -454,9 +444,9 @@ public class EditorHelper {
    * @return A pair consisting of a flag to show if scrolling was completed, and a visual line to position the cart on
    */
   public static Pair<Boolean, Integer> scrollFullPageDown(final @NotNull Editor editor, int pages) {
+    final ViewportModel viewport = ViewportModel.forEditor(editor);
     final Rectangle visibleArea = getVisibleArea(editor);
-    @NotNull final VimEditor editor2 = new IjVimEditor(editor);
-    final int lastVisualLine = EngineEditorHelperKt.getVisualLineCount(editor2) - 1;
+    final int lastVisualLine = viewport.getVisualLineCount() - 1;
 
     int y = visibleArea.y + visibleArea.height;
     int topBound = visibleArea.y;
@@ -466,14 +456,16 @@ public class EditorHelper {
     boolean completed = true;
 
     for (int i = 0; i < pages; i++) {
-      targetTopVisualLine = getFullVisualLine(editor, y, topBound, bottomBound);
+      // The first page starts at the current bottom line, which the viewport model already knows
+      targetTopVisualLine = i == 0
+                            ? viewport.getNonNormalizedVisualLineAtBottomOfScreen()
+                            : getFullVisualLine(editor, y, topBound, bottomBound);
       if (targetTopVisualLine >= lastVisualLine) {
         // If we're on the last page, end nicely on the last line, otherwise move the caret to the last line of the file
         if (i == pages - 1) {
           caretVisualLine = lastVisualLine;
         } else {
-          @NotNull final VimEditor editor1 = new IjVimEditor(editor);
-          caretVisualLine = EngineEditorHelperKt.getVisualLineCount(editor1) - 1;
+          caretVisualLine = lastVisualLine;
           completed = false;
         }
         targetTopVisualLine = lastVisualLine;
@@ -505,10 +497,10 @@ public class EditorHelper {
    * @return A pair consisting of a flag to show if scrolling was completed, and a visual line to position the cart on
    */
   public static Pair<Boolean, Integer> scrollFullPageUp(final @NotNull Editor editor, int pages) {
+    final ViewportModel viewport = ViewportModel.forEditor(editor);
     final Rectangle visibleArea = getVisibleArea(editor);
     final int lineHeight = editor.getLineHeight();
-    @NotNull final VimEditor editor1 = new IjVimEditor(editor);
-    final int lastVisualLine = EngineEditorHelperKt.getVisualLineCount(editor1) - 1;
+    final int lastVisualLine = viewport.getVisualLineCount() - 1;
 
     int y = visibleArea.y;
     int topBound = visibleArea.y;
@@ -519,7 +511,9 @@ public class EditorHelper {
 
     for (int i = 0; i < pages; i++) {
       // Scrolling up puts the current top line plus one at the bottom of the screen
-      targetBottomVisualLine = getFullVisualLine(editor, y, topBound, bottomBound) + 1;
+      targetBottomVisualLine = (i == 0
+                                ? viewport.getVisualLineAtTopOfScreen()
+                                : getFullVisualLine(editor, y, topBound, bottomBound)) + 1;
       if (targetBottomVisualLine == 1) {
         completed = i == pages - 1;
         break;
@@ -542,7 +536,7 @@ public class EditorHelper {
     return new Pair<>(completed, caretVisualLine);
   }
 
-  private static int getFullVisualLine(final @NotNull Editor editor, int y, int topBound, int bottomBound) {
+  static int getFullVisualLine(final @NotNull Editor editor, int y, int topBound, int bottomBound) {
     // Note that we ignore inlays here. We're interested in the bounds of the text line. Scrolling will handle inlays as
     // it sees fit (e.g. scrolling a line to the bottom will make sure inlays below the line are visible).
     int line = editor.yToVisualLine(y);
@@ -555,7 +549,7 @@ public class EditorHelper {
     return line;
   }
 
-  private static int getFullVisualColumn(final @NotNull Editor editor, int x, int y, int leftBound, int rightBound) {
+  static int getFullVisualColumn(final @NotNull Editor editor, int x, int y, int leftBound, int rightBound) {
     // Mapping XY to a visual position will return the position of the closest character, rather than the position of
     // the character grid that contains the XY. This means two things. Firstly, we don't get back the visual position of
     // an inline inlay, and secondly, we can get the character to the left or right of X. This is the same logic for
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.helper
+
+import com.intellij.openapi.editor.Document
+import com.intellij.openapi.editor.event.DocumentEvent
+import com.intellij.openapi.editor.event.DocumentListener
+
+/**
+ * Classification of the lines of a text, used by the paragraph, section and sentence motions and text objects
+ *   (`{`, `}`, `[[`, `]]`, `(`, `)`, `ip`, `is`...)
+ *
+ * Every line is classified once as empty, blank (whitespace only) or not, and as a section start (`{` or a form feed
+ *   in the first column) or end (`}` or a form feed). The index keeps the sorted numbers of the empty lines, the
+ *   empty or blank lines and the section lines, so finding the next paragraph or section boundary is a binary search
+ *   instead of a check of every line in between.
+ *
+ * The lines are classified lazily, only as far as the queries need them. The index of a document is kept in its user
+ *   data and is truncated at the changed line on every document change (see [Invalidator]).
+ */
+internal class LineClassificationIndex(chars: CharSequence) {
+  private var chars: CharSequence = chars
+
+  /** Flags of the lines `[0, scannedLines)` */
+  private var flags = ByteArray(INITIAL_CAPACITY)
+  private var scannedLines = 0
+
+  /** Start offset of the line [scannedLines], or -1 if all lines are scanned */
+  private var scanOffset = 0
+
+  private val emptyLines = LineList()
+  private val blankLines = LineList()
+  private val sectionStartLines = LineList()
+  private val sectionEndLines = LineList()
+
+  /**
+   * Returns true if the [line] is empty, or whitespace only if [allowBlanks] is true
+   *
+   * The result is the same as `VimEditor.isLineEmpty`, including the lines after the end of the text.
+   */
+  fun isEmpty(line: Int, allowBlanks: Boolean): Boolean {
+    val l = line.coerceAtLeast(0)
+    ensureScanned(l + 1)
+    if (l >= scannedLines) return true
+    val mask = if (allowBlanks) EMPTY or BLANK else EMPTY
+    return flags[l].toInt() and mask != 0
+  }
+
+  /**
+   * Finds the first line from [line] (inclusive) in the direction [dir] that is empty, or whitespace only if
+   *   [allowBlanks] is true
+   *
+   * @return the line number or -1 if there is no such line
+   */
+  fun findEmptyLine(line: Int, dir: Int, allowBlanks: Boolean): Int =
+    find(if (allowBlanks) blankLines else emptyLines, line, dir)
+
+  /**
+   * Finds the first line from [line] (inclusive) in the direction [dir] that starts with [type] (`{` or `}`) or with a
+   *   form feed
+   *
+   * @return the line number or -1 if there is no such line
+   */
+  fun findSectionLine(line: Int, dir: Int, type: Char): Int =
+    find(if (type == '{') sectionStartLines else sectionEndLines, line, dir)
+
+  /** Drops the classification of the [line] and of the lines after it, and switches the index to the [newChars] */
+  fun invalidateFrom(line: Int, lineStartOffset: Int, newChars: CharSequence) {
+    chars = newChars
+    // A change after the scanned lines can't be before the start of the next line to scan, which stays the same
+    if (line >= scannedLines) return
+    scannedLines = line
+    scanOffset = lineStartOffset
+    emptyLines.truncate(line)
+    blankLines.truncate(line)
+    sectionStartLines.truncate(line)
+    sectionEndLines.truncate(line)
+  }
+
+  private fun find(lines: LineList, line: Int, dir: Int): Int {
+    if (line < 0) return -1
+    ensureScanned(line + 1)
+    if (dir > 0) {
+      val i = lines.lowerBound(line)
+      while (i == lines.size) {
+        if (scanOffset == -1) return -1
+        ensureScanned(scannedLines + SCAN_CHUNK)
+      }
+      return lines[i]
+    } else {
+      val i = lines.lowerBound(line + 1) - 1
+      return if (i >= 0) lines[i] else -1
+    }
+  }
+
+  private fun ensureScanned(lineCount: Int) {
+    while (scannedLines < lineCount && scanOffset != -1) {
+      scanLine()
+    }
+  }
+
+  private fun scanLine() {
+    val start = scanOffset
+    val length = chars.length
+    var end = start
+    var whitespaceOnly = true
+    while (end < length && chars[end] != '\n') {
+      if (!Character.isWhitespace(chars[end])) whitespaceOnly = false
+      end++
+    }
+
+    var lineFlags = 0
+    if (start >= length || chars[start] == '\n') {
+      lineFlags = EMPTY
+    } else if (whitespaceOnly && end < length) {
+      // A whitespace only line counts as blank only if it ends with a newline
+      lineFlags = BLANK
+    }
+    if (start < length) {
+      when (chars[start]) {
+        '{' -> lineFlags = lineFlags or SECTION_START
+        '}' -> lineFlags = lineFlags or SECTION_END
+        '\u000C' -> lineFlags = lineFlags or SECTION_START or SECTION_END
+      }
+    }
+
+    val line = scannedLines
+    if (line == flags.size) flags = flags.copyOf(flags.size * 2)
+    flags[line] = lineFlags.toByte()
+    if (lineFlags and EMPTY != 0) emptyLines.add(line)
+    if (lineFlags and (EMPTY or BLANK) != 0) blankLines.add(line)
+    if (lineFlags and SECTION_START != 0) sectionStartLines.add(line)
+    if (lineFlags and SECTION_END != 0) sectionEndLines.add(line)
+    scannedLines++
+    scanOffset = if (end < length) end + 1 else -1
+  }
+
+  /** Growable sorted list of line numbers */
+  private class LineList {
+    private var lines = IntArray(INITIAL_CAPACITY)
+    var size = 0
+      private set
+
+    operator fun get(index: Int) = lines[index]
+
+    fun add(line: Int) {
+      if (size == lines.size) lines = lines.copyOf(size * 2)
+      lines[size++] = line
+    }
+
+    fun truncate(line: Int) {
+      size = lowerBound(line)
+    }
+
+    /** Index of the first line that is greater or equal to [line] */
+    fun lowerBound(line: Int): Int {
+      var low = 0
+      var high = size
+      while (low < high) {
+        val mid = (low + high) ushr 1
+        if (lines[mid] < line) low = mid + 1 else high = mid
+      }
+      return low
+    }
+  }
+
+  object Invalidator : DocumentListener {
+    override fun documentChanged(event: DocumentEvent) {
+      val document = event.document
+      val index = document.vimLineClassificationIndex ?: return
+      // The text before the change is the same, so the changed line has the same number and start offset
+      val line = document.getLineNumber(event.offset)
+      index.invalidateFrom(line, document.getLineStartOffset(line), document.immutableCharSequence)
+      document.vimLineClassificationIndexStamp = document.modificationStamp
+    }
+  }
+
+  companion object {
+    private const val INITIAL_CAPACITY = 64
+    private const val SCAN_CHUNK = 1024
+
+    private const val EMPTY = 1
+    private const val BLANK = 2
+    private const val SECTION_START = 4
+    private const val SECTION_END = 8
+
+    /**
+     * Returns the index of the [document], reusing the cached one if the document wasn't changed behind the back of
+     *   the [Invalidator]
+     */
+    @JvmStatic
+    fun forDocument(document: Document): LineClassificationIndex {
+      val cached = document.vimLineClassificationIndex
+      if (cached != null && document.vimLineClassificationIndexStamp == document.modificationStamp) {
+        return cached
+      }
+      val index = LineClassificationIndex(document.immutableCharSequence)
+      document.vimLineClassificationIndex = index
+      document.vimLineClassificationIndexStamp = document.modificationStamp
+      return index
+    }
+  }
+}
+
+private var Document.vimLineClassificationIndex: LineClassificationIndex? by userData()
+private var Document.vimLineClassificationIndexStamp: Long? by userData()
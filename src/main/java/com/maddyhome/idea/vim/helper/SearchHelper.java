@@ -16,6 +16,7 @@ import com.intellij.lang.LanguageCommenters;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.Caret;
 import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.psi.PsiComment;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
@@ -46,7 +47,6 @@ import java.util.regex.Pattern;
 
 import static com.maddyhome.idea.vim.api.VimInjectorKt.globalOptions;
 import static com.maddyhome.idea.vim.api.VimInjectorKt.injector;
-import static com.maddyhome.idea.vim.helper.SearchHelperKtKt.checkInString;
 import static com.maddyhome.idea.vim.helper.SearchHelperKtKt.shouldIgnoreCase;
 
 /**
@@ -76,6 +76,27 @@ public class SearchHelper {
                                       int startOffset,
                                       int count,
                                       EnumSet<SearchOptions> searchOptions) {
+    return findPattern(editor, pattern, startOffset, count, searchOptions, false);
+  }
+
+  /**
+   * Find text matching the given pattern.
+   *
+   * @param editor        The editor to search in
+   * @param pattern       The pattern to search for
+   * @param startOffset   The offset to start searching from
+   * @param count         Find the nth next occurrence of the pattern. Must be 1 or greater.
+   * @param searchOptions A set of options, such as direction and wrap
+   * @param cancellable   If true, the search checks the current progress for cancellation before each line
+   * @return A TextRange representing the result, or null
+   */
+  @Nullable
+  public static TextRange findPattern(@NotNull Editor editor,
+                                      @Nullable String pattern,
+                                      int startOffset,
+                                      int count,
+                                      EnumSet<SearchOptions> searchOptions,
+                                      boolean cancellable) {
     if (pattern == null || pattern.length() == 0) {
       logger.warn("Pattern is null or empty. Cannot perform search");
       return null;
@@ -157,6 +178,8 @@ public class SearchHelper {
           endLine = lnum + 1;
         }
         for (; lnum >= startLine && lnum < endLine; lnum += dir.toInt(), at_first_line = false) {
+          if (cancellable) ProgressManager.checkCanceled();
+
           /*
            * Look for a match somewhere in the line.
            */
@@ -357,6 +380,27 @@ public class SearchHelper {
                           int startLine,
                           int endLine,
                           boolean ignoreCase) {
+    return findAll(editor, pattern, startLine, endLine, ignoreCase, false);
+  }
+
+  /**
+   * Find all occurrences of the pattern.
+   *
+   * @param editor      The editor to search in
+   * @param pattern     The pattern to search for
+   * @param startLine   The start line of the range to search for
+   * @param endLine     The end line of the range to search for, or -1 for the whole document
+   * @param ignoreCase  Case sensitive or insensitive searching
+   * @param cancellable If true, the search checks the current progress for cancellation before each line
+   * @return A list of TextRange objects representing the results
+   */
+  public static @NotNull
+  List<TextRange> findAll(@NotNull Editor editor,
+                          @NotNull String pattern,
+                          int startLine,
+                          int endLine,
+                          boolean ignoreCase,
+                          boolean cancellable) {
     final List<TextRange> results = Lists.newArrayList();
     final int lineCount = new IjVimEditor(editor).lineCount();
     final int actualEndLine = endLine == -1 ? lineCount - 1 : endLine;
@@ -372,6 +416,7 @@ public class SearchHelper {
 
     int col = 0;
     for (int line = startLine; line <= actualEndLine; ) {
+      if (cancellable) ProgressManager.checkCanceled();
       int matchedLines = regExp.vim_regexec_multi(regMatch, new IjVimEditor(editor), lineCount, line, col);
       if (matchedLines > 0) {
         final CharacterPosition startPos = new CharacterPosition(line + regMatch.startpos[0].lnum,
@@ -400,21 +445,20 @@ public class SearchHelper {
 
   public static int findSection(@NotNull Editor editor, @NotNull Caret caret, char type, int dir, int count) {
     CharSequence chars = editor.getDocument().getCharsSequence();
+    LineClassificationIndex index = LineClassificationIndex.forDocument(editor.getDocument());
     int line = caret.getLogicalPosition().line + dir;
     int maxline = new IjVimEditor(editor).lineCount();
     int res = -1;
 
     while (line > 0 && line < maxline && count > 0) {
-      int offset = new IjVimEditor(editor).getLineStartOffset(line);
-      if (offset < chars.length()) { // This if was added because of exception and here might be different logic
-        char ch = chars.charAt(offset);
-        if (ch == type || ch == '\u000C') {
-          res = offset;
-          count--;
-        }
+      int found = index.findSectionLine(line, dir, type);
+      if (found <= 0 || found >= maxline) {
+        break;
       }
 
-      line += dir;
+      res = editor.getDocument().getLineStartOffset(found);
+      count--;
+      line = found + dir;
     }
 
     if (res == -1) {
@@ -437,7 +481,8 @@ public class SearchHelper {
     if (pos < chars.length() && chars.charAt(pos) == type) {
       pos += dir.toInt();
     }
-    return findBlockLocation(chars, found, match, dir, pos, count, false);
+    return findBlockLocation(BlockStructureIndex.forDocument(editor.getDocument()), found, match, dir, pos, count,
+                             false);
   }
 
   public static @Nullable
@@ -479,7 +524,8 @@ public class SearchHelper {
      * shifting the position allow to express which kind of interval we work on */
     if (rangeSelection) pos = Math.max(0, start - 1);
 
-    boolean initialPosIsInString = checkInString(chars, pos, true);
+    BlockStructureIndex index = BlockStructureIndex.forDocument(editor.getDocument());
+    boolean initialPosIsInString = index.isInString(pos, true);
 
     int bstart = -1;
     int bend = -1;
@@ -492,15 +538,16 @@ public class SearchHelper {
       if (quoteRange != null) {
         int startOffset = quoteRange.getStartOffset();
         int endOffset = quoteRange.getEndOffset();
-        CharSequence subSequence = chars.subSequence(startOffset, endOffset);
+        BlockStructureIndex inQuoteIndex = new BlockStructureIndex(chars.subSequence(startOffset, endOffset));
         int inQuotePos = pos - startOffset;
-        int inQuoteStart = findBlockLocation(subSequence, close, type, Direction.BACKWARDS, inQuotePos, count, false);
+        int inQuoteStart =
+          findBlockLocation(inQuoteIndex, close, type, Direction.BACKWARDS, inQuotePos, count, false);
         if (inQuoteStart == -1) {
-          inQuoteStart = findBlockLocation(subSequence, close, type, Direction.FORWARDS, inQuotePos, count, false);
+          inQuoteStart = findBlockLocation(inQuoteIndex, close, type, Direction.FORWARDS, inQuotePos, count, false);
         }
         if (inQuoteStart != -1) {
           startPosInStringFound = true;
-          int inQuoteEnd = findBlockLocation(subSequence, type, close, Direction.FORWARDS, inQuoteStart, 1, false);
+          int inQuoteEnd = findBlockLocation(inQuoteIndex, type, close, Direction.FORWARDS, inQuoteStart, 1, false);
           if (inQuoteEnd != -1) {
             bstart = inQuoteStart + startOffset;
             bend = inQuoteEnd + startOffset;
@@ -510,12 +557,12 @@ public class SearchHelper {
     }
 
     if (!startPosInStringFound) {
-      bstart = findBlockLocation(chars, close, type, Direction.BACKWARDS, pos, count, false);
+      bstart = findBlockLocation(index, close, type, Direction.BACKWARDS, pos, count, false);
       if (bstart == -1) {
-        bstart = findBlockLocation(chars, close, type, Direction.FORWARDS, pos, count, false);
+        bstart = findBlockLocation(index, close, type, Direction.FORWARDS, pos, count, false);
       }
       if (bstart != -1) {
-        bend = findBlockLocation(chars, type, close, Direction.FORWARDS, bstart, 1, false);
+        bend = findBlockLocation(index, type, close, Direction.FORWARDS, bstart, 1, false);
       }
     }
 
@@ -632,7 +679,7 @@ public class SearchHelper {
       // Which character did we find and which should we now search for
       char found = getPairChars().charAt(loc);
       char match = getPairChars().charAt(loc + dir.toInt());
-      res = findBlockLocation(chars, found, match, dir, pos, 1, true);
+      res = findBlockLocation(BlockStructureIndex.forDocument(editor.getDocument()), found, match, dir, pos, 1, true);
     }
 
     return res;
@@ -652,30 +699,29 @@ public class SearchHelper {
     return -1;
   }
 
-  private static int findBlockLocation(@NotNull CharSequence chars,
+  private static int findBlockLocation(@NotNull BlockStructureIndex index,
                                        char found,
                                        char match,
                                        @NotNull Direction dir,
                                        int pos,
                                        int cnt,
                                        boolean allowInString) {
+    CharSequence chars = index.getChars();
     int res = -1;
     int initialPos = pos;
     Function<Integer, Integer> inCheckPosF = x -> dir == Direction.BACKWARDS && x > 0 ? x - 1 : x + 1;
     final int inCheckPos = inCheckPosF.apply(pos);
-    boolean inString = checkInString(chars, inCheckPos, true);
+    boolean inString = index.isInString(inCheckPos, true);
     boolean initialInString = inString;
-    boolean inChar = checkInString(chars, inCheckPos, false);
+    boolean inChar = index.isInString(inCheckPos, false);
     int stack = 0;
     // Search to start or end of file, as appropriate
-    Set<Character> charsToSearch = new HashSet<>(Arrays.asList('\'', '"', '\n', match, found));
     while (pos >= 0 && pos < chars.length() && cnt > 0) {
-      @Nullable Pair<Character, Integer> ci = findPositionOfFirstCharacter(chars, pos, charsToSearch, true, dir);
-      if (ci == null) {
+      pos = index.findNextCandidate(pos, found, match, dir);
+      if (pos == -1) {
         return -1;
       }
-      Character c = ci.getFirst();
-      pos = ci.getSecond();
+      char c = chars.charAt(pos);
       // If we found a match and we're not in a string...
       if (c == match && (allowInString ? initialInString == inString : !inString) && !inChar) {
         // We found our match
@@ -699,9 +745,9 @@ public class SearchHelper {
         }
         // We found the start/end of a string
         else if (!inChar) {
-          inString = checkInString(chars, inCheckPosF.apply(pos), true);
+          inString = index.isInString(inCheckPosF.apply(pos), true);
         } else if (!inString) {
-          inChar = checkInString(chars, inCheckPosF.apply(pos), false);
+          inChar = index.isInString(inCheckPosF.apply(pos), false);
         }
       }
       pos += dir.toInt();
@@ -1017,56 +1063,72 @@ public class SearchHelper {
     return new CountPosition(count, position);
   }
 
-  public static @NotNull
-  List<Pair<TextRange, NumberType>> findNumbersInRange(final @NotNull Editor editor,
-                                                       @NotNull TextRange textRange,
-                                                       final boolean alpha,
-                                                       final boolean hex,
-                                                       final boolean octal) {
-    List<Pair<TextRange, NumberType>> result = new ArrayList<>();
-
+  /**
+   * Offsets and types of the numbers found by {@link #findNumbersInRange}, kept in primitive arrays
+   */
+  public static final class NumberRanges {
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private NumberType[] types = new NumberType[16];
+    private int size = 0;
 
-    for (int i = 0; i < textRange.size(); i++) {
-      int startOffset = textRange.getStartOffsets()[i];
-      final int end = textRange.getEndOffsets()[i];
-      String text = EngineEditorHelperKt.getText(new IjVimEditor(editor), startOffset, end);
-      String[] textChunks = text.split("\\n");
-      int chunkStart = 0;
-      for (String chunk : textChunks) {
-        Pair<TextRange, NumberType> number = findNumberInText(chunk, 0, alpha, hex, octal);
-
-        if (number != null) {
-          result.add(new Pair<>(new TextRange(number.getFirst().getStartOffset() + startOffset + chunkStart,
-            number.getFirst().getEndOffset() + startOffset + chunkStart),
-            number.getSecond()));
-        }
-        chunkStart += 1 + chunk.length();
-      }
+    public int size() {
+      return size;
     }
 
-    /*
-
-
-    int firstLine = editor.offsetToLogicalPosition(textRange.getStartOffset()).line;
-    int lastLine = editor.offsetToLogicalPosition(textRange.getEndOffset()).line;
-
-    int startOffset = textRange.getStartOffset();
-    for (int lineNumber = firstLine; lineNumber <= lastLine; lineNumber++) {
-      int endOffset = EditorHelper.getLineEndOffset(editor, lineNumber, true);
-      if (endOffset > textRange.getEndOffset()) endOffset = textRange.getEndOffset();
+    public int getStartOffset(int index) {
+      return starts[index];
+    }
 
-      String text = EditorHelper.getText(editor, startOffset, endOffset);
+    public int getEndOffset(int index) {
+      return ends[index];
+    }
 
-      TextRange numberRange = findNumberInText(text, 0, alpha, hex, octal);
+    public @NotNull NumberType getType(int index) {
+      return types[index];
+    }
 
-      if (numberRange == null) continue;
+    private void add(int start, int end, @NotNull NumberType type) {
+      if (size == starts.length) {
+        starts = Arrays.copyOf(starts, size * 2);
+        ends = Arrays.copyOf(ends, size * 2);
+        types = Arrays.copyOf(types, size * 2);
+      }
+      starts[size] = start;
+      ends[size] = end;
+      types[size] = type;
+      size++;
+    }
+  }
 
-      result.add(new TextRange(numberRange.getStartOffset() + startOffset, numberRange.getEndOffset() + startOffset));
+  /**
+   * Finds the first number on every line of every part of the range
+   *
+   * The document is scanned in place in a single pass, without copying the text of the range.
+   */
+  public static @NotNull
+  NumberRanges findNumbersInRange(final @NotNull Editor editor,
+                                  @NotNull TextRange textRange,
+                                  final boolean alpha,
+                                  final boolean hex,
+                                  final boolean octal) {
+    final CharSequence chars = editor.getDocument().getCharsSequence();
+    final NumberRanges result = new NumberRanges();
+    final int[] starts = textRange.getStartOffsets();
+    final int[] ends = textRange.getEndOffsets();
 
-      startOffset = endOffset + 1;
+    for (int i = 0; i < textRange.size(); i++) {
+      final int end = ends[i];
+      int chunkStart = starts[i];
+      while (chunkStart < end) {
+        int chunkEnd = chunkStart;
+        while (chunkEnd < end && chars.charAt(chunkEnd) != '\n') {
+          chunkEnd++;
+        }
+        findNumber(chars, chunkStart, chunkEnd, chunkStart, alpha, hex, octal, result);
+        chunkStart = chunkEnd + 1;
+      }
     }
-
-    */
     return result;
   }
 
@@ -1109,42 +1171,62 @@ public class SearchHelper {
       logger.debug("text=" + textInRange);
     }
 
-    int pos = startPosOnLine;
-    int lineEndOffset = textInRange.length();
+    final NumberRanges result = new NumberRanges();
+    if (!findNumber(textInRange, 0, textInRange.length(), startPosOnLine, alpha, hex, octal, result)) {
+      return null;
+    }
+    return new Pair<>(new TextRange(result.getStartOffset(0), result.getEndOffset(0)), result.getType(0));
+  }
+
+  /**
+   * Searches for a number in {@code [from, to)} of the text, starting at the given position, and adds it to the result
+   *
+   * The text outside of {@code [from, to)} is never read, so the bounds act as the start and the end of the text.
+   *
+   * @return true if a number was found
+   */
+  private static boolean findNumber(final @NotNull CharSequence text,
+                                    final int from,
+                                    final int to,
+                                    final int startPos,
+                                    final boolean alpha,
+                                    final boolean hex,
+                                    final boolean octal,
+                                    final @NotNull NumberRanges result) {
+    int pos = startPos;
 
     while (true) {
       // Skip over current whitespace if any
-      while (pos < lineEndOffset && !isNumberChar(textInRange.charAt(pos), alpha, hex, octal, true)) {
+      while (pos < to && !isNumberChar(text.charAt(pos), alpha, hex, octal, true)) {
         pos++;
       }
 
       if (logger.isDebugEnabled()) logger.debug("pos=" + pos);
-      if (pos >= lineEndOffset) {
+      if (pos >= to) {
         logger.debug("no number char on line");
-        return null;
+        return false;
       }
 
-      boolean isHexChar = "abcdefABCDEF".indexOf(textInRange.charAt(pos)) >= 0;
+      boolean isHexChar = isHexLetter(text.charAt(pos));
 
       if (hex) {
         // Ox and OX handling
-        if (textInRange.charAt(pos) == '0' &&
-          pos < lineEndOffset - 1 &&
-          "xX".indexOf(textInRange.charAt(pos + 1)) >= 0) {
+        if (text.charAt(pos) == '0' && pos < to - 1 && isHexPrefixChar(text.charAt(pos + 1))) {
           pos += 2;
-        } else if ("xX".indexOf(textInRange.charAt(pos)) >= 0 && pos > 0 && textInRange.charAt(pos - 1) == '0') {
+        } else if (isHexPrefixChar(text.charAt(pos)) && pos > from && text.charAt(pos - 1) == '0') {
           pos++;
         }
 
         logger.debug("checking hex");
-        final Pair<Integer, Integer> range = findRange(textInRange, pos, false, true, false, false);
-        int start = range.getFirst();
-        int end = range.getSecond();
+        final long range = findRange(text, from, to, pos, false, true, false, false);
+        int start = rangeStart(range);
+        int end = rangeEnd(range);
 
         // Ox and OX
-        if (start >= 2 && textInRange.substring(start - 2, start).equalsIgnoreCase("0x")) {
+        if (start >= from + 2 && text.charAt(start - 2) == '0' && isHexPrefixChar(text.charAt(start - 1))) {
           logger.debug("found hex");
-          return new Pair<>(new TextRange(start - 2, end), NumberType.HEX);
+          result.add(start - 2, end, NumberType.HEX);
+          return true;
         }
 
         if (!isHexChar || alpha) {
@@ -1159,70 +1241,97 @@ public class SearchHelper {
 
     if (octal) {
       logger.debug("checking octal");
-      final Pair<Integer, Integer> range = findRange(textInRange, pos, false, false, true, false);
-      int start = range.getFirst();
-      int end = range.getSecond();
+      final long range = findRange(text, from, to, pos, false, false, true, false);
+      int start = rangeStart(range);
+      int end = rangeEnd(range);
 
-      if (end - start == 1 && textInRange.charAt(start) == '0') {
-        return new Pair<>(new TextRange(start, end), NumberType.DEC);
+      if (end - start == 1 && text.charAt(start) == '0') {
+        result.add(start, end, NumberType.DEC);
+        return true;
       }
-      if (textInRange.charAt(start) == '0' &&
+      if (text.charAt(start) == '0' &&
         end > start &&
-        !(start > 0 && isNumberChar(textInRange.charAt(start - 1), false, false, false, true))) {
+        !(start > from && isNumberChar(text.charAt(start - 1), false, false, false, true))) {
         logger.debug("found octal");
-        return new Pair<>(new TextRange(start, end), NumberType.OCT);
+        result.add(start, end, NumberType.OCT);
+        return true;
       }
     }
 
     if (alpha) {
-      if (logger.isDebugEnabled()) logger.debug("checking alpha for " + textInRange.charAt(pos));
-      if (isNumberChar(textInRange.charAt(pos), true, false, false, false)) {
+      if (logger.isDebugEnabled()) logger.debug("checking alpha for " + text.charAt(pos));
+      if (isNumberChar(text.charAt(pos), true, false, false, false)) {
         if (logger.isDebugEnabled()) logger.debug("found alpha at " + pos);
-        return new Pair<>(new TextRange(pos, pos + 1), NumberType.ALPHA);
+        result.add(pos, pos + 1, NumberType.ALPHA);
+        return true;
       }
     }
 
-    final Pair<Integer, Integer> range = findRange(textInRange, pos, false, false, false, true);
-    int start = range.getFirst();
-    int end = range.getSecond();
-    if (start > 0 && textInRange.charAt(start - 1) == '-') {
+    final long range = findRange(text, from, to, pos, false, false, false, true);
+    int start = rangeStart(range);
+    int end = rangeEnd(range);
+    if (start > from && text.charAt(start - 1) == '-') {
       start--;
     }
 
-    return new Pair<>(new TextRange(start, end), NumberType.DEC);
+    result.add(start, end, NumberType.DEC);
+    return true;
   }
 
   /**
    * Searches for digits block that matches parameters
+   *
+   * @return the start and the end of the block, packed with {@link #packRange}
    */
-  private static @NotNull
-  Pair<Integer, Integer> findRange(final @NotNull String text,
-                                   final int pos,
-                                   final boolean alpha,
-                                   final boolean hex,
-                                   final boolean octal,
-                                   final boolean decimal) {
+  private static long findRange(final @NotNull CharSequence text,
+                                final int from,
+                                final int to,
+                                final int pos,
+                                final boolean alpha,
+                                final boolean hex,
+                                final boolean octal,
+                                final boolean decimal) {
     int end = pos;
-    while (end < text.length() && isNumberChar(text.charAt(end), alpha, hex, octal, decimal || octal)) {
+    while (end < to && isNumberChar(text.charAt(end), alpha, hex, octal, decimal || octal)) {
       end++;
     }
     int start = pos;
-    while (start >= 0 && isNumberChar(text.charAt(start), alpha, hex, octal, decimal || octal)) {
+    while (start >= from && start < to && isNumberChar(text.charAt(start), alpha, hex, octal, decimal || octal)) {
       start--;
     }
     if (start < end &&
-      (start == -1 ||
-        0 <= start &&
-          start < text.length() &&
+      (start == from - 1 ||
+        from <= start &&
+          start < to &&
           !isNumberChar(text.charAt(start), alpha, hex, octal, decimal || octal))) {
       start++;
     }
     if (octal) {
       for (int i = start; i < end; i++) {
-        if (!isNumberChar(text.charAt(i), false, false, true, false)) return new Pair<>(0, 0);
+        if (!isNumberChar(text.charAt(i), false, false, true, false)) return packRange(from, from);
       }
     }
-    return new Pair<>(start, end);
+    return packRange(start, end);
+  }
+
+  private static long packRange(int start, int end) {
+    return ((long) start << 32) | (end & 0xFFFFFFFFL);
+  }
+
+  private static int rangeStart(long range) {
+    return (int) (range >>> 32);
+  }
+
+  private static int rangeEnd(long range) {
+    return (int) range;
+  }
+
+  private static boolean isHexLetter(char ch) {
+    return (ch >= 'a' && ch <= 'f') || (ch >= 'A' && ch <= 'F');
+  }
+
+  private static boolean isHexPrefixChar(char ch) {
+    return ch == 'x' || ch == 'X';
   }
 
   private static boolean isNumberChar(char ch, boolean alpha, boolean hex, boolean octal, boolean decimal) {
@@ -1230,7 +1339,7 @@ public class SearchHelper {
       return true;
     } else if (octal && (ch >= '0' && ch <= '7')) {
       return true;
-    } else if (hex && ((ch >= '0' && ch <= '9') || "abcdefABCDEF".indexOf(ch) >= 0)) {
+    } else if (hex && ((ch >= '0' && ch <= '9') || isHexLetter(ch))) {
       return true;
     } else {
       return decimal && (ch >= '0' && ch <= '9');
@@ -1263,9 +1372,7 @@ public class SearchHelper {
       CharacterHelper.CharacterType type = CharacterHelper.charType(chars.charAt(start), false);
       if (type == types[i]) {
         // Search back for start of word
-        while (start > 0 && CharacterHelper.charType(chars.charAt(start - 1), false) == types[i]) {
-          start--;
-        }
+        start = CharacterHelper.skipCharType(chars, start - 1, -1, -1, types[i], false) + 1;
       } else {
         // Search forward for start of word
         while (start < stop && CharacterHelper.charType(chars.charAt(start), false) != types[i]) {
@@ -1995,27 +2102,20 @@ public class SearchHelper {
                                            boolean allowBlanks,
                                            boolean skipLines) {
     int maxline = new IjVimEditor(editor).lineCount();
-    int res = -1;
 
     line = skipEmptyLines(editor, line, dir, allowBlanks);
-    while (line >= 0 && line < maxline && res == -1) {
-      if (EngineEditorHelperKt.isLineEmpty(new IjVimEditor(editor), line, allowBlanks)) {
-        res = line;
-        if (skipLines) {
-          line = skipEmptyLines(editor, line, dir, allowBlanks);
-        }
-      }
-
-      line += dir;
+    if (line < 0 || line >= maxline) {
+      return -1;
     }
 
-    return res;
+    int res = LineClassificationIndex.forDocument(editor.getDocument()).findEmptyLine(line, dir, allowBlanks);
+    return res < maxline ? res : -1;
   }
 
   private static int skipEmptyLines(@NotNull Editor editor, int line, int dir, boolean allowBlanks) {
     int maxline = new IjVimEditor(editor).lineCount();
     while (line >= 0 && line < maxline) {
-      if (!EngineEditorHelperKt.isLineEmpty(new IjVimEditor(editor), line, allowBlanks)) {
+      if (!isLineEmpty(editor, line, allowBlanks)) {
         return line;
       }
 
@@ -2025,6 +2125,10 @@ public class SearchHelper {
     return line;
   }
 
+  private static boolean isLineEmpty(@NotNull Editor editor, int line, boolean allowBlanks) {
+    return LineClassificationIndex.forDocument(editor.getDocument()).isEmpty(line, allowBlanks);
+  }
+
   public static @Nullable
   TextRange findParagraphRange(@NotNull Editor editor,
                                @NotNull Caret caret,
@@ -2038,7 +2142,7 @@ public class SearchHelper {
     boolean fixstart = false;
     boolean fixend = false;
     if (isOuter) {
-      if (EngineEditorHelperKt.isLineEmpty(new IjVimEditor(editor), line, true)) {
+      if (isLineEmpty(editor, line, true)) {
         sline = line;
       } else {
         sline = findNextParagraphLine(editor, caret, -1, true);
@@ -2049,8 +2153,8 @@ public class SearchHelper {
         return null;
       }
 
-      if (EngineEditorHelperKt.isLineEmpty(new IjVimEditor(editor), sline, true) &&
-        EngineEditorHelperKt.isLineEmpty(new IjVimEditor(editor), eline, true)) {
+      if (isLineEmpty(editor, sline, true) &&
+        isLineEmpty(editor, eline, true)) {
         if (sline == line) {
           eline--;
           fixstart = true;
@@ -2058,25 +2162,25 @@ public class SearchHelper {
           sline++;
           fixend = true;
         }
-      } else if (!EngineEditorHelperKt.isLineEmpty(new IjVimEditor(editor), eline, true) &&
-        !EngineEditorHelperKt.isLineEmpty(new IjVimEditor(editor), sline, true) &&
+      } else if (!isLineEmpty(editor, eline, true) &&
+        !isLineEmpty(editor, sline, true) &&
         sline > 0) {
         sline--;
         fixstart = true;
       } else {
-        if (EngineEditorHelperKt.isLineEmpty(new IjVimEditor(editor), eline, true)) {
+        if (isLineEmpty(editor, eline, true)) {
           fixend = true;
         } else {
-          if (EngineEditorHelperKt.isLineEmpty(new IjVimEditor(editor), sline, true)) {
+          if (isLineEmpty(editor, sline, true)) {
             fixstart = true;
           }
         }
       }
     } else {
       sline = line;
-      if (!EngineEditorHelperKt.isLineEmpty(new IjVimEditor(editor), sline, true)) {
+      if (!isLineEmpty(editor, sline, true)) {
         sline = findNextParagraphLine(editor, caret, -1, true);
-        if (EngineEditorHelperKt.isLineEmpty(new IjVimEditor(editor), sline, true)) {
+        if (isLineEmpty(editor, sline, true)) {
           sline++;
         }
         eline = line;
@@ -2084,7 +2188,7 @@ public class SearchHelper {
         eline = line - 1;
       }
 
-      int which = EngineEditorHelperKt.isLineEmpty(new IjVimEditor(editor), sline, true) ? 0 : 1;
+      int which = isLineEmpty(editor, sline, true) ? 0 : 1;
       for (int i = 0; i < count; i++) {
         if (which % 2 == 1) {
           eline = findNextParagraphLine(editor, eline, 1, true, false) - 1;
@@ -2105,9 +2209,9 @@ public class SearchHelper {
     }
 
     if (fixstart) {
-      if (EngineEditorHelperKt.isLineEmpty(new IjVimEditor(editor), sline, true)) {
+      if (isLineEmpty(editor, sline, true)) {
         while (sline > 0) {
-          if (EngineEditorHelperKt.isLineEmpty(new IjVimEditor(editor), sline - 1, true)) {
+          if (isLineEmpty(editor, sline - 1, true)) {
             sline--;
           } else {
             break;
@@ -2117,9 +2221,9 @@ public class SearchHelper {
     }
 
     if (fixend) {
-      if (EngineEditorHelperKt.isLineEmpty(new IjVimEditor(editor), eline, true)) {
+      if (isLineEmpty(editor, eline, true)) {
         while (eline < maxline - 1) {
-          if (EngineEditorHelperKt.isLineEmpty(new IjVimEditor(editor), eline + 1, true)) {
+          if (isLineEmpty(editor, eline + 1, true)) {
             eline++;
           } else {
             break;
@@ -14,32 +14,39 @@ import com.maddyhome.idea.vim.common.Direction
 import com.maddyhome.idea.vim.helper.SearchHelper.findPositionOfFirstCharacter
 import com.maddyhome.idea.vim.options.OptionConstants
 
-private data class State(val position: Int, val trigger: Char, val inQuote: Boolean?, val lastOpenSingleQuotePos: Int)
+internal data class QuoteState(
+  val position: Int,
+  val trigger: Char,
+  val inQuote: Boolean?,
+  val lastOpenSingleQuotePos: Int,
+)
 
 // bounds are considered inside corresponding quotes
 internal fun checkInString(chars: CharSequence, currentPos: Int, str: Boolean): Boolean {
   val begin = findPositionOfFirstCharacter(chars, currentPos, setOf('\n'), false, Direction.BACKWARDS)?.second ?: 0
-  val changes = quoteChanges(chars, begin)
-  // TODO: here we need to keep only the latest element in beforePos (if any) and
-  //   don't need atAndAfterPos to be eagerly collected
-  var (beforePos, atAndAfterPos) = changes.partition { it.position < currentPos }
+  return checkInString(quoteChanges(chars, begin).toList(), currentPos, str)
+}
 
-  var (atPos, afterPos) = atAndAfterPos.partition { it.position == currentPos }
-  assert(atPos.size <= 1) { "Multiple characters at position $currentPos in string $chars" }
-  if (atPos.isNotEmpty()) {
-    val atPosChange = atPos[0]
-    if (afterPos.isEmpty()) {
-      // it is situation when cursor is on closing quote, so we must consider that we are inside quotes pair
-      afterPos = afterPos.toMutableList()
-      afterPos.add(atPosChange)
-    } else {
+/**
+ * Same as [checkInString], but works with the precomputed quote changes of the line (see [quoteChanges])
+ *
+ * The changes are sorted by position, so the changes before [currentPos] are skipped with a binary search and only
+ *   the changes after it are examined, until both the string and the char state are known.
+ */
+internal fun checkInString(changes: List<QuoteState>, currentPos: Int, str: Boolean): Boolean {
+  // Index of the first change at or after currentPos
+  var firstAtOrAfter = changes.binarySearch { it.position.compareTo(currentPos) }.let { if (it < 0) -it - 1 else it }
+  var lastBeforeIndex = firstAtOrAfter - 1
+  if (firstAtOrAfter < changes.size && changes[firstAtOrAfter].position == currentPos) {
+    if (firstAtOrAfter + 1 < changes.size) {
       // it is situation when cursor is on opening quote, so we must consider that we are inside quotes pair
-      beforePos = beforePos.toMutableList()
-      beforePos.add(atPosChange)
+      lastBeforeIndex = firstAtOrAfter
+      firstAtOrAfter++
     }
+    // otherwise it is situation when cursor is on closing quote, so we must consider that we are inside quotes pair
   }
 
-  val lastBeforePos = beforePos.lastOrNull()
+  val lastBeforePos = changes.getOrNull(lastBeforeIndex)
 
   // if opening quote was found before pos (inQuote=true), it doesn't mean pos is in string, we need
   // to find closing quote to be sure
@@ -50,7 +57,8 @@ internal fun checkInString(chars: CharSequence, currentPos: Int, str: Boolean):
 
   var inQuote: Boolean? = null
 
-  for ((_, trigger, inQuoteAfter, lastOpenSingleQuotePosAfter) in afterPos) {
+  for (i in firstAtOrAfter until changes.size) {
+    val (_, trigger, inQuoteAfter, lastOpenSingleQuotePosAfter) = changes[i]
     inQuote = inQuoteAfter
     if (posInQuote != null && posInChar != null) break
     if (posInQuote == null && inQuoteAfter != null) {
@@ -88,7 +96,7 @@ internal fun checkInString(chars: CharSequence, currentPos: Int, str: Boolean):
 // - single quoted group may enclose only one character, maybe escaped,
 // - so distance between opening and closing single quotes cannot be more than 3
 // - bounds are considered inside corresponding quotes
-private fun quoteChanges(chars: CharSequence, begin: Int) = sequence {
+internal fun quoteChanges(chars: CharSequence, begin: Int): Sequence<QuoteState> = sequence {
   // position of last found unpaired single quote
   var lastOpenSingleQuotePos = -1
   // whether we are in double quotes
@@ -150,7 +158,7 @@ private fun quoteChanges(chars: CharSequence, begin: Int) = sequence {
         }
       }
     }
-    yield(State(i, c, inQuote, lastOpenSingleQuotePos))
+    yield(QuoteState(i, c, inQuote, lastOpenSingleQuotePos))
     found =
       findPositionOfFirstCharacter(chars, i + Direction.FORWARDS.toInt(), charsToSearch, false, Direction.FORWARDS)
   }
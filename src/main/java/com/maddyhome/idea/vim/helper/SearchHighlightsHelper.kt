@@ -10,6 +10,7 @@
 
 package com.maddyhome.idea.vim.helper
 
+import com.intellij.openapi.editor.Document
 import com.intellij.openapi.editor.Editor
 import com.intellij.openapi.editor.colors.EditorColors
 import com.intellij.openapi.editor.colors.EditorColorsScheme
@@ -39,7 +40,46 @@ internal fun updateSearchHighlights(
   showHighlights: Boolean,
   forceUpdate: Boolean,
 ) {
-  updateSearchHighlights(pattern, shouldIgnoreSmartCase, showHighlights, -1, null, true, forceUpdate)
+  updateSearchHighlights(pattern, shouldIgnoreSmartCase, showHighlights, -1, null, true, forceUpdate, null)
+}
+
+/**
+ * Matches of an incsearch pattern, found ahead of [updateIncsearchHighlights] by [findIncsearchMatches]
+ *
+ * The matches are used only while the text and the 'hlsearch' option are the same as they were when searching.
+ */
+internal class IncsearchMatches(
+  val pattern: String,
+  val hlSearch: Boolean,
+  val document: Document,
+  val modificationStamp: Long,
+  val results: List<TextRange>,
+)
+
+/**
+ * Searches for the matches that [updateIncsearchHighlights] will highlight, or returns null if it won't search
+ *
+ * Doesn't change the editor, so it can run in a background read action and be cancelled when the pattern changes.
+ */
+internal fun findIncsearchMatches(
+  editor: Editor,
+  pattern: String,
+  forwards: Boolean,
+  caretOffset: Int,
+  searchRange: LineRange?,
+): IncsearchMatches? {
+  val document = editor.document
+  val modificationStamp = document.modificationStamp
+  val searchStartOffset = getIncsearchStartOffset(editor, caretOffset, searchRange)
+  val showHighlights = injector.options(editor.vim).isSet(OptionConstants.hlsearch)
+  val results = when {
+    shouldAddAllSearchHighlights(editor, pattern, showHighlights) ->
+      findAllMatches(editor, pattern, false, searchRange, cancellable = true)
+    shouldAddCurrentMatchSearchHighlight(pattern, showHighlights, searchStartOffset) ->
+      listOfNotNull(findCurrentMatch(editor, pattern, false, searchStartOffset, forwards, cancellable = true))
+    else -> return null
+  }
+  return IncsearchMatches(pattern, showHighlights, document, modificationStamp, results)
 }
 
 internal fun updateIncsearchHighlights(
@@ -48,13 +88,25 @@ internal fun updateIncsearchHighlights(
   forwards: Boolean,
   caretOffset: Int,
   searchRange: LineRange?,
+  matches: IncsearchMatches?,
 ): Int {
-  val searchStartOffset =
-    if (searchRange != null) editor.vim.getLineStartOffset(searchRange.startLine) else caretOffset
+  val searchStartOffset = getIncsearchStartOffset(editor, caretOffset, searchRange)
   val showHighlights = injector.options(editor.vim).isSet(OptionConstants.hlsearch)
-  return updateSearchHighlights(pattern, false, showHighlights, searchStartOffset, searchRange, forwards, false)
+  return updateSearchHighlights(
+    pattern,
+    false,
+    showHighlights,
+    searchStartOffset,
+    searchRange,
+    forwards,
+    false,
+    matches,
+  )
 }
 
+private fun getIncsearchStartOffset(editor: Editor, caretOffset: Int, searchRange: LineRange?) =
+  if (searchRange != null) editor.vim.getLineStartOffset(searchRange.startLine) else caretOffset
+
 internal fun addSubstitutionConfirmationHighlight(editor: Editor, start: Int, end: Int): RangeHighlighter {
   val color = TextAttributes(
     editor.colorsScheme.getColor(EditorColors.SELECTION_FOREGROUND_COLOR),
@@ -83,6 +135,7 @@ private fun updateSearchHighlights(
   searchRange: LineRange?,
   forwards: Boolean,
   forceUpdate: Boolean,
+  matches: IncsearchMatches?,
 ): Int {
   var currentMatchOffset = -1
   val projectManager = ProjectManager.getInstanceIfCreated() ?: return currentMatchOffset
@@ -103,10 +156,8 @@ private fun updateSearchHighlights(
 
       if (shouldAddAllSearchHighlights(editor, pattern, showHighlights)) {
         // hlsearch (+ incsearch/noincsearch)
-        val startLine = searchRange?.startLine ?: 0
-        val endLine = searchRange?.endLine ?: -1
-        val results =
-          SearchHelper.findAll(editor, pattern, startLine, endLine, shouldIgnoreCase(pattern, shouldIgnoreSmartCase))
+        val results = matches.resultsFor(editor, pattern, showHighlights)
+          ?: findAllMatches(editor, pattern, shouldIgnoreSmartCase, searchRange)
         if (results.isNotEmpty()) {
           currentMatchOffset = findClosestMatch(editor, results, initialOffset, forwards)
           highlightSearchResults(editor, pattern, results, currentMatchOffset)
@@ -114,13 +165,12 @@ private fun updateSearchHighlights(
         editor.vimLastSearch = pattern
       } else if (shouldAddCurrentMatchSearchHighlight(pattern, showHighlights, initialOffset)) {
         // nohlsearch + incsearch
-        val searchOptions = EnumSet.of(SearchOptions.WHOLE_FILE)
-        if (injector.globalOptions().isSet(OptionConstants.wrapscan)) {
-          searchOptions.add(SearchOptions.WRAP)
+        val found = matches.resultsFor(editor, pattern, showHighlights)
+        val result = if (found != null) {
+          found.firstOrNull()
+        } else {
+          findCurrentMatch(editor, pattern, shouldIgnoreSmartCase, initialOffset, forwards)
         }
-        if (shouldIgnoreSmartCase) searchOptions.add(SearchOptions.IGNORE_SMARTCASE)
-        if (!forwards) searchOptions.add(SearchOptions.BACKWARDS)
-        val result = SearchHelper.findPattern(editor, pattern, initialOffset, 1, searchOptions)
         if (result != null) {
           currentMatchOffset = result.startOffset
           val results = listOf(result)
@@ -139,6 +189,42 @@ private fun updateSearchHighlights(
   return currentMatchOffset
 }
 
+/** Results of [findIncsearchMatches] if they were found for the [pattern] in the current text of the [editor] */
+private fun IncsearchMatches?.resultsFor(editor: Editor, pattern: String, hlSearch: Boolean): List<TextRange>? {
+  if (this == null || this.pattern != pattern || this.hlSearch != hlSearch) return null
+  return if (document == editor.document && modificationStamp == document.modificationStamp) results else null
+}
+
+private fun findAllMatches(
+  editor: Editor,
+  pattern: String,
+  shouldIgnoreSmartCase: Boolean,
+  searchRange: LineRange?,
+  cancellable: Boolean = false,
+): List<TextRange> {
+  val startLine = searchRange?.startLine ?: 0
+  val endLine = searchRange?.endLine ?: -1
+  val ignoreCase = shouldIgnoreCase(pattern, shouldIgnoreSmartCase)
+  return SearchHelper.findAll(editor, pattern, startLine, endLine, ignoreCase, cancellable)
+}
+
+private fun findCurrentMatch(
+  editor: Editor,
+  pattern: String,
+  shouldIgnoreSmartCase: Boolean,
+  initialOffset: Int,
+  forwards: Boolean,
+  cancellable: Boolean = false,
+): TextRange? {
+  val searchOptions = EnumSet.of(SearchOptions.WHOLE_FILE)
+  if (injector.globalOptions().isSet(OptionConstants.wrapscan)) {
+    searchOptions.add(SearchOptions.WRAP)
+  }
+  if (shouldIgnoreSmartCase) searchOptions.add(SearchOptions.IGNORE_SMARTCASE)
+  if (!forwards) searchOptions.add(SearchOptions.BACKWARDS)
+  return SearchHelper.findPattern(editor, pattern, initialOffset, 1, searchOptions, cancellable)
+}
+
 /**
  * Remove current search highlights if hlSearch is false, or if the pattern is changed
  */
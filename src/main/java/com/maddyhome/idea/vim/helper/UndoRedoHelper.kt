@@ -14,15 +14,23 @@ import com.intellij.openapi.command.CommandProcessor
 import com.intellij.openapi.command.impl.UndoManagerImpl
 import com.intellij.openapi.command.undo.UndoManager
 import com.intellij.openapi.components.Service
+import com.intellij.openapi.editor.Document
+import com.intellij.openapi.editor.event.DocumentEvent
+import com.intellij.openapi.editor.event.DocumentListener
 import com.intellij.openapi.fileEditor.impl.text.TextEditorProvider
 import com.maddyhome.idea.vim.api.ExecutionContext
+import com.maddyhome.idea.vim.api.MutableVimEditor
 import com.maddyhome.idea.vim.api.VimEditor
 import com.maddyhome.idea.vim.api.globalOptions
 import com.maddyhome.idea.vim.api.injector
+import com.maddyhome.idea.vim.api.normalizeOffset
 import com.maddyhome.idea.vim.common.ChangesListener
+import com.maddyhome.idea.vim.common.TextReplacement
 import com.maddyhome.idea.vim.group.IjOptionConstants
 import com.maddyhome.idea.vim.listener.SelectionVimListenerSuppressor
 import com.maddyhome.idea.vim.newapi.ij
+import com.maddyhome.idea.vim.options.OptionConstants
+import com.maddyhome.idea.vim.undo.UndoJournal
 import com.maddyhome.idea.vim.undo.UndoRedoBase
 
 /**
@@ -34,9 +42,120 @@ internal class UndoRedoHelper : UndoRedoBase() {
     injector.optionGroup.addListener(IjOptionConstants.oldundo, {
       UndoManagerImpl.ourNeverAskUser = !injector.globalOptions().isSet(IjOptionConstants.oldundo)
     }, true)
+    injector.optionGroup.addListener(IjOptionConstants.undojournal, {
+      val enabled = injector.globalOptions().isSet(IjOptionConstants.undojournal)
+      if (enabled && !JournalRecorder.isEnabled) {
+        // The journals kept from the last time the option was set missed the changes made since then
+        JournalRecorder.generation++
+      }
+      JournalRecorder.isEnabled = enabled
+    }, true)
+  }
+
+  override fun undo(editor: VimEditor, context: ExecutionContext): Boolean = undo(editor, context, 1)
+
+  override fun redo(editor: VimEditor, context: ExecutionContext): Boolean = redo(editor, context, 1)
+
+  override fun undo(editor: VimEditor, context: ExecutionContext, count: Int): Boolean {
+    val journal = editor.ij.document.vimUndoJournal
+    val replacements = if (journal != null && journal.undoSteps > 0) {
+      journal.undo(count, editor.ij.document.immutableCharSequence)
+    } else {
+      null
+    }
+    if (replacements == null) {
+      return performWithIde(journal, count) { undoWithIde(editor, context) }
+    }
+    applyJournalReplacements(editor, journal, replacements)
+    return true
+  }
+
+  override fun redo(editor: VimEditor, context: ExecutionContext, count: Int): Boolean {
+    val journal = editor.ij.document.vimUndoJournal
+    val replacements = if (journal != null && journal.redoSteps > 0) {
+      journal.redo(count, editor.ij.document.immutableCharSequence)
+    } else {
+      null
+    }
+    if (replacements == null) {
+      return performWithIde(journal, count) { redoWithIde(editor, context) }
+    }
+    applyJournalReplacements(editor, journal, replacements)
+    return true
+  }
+
+  override fun undoLine(editor: VimEditor, context: ExecutionContext): Boolean {
+    val journal = editor.ij.document.vimUndoJournal ?: return false
+    val replacement = journal.undoLine(editor.ij.document.immutableCharSequence) ?: return false
+    // Unlike an undo, restoring the line is a change on its own, that is recorded to the journal
+    applyJournalReplacements(editor, null, listOf(replacement))
+    return true
+  }
+
+  override fun undoTime(editor: VimEditor, context: ExecutionContext, millis: Long): Boolean {
+    val journal = editor.ij.document.vimUndoJournal ?: return false
+    val count = journal.undoStepsWithin(millis)
+    return count > 0 && undo(editor, context, count)
+  }
+
+  override fun redoTime(editor: VimEditor, context: ExecutionContext, millis: Long): Boolean {
+    val journal = editor.ij.document.vimUndoJournal ?: return false
+    val count = journal.redoStepsWithin(millis)
+    return count > 0 && redo(editor, context, count)
+  }
+
+  override fun breakUndoSequence(editor: VimEditor) {
+    if (!JournalRecorder.isEnabled) return
+    val document = editor.ij.document
+    val journal = document.vimUndoJournal ?: UndoJournal().also {
+      document.vimJournalData = DocumentJournal(it, JournalRecorder.generation)
+    }
+    journal.maxSteps = injector.globalOptions().getIntValue(OptionConstants.undolevels)
+    journal.closeStep()
   }
 
-  override fun undo(editor: VimEditor, context: ExecutionContext): Boolean {
+  /**
+   * Undoes or redoes with the IDE when the journal can't: it's empty, has nothing left in this direction, or doesn't
+   *   match the text. The IDE changes are not recorded, and they make the rest of the journal invalid, so the journal
+   *   is cleared once the IDE changed the text
+   */
+  private fun performWithIde(journal: UndoJournal?, count: Int, action: () -> Boolean): Boolean {
+    val perform = {
+      var remaining = count
+      var result = action()
+      while ((--remaining > 0) && result) {
+        result = action()
+      }
+      result
+    }
+    if (journal == null) return perform()
+    val result = journal.withoutRecording(perform)
+    if (result) journal.clear()
+    return result
+  }
+
+  private fun applyJournalReplacements(editor: VimEditor, journal: UndoJournal?, replacements: List<TextReplacement>) {
+    if (replacements.isEmpty()) return
+    val scrollingModel = editor.getScrollingModel()
+    scrollingModel.accumulateViewportChanges()
+
+    // The replacements cover only the changed ranges, so the lines between them keep their marks and folds
+    val replace = {
+      SelectionVimListenerSuppressor.lock().use {
+        (editor as MutableVimEditor).replaceStrings(replacements)
+      }
+    }
+    injector.application.runWriteAction {
+      if (journal != null) journal.withoutRecording(replace) else replace()
+    }
+
+    editor.removeSecondaryCarets()
+    editor.primaryCaret().moveToOffset(editor.normalizeOffset(replacements.first().startOffset, false))
+
+    scrollingModel.flushViewportChanges()
+  }
+
+  private fun undoWithIde(editor: VimEditor, context: ExecutionContext): Boolean {
     val ijContext = context.context as DataContext
     val project = PlatformDataKeys.PROJECT.getData(ijContext) ?: return false
     val fileEditor = TextEditorProvider.getInstance().getTextEditor(editor.ij)
@@ -70,7 +189,7 @@ internal class UndoRedoHelper : UndoRedoBase() {
     return false
   }
 
-  override fun redo(editor: VimEditor, context: ExecutionContext): Boolean {
+  private fun redoWithIde(editor: VimEditor, context: ExecutionContext): Boolean {
     val ijContext = context.context as DataContext
     val project = PlatformDataKeys.PROJECT.getData(ijContext) ?: return false
     val fileEditor = TextEditorProvider.getInstance().getTextEditor(editor.ij)
@@ -112,4 +231,34 @@ internal class UndoRedoHelper : UndoRedoBase() {
   private fun ifFilePathChanged(editor: VimEditor, oldPath: String?): Boolean {
     return editor.getPath() != oldPath
   }
+
+  /**
+   * Records the changes of the documents that have a journal, see [breakUndoSequence]
+   */
+  object JournalRecorder : DocumentListener {
+    /** The value of the undojournal option */
+    var isEnabled = false
+
+    /** Incremented every time the option is set, journals of an older generation are not used */
+    var generation = 0
+
+    override fun documentChanged(event: DocumentEvent) {
+      if (!isEnabled) return
+      val document = event.document
+      val journal = document.vimUndoJournal ?: return
+      journal.recordChange(event.offset, event.oldFragment, event.newFragment, document.immutableCharSequence)
+    }
+  }
 }
+
+private class DocumentJournal(val journal: UndoJournal, val generation: Int)
+
+private var Document.vimJournalData: DocumentJournal? by userData()
+
+/** The journal of the document, or null if the undojournal option is not set or the journal is stale */
+private val Document.vimUndoJournal: UndoJournal?
+  get() {
+    if (!UndoRedoHelper.JournalRecorder.isEnabled) return null
+    val data = vimJournalData ?: return null
+    return if (data.generation == UndoRedoHelper.JournalRecorder.generation) data.journal else null
+  }
@@ -104,6 +104,7 @@ internal var Caret.lastSelectionInfo: SelectionInfo? by userDataCaretToEditor()
 internal fun unInitializeEditor(editor: Editor) {
   editor.vimLastSelectionType = null
   editor.vimStateMachine = null
+  editor.vimStateDeferred = false
   editor.vimMorePanel = null
   editor.vimExOutput = null
   editor.vimLastHighlighters = null
@@ -118,9 +119,18 @@ internal var Editor.vimIncsearchCurrentMatchOffset: Int? by userData()
  */
 internal var Editor.vimLastSelectionType: SelectionType? by userData()
 internal var Editor.vimStateMachine: VimStateMachine? by userData()
+
+/**
+ * Set while the Vim state of a non-file editor is not created yet. See [com.maddyhome.idea.vim.group.EditorGroup.editorCreated]
+ */
+internal var Editor.vimStateDeferred: Boolean by userDataOr { false }
 internal var Editor.vimEditorGroup: Boolean by userDataOr { false }
 internal var Editor.vimLineNumbersInitialState: Boolean by userDataOr { false }
 internal var Editor.vimHasRelativeLineNumbersInstalled: Boolean by userDataOr { false }
+internal var Editor.vimRelativeLineNumbersRepaintScheduled: Boolean by userDataOr { false }
+
+/** Caret line that the relative line numbers were last repainted for */
+internal var Editor.vimRelativeLineNumbersLine: Int? by userData()
 internal var Editor.vimMorePanel: ExOutputPanel? by userData()
 internal var Editor.vimExOutput: ExOutputModel? by userData()
 internal var Editor.vimTestInputModel: TestInputModel? by userData()
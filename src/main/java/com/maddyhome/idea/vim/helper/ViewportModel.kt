@@ -0,0 +1,203 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.helper
+
+import com.intellij.openapi.editor.Editor
+import com.intellij.openapi.editor.Inlay
+import com.intellij.openapi.editor.InlayModel
+import com.intellij.openapi.editor.LogicalPosition
+import com.intellij.openapi.editor.ex.FoldingListener
+import com.intellij.openapi.editor.ex.FoldingModelEx
+import com.intellij.openapi.editor.ex.SoftWrapChangeListener
+import com.intellij.openapi.editor.ex.SoftWrapModelEx
+import com.intellij.openapi.editor.ex.util.EditorUtil
+import com.intellij.openapi.editor.impl.EditorImpl
+import com.maddyhome.idea.vim.api.getVisualLineCount
+import com.maddyhome.idea.vim.api.normalizeVisualLine
+import com.maddyhome.idea.vim.newapi.vim
+import java.awt.Font
+import java.awt.Rectangle
+import kotlin.math.min
+
+/**
+ * Screen geometry of an editor: the visual lines at the top, middle and bottom of the screen, the approximate screen
+ *   size and the block inlay heights of the visual lines, computed once for the current visible area
+ *
+ * The [EditorHelper] geometry helpers are called many times for every caret move (to apply 'scrolloff', to scroll the
+ *   caret into view) and each call converts between pixels and visual lines and walks the inlays again. The model
+ *   keeps the results until the visible area (scrolling, resizing), the text, the font, the soft wraps, the folds or
+ *   the inlays change. The last three are tracked by listeners, the rest is compared on every access.
+ *
+ * Editors that don't support the listeners get an uncached model, which computes every value on each access.
+ */
+internal class ViewportModel private constructor(private val editor: Editor, private val cached: Boolean) {
+  private var area = Rectangle()
+  private var modificationStamp = -1L
+  private var lineHeight = -1
+  private var fontName: String? = null
+  private var valid = false
+
+  private val values = IntArray(VALUE_COUNT)
+  private var plainSpaceWidth = Float.NaN
+  private var columnsLine = -1
+  private var leftColumn = 0
+  private var rightColumn = 0
+  private val inlayHeightsAbove = HashMap<Int, Int>()
+  private val inlayHeightsBelow = HashMap<Int, Int>()
+
+  fun invalidate() {
+    valid = false
+  }
+
+  val visualLineAtTopOfScreen: Int
+    get() = value(TOP_LINE) { area -> EditorHelper.getFullVisualLine(editor, area.y, area.y, area.y + area.height) }
+
+  val visualLineAtMiddleOfScreen: Int
+    get() = value(MIDDLE_LINE) { area ->
+      // The editor will return line numbers of virtual space if the text doesn't reach the end of the visible area
+      // (either because it's too short, or it's been scrolled up)
+      val lastLineBaseline = editor.logicalPositionToXY(LogicalPosition(editor.vim.lineCount(), 0)).y
+      val height = min(lastLineBaseline - area.y, area.height)
+      editor.yToVisualLine(area.y + (height / 2))
+    }
+
+  val nonNormalizedVisualLineAtBottomOfScreen: Int
+    get() = value(NON_NORMALIZED_BOTTOM_LINE) { area ->
+      EditorHelper.getFullVisualLine(editor, area.y + area.height, area.y, area.y + area.height)
+    }
+
+  val visualLineAtBottomOfScreen: Int
+    get() = value(BOTTOM_LINE) { editor.vim.normalizeVisualLine(nonNormalizedVisualLineAtBottomOfScreen) }
+
+  val visualLineCount: Int
+    get() = value(VISUAL_LINE_COUNT) { editor.vim.getVisualLineCount() }
+
+  val approximateScreenHeight: Int
+    get() = value(SCREEN_HEIGHT) { area -> area.height / editor.lineHeight }
+
+  val approximateScreenWidth: Int
+    get() = value(SCREEN_WIDTH) { area -> (area.width / getPlainSpaceWidth()).toInt() }
+
+  fun getPlainSpaceWidth(): Float {
+    validate()
+    if (plainSpaceWidth.isNaN()) {
+      plainSpaceWidth = EditorUtil.fontForChar(' ', Font.PLAIN, editor).charWidth2D(' ')
+    }
+    return plainSpaceWidth
+  }
+
+  fun getVisualColumnAtLeftOfDisplay(visualLine: Int): Int {
+    validateColumns(visualLine)
+    return leftColumn
+  }
+
+  fun getVisualColumnAtRightOfDisplay(visualLine: Int): Int {
+    validateColumns(visualLine)
+    return rightColumn
+  }
+
+  /** Height of the block inlays above ([above] is true) or below the [visualLine] */
+  fun getInlaysHeight(visualLine: Int, above: Boolean): Int {
+    validate()
+    val heights = if (above) inlayHeightsAbove else inlayHeightsBelow
+    return heights.getOrPut(visualLine) { EditorUtil.getInlaysHeight(editor, visualLine, above) }
+  }
+
+  private inline fun value(index: Int, compute: (Rectangle) -> Int): Int {
+    val area = validate()
+    var value = values[index]
+    if (value == UNKNOWN) {
+      value = compute(area)
+      if (cached) values[index] = value
+    }
+    return value
+  }
+
+  private fun validateColumns(visualLine: Int) {
+    val area = validate()
+    if (columnsLine == visualLine) return
+    val y = editor.visualLineToY(visualLine)
+    leftColumn = EditorHelper.getFullVisualColumn(editor, area.x, y, area.x, area.x + area.width)
+    rightColumn = EditorHelper.getFullVisualColumn(editor, area.x + area.width - 1, y, area.x, area.x + area.width)
+    if (cached) columnsLine = visualLine
+  }
+
+  /** Drops the computed values if the geometry has changed and returns the current visible area */
+  private fun validate(): Rectangle {
+    val currentArea = EditorHelper.getVisibleArea(editor)
+    val currentStamp = editor.document.modificationStamp
+    val currentLineHeight = editor.lineHeight
+    val currentFontName = editor.colorsScheme.editorFontName
+    if (valid &&
+      currentArea == area &&
+      currentStamp == modificationStamp &&
+      currentLineHeight == lineHeight &&
+      currentFontName == fontName
+    ) {
+      return area
+    }
+
+    area = currentArea
+    modificationStamp = currentStamp
+    lineHeight = currentLineHeight
+    fontName = currentFontName
+    values.fill(UNKNOWN)
+    plainSpaceWidth = Float.NaN
+    columnsLine = -1
+    inlayHeightsAbove.clear()
+    inlayHeightsBelow.clear()
+    valid = cached
+    return area
+  }
+
+  private class Invalidator(private val model: ViewportModel) :
+    FoldingListener, InlayModel.Listener, SoftWrapChangeListener {
+    override fun onFoldProcessingEnd() = model.invalidate()
+    override fun onAdded(inlay: Inlay<*>) = model.invalidate()
+    override fun onRemoved(inlay: Inlay<*>) = model.invalidate()
+    override fun onUpdated(inlay: Inlay<*>) = model.invalidate()
+    override fun softWrapsChanged() = model.invalidate()
+    override fun recalculationEnds() = model.invalidate()
+  }
+
+  companion object {
+    private const val UNKNOWN = Int.MIN_VALUE
+
+    private const val TOP_LINE = 0
+    private const val MIDDLE_LINE = 1
+    private const val NON_NORMALIZED_BOTTOM_LINE = 2
+    private const val BOTTOM_LINE = 3
+    private const val VISUAL_LINE_COUNT = 4
+    private const val SCREEN_HEIGHT = 5
+    private const val SCREEN_WIDTH = 6
+    private const val VALUE_COUNT = 7
+
+    /** Returns the model of the [editor], creating it and registering its listeners on the first call */
+    @JvmStatic
+    fun forEditor(editor: Editor): ViewportModel {
+      editor.vimViewportModel?.let { return it }
+
+      val foldingModel = editor.foldingModel as? FoldingModelEx
+      val softWrapModel = editor.softWrapModel as? SoftWrapModelEx
+      if (editor !is EditorImpl || editor.isDisposed || foldingModel == null || softWrapModel == null) {
+        return ViewportModel(editor, false)
+      }
+      val model = ViewportModel(editor, true)
+      val invalidator = Invalidator(model)
+      foldingModel.addListener(invalidator, editor.disposable)
+      editor.inlayModel.addListener(invalidator, editor.disposable)
+      // The soft wrap model lives as long as the editor and has no way to remove a listener
+      softWrapModel.addSoftWrapChangeListener(invalidator)
+      editor.vimViewportModel = model
+      return model
+    }
+  }
+}
+
+private var Editor.vimViewportModel: ViewportModel? by userData()
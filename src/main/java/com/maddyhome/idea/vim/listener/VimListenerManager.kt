@@ -25,6 +25,7 @@ import com.intellij.openapi.editor.event.EditorMouseMotionListener
 import com.intellij.openapi.editor.event.SelectionEvent
 import com.intellij.openapi.editor.event.SelectionListener
 import com.intellij.openapi.editor.ex.DocumentEx
+import com.intellij.openapi.editor.ex.FocusChangeListener
 import com.intellij.openapi.editor.impl.EditorComponentImpl
 import com.intellij.openapi.editor.impl.EditorImpl
 import com.intellij.openapi.fileEditor.FileEditorManagerEvent
@@ -163,6 +164,7 @@ internal object VimListenerManager {
       eventFacade.addEditorSelectionListener(editor, EditorSelectionHandler, disposable)
       eventFacade.addComponentMouseListener(editor.contentComponent, ComponentMouseListener, disposable)
       eventFacade.addCaretListener(editor, EditorCaretHandler, disposable)
+      editor.addFocusListener(EditorFocusHandler, disposable)
 
       VimPlugin.getEditor().editorCreated(editor)
 
@@ -515,6 +517,13 @@ internal object VimListenerManager {
     }
   }
 
+  private object EditorFocusHandler : FocusChangeListener {
+    override fun focusGained(editor: Editor) {
+      if (editor.isIdeaVimDisabledHere) return
+      VimPlugin.getEditor().ensureEditorStateInitialized(editor)
+    }
+  }
+
   enum class SelectionSource {
     MOUSE,
     OTHER,
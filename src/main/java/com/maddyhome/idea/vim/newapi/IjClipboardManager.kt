@@ -13,13 +13,18 @@ import com.intellij.codeInsight.editorActions.CopyPastePreProcessor
 import com.intellij.codeInsight.editorActions.TextBlockTransferable
 import com.intellij.codeInsight.editorActions.TextBlockTransferableData
 import com.intellij.ide.CopyPasteManagerEx
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.application.ApplicationActivationListener
+import com.intellij.openapi.application.ApplicationManager
 import com.intellij.openapi.components.Service
 import com.intellij.openapi.editor.CaretStateTransferableData
 import com.intellij.openapi.editor.RawText
 import com.intellij.openapi.editor.richcopy.view.HtmlTransferableData
 import com.intellij.openapi.editor.richcopy.view.RtfTransferableData
+import com.intellij.openapi.ide.CopyPasteManager
 import com.intellij.openapi.project.DumbService
 import com.intellij.openapi.project.IndexNotReadyException
+import com.intellij.openapi.wm.IdeFrame
 import com.intellij.psi.PsiDocumentManager
 import com.maddyhome.idea.vim.api.VimClipboardManager
 import com.maddyhome.idea.vim.api.VimEditor
@@ -34,24 +39,116 @@ import java.awt.datatransfer.DataFlavor
 import java.awt.datatransfer.Transferable
 import java.awt.datatransfer.UnsupportedFlavorException
 import java.io.IOException
+import java.util.concurrent.atomic.AtomicBoolean
 
+/**
+ * Reading the system clipboard can block for a long time, e.g. with a remote X clipboard, and the `*` and `+` registers
+ *   read it on every access. The manager keeps a mirror of the clipboard: the last read contents, replaced when IdeaVim
+ *   sets the clipboard, dropped when the IDE sets the clipboard or is activated (another application could have set
+ *   it), and refreshed on a background thread after these events.
+ *
+ * A mirror younger than [MAX_SNAPSHOT_AGE_NANOS] is used as is, an older one is read again synchronously. Contents
+ *   longer than [MAX_SNAPSHOT_TEXT_LENGTH] are not kept.
+ */
 @Service
-internal class IjClipboardManager : VimClipboardManager {
+internal class IjClipboardManager : VimClipboardManager, Disposable {
+  /** Clipboard contents at the [time] (see [System.nanoTime]). The [text] is null if the contents are not text */
+  private class ClipboardSnapshot(val text: String?, val transferable: Transferable?, val time: Long) {
+    var transferableData: List<TextBlockTransferableData>? = null
+  }
+
+  @Volatile
+  private var snapshot: ClipboardSnapshot? = null
+
+  /** Incremented whenever the [snapshot] is dropped, so that an outdated read doesn't replace it */
+  @Volatile
+  private var generation = 0L
+  private val refreshScheduled = AtomicBoolean()
+  private var ownContents: Transferable? = null
+
+  init {
+    CopyPasteManager.getInstance().addContentChangedListener(
+      { _, newTransferable ->
+        invalidate()
+        if (newTransferable !== ownContents) scheduleRefresh()
+      },
+      this,
+    )
+    ApplicationManager.getApplication().messageBus.connect(this).subscribe(
+      ApplicationActivationListener.TOPIC,
+      object : ApplicationActivationListener {
+        override fun applicationActivated(ideFrame: IdeFrame) {
+          invalidate()
+          scheduleRefresh()
+        }
+      },
+    )
+  }
+
   override fun getClipboardTextAndTransferableData(): Pair<String, List<Any>?>? {
-    var res: String? = null
-    var transferableData: List<TextBlockTransferableData> = ArrayList()
+    val cached = snapshot
+    val age = if (cached != null) System.nanoTime() - cached.time else Long.MAX_VALUE
+    val current = if (cached == null || age > MAX_SNAPSHOT_AGE_NANOS) {
+      val readGeneration = generation
+      readClipboard()?.also { store(it, readGeneration) } ?: return null
+    } else {
+      if (age > REFRESH_SNAPSHOT_AGE_NANOS) scheduleRefresh()
+      cached
+    }
+
+    val text = current.text ?: return null
+    val transferable = current.transferable ?: return null
+    val transferableData = current.transferableData ?: collectTransferableData(transferable).also {
+      current.transferableData = it
+    }
+    return Pair(text, transferableData)
+  }
+
+  /** Drops the mirrored clipboard contents, so the next access reads the clipboard */
+  fun invalidate() {
+    synchronized(this) {
+      generation++
+      snapshot = null
+    }
+  }
+
+  override fun dispose() {
+    // The listeners are registered with this service as the parent disposable
+  }
+
+  private fun readClipboard(): ClipboardSnapshot? {
     try {
-      val trans = getContents() ?: return null
+      val time = System.nanoTime()
+      val trans = getContents() ?: return ClipboardSnapshot(null, null, time)
       val data = trans.getTransferData(DataFlavor.stringFlavor)
-      res = data.toString()
-      transferableData = collectTransferableData(trans)
+      return ClipboardSnapshot(data.toString(), trans, time)
     } catch (ignored: HeadlessException) {
     } catch (ignored: UnsupportedFlavorException) {
     } catch (ignored: IOException) {
     }
-    if (res == null) return null
+    return null
+  }
+
+  private fun store(contents: ClipboardSnapshot, readGeneration: Long) {
+    if ((contents.text?.length ?: 0) > MAX_SNAPSHOT_TEXT_LENGTH) return
+    synchronized(this) {
+      if (generation == readGeneration) snapshot = contents
+    }
+  }
 
-    return Pair(res, transferableData)
+  private fun scheduleRefresh() {
+    if (ApplicationManager.getApplication().isUnitTestMode) return
+    if (!refreshScheduled.compareAndSet(false, true)) return
+    ApplicationManager.getApplication().executeOnPooledThread {
+      try {
+        val readGeneration = generation
+        readClipboard()?.let { store(it, readGeneration) }
+      } catch (e: Exception) {
+        logger.debug { "Cannot refresh the clipboard mirror: $e" }
+      } finally {
+        refreshScheduled.set(false)
+      }
+    }
   }
 
   @Suppress("UNCHECKED_CAST")
@@ -65,7 +162,14 @@ internal class IjClipboardManager : VimClipboardManager {
       }
       logger.debug { "Paste text with transferable data: ${transferableData1.joinToString { it.javaClass.name }}" }
       val content = TextBlockTransferable(s, transferableData1, RawText(rawText))
-      setContents(content)
+      ownContents = content
+      try {
+        setContents(content)
+      } finally {
+        ownContents = null
+      }
+      // The listener has dropped the mirror, so it's replaced with the contents that are known without reading them
+      store(ClipboardSnapshot(s, content, System.nanoTime()), generation)
       return content
     } catch (ignored: HeadlessException) {
     }
@@ -150,5 +254,13 @@ internal class IjClipboardManager : VimClipboardManager {
 
   companion object {
     val logger = vimLogger<IjClipboardManager>()
+
+    /** The mirror is used without reading the clipboard until it's this old */
+    private const val MAX_SNAPSHOT_AGE_NANOS = 2_000_000_000L
+
+    /** The mirror is refreshed in the background when it's used and older than this */
+    private const val REFRESH_SNAPSHOT_AGE_NANOS = 250_000_000L
+
+    private const val MAX_SNAPSHOT_TEXT_LENGTH = 1024 * 1024
   }
 }
@@ -19,6 +19,7 @@ import com.intellij.openapi.editor.ex.ScrollingModelEx
 import com.intellij.openapi.editor.ex.util.EditorUtil
 import com.intellij.openapi.editor.impl.EditorImpl
 import com.intellij.openapi.vfs.VirtualFileManager
+import com.intellij.util.DocumentUtil
 import com.maddyhome.idea.vim.api.BufferPosition
 import com.maddyhome.idea.vim.api.ExecutionContext
 import com.maddyhome.idea.vim.api.ImmutableVimCaret
@@ -40,6 +41,7 @@ import com.maddyhome.idea.vim.common.IndentConfig
 import com.maddyhome.idea.vim.common.LiveRange
 import com.maddyhome.idea.vim.common.Offset
 import com.maddyhome.idea.vim.common.TextRange
+import com.maddyhome.idea.vim.common.TextReplacement
 import com.maddyhome.idea.vim.common.offset
 import com.maddyhome.idea.vim.group.visual.vimSetSystemBlockSelectionSilently
 import com.maddyhome.idea.vim.helper.EditorHelper
@@ -125,6 +127,23 @@ internal class IjVimEditor(editor: Editor) : MutableLinearEditor() {
     editor.document.replaceString(start, end, newString)
   }
 
+  override fun replaceStrings(replacements: List<TextReplacement>) {
+    if (replacements.size <= 1) {
+      super.replaceStrings(replacements)
+      return
+    }
+
+    // Replace every range on its own, bottom up, so the text between the ranges is left untouched together with its
+    // marks, folds and other range markers. The document has no change that spans several ranges, so every range is
+    // one document event. Only many ranges are replaced in a bulk update: ending it relayouts the whole editor
+    val document = editor.document
+    DocumentUtil.executeInBulk(document, replacements.size > BULK_UPDATE_THRESHOLD) {
+      for (replacement in replacements.asReversed()) {
+        document.replaceString(replacement.startOffset, replacement.endOffset, replacement.text)
+      }
+    }
+  }
+
   // TODO: 30.12.2021 Is end offset inclusive?
   override fun getLineRange(line: EditorLine.Pointer): Pair<Offset, Offset> {
     // TODO: 30.12.2021 getLineEndOffset returns the same value for "xyz" and "xyz\n"
@@ -466,3 +485,6 @@ public val Editor.vim: VimEditor
   get() = IjVimEditor(this)
 public val VimEditor.ij: Editor
   get() = (this as IjVimEditor).editor
+
+/** Number of replacements above which [IjVimEditor.replaceStrings] puts the document in bulk update mode */
+private const val BULK_UPDATE_THRESHOLD = 100
@@ -12,6 +12,7 @@ import com.intellij.openapi.application.ApplicationManager
 import com.intellij.openapi.components.Service
 import com.intellij.openapi.project.ProjectManager
 import com.intellij.openapi.wm.WindowManager
+import com.maddyhome.idea.vim.VimPlugin
 import com.maddyhome.idea.vim.api.VimEditor
 import com.maddyhome.idea.vim.api.VimMessagesBase
 import com.maddyhome.idea.vim.api.globalOptions
@@ -70,6 +71,7 @@ internal class IjVimMessages : VimMessagesBase() {
 
   override fun message(key: String, vararg params: Any): String = MessageHelper.message(key, *params)
   override fun updateStatusBar() {
+    if (VimPlugin.getMacro().deferStatusBar()) return
     ShowCmd.update()
   }
 }
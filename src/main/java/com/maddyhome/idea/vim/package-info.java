@@ -168,7 +168,7 @@
  * |R|                    {@link com.maddyhome.idea.vim.action.change.change.ChangeReplaceAction}
  * |S|                    {@link com.maddyhome.idea.vim.action.change.change.ChangeLineAction}
  * |T|                    {@link com.maddyhome.idea.vim.action.motion.leftright.MotionLeftTillMatchCharAction}
- * |U|                    ?
+ * |U|                    {@link com.maddyhome.idea.vim.action.change.UndoLineAction}
  * |V|                    {@link com.maddyhome.idea.vim.action.motion.visual.VisualToggleLineModeAction}
  * |W|                    {@link com.maddyhome.idea.vim.action.motion.text.MotionBigWordRightAction}
  * |X|                    {@link com.maddyhome.idea.vim.action.change.delete.DeleteCharacterLeftAction}
@@ -379,9 +379,9 @@
  * |g'|                   {@link com.maddyhome.idea.vim.action.motion.mark.MotionGotoMarkLineNoSaveJumpAction}
  * |g`|                   {@link com.maddyhome.idea.vim.action.motion.mark.MotionGotoMarkNoSaveJumpAction}
  * |gstar|                {@link com.maddyhome.idea.vim.action.motion.search.SearchWordForwardAction}
- * |g+|                   TO BE IMPLEMENTED
+ * |g+|                   {@link com.maddyhome.idea.vim.action.change.NewerTextStateAction}
  * |g,|                   TO BE IMPLEMENTED
- * |g-|                   TO BE IMPLEMENTED
+ * |g-|                   {@link com.maddyhome.idea.vim.action.change.OlderTextStateAction}
  * |g0|                   {@link com.maddyhome.idea.vim.action.motion.leftright.MotionFirstScreenColumnAction}
  * |g8|                   {@link com.maddyhome.idea.vim.action.file.FileGetHexAction}
  * |g;|                   TO BE IMPLEMENTED
@@ -13,6 +13,9 @@ import com.intellij.internal.statistic.eventLog.EventLogGroup
 import com.intellij.internal.statistic.eventLog.events.EventFields
 import com.intellij.internal.statistic.eventLog.events.VarargEventId
 import com.intellij.internal.statistic.service.fus.collectors.ApplicationUsagesCollector
+import com.maddyhome.idea.vim.vimscript.model.Executable
+import com.maddyhome.idea.vim.vimscript.model.ScriptFeatures
+import com.maddyhome.idea.vim.vimscript.model.expressions.Expression
 import com.maddyhome.idea.vim.vimscript.services.VimRcService
 
 internal class VimscriptState : ApplicationUsagesCollector() {
@@ -28,11 +31,11 @@ internal class VimscriptState : ApplicationUsagesCollector() {
         EXTENSIONS_ENABLED_BY_SET with (PluginState.enabledExtensions - extensionsEnabledWithPlug).toList(),
         EXTENSIONS_ENABLED_BY_PLUG with extensionsEnabledWithPlug.toList(),
         IS_IDE_SPECIFIC_CONFIGURATION_USED with isIDESpecificConfigurationUsed,
-        IS_LOOP_USED with isLoopUsed,
-        IS_IF_USED with isIfUsed,
+        IS_LOOP_USED with features.isLoopUsed,
+        IS_IF_USED with features.isIfUsed,
         IS_MAP_EXPR_USED with isMapExprUsed,
-        IS_FUNCTION_DEF_USED with isFunctionDeclarationUsed,
-        IS_FUNCTION_CALL_USED with isFunctionCallUsed,
+        IS_FUNCTION_DEF_USED with features.isFunctionDeclarationUsed,
+        IS_FUNCTION_CALL_USED with features.isFunctionCallUsed,
       ),
     )
   }
@@ -44,11 +47,22 @@ internal class VimscriptState : ApplicationUsagesCollector() {
     val extensionsEnabledWithPlug = HashSet<String>()
     var isIDESpecificConfigurationUsed = false
 
-    var isLoopUsed = false
-    var isIfUsed = false
     var isMapExprUsed = false
-    var isFunctionDeclarationUsed = false
-    var isFunctionCallUsed = false
+
+    /** Features of all the parsed code. The code itself isn't kept */
+    private val features = ScriptFeatures()
+
+    fun addParsedCode(code: Executable) {
+      synchronized(features) {
+        features.scan(code)
+      }
+    }
+
+    fun addParsedExpression(expression: Expression) {
+      synchronized(features) {
+        features.scan(expression)
+      }
+    }
 
     private val SOURCED_FILES = EventFields.RoundedInt("number_of_sourced_files")
     private val IDEAVIMRC_SIZE = EventFields.RoundedInt("ideavimrc_size")
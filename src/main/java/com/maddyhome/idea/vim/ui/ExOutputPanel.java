@@ -151,6 +151,26 @@ public class ExOutputPanel extends JPanel {
     myText.setFont(UiHelper.selectFont(data));
     myText.setCaretPosition(0);
     if (data.length() > 0) {
+      if (myActive) {
+        positionPanel();
+      } else {
+        activate();
+      }
+    }
+  }
+
+  /**
+   * Appends a chunk of output of a command that is still running, showing the panel with the first chunk
+   */
+  public void appendText(@NotNull String data) {
+    if (data.isEmpty()) return;
+
+    if (myActive) {
+      myText.append(data);
+      positionPanel();
+    } else {
+      myText.setText(data);
+      myText.setCaretPosition(0);
       activate();
     }
   }
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.ui
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread
+import com.intellij.openapi.actionSystem.AnActionEvent
+import com.intellij.openapi.actionSystem.CommonDataKeys
+import com.intellij.openapi.project.DumbAwareAction
+import com.intellij.openapi.ui.Messages
+import com.maddyhome.idea.vim.KeyHandler
+import com.maddyhome.idea.vim.ex.ExOutputModel
+import com.maddyhome.idea.vim.helper.MessageHelper
+
+/**
+ * Shows the time IdeaVim took to handle the typed keys, per mode, since the IDE start
+ */
+internal class KeyLatencyReportAction : DumbAwareAction() {
+  override fun actionPerformed(e: AnActionEvent) {
+    val report = KeyHandler.getInstance().keyLatency.report()
+    val editor = e.getData(CommonDataKeys.EDITOR)
+    if (editor != null) {
+      ExOutputModel.getInstance(editor).output(report)
+    } else {
+      Messages.showInfoMessage(e.project, report, MessageHelper.message("action.VimKeyLatencyReportAction.text"))
+    }
+  }
+
+  override fun getActionUpdateThread() = ActionUpdateThread.BGT
+}
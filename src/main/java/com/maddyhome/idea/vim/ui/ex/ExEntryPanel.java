@@ -12,26 +12,21 @@ import com.intellij.ide.ui.LafManager;
 import com.intellij.ide.ui.LafManagerListener;
 import com.intellij.openapi.actionSystem.DataContext;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.Caret;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.editor.ScrollingModel;
 import com.intellij.ui.DocumentAdapter;
 import com.intellij.util.IJSwingUtilities;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.maddyhome.idea.vim.VimPlugin;
-import com.maddyhome.idea.vim.ex.ranges.LineRange;
 import com.maddyhome.idea.vim.helper.SearchHighlightsHelper;
 import com.maddyhome.idea.vim.helper.UiHelper;
 import com.maddyhome.idea.vim.newapi.IjVimCaret;
-import com.maddyhome.idea.vim.newapi.IjVimEditor;
 import com.maddyhome.idea.vim.options.OptionConstants;
-import com.maddyhome.idea.vim.regexp.CharPointer;
-import com.maddyhome.idea.vim.regexp.RegExp;
 import com.maddyhome.idea.vim.ui.ExPanelBorder;
-import com.maddyhome.idea.vim.vimscript.model.commands.Command;
-import com.maddyhome.idea.vim.vimscript.model.commands.SubstituteCommand;
-import com.maddyhome.idea.vim.vimscript.parser.VimscriptParser;
-import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -185,6 +180,8 @@ public class ExEntryPanel extends JPanel {
       // incsearch won't change in the lifetime of this activation
       if (isIncSearchEnabled()) {
         entry.getDocument().removeDocumentListener(incSearchDocumentListener);
+        incsearchTimer.stop();
+        incsearchGeneration++;
 
         // TODO: Reduce the amount of unnecessary work here
         // If incsearch and hlsearch are enabled, and if this is a search panel, we'll have all of the results correctly
@@ -256,70 +253,58 @@ public class ExEntryPanel extends JPanel {
   DocumentListener incSearchDocumentListener = new DocumentAdapter() {
     @Override
     protected void textChanged(@NotNull DocumentEvent e) {
-      final Editor editor = entry.getEditor();
-
-      boolean searchCommand = false;
-      LineRange searchRange = null;
-      char separator = label.getText().charAt(0);
-      String searchText = entry.getActualText();
-      if (label.getText().equals(":")) {
-        if (searchText.isEmpty()) return;
-        final Command command = getIncsearchCommand(searchText);
-        if (command == null) {
-          return;
-        }
-        searchCommand = true;
-        searchText = "";
-        final String argument = command.getCommandArgument();
-        if (argument.length() > 1) {  // E.g. skip '/' in `:%s/`. `%` is range, `s` is command, `/` is argument
-          separator = argument.charAt(0);
-          searchText = argument.substring(1);
-        }
-        if (searchText.length() == 0) {
-          // Reset back to the original search highlights after deleting a search from a substitution command.
-          // E.g. Highlight `whatever`, type `:%s/foo` + highlight `foo`, delete back to `:%s/` and reset highlights
-          // back to `whatever`
-          VimPlugin.getSearch().resetIncsearchHighlights();
-          return;
-        }
-        searchRange = command.getLineRange(new IjVimEditor(editor));
+      incsearchGeneration++;
+      if (ApplicationManager.getApplication().isUnitTestMode()) {
+        final Editor editor = entry.getEditor();
+        applyIncsearch(editor, IncsearchEvaluationKt.evaluateIncsearch(editor, label.getText(), entry.getActualText(),
+                                                                        caretOffset));
+        return;
       }
+      incsearchTimer.restart();
+    }
+  };
 
-      final String labelText = label.getText();
-      if (labelText.equals("/") || labelText.equals("?") || searchCommand) {
-        final boolean forwards = !labelText.equals("?");  // :s, :g, :v are treated as forwards
-        final String pattern;
-        final CharPointer p = new CharPointer(searchText);
-        final CharPointer end = RegExp.skip_regexp(new CharPointer(searchText), separator, true);
-        pattern = p.substring(end.pointer() - p.pointer());
-
-        VimPlugin.getEditor().closeEditorSearchSession(editor);
-        final int matchOffset = SearchHighlightsHelper.updateIncsearchHighlights(editor, pattern, forwards, caretOffset, searchRange);
-        if (matchOffset != -1) {
-          new IjVimCaret(editor.getCaretModel().getPrimaryCaret()).moveToOffset(matchOffset);
-        } else {
-          resetCaretOffset(editor);
-        }
-      }
+  /**
+   * Parses the command and finds the matches of its pattern in a background read action
+   * <p>
+   * The text of the entry is evaluated once the user pauses typing for {@link #INCSEARCH_DELAY} ms. The command is
+   * parsed here, on the EDT, because the vimscript parser isn't thread safe. Any newer text expires the search, which
+   * cancels it and drops its result, so only the latest result is applied to the editor.
+   */
+  private void submitIncsearch() {
+    if (!active) return;
+    final int generation = incsearchGeneration;
+    final Editor editor = entry.getEditor();
+    final IncsearchEvaluation evaluation =
+      IncsearchEvaluationKt.parseIncsearch(editor, label.getText(), entry.getActualText());
+    if (!(evaluation instanceof IncsearchEvaluation.Search search)) {
+      applyIncsearch(editor, evaluation);
+      return;
     }
+    final int offset = caretOffset;
+    ReadAction.nonBlocking(() -> IncsearchEvaluationKt.withMatches(search, editor, offset))
+      .coalesceBy(this)
+      .expireWhen(() -> generation != incsearchGeneration || editor.isDisposed())
+      .finishOnUiThread(ModalityState.stateForComponent(entry), result -> applyIncsearch(editor, result))
+      .submit(AppExecutorUtil.getAppExecutorService());
+  }
 
-    @Contract("null -> null")
-    private @Nullable
-    Command getIncsearchCommand(@Nullable String commandText) {
-      if (commandText == null) return null;
-      try {
-        final Command exCommand = VimscriptParser.INSTANCE.parseCommand(commandText);
-        // TODO: Add global, vglobal, smagic and snomagic here when the commands are supported
-        if (exCommand instanceof SubstituteCommand) {
-          return exCommand;
-        }
-      } catch (Exception e) {
-        logger.warn("Cannot parse command for incsearch", e);
+  private void applyIncsearch(@NotNull Editor editor, @NotNull IncsearchEvaluation evaluation) {
+    if (evaluation instanceof IncsearchEvaluation.Reset) {
+      VimPlugin.getSearch().resetIncsearchHighlights();
+    } else if (evaluation instanceof IncsearchEvaluation.Search search) {
+      VimPlugin.getEditor().closeEditorSearchSession(editor);
+      final int matchOffset = SearchHighlightsHelper.updateIncsearchHighlights(editor, search.getPattern(),
+                                                                               search.getForwards(), caretOffset,
+                                                                               search.getSearchRange(),
+                                                                               search.getMatches());
+      if (matchOffset != -1) {
+        new IjVimCaret(editor.getCaretModel().getPrimaryCaret()).moveToOffset(matchOffset);
+      } else {
+        resetCaretOffset(editor);
       }
-
-      return null;
     }
-  };
+  }
 
   /**
    * Gets the label for the ex entry. This should be one of ":", "/", or "?"
@@ -446,6 +431,18 @@ public class ExEntryPanel extends JPanel {
   private int verticalOffset;
   private int horizontalOffset;
   private int caretOffset;
+  /** Incremented on every change of the entry text, to expire the evaluations of the older text */
+  private volatile int incsearchGeneration;
+  private final Timer incsearchTimer = createIncsearchTimer();
+
+  private @NotNull Timer createIncsearchTimer() {
+    final Timer timer = new Timer(INCSEARCH_DELAY, e -> submitIncsearch());
+    timer.setRepeats(false);
+    return timer;
+  }
+
+  /** Delay in ms after the last typed character before the incsearch highlights are updated */
+  private static final int INCSEARCH_DELAY = 20;
 
   private final @NotNull
   ComponentListener resizePanelListener = new ComponentAdapter() {
@@ -37,6 +37,8 @@ import java.awt.*;
 import java.awt.event.*;
 import java.awt.geom.Area;
 import java.awt.geom.Rectangle2D;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 
@@ -134,6 +136,7 @@ public class ExTextField extends JTextField {
         break;
     }
 
+    historyKey = hkey;
     if (hkey != null) {
       history = VimPlugin.getHistory().getEntries(hkey, 0, 0);
       histIndex = history.size();
@@ -158,21 +161,12 @@ public class ExTextField extends JTextField {
     }
 
     if (filter) {
-      for (int i = histIndex + dir; i >= 0 && i <= history.size(); i += dir) {
-        String txt;
-        if (i == history.size()) {
-          txt = lastEntry;
-        } else {
-          HistoryEntry entry = history.get(i);
-          txt = entry.getEntry();
-        }
-
-        if (txt.startsWith(lastEntry)) {
-          updateText(txt);
-          histIndex = i;
+      int i = findHistoryIndexWithPrefix(isUp);
+      if (i >= 0) {
+        updateText(i == history.size() ? lastEntry : history.get(i).getEntry());
+        histIndex = i;
 
-          return;
-        }
+        return;
       }
 
       VimPlugin.indicateError();
@@ -190,6 +184,36 @@ public class ExTextField extends JTextField {
     }
   }
 
+  /**
+   * Finds the index of the closest history entry in the given direction that starts with the last typed text
+   * <p>
+   * The text itself, at the index {@code history.size()}, always matches. Returns -1 if there is no such entry.
+   */
+  private int findHistoryIndexWithPrefix(boolean isUp) {
+    if (historyKey != null) {
+      int number = histIndex == history.size() ? Integer.MAX_VALUE : history.get(histIndex).getNumber();
+      HistoryEntry found = VimPlugin.getHistory().findEntryWithPrefix(historyKey, lastEntry, number, !isUp);
+      if (found == null) {
+        // Going down, the typed text comes after the last entry, unless it is already shown
+        return isUp || histIndex == history.size() ? -1 : history.size();
+      }
+      int index = Collections.binarySearch(history, found, Comparator.comparingInt(HistoryEntry::getNumber));
+      if (index >= 0) {
+        return index;
+      }
+    }
+
+    // The history was changed after the command line was opened, look through our own copy of it
+    int dir = isUp ? -1 : 1;
+    for (int i = histIndex + dir; i >= 0 && i <= history.size(); i += dir) {
+      String txt = i == history.size() ? lastEntry : history.get(i).getEntry();
+      if (txt.startsWith(lastEntry)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
   private void updateText(String string) {
     super.setText(string);
     setFontToJField(string);
@@ -567,6 +591,7 @@ public class ExTextField extends JTextField {
   private String lastEntry;
   private String actualText;
   private List<HistoryEntry> history;
+  private @Nullable String historyKey;
   private int histIndex = 0;
   private @Nullable
   MultiStepAction currentAction;
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.ui.ex
+
+import com.intellij.openapi.diagnostic.logger
+import com.intellij.openapi.editor.Editor
+import com.intellij.openapi.progress.ProcessCanceledException
+import com.maddyhome.idea.vim.ex.ranges.LineRange
+import com.maddyhome.idea.vim.helper.IncsearchMatches
+import com.maddyhome.idea.vim.helper.findIncsearchMatches
+import com.maddyhome.idea.vim.newapi.IjVimEditor
+import com.maddyhome.idea.vim.regexp.CharPointer
+import com.maddyhome.idea.vim.regexp.RegExp
+import com.maddyhome.idea.vim.vimscript.model.commands.Command
+import com.maddyhome.idea.vim.vimscript.model.commands.SubstituteCommand
+import com.maddyhome.idea.vim.vimscript.parser.VimscriptParser
+
+/**
+ * What incsearch does for the text typed in the ex entry so far: nothing, reset the highlights back to the last
+ *   accepted search, or highlight the matches of a [Search]
+ */
+internal sealed class IncsearchEvaluation {
+  object None : IncsearchEvaluation()
+
+  object Reset : IncsearchEvaluation()
+
+  class Search(
+    val pattern: String,
+    val forwards: Boolean,
+    val searchRange: LineRange?,
+    val matches: IncsearchMatches?,
+  ) : IncsearchEvaluation()
+}
+
+private val logger = logger<IncsearchEvaluation>()
+
+/**
+ * Parses the ex entry text, extracts the search pattern and finds its matches
+ *
+ * @param label The label of the ex entry, one of ":", "/" or "?"
+ * @param text The text typed into the ex entry
+ * @param caretOffset The caret offset when the ex entry was activated
+ */
+internal fun evaluateIncsearch(editor: Editor, label: String, text: String, caretOffset: Int): IncsearchEvaluation {
+  val evaluation = parseIncsearch(editor, label, text)
+  return if (evaluation is IncsearchEvaluation.Search) evaluation.withMatches(editor, caretOffset) else evaluation
+}
+
+/**
+ * Parses the ex entry text and extracts the search pattern and range, without searching for its matches
+ *
+ * Runs on the EDT: the vimscript parser keeps the errors of the parse in progress in shared state, so two parses can't
+ *   run at the same time.
+ *
+ * @param label The label of the ex entry, one of ":", "/" or "?"
+ * @param text The text typed into the ex entry
+ */
+internal fun parseIncsearch(editor: Editor, label: String, text: String): IncsearchEvaluation {
+  var separator = label[0]
+  var searchText = text
+  var searchRange: LineRange? = null
+  val searchCommand = label == ":"
+  if (searchCommand) {
+    if (searchText.isEmpty()) return IncsearchEvaluation.None
+    val command = getIncsearchCommand(searchText) ?: return IncsearchEvaluation.None
+    searchText = ""
+    val argument = command.commandArgument
+    if (argument.length > 1) { // E.g. skip '/' in `:%s/`. `%` is range, `s` is command, `/` is argument
+      separator = argument[0]
+      searchText = argument.substring(1)
+    }
+    if (searchText.isEmpty()) {
+      // Reset back to the original search highlights after deleting a search from a substitution command.
+      // E.g. Highlight `whatever`, type `:%s/foo` + highlight `foo`, delete back to `:%s/` and reset highlights
+      // back to `whatever`
+      return IncsearchEvaluation.Reset
+    }
+    searchRange = command.getLineRange(IjVimEditor(editor))
+  } else if (label != "/" && label != "?") {
+    return IncsearchEvaluation.None
+  }
+
+  val forwards = label != "?" // :s, :g, :v are treated as forwards
+  val p = CharPointer(searchText)
+  val end = RegExp.skip_regexp(CharPointer(searchText), separator, true)
+  val pattern = p.substring(end.pointer() - p.pointer())
+  return IncsearchEvaluation.Search(pattern, forwards, searchRange, null)
+}
+
+/**
+ * Finds the matches of the search
+ *
+ * Only reads the editor, so it runs in a background read action that is cancelled when the user types on.
+ *
+ * @param caretOffset The caret offset when the ex entry was activated
+ */
+internal fun IncsearchEvaluation.Search.withMatches(editor: Editor, caretOffset: Int): IncsearchEvaluation.Search {
+  val matches = findIncsearchMatches(editor, pattern, forwards, caretOffset, searchRange)
+  return IncsearchEvaluation.Search(pattern, forwards, searchRange, matches)
+}
+
+private fun getIncsearchCommand(commandText: String): Command? {
+  try {
+    val exCommand = VimscriptParser.parseCommand(commandText)
+    // TODO: Add global, vglobal, smagic and snomagic here when the commands are supported
+    if (exCommand is SubstituteCommand) {
+      return exCommand
+    }
+  } catch (e: ProcessCanceledException) {
+    throw e
+  } catch (e: Exception) {
+    logger.warn("Cannot parse command for incsearch", e)
+  }
+  return null
+}
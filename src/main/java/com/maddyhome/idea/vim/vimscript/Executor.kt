@@ -97,7 +97,9 @@ internal class Executor : VimScriptExecutorBase() {
     val editor = TextComponentEditorImpl(null, JTextArea()).vim
     val context = DataContext.EMPTY_CONTEXT.vim
     try {
-      execute(file.readText(), editor, context, skipHistory = true, indicateErrors)
+      injector.keyGroup.batchShortcutKeysRegistration {
+        execute(file.readText(), editor, context, skipHistory = true, indicateErrors)
+      }
     } catch (ignored: IOException) {
       LOG.error(ignored)
     }
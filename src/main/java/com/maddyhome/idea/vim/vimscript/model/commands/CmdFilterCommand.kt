@@ -8,9 +8,16 @@
 
 package com.maddyhome.idea.vim.vimscript.model.commands
 
+import com.intellij.diff.comparison.ComparisonManager
+import com.intellij.diff.comparison.ComparisonPolicy
+import com.intellij.diff.comparison.DiffTooBigException
+import com.intellij.diff.fragments.LineFragment
 import com.intellij.openapi.application.ApplicationManager
 import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.editor.Document
 import com.intellij.openapi.progress.ProcessCanceledException
+import com.intellij.openapi.progress.ProgressIndicator
+import com.intellij.util.DocumentUtil
 import com.maddyhome.idea.vim.VimPlugin
 import com.maddyhome.idea.vim.api.ExecutionContext
 import com.maddyhome.idea.vim.api.VimEditor
@@ -69,20 +76,28 @@ internal data class CmdFilterCommand(val ranges: Ranges, val argument: String) :
     val workingDirectory = editor.ij.project?.basePath
     return try {
       if (ranges.size() == 0) {
-        // Show command output in a window
-        VimPlugin.getProcess().executeCommand(editor, command, null, workingDirectory)?.let {
-          ExOutputModel.getInstance(editor.ij).output(it)
+        // Show command output in a window, as it arrives
+        val outputModel = ExOutputModel.getInstance(editor.ij)
+        VimPlugin.getProcess().executeCommand(editor, command, null, workingDirectory) {
+          outputModel.appendStreamingOutput(it)
+        }?.let {
+          outputModel.output(it)
         }
         ExecutionResult.Success
       } else {
         // Filter
         val range = this.getTextRange(editor, false)
-        val input = editor.ij.document.charsSequence.subSequence(range.startOffset, range.endOffset)
-        VimPlugin.getProcess().executeCommand(editor, command, input, workingDirectory)?.let {
+        val input = editor.ij.document.immutableCharSequence.subSequence(range.startOffset, range.endOffset)
+        // The diff can take a while for a large range, so it's computed in the background task of the command, where it
+        // can be cancelled, and not in the write action
+        VimPlugin.getProcess().executeCommand(editor, command, input, workingDirectory, null) { output, indicator ->
+          val text = output.toString()
+          FilterOutput(text, compareLines(input, text, indicator))
+        }?.let {
           ApplicationManager.getApplication().runWriteAction {
             val start = editor.offsetToBufferPosition(range.startOffset)
             val end = editor.offsetToBufferPosition(range.endOffset)
-            editor.ij.document.replaceString(range.startOffset, range.endOffset, it)
+            replaceChangedLines(editor.ij.document, range.startOffset, input, it.text, it.fragments)
             val linesFiltered = end.line - start.line
             if (linesFiltered > 2) {
               VimPlugin.showMessage("$linesFiltered lines filtered")
@@ -98,7 +113,51 @@ internal data class CmdFilterCommand(val ranges: Ranges, val argument: String) :
     }
   }
 
+  /**
+   * Returns the blocks of lines that differ between the [oldText] and the [newText], or null if the texts are too
+   * different to compare
+   */
+  private fun compareLines(oldText: CharSequence, newText: String, indicator: ProgressIndicator): List<LineFragment>? {
+    return try {
+      ComparisonManager.getInstance().compareLines(oldText, newText, ComparisonPolicy.DEFAULT, indicator)
+    } catch (e: DiffTooBigException) {
+      null
+    }
+  }
+
+  /**
+   * Replaces the [oldText] at [startOffset] with the [newText], changing only the lines of the [fragments]
+   *
+   * Unchanged lines keep their markers, folds and highlighters. Without the fragments, the whole text is replaced.
+   */
+  private fun replaceChangedLines(
+    document: Document,
+    startOffset: Int,
+    oldText: CharSequence,
+    newText: String,
+    fragments: List<LineFragment>?,
+  ) {
+    if (fragments == null) {
+      document.replaceString(startOffset, startOffset + oldText.length, newText)
+      return
+    }
+
+    DocumentUtil.executeInBulk(document, fragments.size > BULK_UPDATE_THRESHOLD) {
+      // Replace bottom up, so the offsets of the remaining fragments stay valid
+      for (fragment in fragments.asReversed()) {
+        document.replaceString(
+          startOffset + fragment.startOffset1,
+          startOffset + fragment.endOffset1,
+          newText.subSequence(fragment.startOffset2, fragment.endOffset2),
+        )
+      }
+    }
+  }
+
+  private class FilterOutput(val text: String, val fragments: List<LineFragment>?)
+
   companion object {
     private val logger = Logger.getInstance(CmdFilterCommand::class.java.name)
+    private const val BULK_UPDATE_THRESHOLD = 100
   }
 }
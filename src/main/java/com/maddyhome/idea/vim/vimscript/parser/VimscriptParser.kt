@@ -9,6 +9,7 @@
 package com.maddyhome.idea.vim.vimscript.parser
 
 import com.intellij.openapi.diagnostic.logger
+import com.maddyhome.idea.vim.api.injector
 import com.maddyhome.idea.vim.vimscript.model.Script
 import com.maddyhome.idea.vim.vimscript.model.commands.Command
 import com.maddyhome.idea.vim.vimscript.model.expressions.Expression
@@ -48,7 +49,7 @@ internal object VimscriptParser : com.maddyhome.idea.vim.api.VimscriptParser {
       }
     } else {
       tries = 0
-      ScriptVisitor.visit(AST)
+      ScriptVisitor.visit(AST).also { injector.statisticsService.addParsedCode(it) }
     }
   }
 
@@ -59,7 +60,7 @@ internal object VimscriptParser : com.maddyhome.idea.vim.api.VimscriptParser {
       linesWithErrors.clear()
       return null
     }
-    return ExpressionVisitor.visit(AST)
+    return ExpressionVisitor.visit(AST).also { injector.statisticsService.addParsedExpression(it) }
   }
 
   override fun parseCommand(command: String): Command? {
@@ -69,7 +70,7 @@ internal object VimscriptParser : com.maddyhome.idea.vim.api.VimscriptParser {
       linesWithErrors.clear()
       return null
     }
-    return CommandVisitor.visit(AST)
+    return CommandVisitor.visit(AST).also { injector.statisticsService.addParsedCode(it) }
   }
 
   // grammar expects that any command or script ends with a newline character
@@ -31,6 +31,7 @@ import com.maddyhome.idea.vim.vimscript.model.commands.DeleteMarksCommand
 import com.maddyhome.idea.vim.vimscript.model.commands.DelfunctionCommand
 import com.maddyhome.idea.vim.vimscript.model.commands.DigraphCommand
 import com.maddyhome.idea.vim.vimscript.model.commands.DumpLineCommand
+import com.maddyhome.idea.vim.vimscript.model.commands.EarlierCommand
 import com.maddyhome.idea.vim.vimscript.model.commands.EchoCommand
 import com.maddyhome.idea.vim.vimscript.model.commands.EditFileCommand
 import com.maddyhome.idea.vim.vimscript.model.commands.ExecuteCommand
@@ -46,6 +47,7 @@ import com.maddyhome.idea.vim.vimscript.model.commands.HelpCommand
 import com.maddyhome.idea.vim.vimscript.model.commands.HistoryCommand
 import com.maddyhome.idea.vim.vimscript.model.commands.JoinLinesCommand
 import com.maddyhome.idea.vim.vimscript.model.commands.JumpsCommand
+import com.maddyhome.idea.vim.vimscript.model.commands.LaterCommand
 import com.maddyhome.idea.vim.vimscript.model.commands.LetCommand
 import com.maddyhome.idea.vim.vimscript.model.commands.LockVarCommand
 import com.maddyhome.idea.vim.vimscript.model.commands.MarkCommand
@@ -650,6 +652,15 @@ internal object CommandVisitor : VimscriptBaseVisitor<Command>() {
     "un" to UndoCommand::class,
     "und" to UndoCommand::class,
     "undo" to UndoCommand::class,
+    "ea" to EarlierCommand::class,
+    "ear" to EarlierCommand::class,
+    "earl" to EarlierCommand::class,
+    "earli" to EarlierCommand::class,
+    "earlie" to EarlierCommand::class,
+    "earlier" to EarlierCommand::class,
+    "lat" to LaterCommand::class,
+    "late" to LaterCommand::class,
+    "later" to LaterCommand::class,
     "wa" to WriteAllCommand::class,
     "wal" to WriteAllCommand::class,
     "wall" to WriteAllCommand::class,
@@ -197,6 +197,27 @@ class ChangeActionTest : VimTestCase() {
     )
   }
 
+  @Test
+  fun testToggleCaseVisualBlock() {
+    doTest(
+      listOf("<C-V>", "jjl", "~"),
+      """
+        f${c}oo bar
+        Baz
+        quUX
+
+      """.trimIndent(),
+      """
+        f${c}OO bar
+        BAZ
+        qUuX
+
+      """.trimIndent(),
+      VimStateMachine.Mode.COMMAND,
+      VimStateMachine.SubMode.NONE,
+    )
+  }
+
   @Test
   fun testChangeUpperCaseVisual() {
     doTest(
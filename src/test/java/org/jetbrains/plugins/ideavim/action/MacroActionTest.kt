@@ -9,6 +9,8 @@ package org.jetbrains.plugins.ideavim.action
 
 import com.maddyhome.idea.vim.VimPlugin
 import com.maddyhome.idea.vim.api.injector
+import com.maddyhome.idea.vim.command.VimStateMachine
+import com.maddyhome.idea.vim.helper.EditorHelper
 import com.maddyhome.idea.vim.helper.vimStateMachine
 import com.maddyhome.idea.vim.newapi.vim
 import org.jetbrains.plugins.ideavim.SkipNeovimReason
@@ -178,4 +180,47 @@ class MacroActionTest : VimTestCase() {
       """.trimIndent(),
     )
   }
+
+  @Test
+  fun `test screen motion in macro sees scroll of previous motion`() {
+    configureByLines(100, "    I found it in a legendary land")
+    typeText(injector.parser.parseKeys("qa" + "50j" + "H" + "q"))
+    val line = fixture.editor.caretModel.logicalPosition.line
+    val topLine = EditorHelper.getVisualLineAtTopOfScreen(fixture.editor)
+
+    typeText(injector.parser.parseKeys("gg" + "@a"))
+    assertPosition(line, 4)
+    assertTopLogicalLine(topLine)
+  }
+
+  @Test
+  fun `test macro scrolls line by line like typed keys`() {
+    configureByLines(100, "    I found it in a legendary land")
+    typeText(injector.parser.parseKeys("qa" + "j".repeat(60) + "q"))
+    val topLine = EditorHelper.getVisualLineAtTopOfScreen(fixture.editor)
+
+    // One scroll after all the motions would centre the caret line instead
+    typeText(injector.parser.parseKeys("gg" + "@a"))
+    assertPosition(60, 4)
+    assertTopLogicalLine(topLine)
+  }
+
+  @Test
+  fun `test caret shape is updated after playback`() {
+    configureByText("${c}Lorem ipsum dolor sit amet")
+    enterCommand("let @a='A!'")
+    typeText(injector.parser.parseKeys("@a"))
+    assertMode(VimStateMachine.Mode.INSERT)
+    assertCaretsVisualAttributes()
+  }
+
+  @Test
+  fun `test expr mapping that enters insert mode in macro types its own keys first`() {
+    configureByText("${c}Lorem ipsum dolor sit amet")
+    enterCommand("nnoremap <expr> X 'ifoo'")
+    enterCommand("let @a='Xbar'")
+    typeText(injector.parser.parseKeys("@a"))
+    assertState("foobar${c}Lorem ipsum dolor sit amet")
+    assertMode(VimStateMachine.Mode.INSERT)
+  }
 }
@@ -162,6 +162,17 @@ class SpecialRegistersTest : VimTestCase() {
     kotlin.test.assertEquals("one\n", getRegisterText('9'))
   }
 
+  @Test
+  fun testNumberedRegistersEvictedOverMemoryLimit() {
+    val line = "x".repeat(199)
+    configureByText("<caret>1$line\n2$line\n3$line\n")
+    enterCommand("set idearegistermemory=1")
+    typeText(injector.parser.parseKeys("dd" + "dd" + "dd"))
+    kotlin.test.assertEquals("3$line\n", getRegisterText('1'))
+    kotlin.test.assertEquals("2$line\n", getRegisterText('2'))
+    kotlin.test.assertNull(VimPlugin.getRegister().getRegister('3'))
+  }
+
   @Test
   fun testSearchRegisterAfterSearch() {
     configureByText("<caret>one\ntwo\nthree\nfour\nfive\nsix\nseven\neight\nnine\nten\n")
@@ -8,6 +8,7 @@
 
 package org.jetbrains.plugins.ideavim.action.change
 
+import com.intellij.openapi.editor.VisualPosition
 import com.maddyhome.idea.vim.command.VimStateMachine
 import com.maddyhome.idea.vim.helper.VimBehaviorDiffers
 import org.jetbrains.plugins.ideavim.SkipNeovimReason
@@ -347,4 +348,79 @@ class RepeatChangeActionTest : VimTestCase() {
       VimStateMachine.SubMode.NONE,
     )
   }
+
+  @TestWithoutNeovim(SkipNeovimReason.DIFFERENT, "Backspace doesn't join lines when an insert is repeated")
+  @Test
+  fun `test repeat backspace stops at line start`() {
+    doTest(
+      listOf("A<BS><BS><BS>X<Esc>", "j", "."),
+      """
+        ${c}Lorem
+        ab
+      """.trimIndent(),
+      """
+        LoX
+        ${c}X
+      """.trimIndent(),
+      VimStateMachine.Mode.COMMAND,
+      VimStateMachine.SubMode.NONE,
+    )
+  }
+
+  @Test
+  fun `test repeat delete`() {
+    doTest(
+      listOf("i<Del><Del>X<Esc>", "j0", "."),
+      """
+        ${c}Lorem
+        ipsum
+      """.trimIndent(),
+      """
+        Xrem
+        ${c}Xsum
+      """.trimIndent(),
+      VimStateMachine.Mode.COMMAND,
+      VimStateMachine.SubMode.NONE,
+    )
+  }
+
+  @TestWithoutNeovim(SkipNeovimReason.DIFFERENT, "Arrow keys don't start a new insert")
+  @Test
+  fun `test repeat arrow keys`() {
+    doTest(
+      listOf("Afoo<Left><Left>X<Esc>", "j", "."),
+      """
+        ${c}ab
+        cd
+      """.trimIndent(),
+      """
+        abfXoo
+        cdf${c}Xoo
+      """.trimIndent(),
+      VimStateMachine.Mode.COMMAND,
+      VimStateMachine.SubMode.NONE,
+    )
+  }
+
+  @TestWithoutNeovim(SkipNeovimReason.DIFFERENT, "Vim doesn't have multiple carets")
+  @Test
+  fun `test repeat backspace with multiple carets`() {
+    configureByText(
+      """
+        ${c}Lorem
+        ipsum
+        ab
+      """.trimIndent(),
+    )
+    typeText("A<BS><BS><BS>X<Esc>", "j")
+    fixture.editor.caretModel.addCaret(VisualPosition(2, 0))
+    typeText(".")
+    assertState(
+      """
+        LoX
+        ip${c}X
+        ${c}X
+      """.trimIndent(),
+    )
+  }
 }
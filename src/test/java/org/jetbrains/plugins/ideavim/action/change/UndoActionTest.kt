@@ -8,10 +8,16 @@
 
 package org.jetbrains.plugins.ideavim.action.change
 
+import com.maddyhome.idea.vim.api.injector
 import com.maddyhome.idea.vim.command.VimStateMachine
 import com.maddyhome.idea.vim.group.IjOptionConstants
+import com.maddyhome.idea.vim.newapi.vim
+import org.jetbrains.plugins.ideavim.SkipNeovimReason
+import org.jetbrains.plugins.ideavim.TestWithoutNeovim
 import org.jetbrains.plugins.ideavim.VimTestCase
 import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
 
 class UndoActionTest : VimTestCase() {
   @Test
@@ -95,6 +101,187 @@ class UndoActionTest : VimTestCase() {
     }
   }
 
+  @TestWithoutNeovim(reason = SkipNeovimReason.OPTION)
+  @Test
+  fun `test undo with count in undo journal`() {
+    configureByText(
+      """
+                Lorem Ipsum
+
+                ${c}Lorem ipsum dolor sit amet,
+                consectetur adipiscing elit
+      """.trimIndent(),
+    )
+    enterCommand("set undojournal")
+    typeText("dwdwdw", "2u")
+    assertState(
+      """
+                Lorem Ipsum
+
+                ${c}ipsum dolor sit amet,
+                consectetur adipiscing elit
+      """.trimIndent(),
+    )
+    kotlin.test.assertFalse(hasSelection())
+
+    typeText("2<C-R>")
+    assertState(
+      """
+                Lorem Ipsum
+
+                ${c}sit amet,
+                consectetur adipiscing elit
+      """.trimIndent(),
+    )
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.OPTION)
+  @Test
+  fun `test insert session is one step in undo journal`() {
+    configureByText(
+      """
+                Lorem Ipsum
+
+                ${c}Lorem ipsum dolor sit amet,
+      """.trimIndent(),
+    )
+    enterCommand("set undojournal")
+    typeText("x", "ifoo<BS>x bar<Esc>", "g-")
+    assertState(
+      """
+                Lorem Ipsum
+
+                ${c}orem ipsum dolor sit amet,
+      """.trimIndent(),
+    )
+
+    typeText("g-")
+    assertState(
+      """
+                Lorem Ipsum
+
+                ${c}Lorem ipsum dolor sit amet,
+      """.trimIndent(),
+    )
+
+    typeText("2g+")
+    assertState(
+      """
+                Lorem Ipsum
+
+                ${c}fox barorem ipsum dolor sit amet,
+      """.trimIndent(),
+    )
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.OPTION)
+  @Test
+  fun `test undo line`() {
+    configureByText(
+      """
+                Lorem Ipsum
+
+                Lorem ${c}ipsum dolor sit amet,
+                consectetur adipiscing elit
+      """.trimIndent(),
+    )
+    enterCommand("set undojournal")
+    typeText("xxwx")
+    assertState(
+      """
+                Lorem Ipsum
+
+                Lorem sum ${c}olor sit amet,
+                consectetur adipiscing elit
+      """.trimIndent(),
+    )
+
+    typeText("U")
+    assertState(
+      """
+                Lorem Ipsum
+
+                ${c}Lorem ipsum dolor sit amet,
+                consectetur adipiscing elit
+      """.trimIndent(),
+    )
+
+    typeText("U")
+    assertState(
+      """
+                Lorem Ipsum
+
+                ${c}Lorem sum olor sit amet,
+                consectetur adipiscing elit
+      """.trimIndent(),
+    )
+
+    typeText("u")
+    assertState(
+      """
+                Lorem Ipsum
+
+                Lorem ipsum dolor sit amet,
+                consectetur adipiscing elit
+      """.trimIndent(),
+    )
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.OPTION)
+  @Test
+  fun `test undo and redo round trip in undo journal keeps marks`() {
+    configureByText(
+      """
+                ${c}one
+                two
+                three
+      """.trimIndent(),
+    )
+    enterCommand("set undojournal")
+    typeText("x", "jj", "x", "k", "ma", "2u")
+    assertState(
+      """
+                ${c}one
+                two
+                three
+      """.trimIndent(),
+    )
+    val mark = injector.markService.getMark(fixture.editor.vim.primaryCaret(), 'a')
+    assertNotNull(mark)
+    assertEquals(1 to 0, mark.line to mark.col)
+
+    typeText("2<C-R>")
+    assertState(
+      """
+                ${c}ne
+                two
+                hree
+      """.trimIndent(),
+    )
+
+    typeText("u")
+    assertState(
+      """
+                ne
+                two
+                ${c}three
+      """.trimIndent(),
+    )
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.OPTION)
+  @Test
+  fun `test undolevels limits undo journal`() {
+    configureByText("${c}abcdef")
+    enterCommand("set undojournal")
+    enterCommand("set undolevels=2")
+    typeText("xxx", "3u")
+    assertState("${c}bcdef")
+
+    typeText("3<C-R>")
+    assertState("${c}def")
+  }
+
   private fun hasSelection(): Boolean {
     val editor = fixture.editor
     return editor.caretModel.primaryCaret.hasSelection()
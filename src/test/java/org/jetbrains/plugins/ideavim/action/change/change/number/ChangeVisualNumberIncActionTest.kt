@@ -10,8 +10,11 @@ package org.jetbrains.plugins.ideavim.action.change.change.number
 
 import com.maddyhome.idea.vim.api.injector
 import com.maddyhome.idea.vim.command.VimStateMachine
+import com.maddyhome.idea.vim.newapi.vim
 import org.jetbrains.plugins.ideavim.VimTestCase
 import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
 
 /**
  * @author Alex Plate
@@ -212,4 +215,48 @@ class ChangeVisualNumberIncActionTest : VimTestCase() {
       VimStateMachine.SubMode.NONE,
     )
   }
+
+  @Test
+  fun `test inc visual padded and negative numbers`() {
+    doTest(
+      "V3j<C-A>",
+      """
+                    ${c}x 0099
+                    -007
+                    -1
+                    123456789012345678901
+      """.trimIndent(),
+      """
+                    ${c}x 0100
+                    -006
+                    0
+                    123456789012345678902
+      """.trimIndent(),
+      VimStateMachine.Mode.COMMAND,
+      VimStateMachine.SubMode.NONE,
+    )
+  }
+
+  @Test
+  fun `test inc visual multiple lines keeps marks`() {
+    configureByText(
+      """
+                    ${c}1
+                    2
+                    3
+      """.trimIndent(),
+    )
+    typeText("j", "ma", "gg", "V2j<C-A>")
+    assertState(
+      """
+                    ${c}2
+                    3
+                    4
+      """.trimIndent(),
+    )
+
+    val mark = injector.markService.getMark(fixture.editor.vim.primaryCaret(), 'a')
+    assertNotNull(mark)
+    assertEquals(1 to 0, mark.line to mark.col)
+  }
 }
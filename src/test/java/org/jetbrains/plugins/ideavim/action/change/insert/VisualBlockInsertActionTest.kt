@@ -11,12 +11,17 @@ package org.jetbrains.plugins.ideavim.action.change.insert
 import com.intellij.codeInsight.daemon.impl.HintRenderer
 import com.intellij.codeInsight.folding.CodeFoldingManager
 import com.intellij.codeInsight.folding.impl.FoldingUtil
+import com.intellij.openapi.editor.FoldRegion
 import com.maddyhome.idea.vim.api.injector
 import com.maddyhome.idea.vim.command.VimStateMachine
+import com.maddyhome.idea.vim.newapi.vim
 import org.jetbrains.plugins.ideavim.SkipNeovimReason
 import org.jetbrains.plugins.ideavim.TestWithoutNeovim
 import org.jetbrains.plugins.ideavim.VimTestCase
 import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertTrue
 
 class VisualBlockInsertActionTest : VimTestCase() {
 
@@ -204,4 +209,69 @@ Xbar
       VimStateMachine.SubMode.NONE,
     )
   }
+
+  @TestWithoutNeovim(SkipNeovimReason.FOLDING)
+  @Test
+  fun `test block insert keeps marks and folds inside the block`() {
+    configureByText(
+      """
+        ${c}foo
+        bar
+        baz
+        quux
+      """.trimIndent(),
+    )
+    typeText("j", "ma")
+    val document = fixture.editor.document
+    var fold: FoldRegion? = null
+    fixture.editor.foldingModel.runBatchFoldingOperation {
+      fold = fixture.editor.foldingModel
+        .addFoldRegion(document.getLineStartOffset(1) + 1, document.getLineEndOffset(2), "...")
+    }
+
+    typeText("gg", "<C-V>", "3j", "I", "X", "<Esc>")
+    assertState(
+      """
+        ${c}Xfoo
+        Xbar
+        Xbaz
+        Xquux
+      """.trimIndent(),
+    )
+
+    val mark = injector.markService.getMark(fixture.editor.vim.primaryCaret(), 'a')
+    assertNotNull(mark)
+    assertEquals(1, mark.line)
+    assertEquals(0, mark.col)
+    assertTrue(fold!!.isValid)
+    assertEquals("ar\nXbaz", document.getText(fold!!.textRange))
+  }
+
+  @TestWithoutNeovim(SkipNeovimReason.VISUAL_BLOCK_MODE)
+  @Test
+  fun `test block insert change marks`() {
+    configureByText(
+      """
+        ${c}foo
+        bar
+        baz
+      """.trimIndent(),
+    )
+    typeText("<C-V>", "2j", "I", "ab", "<Esc>")
+    assertState(
+      """
+        ${c}abfoo
+        abbar
+        abbaz
+      """.trimIndent(),
+    )
+
+    val caret = fixture.editor.vim.primaryCaret()
+    val changeStart = injector.markService.getMark(caret, '[')!!
+    assertEquals(0 to 0, changeStart.line to changeStart.col)
+    val changeEnd = injector.markService.getMark(caret, ']')!!
+    assertEquals(0 to 2, changeEnd.line to changeEnd.col)
+    val changePos = injector.markService.getMark(caret, '.')!!
+    assertEquals(0 to 0, changePos.line to changePos.col)
+  }
 }
@@ -16,6 +16,7 @@ import com.intellij.openapi.editor.Editor
 import com.intellij.psi.PsiFile
 import com.intellij.testFramework.ExtensionTestUtil
 import com.maddyhome.idea.vim.VimPlugin
+import com.maddyhome.idea.vim.api.ImmutableVimCaret
 import com.maddyhome.idea.vim.api.injector
 import com.maddyhome.idea.vim.command.SelectionType
 import com.maddyhome.idea.vim.command.VimStateMachine
@@ -25,6 +26,8 @@ import org.jetbrains.plugins.ideavim.VimTestCase
 import org.jetbrains.plugins.ideavim.rangeOf
 import org.junit.jupiter.api.Test
 import java.awt.datatransfer.Transferable
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
 
 class PutTestAfterCursorActionTest : VimTestCase() {
   @Test
@@ -168,6 +171,72 @@ class PutTestAfterCursorActionTest : VimTestCase() {
     assertState(after)
   }
 
+  @Test
+  fun `test put block past line ends and end of file`() {
+    configureByText(
+      """
+        abc
+        ${c}d
+        ef
+      """.trimIndent(),
+    )
+    typeText("mm")
+    injector.registerGroup.storeText('a', "12\n34\n56\n78", SelectionType.BLOCK_WISE)
+    typeText("gg$", "\"ap")
+    assertState(
+      """
+        abc${c}12
+        d  34
+        ef 56
+           78
+      """.trimIndent(),
+    )
+
+    val caret = fixture.editor.vim.primaryCaret()
+    assertMark(caret, '[', 0, 3)
+    assertMark(caret, ']', 2, 4)
+    assertMark(caret, 'm', 1, 0)
+  }
+
+  @Test
+  fun `test put block with multiple carets`() {
+    configureByText(
+      """
+        a${c}b
+        cd
+        e${c}f
+        gh
+        ij
+      """.trimIndent(),
+    )
+    val vimEditor = fixture.editor.vim
+    injector.markService.setMark(vimEditor.primaryCaret(), 'm', fixture.editor.document.getLineStartOffset(1) + 1)
+    injector.registerGroup.storeText('a', "12\n34", SelectionType.BLOCK_WISE)
+    typeText("\"ap")
+    assertState(
+      """
+        ab${c}12
+        cd34
+        ef${c}12
+        gh34
+        ij
+      """.trimIndent(),
+    )
+
+    val (first, second) = vimEditor.nativeCarets()
+    assertMark(first, '[', 0, 2)
+    assertMark(first, ']', 1, 0)
+    assertMark(second, '[', 2, 2)
+    assertMark(second, ']', 3, 0)
+    assertMark(vimEditor.primaryCaret(), 'm', 1, 1)
+  }
+
+  private fun assertMark(caret: ImmutableVimCaret, char: Char, line: Int, column: Int) {
+    val mark = injector.markService.getMark(caret, char)
+    assertNotNull(mark, "Mark $char is not set")
+    assertEquals(line to column, mark.line to mark.col, "Wrong position of mark $char")
+  }
+
   private class TestExtension : CopyPastePostProcessor<TextBlockTransferableData>() {
     var calledExtractTransferableData = 0
     override fun collectTransferableData(
@@ -8,6 +8,8 @@
 
 package org.jetbrains.plugins.ideavim.action.copy
 
+import com.intellij.codeInsight.editorActions.TextBlockTransferable
+import com.intellij.openapi.ide.CopyPasteManager
 import com.maddyhome.idea.vim.api.injector
 import com.maddyhome.idea.vim.options.OptionConstants
 import org.jetbrains.plugins.ideavim.VimTestCase
@@ -82,4 +84,13 @@ class YankAndPutTest : VimTestCase() {
       """.trimIndent(),
     )
   }
+
+  @OptionTest(VimOption(OptionConstants.clipboard, limitedValues = [OptionConstants.clipboard_unnamed]))
+  fun `test put uses clipboard set by the IDE after yank`() {
+    configureByText("I ${c}found it in a legendary land")
+    typeText(injector.parser.parseKeys("yiw"))
+    CopyPasteManager.getInstance().setContents(TextBlockTransferable("lost ", emptyList(), null))
+    typeText(injector.parser.parseKeys("P"))
+    assertState("I lost${c} found it in a legendary land")
+  }
 }
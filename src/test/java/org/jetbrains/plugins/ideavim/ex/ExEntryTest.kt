@@ -297,6 +297,49 @@ class ExEntryTest : VimTestCase() {
     assertExText("set digraph")
   }
 
+  @TestWithoutNeovim(SkipNeovimReason.CMD)
+  @Test
+  fun `test matching command history stops at the ends`() {
+    typeExInput(":set digraph<CR>")
+    typeExInput(":digraph<CR>")
+    typeExInput(":set incsearch<CR>")
+
+    typeExInput(":set<Up><Up>")
+    assertExText("set digraph")
+    assertPluginError(false)
+    typeText("<Up>")
+    assertExText("set digraph")
+    assertPluginError(true)
+
+    VimPlugin.clearError()
+    typeText("<Down>")
+    assertExText("set incsearch")
+    typeText("<Down>")
+    assertExText("set")
+    assertPluginError(false)
+    typeText("<Down>")
+    assertExText("set")
+    assertPluginError(true)
+  }
+
+  @TestWithoutNeovim(SkipNeovimReason.CMD)
+  @Test
+  fun `test matching command history with repeated entries`() {
+    typeExInput(":set digraph<CR>")
+    typeExInput(":digraph<CR>")
+    typeExInput(":set incsearch<CR>")
+    typeExInput(":set digraph<CR>")
+
+    typeExInput(":set<Up>")
+    assertExText("set digraph")
+    typeText("<Up>")
+    assertExText("set incsearch")
+    typeText("<Down>")
+    assertExText("set digraph")
+    typeText("<Down>")
+    assertExText("set")
+  }
+
   @Test
   fun `test search history`() {
     typeExInput("/something cool<CR>")
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package org.jetbrains.plugins.ideavim.ex
+
+import com.intellij.openapi.progress.EmptyProgressIndicator
+import com.intellij.openapi.progress.ProcessCanceledException
+import com.intellij.openapi.progress.ProgressManager
+import com.maddyhome.idea.vim.helper.SearchHelper
+import com.maddyhome.idea.vim.ui.ex.IncsearchEvaluation
+import com.maddyhome.idea.vim.ui.ex.parseIncsearch
+import com.maddyhome.idea.vim.ui.ex.withMatches
+import org.jetbrains.plugins.ideavim.VimTestCase
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import kotlin.test.assertEquals
+import kotlin.test.assertIs
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+
+class IncsearchEvaluationTest : VimTestCase() {
+  private val text = """I found it in a legendary land
+    |all rocks and lavender and tufted grass,
+    |where it was settled on some sodden sand
+    |hard by the torrent of a mountain pass.
+  """.trimMargin()
+
+  @Test
+  fun `test parse search`() {
+    configureByText(text)
+    val evaluation = assertIs<IncsearchEvaluation.Search>(parseIncsearch(fixture.editor, "?", "la/e"))
+    assertEquals("la/e", evaluation.pattern)
+    assertEquals(false, evaluation.forwards)
+    assertNull(evaluation.searchRange)
+    assertNull(evaluation.matches)
+  }
+
+  @Test
+  fun `test parse substitute command`() {
+    configureByText(text)
+    val evaluation = assertIs<IncsearchEvaluation.Search>(parseIncsearch(fixture.editor, ":", "2,3s/and/or/g"))
+    assertEquals("and", evaluation.pattern)
+    assertEquals(true, evaluation.forwards)
+    val searchRange = assertNotNull(evaluation.searchRange)
+    assertEquals(1, searchRange.startLine)
+    assertEquals(2, searchRange.endLine)
+  }
+
+  @Test
+  fun `test parse substitute command without pattern`() {
+    configureByText(text)
+    assertIs<IncsearchEvaluation.Reset>(parseIncsearch(fixture.editor, ":", "%s/"))
+  }
+
+  @Test
+  fun `test parse other command`() {
+    configureByText(text)
+    assertIs<IncsearchEvaluation.None>(parseIncsearch(fixture.editor, ":", "echo 'and'"))
+  }
+
+  @Test
+  fun `test find matches in substitute range`() {
+    configureByText(text)
+    enterCommand("set hlsearch")
+    val search = assertIs<IncsearchEvaluation.Search>(parseIncsearch(fixture.editor, ":", "2,3s/and/or/g"))
+    val matches = assertNotNull(search.withMatches(fixture.editor, 0).matches)
+    assertEquals(listOf(41, 54, 109), matches.results.map { it.startOffset })
+  }
+
+  @Test
+  fun `test cancelled search stops only if cancellable`() {
+    configureByText(text)
+    val indicator = EmptyProgressIndicator().apply { cancel() }
+    val results = ProgressManager.getInstance().runProcess<List<*>>(
+      { SearchHelper.findAll(fixture.editor, "and", 0, -1, false) },
+      indicator,
+    )
+    assertEquals(4, results.size)
+    assertThrows<ProcessCanceledException> {
+      ProgressManager.getInstance().runProcess<List<*>>(
+        { SearchHelper.findAll(fixture.editor, "and", 0, -1, false, true) },
+        indicator,
+      )
+    }
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package org.jetbrains.plugins.ideavim.ex.implementation.commands
+
+import org.jetbrains.plugins.ideavim.SkipNeovimReason
+import org.jetbrains.plugins.ideavim.TestWithoutNeovim
+import org.jetbrains.plugins.ideavim.VimTestCase
+import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class CmdFilterCommandTest : VimTestCase() {
+  @TestWithoutNeovim(SkipNeovimReason.CMD)
+  @Test
+  fun `test filter that changes a few lines keeps the other lines`() {
+    configureByText("one\ntwo\nthree\nfour\nfive\n")
+    val document = fixture.editor.document
+    val first = document.createRangeMarker(0, 3)
+    val last = document.createRangeMarker(document.getLineStartOffset(4), document.getLineEndOffset(4))
+
+    enterCommand("%!sed s/three/THREE/")
+
+    assertState("one\ntwo\nTHREE\nfour\nfive\n")
+    assertTrue(first.isValid)
+    assertEquals("one", document.getText(first.textRange))
+    assertTrue(last.isValid)
+    assertEquals("five", document.getText(last.textRange))
+  }
+
+  @TestWithoutNeovim(SkipNeovimReason.CMD)
+  @Test
+  fun `test filter that changes all lines`() {
+    configureByText("one\ntwo\nthree\nfour\nfive\n")
+    enterCommand("%!tr a-z A-Z")
+    assertState("ONE\nTWO\nTHREE\nFOUR\nFIVE\n")
+  }
+
+  @TestWithoutNeovim(SkipNeovimReason.CMD)
+  @Test
+  fun `test filter that changes the line count`() {
+    configureByText("one\ntwo\nthree\nfour\nfive\n")
+    val document = fixture.editor.document
+    // The second line is in the filtered range, but isn't changed
+    val second = document.createRangeMarker(document.getLineStartOffset(1), document.getLineEndOffset(1))
+
+    enterCommand("2,4!sed /three/d")
+
+    assertState("one\ntwo\nfour\nfive\n")
+    assertTrue(second.isValid)
+    assertEquals("two", document.getText(second.textRange))
+  }
+}
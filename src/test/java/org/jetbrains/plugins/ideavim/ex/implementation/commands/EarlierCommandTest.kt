@@ -0,0 +1,84 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package org.jetbrains.plugins.ideavim.ex.implementation.commands
+
+import org.jetbrains.plugins.ideavim.SkipNeovimReason
+import org.jetbrains.plugins.ideavim.TestWithoutNeovim
+import org.jetbrains.plugins.ideavim.VimTestCase
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestInfo
+
+class EarlierCommandTest : VimTestCase() {
+  @BeforeEach
+  override fun setUp(testInfo: TestInfo) {
+    super.setUp(testInfo)
+    configureByText(
+      """
+        ${c}Lorem ipsum dolor sit amet,
+        consectetur adipiscing elit
+      """.trimIndent(),
+    )
+    enterCommand("set undojournal")
+    typeText("dwdwdw")
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.OPTION)
+  @Test
+  fun `test earlier and later with count`() {
+    enterCommand("earlier 2")
+    assertState(
+      """
+        ${c}ipsum dolor sit amet,
+        consectetur adipiscing elit
+      """.trimIndent(),
+    )
+
+    enterCommand("later")
+    assertState(
+      """
+        ${c}dolor sit amet,
+        consectetur adipiscing elit
+      """.trimIndent(),
+    )
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.OPTION)
+  @Test
+  fun `test earlier and later with time`() {
+    enterCommand("earlier 1h")
+    assertState(
+      """
+        ${c}Lorem ipsum dolor sit amet,
+        consectetur adipiscing elit
+      """.trimIndent(),
+    )
+
+    enterCommand("lat 10m")
+    assertState(
+      """
+        ${c}sit amet,
+        consectetur adipiscing elit
+      """.trimIndent(),
+    )
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.OPTION)
+  @Test
+  fun `test earlier with file writes is not supported`() {
+    enterCommand("earlier 1f")
+    assertPluginError(true)
+    assertState(
+      """
+        ${c}sit amet,
+        consectetur adipiscing elit
+      """.trimIndent(),
+    )
+  }
+}
@@ -121,4 +121,32 @@ class JumpsCommandTest : VimTestCase() {
       """.trimMargin(),
     )
   }
+
+  @Test
+  fun `test jumps are moved by inserted lines`() {
+    configureByText(
+      """I found ${c}it in a legendary land
+                      |all rocks and lavender and tufted grass,
+                      |where it was settled on some sodden sand
+                      |hard by the torrent of a mountain pass.
+                      |
+                      |The features it combines mark it as new
+                      |to science: shape and shade -- the special tinge,
+      """.trimMargin(),
+    )
+
+    enterSearch("sodden")
+    enterSearch("shape")
+    typeText(injector.parser.parseKeys("5k" + "o" + "<Esc>"))
+
+    enterCommand("jumps")
+    assertExOutput(
+      """ jump line  col file/text
+                     |   2     1    8 I found it in a legendary land
+                     |   1     4   29 where it was settled on some sodden sand
+                     |>
+                     |
+      """.trimMargin(),
+    )
+  }
 }
@@ -825,6 +825,24 @@ n  ,f            <Plug>Foo
     assertPluginErrorMessageContains("E15: Invalid expression: ^f8a")
   }
 
+  @Test
+  fun `test expr mapping that enters insert mode in the middle of a mapping`() {
+    configureByText("${c}Lorem ipsum dolor sit amet")
+    enterCommand("nnoremap <expr> X 'ifoo'")
+    enterCommand("nmap Y Xbar")
+    typeText(injector.parser.parseKeys("Y"))
+    assertState("foobar${c}Lorem ipsum dolor sit amet")
+    assertMode(VimStateMachine.Mode.INSERT)
+  }
+
+  @Test
+  fun `test expr mapping that enters insert mode in the middle of normal command`() {
+    configureByText("${c}Lorem ipsum dolor sit amet")
+    enterCommand("nnoremap <expr> X 'ifoo'")
+    enterCommand("normal Xbar")
+    assertState("fooba${c}rLorem ipsum dolor sit amet")
+  }
+
   @TestWithoutNeovim(reason = SkipNeovimReason.PLUGIN_ERROR)
   @Test
   fun `test map expr context`() {
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package org.jetbrains.plugins.ideavim.ex.parser
+
+import com.maddyhome.idea.vim.vimscript.model.ScriptFeatures
+import com.maddyhome.idea.vim.vimscript.parser.VimscriptParser
+import org.jetbrains.plugins.ideavim.VimTestCase
+import org.junit.jupiter.api.Test
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class ScriptFeaturesTest : VimTestCase() {
+
+  private fun scan(script: String): ScriptFeatures {
+    return ScriptFeatures().apply { scan(VimscriptParser.parse(script.trimIndent())) }
+  }
+
+  @Test
+  fun `test script without features`() {
+    val features = scan(
+      """
+        set incsearch
+        let g:name = 'value'
+        echo g:name
+      """,
+    )
+    assertFalse(features.isIfUsed)
+    assertFalse(features.isLoopUsed)
+    assertFalse(features.isFunctionDeclarationUsed)
+    assertFalse(features.isFunctionCallUsed)
+  }
+
+  @Test
+  fun `test if statement`() {
+    val features = scan(
+      """
+        if has('ide')
+          set ideajoin
+        endif
+      """,
+    )
+    assertTrue(features.isIfUsed)
+    assertTrue(features.isFunctionCallUsed)
+    assertFalse(features.isLoopUsed)
+    assertFalse(features.isFunctionDeclarationUsed)
+  }
+
+  @Test
+  fun `test for loop`() {
+    val features = scan(
+      """
+        for i in [1, 2]
+          echo i
+        endfor
+      """,
+    )
+    assertTrue(features.isLoopUsed)
+    assertFalse(features.isFunctionCallUsed)
+  }
+
+  @Test
+  fun `test for loop with list`() {
+    val features = scan(
+      """
+        for [a, b] in [[1, 2]]
+          echo a
+        endfor
+      """,
+    )
+    assertTrue(features.isLoopUsed)
+  }
+
+  @Test
+  fun `test while loop`() {
+    val features = scan(
+      """
+        let i = 0
+        while i < 3
+          let i += 1
+        endwhile
+      """,
+    )
+    assertTrue(features.isLoopUsed)
+    assertFalse(features.isIfUsed)
+  }
+
+  @Test
+  fun `test features in a function that is never called`() {
+    val features = scan(
+      """
+        function! Toggle() abort
+          if exists('g:toggled')
+            unlet g:toggled
+          endif
+        endfunction
+      """,
+    )
+    assertTrue(features.isFunctionDeclarationUsed)
+    assertTrue(features.isIfUsed)
+    assertTrue(features.isFunctionCallUsed)
+    assertFalse(features.isLoopUsed)
+  }
+
+  @Test
+  fun `test dictionary function`() {
+    val features = scan(
+      """
+        let dict = {}
+        function dict.name() dict
+          return self.value
+        endfunction
+      """,
+    )
+    assertTrue(features.isFunctionDeclarationUsed)
+    assertFalse(features.isFunctionCallUsed)
+  }
+
+  @Test
+  fun `test function calls nested in expressions`() {
+    assertTrue(scan("let x = [1, {'key': 2 + abs(-3)}]").isFunctionCallUsed)
+    assertTrue(scan("echo 1 ? 'a' : toupper('b')").isFunctionCallUsed)
+    assertTrue(scan("let F = {x -> len(x)}").isFunctionCallUsed)
+    assertTrue(scan("call Foo()").isFunctionCallUsed)
+    assertTrue(scan("execute 'echo ' . string(1)").isFunctionCallUsed)
+  }
+
+  @Test
+  fun `test function call in try block`() {
+    val features = scan(
+      """
+        try
+          throw 'error'
+        catch
+          echo v:exception
+        finally
+          call Cleanup()
+        endtry
+      """,
+    )
+    assertTrue(features.isFunctionCallUsed)
+    assertFalse(features.isIfUsed)
+  }
+
+  @Test
+  fun `test expression parsed on its own`() {
+    val features = ScriptFeatures()
+    features.scan(VimscriptParser.parseExpression("pumvisible() ? '<C-n>' : '<Tab>'")!!)
+    assertTrue(features.isFunctionCallUsed)
+    assertFalse(features.isIfUsed)
+  }
+
+  @Test
+  fun `test features add up over scans`() {
+    val features = ScriptFeatures()
+    features.scan(VimscriptParser.parse("if 1\nendif\n"))
+    assertFalse(features.isComplete)
+    features.scan(VimscriptParser.parse("while 0\nendwhile\n"))
+    features.scan(VimscriptParser.parse("function F()\nendfunction\n"))
+    assertFalse(features.isComplete)
+    features.scan(VimscriptParser.parseCommand("call F()")!!)
+    assertTrue(features.isIfUsed)
+    assertTrue(features.isLoopUsed)
+    assertTrue(features.isFunctionDeclarationUsed)
+    assertTrue(features.isFunctionCallUsed)
+    assertTrue(features.isComplete)
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package org.jetbrains.plugins.ideavim.group
+
+import com.intellij.openapi.actionSystem.ActionManager
+import com.intellij.openapi.actionSystem.ActionPlaces
+import com.intellij.openapi.actionSystem.AnActionEvent
+import com.intellij.openapi.actionSystem.IdeActions
+import com.intellij.openapi.actionSystem.ex.ActionUtil
+import com.intellij.openapi.editor.Editor
+import com.intellij.openapi.editor.EditorFactory
+import com.intellij.openapi.editor.actionSystem.EditorActionManager
+import com.intellij.openapi.editor.actionSystem.TypedAction
+import com.maddyhome.idea.vim.action.VimShortcutKeyAction
+import com.maddyhome.idea.vim.api.injector
+import com.maddyhome.idea.vim.command.CommandState
+import com.maddyhome.idea.vim.helper.mode
+import com.maddyhome.idea.vim.helper.vimStateDeferred
+import com.maddyhome.idea.vim.newapi.ij
+import com.maddyhome.idea.vim.newapi.vim
+import org.jetbrains.plugins.ideavim.SkipNeovimReason
+import org.jetbrains.plugins.ideavim.TestWithoutNeovim
+import org.jetbrains.plugins.ideavim.VimTestCase
+import org.junit.jupiter.api.Test
+import java.awt.event.KeyEvent
+import java.util.*
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class EditorStateInitializationTest : VimTestCase() {
+  @TestWithoutNeovim(reason = SkipNeovimReason.NOT_VIM_TESTING)
+  @Test
+  fun `test file editor state is created eagerly`() {
+    configureByText("${c}one\ntwo\n")
+    assertFalse(fixture.editor.vimStateDeferred)
+    assertEquals(CommandState.Mode.COMMAND, fixture.editor.mode)
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.NOT_VIM_TESTING)
+  @Test
+  fun `test non-file editor state is deferred`() {
+    withNonFileEditor { editor ->
+      assertTrue(editor.vimStateDeferred)
+    }
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.NOT_VIM_TESTING)
+  @Test
+  fun `test typed key creates deferred state`() {
+    withNonFileEditor { editor ->
+      TypedAction.getInstance().actionPerformed(editor, 'x', dataContext(editor))
+
+      // The state of a writable non-file editor starts in insert mode, so the char is inserted and not handled as `x`
+      assertFalse(editor.vimStateDeferred)
+      assertEquals(CommandState.Mode.INSERT, editor.mode)
+      assertEquals("xone\ntwo\n", editor.document.text)
+    }
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.NOT_VIM_TESTING)
+  @Test
+  fun `test shortcut key creates deferred state`() {
+    withNonFileEditor { editor ->
+      val event = KeyEvent(editor.component, KeyEvent.KEY_PRESSED, Date().time, 0, KeyEvent.VK_INSERT, KeyEvent.CHAR_UNDEFINED)
+      val e = AnActionEvent(
+        event,
+        dataContext(editor),
+        ActionPlaces.KEYBOARD_SHORTCUT,
+        VimShortcutKeyAction.instance.templatePresentation.clone(),
+        ActionManager.getInstance(),
+        0,
+      )
+      if (ActionUtil.lastUpdateAndCheckDumb(VimShortcutKeyAction.instance, e, true)) {
+        ActionUtil.performActionDumbAwareWithCallbacks(VimShortcutKeyAction.instance, e)
+      }
+
+      // <Insert> toggles the insert mode of the new state to replace. In the normal mode it would start insert
+      assertFalse(editor.vimStateDeferred)
+      assertEquals(CommandState.Mode.REPLACE, editor.mode)
+    }
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.NOT_VIM_TESTING)
+  @Test
+  fun `test escape handler creates deferred state`() {
+    withNonFileEditor { editor ->
+      EditorActionManager.getInstance().getActionHandler(IdeActions.ACTION_EDITOR_ESCAPE)
+        .execute(editor, editor.caretModel.primaryCaret, dataContext(editor))
+
+      assertFalse(editor.vimStateDeferred)
+    }
+  }
+
+  private fun dataContext(editor: Editor) = injector.executionContextManager.onEditor(editor.vim).ij
+
+  private fun withNonFileEditor(action: (Editor) -> Unit) {
+    val editorFactory = EditorFactory.getInstance()
+    val editor = editorFactory.createEditor(editorFactory.createDocument("one\ntwo\n"), fixture.project)
+    try {
+      action(editor)
+    } finally {
+      editorFactory.releaseEditor(editor)
+    }
+  }
+}
@@ -8,7 +8,9 @@
 
 package org.jetbrains.plugins.ideavim.group
 
+import com.intellij.openapi.actionSystem.KeyboardShortcut
 import com.maddyhome.idea.vim.VimPlugin
+import com.maddyhome.idea.vim.action.VimShortcutKeyAction
 import com.maddyhome.idea.vim.api.injector
 import com.maddyhome.idea.vim.command.MappingMode
 import com.maddyhome.idea.vim.key.MappingOwner
@@ -16,6 +18,11 @@ import org.jetbrains.plugins.ideavim.SkipNeovimReason
 import org.jetbrains.plugins.ideavim.TestWithoutNeovim
 import org.jetbrains.plugins.ideavim.VimTestCase
 import org.junit.jupiter.api.Test
+import java.io.File
+import javax.swing.KeyStroke
+import kotlin.test.assertContains
+import kotlin.test.assertFailsWith
+import kotlin.test.assertFalse
 
 class KeyGroupTest : VimTestCase() {
   private val owner = MappingOwner.Plugin.get("KeyGroupTest")
@@ -60,4 +67,69 @@ class KeyGroupTest : VimTestCase() {
     typeText(keys)
     assertState("${c}I found it in a legendary land")
   }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.PLUGIN)
+  @Test
+  fun `test mapping from executed file registers its shortcut`() {
+    val key = injector.parser.parseKeys("<C-S-F7>").single()
+    configureByText("I ${c}found it in a legendary land")
+    assertFalse(key in registeredShortcutKeys())
+
+    val file = File.createTempFile("ideavimrc", ".vim")
+    try {
+      file.writeText("nnoremap <C-S-F7> h\n")
+      injector.vimscriptExecutor.executeFile(file)
+    } finally {
+      file.delete()
+    }
+
+    assertContains(registeredShortcutKeys(), key)
+    typeText(listOf(key))
+    assertState("I$c found it in a legendary land")
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.PLUGIN)
+  @Test
+  fun `test shortcuts are registered when the outermost batch ends`() {
+    val keyGroup = VimPlugin.getKey()
+    val keys = injector.parser.parseKeys("<C-S-F8>")
+    configureByText("I ${c}found it in a legendary land")
+
+    keyGroup.batchShortcutKeysRegistration {
+      keyGroup.batchShortcutKeysRegistration {
+        keyGroup.putKeyMapping(MappingMode.N, keys, owner, injector.parser.parseKeys("h"), false)
+      }
+      assertFalse(keys.single() in registeredShortcutKeys())
+    }
+
+    assertContains(registeredShortcutKeys(), keys.single())
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.PLUGIN)
+  @Test
+  fun `test shortcuts are registered when the batch ends with an exception`() {
+    val keyGroup = VimPlugin.getKey()
+    val keys = injector.parser.parseKeys("<C-S-F9>")
+    val removedKeys = injector.parser.parseKeys("<C-S-F10>")
+    val removedOwner = MappingOwner.Plugin.get("KeyGroupTestRemoved")
+    configureByText("I ${c}found it in a legendary land")
+    keyGroup.putKeyMapping(MappingMode.N, removedKeys, removedOwner, injector.parser.parseKeys("h"), false)
+    assertContains(registeredShortcutKeys(), removedKeys.single())
+
+    assertFailsWith<IllegalStateException> {
+      keyGroup.batchShortcutKeysRegistration {
+        keyGroup.putKeyMapping(MappingMode.N, keys, owner, injector.parser.parseKeys("h"), false)
+        keyGroup.removeKeyMapping(removedOwner)
+        error("Failed in the middle of the batch")
+      }
+    }
+
+    assertContains(registeredShortcutKeys(), keys.single())
+    assertFalse(removedKeys.single() in registeredShortcutKeys())
+  }
+
+  /** The keys of the shortcut set last registered for the editors, which all the editors share */
+  private fun registeredShortcutKeys(): List<KeyStroke> {
+    return VimShortcutKeyAction.instance.shortcutSet.shortcuts.filterIsInstance<KeyboardShortcut>().map { it.firstKeyStroke }
+  }
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package org.jetbrains.plugins.ideavim.group
+
+import com.intellij.openapi.application.impl.LaterInvocator
+import com.intellij.testFramework.PlatformTestUtil
+import com.maddyhome.idea.vim.api.injector
+import com.maddyhome.idea.vim.helper.vimRelativeLineNumbersLine
+import com.maddyhome.idea.vim.helper.vimRelativeLineNumbersRepaintScheduled
+import org.jetbrains.plugins.ideavim.SkipNeovimReason
+import org.jetbrains.plugins.ideavim.TestWithoutNeovim
+import org.jetbrains.plugins.ideavim.VimTestCase
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestInfo
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class RelativeLineNumbersTest : VimTestCase() {
+  @BeforeEach
+  override fun setUp(testInfo: TestInfo) {
+    super.setUp(testInfo)
+    configureByText("${c}one\ntwo\nthree\nfour\nfive\n")
+    enterCommand("set relativenumber")
+    PlatformTestUtil.dispatchAllInvocationEventsInIdeEventQueue()
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.NOT_VIM_TESTING)
+  @Test
+  fun `test line change repaints the numbers once`() {
+    typeText(injector.parser.parseKeys("jjj"))
+    assertTrue(fixture.editor.vimRelativeLineNumbersRepaintScheduled)
+
+    PlatformTestUtil.dispatchAllInvocationEventsInIdeEventQueue()
+    assertFalse(fixture.editor.vimRelativeLineNumbersRepaintScheduled)
+    assertEquals(3, fixture.editor.vimRelativeLineNumbersLine)
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.NOT_VIM_TESTING)
+  @Test
+  fun `test move on the same line doesn't schedule a repaint`() {
+    typeText(injector.parser.parseKeys("ll"))
+    assertFalse(fixture.editor.vimRelativeLineNumbersRepaintScheduled)
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.NOT_VIM_TESTING)
+  @Test
+  fun `test moves back to the painted line skip the repaint`() {
+    typeText(injector.parser.parseKeys("j"))
+    PlatformTestUtil.dispatchAllInvocationEventsInIdeEventQueue()
+    assertEquals(1, fixture.editor.vimRelativeLineNumbersLine)
+
+    typeText(injector.parser.parseKeys("jk"))
+    assertTrue(fixture.editor.vimRelativeLineNumbersRepaintScheduled)
+    PlatformTestUtil.dispatchAllInvocationEventsInIdeEventQueue()
+    assertFalse(fixture.editor.vimRelativeLineNumbersRepaintScheduled)
+    assertEquals(1, fixture.editor.vimRelativeLineNumbersLine)
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.NOT_VIM_TESTING)
+  @Test
+  fun `test repaint waits for the modal dialog`() {
+    val dialog = Any()
+    LaterInvocator.enterModal(dialog)
+    try {
+      typeText(injector.parser.parseKeys("jj"))
+      PlatformTestUtil.dispatchAllInvocationEventsInIdeEventQueue()
+      assertTrue(fixture.editor.vimRelativeLineNumbersRepaintScheduled)
+    } finally {
+      LaterInvocator.leaveModal(dialog)
+    }
+
+    PlatformTestUtil.dispatchAllInvocationEventsInIdeEventQueue()
+    assertFalse(fixture.editor.vimRelativeLineNumbersRepaintScheduled)
+    assertEquals(2, fixture.editor.vimRelativeLineNumbersLine)
+  }
+}
@@ -64,4 +64,27 @@ class EditorHelperTest : VimTestCase() {
     val columnWidth = EditorHelper.getPlainSpaceWidthFloat(fixture.editor)
     assertEquals((59 * columnWidth).roundToInt(), visibleArea.x)
   }
+
+  @TestWithoutNeovim(SkipNeovimReason.NOT_VIM_TESTING)
+  @Test
+  fun `test bottom of screen is updated when a block inlay is added`() {
+    configureByLines(100, "    I found it in a legendary land")
+    assertVisibleArea(0, 34)
+    addBlockInlay(fixture.editor.document.getLineStartOffset(10), true, 5)
+    assertVisibleArea(0, 29)
+  }
+
+  @TestWithoutNeovim(SkipNeovimReason.NOT_VIM_TESTING)
+  @Test
+  fun `test bottom of screen is updated when lines are folded`() {
+    configureByLines(100, "    I found it in a legendary land")
+    assertVisibleArea(0, 34)
+    val document = fixture.editor.document
+    fixture.editor.foldingModel.runBatchFoldingOperation {
+      fixture.editor.foldingModel
+        .addFoldRegion(document.getLineStartOffset(5), document.getLineEndOffset(14), "...")!!
+        .isExpanded = false
+    }
+    assertVisibleArea(0, 43)
+  }
 }
@@ -8,8 +8,13 @@
 package org.jetbrains.plugins.ideavim.helper
 
 import com.maddyhome.idea.vim.api.VimSearchHelperBase.Companion.findNextWord
+import com.maddyhome.idea.vim.api.isLineEmpty
 import com.maddyhome.idea.vim.command.VimStateMachine
+import com.maddyhome.idea.vim.common.Direction
+import com.maddyhome.idea.vim.helper.BlockStructureIndex
+import com.maddyhome.idea.vim.helper.LineClassificationIndex
 import com.maddyhome.idea.vim.helper.checkInString
+import com.maddyhome.idea.vim.newapi.vim
 import org.jetbrains.plugins.ideavim.SkipNeovimReason
 import org.jetbrains.plugins.ideavim.TestWithoutNeovim
 import org.jetbrains.plugins.ideavim.VimTestCase
@@ -229,4 +234,73 @@ class SearchHelperTest : VimTestCase() {
     val inString = checkInString(text, 8, true)
     kotlin.test.assertFalse(inString)
   }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.NOT_VIM_TESTING)
+  @Test
+  fun testBlockStructureIndexIsInStringSameAsCheckInString() {
+    val text = "abc\"d'e'f\"g\\\"h'\"'i\"\nx\"y\"z"
+    val index = BlockStructureIndex(text)
+    for (pos in -1..text.length) {
+      kotlin.test.assertEquals(checkInString(text, pos, true), index.isInString(pos, true), "str at $pos")
+      kotlin.test.assertEquals(checkInString(text, pos, false), index.isInString(pos, false), "char at $pos")
+    }
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.NOT_VIM_TESTING)
+  @Test
+  fun testBlockStructureIndexFindNextCandidate() {
+    val text = "a(b[c]d\"e)f"
+    val index = BlockStructureIndex(text)
+    kotlin.test.assertEquals(1, index.findNextCandidate(0, '(', ')', Direction.FORWARDS))
+    kotlin.test.assertEquals(7, index.findNextCandidate(2, '(', ')', Direction.FORWARDS))
+    kotlin.test.assertEquals(9, index.findNextCandidate(8, '(', ')', Direction.FORWARDS))
+    kotlin.test.assertEquals(-1, index.findNextCandidate(10, '(', ')', Direction.FORWARDS))
+    kotlin.test.assertEquals(5, index.findNextCandidate(6, '[', ']', Direction.BACKWARDS))
+    kotlin.test.assertEquals(1, index.findNextCandidate(6, '(', ')', Direction.BACKWARDS))
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.NOT_VIM_TESTING)
+  @Test
+  fun testBlockStructureIndexInvalidation() {
+    val index = BlockStructureIndex("a(b)c")
+    kotlin.test.assertEquals(3, index.findNextCandidate(2, '(', ')', Direction.FORWARDS))
+    index.invalidateFrom(2, "a(bxx)c")
+    kotlin.test.assertEquals(5, index.findNextCandidate(2, '(', ')', Direction.FORWARDS))
+    kotlin.test.assertEquals(1, index.findNextCandidate(4, '(', ')', Direction.BACKWARDS))
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.NOT_VIM_TESTING)
+  @Test
+  fun testLineClassificationIndexIsEmptySameAsIsLineEmpty() {
+    configureByText("one\n\n  \n{two\n}\n \t")
+    val editor = fixture.editor.vim
+    val index = LineClassificationIndex(fixture.editor.document.charsSequence)
+    for (line in 0 until editor.lineCount()) {
+      kotlin.test.assertEquals(editor.isLineEmpty(line, false), index.isEmpty(line, false), "empty at $line")
+      kotlin.test.assertEquals(editor.isLineEmpty(line, true), index.isEmpty(line, true), "blank at $line")
+    }
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.NOT_VIM_TESTING)
+  @Test
+  fun testLineClassificationIndexFindLines() {
+    val index = LineClassificationIndex("one\n\n  \n{two\n}\nthree")
+    kotlin.test.assertEquals(1, index.findEmptyLine(0, 1, false))
+    kotlin.test.assertEquals(-1, index.findEmptyLine(2, 1, false))
+    kotlin.test.assertEquals(2, index.findEmptyLine(2, 1, true))
+    kotlin.test.assertEquals(2, index.findEmptyLine(5, -1, true))
+    kotlin.test.assertEquals(3, index.findSectionLine(0, 1, '{'))
+    kotlin.test.assertEquals(4, index.findSectionLine(5, -1, '}'))
+    kotlin.test.assertEquals(-1, index.findSectionLine(2, -1, '{'))
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.NOT_VIM_TESTING)
+  @Test
+  fun testLineClassificationIndexInvalidation() {
+    val index = LineClassificationIndex("one\ntwo\n\nthree")
+    kotlin.test.assertEquals(2, index.findEmptyLine(0, 1, false))
+    index.invalidateFrom(1, 4, "one\n\ntwo\n\nthree")
+    kotlin.test.assertEquals(1, index.findEmptyLine(0, 1, false))
+    kotlin.test.assertEquals(3, index.findEmptyLine(2, 1, false))
+  }
 }
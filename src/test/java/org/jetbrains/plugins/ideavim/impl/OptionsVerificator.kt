@@ -22,6 +22,7 @@ import com.maddyhome.idea.vim.options.Option
 import com.maddyhome.idea.vim.options.OptionChangeListener
 import com.maddyhome.idea.vim.options.OptionConstants
 import com.maddyhome.idea.vim.options.OptionScope
+import com.maddyhome.idea.vim.options.OptionSnapshot
 import com.maddyhome.idea.vim.options.OptionValueAccessor
 import com.maddyhome.idea.vim.options.StringOption
 import com.maddyhome.idea.vim.options.ToggleOption
@@ -230,6 +231,11 @@ internal class OptionsTracer(
     return OptionValueAccessor(this, accessor.scope)
   }
 
+  override fun getOptionSnapshot(editor: VimEditor?): OptionSnapshot {
+    // A snapshot that isn't cached reads the values through this group, so the reads are traced
+    return OptionSnapshot(getValueAccessor(editor))
+  }
+
   companion object
 }
 
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package org.jetbrains.plugins.ideavim.key
+
+import com.maddyhome.idea.vim.command.VimStateMachine
+import com.maddyhome.idea.vim.diagnostic.KeyLatencyHistogram
+import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class KeyLatencyHistogramTest {
+  @Test
+  fun `test percentiles are kept per mode`() {
+    val histogram = KeyLatencyHistogram()
+    repeat(98) { histogram.record(VimStateMachine.Mode.INSERT, 1_000) }
+    repeat(2) { histogram.record(VimStateMachine.Mode.INSERT, 5_000_000) }
+    histogram.record(VimStateMachine.Mode.COMMAND, 40_000)
+
+    assertEquals(100, histogram.count(VimStateMachine.Mode.INSERT))
+    assertEquals(1, histogram.count(VimStateMachine.Mode.COMMAND))
+    assertEquals(0, histogram.count(VimStateMachine.Mode.VISUAL))
+
+    val p50 = histogram.percentile(VimStateMachine.Mode.INSERT, 50.0)
+    assertTrue(p50 in 1_000..1_250, "p50 = $p50")
+    val p99 = histogram.percentile(VimStateMachine.Mode.INSERT, 99.0)
+    assertTrue(p99 in 4_000_000..5_000_000, "p99 = $p99")
+    assertEquals(5_000_000, histogram.max(VimStateMachine.Mode.INSERT))
+    assertEquals(40_000, histogram.percentile(VimStateMachine.Mode.COMMAND, 99.0))
+  }
+
+  @Test
+  fun `test reset`() {
+    val histogram = KeyLatencyHistogram()
+    histogram.record(VimStateMachine.Mode.INSERT, 1_000)
+    histogram.reset()
+
+    assertEquals(0, histogram.count(VimStateMachine.Mode.INSERT))
+    assertEquals(0, histogram.percentile(VimStateMachine.Mode.INSERT, 50.0))
+    assertEquals(1, histogram.report().lines().size)
+  }
+}
@@ -11,12 +11,15 @@ import com.intellij.testFramework.UsefulTestCase.assertDoesntContain
 import com.maddyhome.idea.vim.helper.CharacterHelper
 import com.maddyhome.idea.vim.helper.CharacterHelper.charType
 import com.maddyhome.idea.vim.options.OptionConstants
+import com.maddyhome.idea.vim.options.helpers.KeywordOptionHelper.isValueInvalid
 import com.maddyhome.idea.vim.options.helpers.KeywordOptionHelper.parseValues
 import com.maddyhome.idea.vim.options.helpers.KeywordOptionHelper.toRegex
 import org.jetbrains.plugins.ideavim.VimTestCase
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.TestInfo
+import java.lang.Character.UnicodeBlock
+import kotlin.random.Random
 import kotlin.test.assertSame
 
 class KeywordOptionTest : VimTestCase() {
@@ -191,4 +194,135 @@ class KeywordOptionTest : VimTestCase() {
     val res = toRegex()
     kotlin.test.assertEquals(res[0], "\\p{L}")
   }
+
+  @Test
+  fun testRangeOfCodePointsIncludesItsBounds() {
+    setKeyword("48-57,192-255")
+    assertIsKeyword('0')
+    assertIsKeyword('9')
+    assertIsKeyword('\u00c0')
+    assertIsKeyword('\u00ff')
+    assertIsNotKeyword('/')
+    assertIsNotKeyword(':')
+    assertIsNotKeyword('\u00bf')
+  }
+
+  @Test
+  fun testCaretRemovesARangeOfCodePoints() {
+    setKeyword("@,^192-214")
+    assertIsKeyword('A')
+    assertIsNotKeyword('\u00c0')
+    assertIsNotKeyword('\u00d6')
+    assertIsKeyword('\u00d8')
+  }
+
+  @Test
+  fun testLaterValueOverridesCaret() {
+    setKeyword("^a-z,b")
+    assertIsNotKeyword('a')
+    assertIsKeyword('b')
+    assertIsNotKeyword('c')
+  }
+
+  @Test
+  fun testCharactersAbove0xFFAreAlwaysKeywords() {
+    setKeyword("a,^256-383")
+    assertIsKeyword('\u0100')
+    assertIsKeyword('\u017f')
+    assertIsNotKeyword('\u00ff')
+  }
+
+  @Test
+  fun testCharactersAbove0xFFKeepTheirTypes() {
+    // The types of these chars are cached after the first call, so every char is checked twice
+    repeat(2) {
+      assertSame(CharacterHelper.CharacterType.CJK_UNIFIED_IDEOGRAPHS, charType('\u4e2d', false))
+      assertSame(CharacterHelper.CharacterType.HIRAGANA, charType('\u3042', true))
+      assertSame(CharacterHelper.CharacterType.KATAKANA, charType('\u30a2', false))
+      assertSame(CharacterHelper.CharacterType.HALF_WIDTH_KATAKANA, charType('\uff71', false))
+      assertSame(CharacterHelper.CharacterType.WHITESPACE, charType('\u3000', false))
+      assertSame(CharacterHelper.CharacterType.KEYWORD, charType('\u2014', false))
+    }
+  }
+
+  @Test
+  fun testCharTypeMatchesTheKeywordSpecs() {
+    val random = Random(0)
+    repeat(50) {
+      val value = List(random.nextInt(1, 6)) { randomValue(random) }.joinToString(",")
+      if (isValueInvalid(value)) return@repeat
+      setKeyword(value)
+      // The last value that contains a char decides
+      val specs = values!!.asReversed().map { toSpec(it) }
+      val chars = (0 until 0x300).map { it.toChar() } + List(200) { random.nextInt(0x300, 0x10000).toChar() }
+      for (c in chars) {
+        for (punctuationAsLetters in listOf(false, true)) {
+          assertSame(
+            expectedCharType(c, punctuationAsLetters, specs),
+            charType(c, punctuationAsLetters),
+            "iskeyword=$value, char ${c.code}",
+          )
+        }
+      }
+    }
+  }
+
+  private fun randomValue(random: Random): String {
+    val caret = if (random.nextInt(4) == 0) "^" else ""
+    val value = when (random.nextInt(4)) {
+      0 -> "@"
+      1 -> randomChar(random).toString()
+      2 -> {
+        val low = random.nextInt(0x21, 0x100)
+        "$low-${random.nextInt(low, 0x140)}"
+      }
+      else -> {
+        val low = randomChar(random)
+        "$low-${(low.code..0x7e).random(random).toChar()}"
+      }
+    }
+    return caret + value
+  }
+
+  /** A printable ASCII char that isn't a digit, a separator of the option or special in a command line */
+  private fun randomChar(random: Random): Char {
+    return (0x21..0x7e).map { it.toChar() }.filter { !it.isDigit() && it !in ",^-|\\\"" }.random(random)
+  }
+
+  /**
+   * The type of the char computed from the [specs] of the option, as it was before the types were kept in tables
+   */
+  private fun expectedCharType(
+    c: Char,
+    punctuationAsLetters: Boolean,
+    specs: List<Pair<Boolean, IntRange?>>,
+  ): CharacterHelper.CharacterType {
+    val block = UnicodeBlock.of(c)
+    return when {
+      Character.isWhitespace(c) -> CharacterHelper.CharacterType.WHITESPACE
+      block === UnicodeBlock.HIRAGANA -> CharacterHelper.CharacterType.HIRAGANA
+      block === UnicodeBlock.KATAKANA -> CharacterHelper.CharacterType.KATAKANA
+      c in '\uFF66'..'\uFF9F' -> CharacterHelper.CharacterType.HALF_WIDTH_KATAKANA
+      block === UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS -> CharacterHelper.CharacterType.CJK_UNIFIED_IDEOGRAPHS
+      punctuationAsLetters || c.code >= 0x100 -> CharacterHelper.CharacterType.KEYWORD
+      specs.firstOrNull { (_, range) -> range?.contains(c.code) ?: Character.isLetter(c) }?.first == false ->
+        CharacterHelper.CharacterType.KEYWORD
+      else -> CharacterHelper.CharacterType.PUNCTUATION
+    }
+  }
+
+  /** Returns if the [value] of the option is negated, and the codes of the chars it contains, or null for all letters */
+  private fun toSpec(value: String): Pair<Boolean, IntRange?> {
+    val negate = value.length > 1 && value.startsWith("^")
+    val part = if (negate) value.substring(1) else value
+    val bounds = part.split("(?<=.)-(?=.+)".toRegex())
+    val range = when {
+      bounds.size > 1 -> toCode(bounds[0])..toCode(bounds[1])
+      part == "@" -> null
+      else -> toCode(part)..toCode(part)
+    }
+    return negate to range
+  }
+
+  private fun toCode(part: String): Int = part.toIntOrNull() ?: part[0].code
 }
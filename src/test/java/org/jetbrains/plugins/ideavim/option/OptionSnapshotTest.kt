@@ -0,0 +1,69 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package org.jetbrains.plugins.ideavim.option
+
+import com.maddyhome.idea.vim.api.injector
+import com.maddyhome.idea.vim.api.optionSnapshot
+import com.maddyhome.idea.vim.newapi.vim
+import org.jetbrains.plugins.ideavim.SkipNeovimReason
+import org.jetbrains.plugins.ideavim.TestWithoutNeovim
+import org.jetbrains.plugins.ideavim.VimTestCase
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestInfo
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNotSame
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
+
+class OptionSnapshotTest : VimTestCase() {
+  @BeforeEach
+  override fun setUp(testInfo: TestInfo) {
+    super.setUp(testInfo)
+    configureByText("\n")
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.NOT_VIM_TESTING)
+  @Test
+  fun `test snapshot is reused while options are unchanged`() {
+    val snapshot = injector.optionSnapshot(fixture.editor.vim)
+    assertSame(snapshot, injector.optionSnapshot(fixture.editor.vim))
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.NOT_VIM_TESTING)
+  @Test
+  fun `test snapshot is updated after set`() {
+    val snapshot = injector.optionSnapshot(fixture.editor.vim)
+    assertTrue(snapshot.isHexNumberFormat)
+    assertFalse(snapshot.isAlphaNumberFormat)
+
+    enterCommand("set nrformats+=alpha")
+    enterCommand("set selection=exclusive")
+    enterCommand("set history=10")
+
+    val updated = injector.optionSnapshot(fixture.editor.vim)
+    assertNotSame(snapshot, updated)
+    assertTrue(updated.isAlphaNumberFormat)
+    assertTrue(updated.isExclusiveSelection)
+    assertEquals(10, updated.history)
+    assertTrue(injector.optionSnapshot(null).isExclusiveSelection)
+  }
+
+  @TestWithoutNeovim(reason = SkipNeovimReason.NOT_VIM_TESTING)
+  @Test
+  fun `test snapshot is updated after reset`() {
+    enterCommand("set virtualedit=onemore")
+    assertTrue(injector.optionSnapshot(null).isVirtualEditOneMore)
+
+    injector.optionGroup.resetAllOptions()
+
+    assertFalse(injector.optionSnapshot(null).isVirtualEditOneMore)
+  }
+}
@@ -8,8 +8,10 @@
 
 plugins {
     java
+    `java-test-fixtures`
     kotlin("jvm")
     id("org.jlleitschuh.gradle.ktlint")
+    id("me.champeau.jmh") version "0.7.1"
 }
 
 // group 'org.jetbrains.ideavim'
@@ -22,9 +24,15 @@ repositories {
 dependencies {
     testImplementation("org.junit.jupiter:junit-jupiter-api:5.9.2")
     testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:5.9.2")
+    testImplementation("org.jetbrains.kotlin:kotlin-stdlib-jdk8:1.7.20")
     compileOnly("org.jetbrains.kotlin:kotlin-stdlib-jdk8:1.7.20")
 
     compileOnly("org.jetbrains:annotations:23.0.0")
+
+    // The headless editor and injector are shared by the tests and the benchmarks
+    testFixturesImplementation("org.jetbrains.kotlin:kotlin-stdlib-jdk8:1.7.20")
+    jmhImplementation(testFixtures(project(":vim-engine")))
+    jmhImplementation("org.jetbrains.kotlin:kotlin-stdlib-jdk8:1.7.20")
 }
 
 tasks {
@@ -40,6 +48,17 @@ tasks {
     }
 }
 
+// --- Benchmarks
+// Run with `./gradlew :vim-engine:jmh`. The benchmarks use the headless editor of the test fixtures
+// (`com.maddyhome.idea.vim.headless`) and need no IDE
+
+jmh {
+    jmhVersion.set("1.36")
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+}
+
 // --- Linting
 
 ktlint {
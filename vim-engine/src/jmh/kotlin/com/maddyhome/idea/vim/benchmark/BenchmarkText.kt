@@ -0,0 +1,30 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.benchmark
+
+/**
+ * Generates a text that looks like source code: indented blocks of statements with identifiers, punctuation, numbers
+ *   and empty lines between the blocks. The text is the same for the same [lines]
+ */
+internal fun generateCode(lines: Int): String {
+  val builder = StringBuilder(lines * 40)
+  for (line in 0 until lines) {
+    when (line % 8) {
+      0 -> builder.append("fun function").append(line).append("(value: Int, name: String): Int {\n")
+      1 -> builder.append("  val result_").append(line).append(" = value * ").append(line % 97).append(" + name.length\n")
+      2 -> builder.append("  if (result_").append(line - 1).append(" > 0x").append(Integer.toHexString(line)).append(") {\n")
+      3 -> builder.append("    println(\"line ").append(line).append(": \$name\") // a comment, with punctuation!\n")
+      4 -> builder.append("  }\n")
+      5 -> builder.append("  return result_").append(line - 4).append(".coerceAtLeast(-1)\n")
+      6 -> builder.append("}\n")
+      else -> builder.append("\n")
+    }
+  }
+  return builder.toString()
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.benchmark
+
+import com.maddyhome.idea.vim.common.offset
+import com.maddyhome.idea.vim.headless.HeadlessVimEditor
+import com.maddyhome.idea.vim.headless.HeadlessVimInjector
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+
+/**
+ * Edits of the headless document: typing in the middle of the text with a line lookup after every character, the way
+ *   the caret position is updated while typing, and replacing lines
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public open class DocumentEditBenchmark {
+  @JvmField
+  @Param("1000", "100000")
+  public var lines: Int = 0
+
+  private lateinit var text: String
+  private lateinit var editor: HeadlessVimEditor
+
+  @Setup
+  public fun setUpText() {
+    HeadlessVimInjector.install()
+    text = generateCode(lines)
+  }
+
+  @Setup(Level.Invocation)
+  public fun setUpEditor() {
+    editor = HeadlessVimEditor(text)
+  }
+
+  @Benchmark
+  public fun typeInMiddle(): Int {
+    var offset = editor.getLineStartOffset(lines / 2)
+    var line = 0
+    for (c in "typed text, word by word") {
+      editor.insertText(offset.offset, c.toString())
+      offset++
+      line += editor.offsetToBufferPosition(offset).line
+    }
+    return line
+  }
+
+  @Benchmark
+  public fun replaceLines(): Int {
+    for (i in 0 until 100) {
+      val line = (i * 7919) % (lines - 1)
+      editor.replaceString(editor.getLineStartOffset(line), editor.getLineEndOffset(line), "replaced $i")
+    }
+    return editor.lineCount()
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.benchmark
+
+import com.maddyhome.idea.vim.action.motion.leftright.MotionLeftAction
+import com.maddyhome.idea.vim.action.motion.leftright.MotionRightAction
+import com.maddyhome.idea.vim.action.motion.text.MotionBigWordRightAction
+import com.maddyhome.idea.vim.action.motion.text.MotionWordLeftAction
+import com.maddyhome.idea.vim.action.motion.text.MotionWordRightAction
+import com.maddyhome.idea.vim.action.motion.updown.MotionGotoLineFirstAction
+import com.maddyhome.idea.vim.api.VimActionsInitiator
+import com.maddyhome.idea.vim.api.injector
+import com.maddyhome.idea.vim.command.MappingMode
+import com.maddyhome.idea.vim.headless.HeadlessVimInjector
+import com.maddyhome.idea.vim.headless.HeadlessVimKeyGroup
+import com.maddyhome.idea.vim.key.CommandNode
+import com.maddyhome.idea.vim.key.CommandPartNode
+import com.maddyhome.idea.vim.key.KeyMappingLayer
+import com.maddyhome.idea.vim.key.MappingOwner
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+import javax.swing.KeyStroke
+
+/**
+ * The lookups that `KeyHandler` does for every typed key before it runs an action: the key is checked against the
+ *   user mappings and then the command tree is walked, for a sequence of normal mode commands
+ *
+ * The actions are found, but not executed: executing them needs the motion and change groups of the IntelliJ plugin.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public open class KeyDispatchBenchmark {
+  private lateinit var typedKeys: List<KeyStroke>
+  private lateinit var mappingLayer: KeyMappingLayer
+  private lateinit var root: CommandPartNode<VimActionsInitiator>
+
+  @Setup
+  public fun setUp() {
+    HeadlessVimInjector.install()
+    val keyGroup = injector.keyGroup as HeadlessVimKeyGroup
+    val parser = injector.parser
+
+    keyGroup.registerCommandAction(MotionLeftAction(), MappingMode.NXO, setOf(parser.parseKeys("h")))
+    keyGroup.registerCommandAction(MotionRightAction(), MappingMode.NXO, setOf(parser.parseKeys("l")))
+    keyGroup.registerCommandAction(MotionWordRightAction(), MappingMode.NXO, setOf(parser.parseKeys("w")))
+    keyGroup.registerCommandAction(MotionWordLeftAction(), MappingMode.NXO, setOf(parser.parseKeys("b")))
+    keyGroup.registerCommandAction(MotionBigWordRightAction(), MappingMode.NXO, setOf(parser.parseKeys("W")))
+    keyGroup.registerCommandAction(MotionGotoLineFirstAction(), MappingMode.NXO, setOf(parser.parseKeys("gg")))
+    // Commands with a common prefix, like the `z` and `<C-W>` commands
+    val prefixed = ('a'..'z').map { parser.parseKeys("z$it") }.toSet()
+    keyGroup.registerCommandAction(MotionRightAction(), MappingMode.NXO, prefixed)
+
+    // A vimrc with a number of leader mappings
+    for (i in 0 until 200) {
+      keyGroup.putKeyMapping(
+        MappingMode.N,
+        parser.parseKeys(",m$i"),
+        MappingOwner.IdeaVim.InitScript,
+        parser.parseKeys(":action Action$i<CR>"),
+        false,
+      )
+    }
+
+    typedKeys = parser.parseKeys("wwwbbWlhhlzzzt,m42gg".repeat(50))
+    mappingLayer = keyGroup.getKeyMappingLayer(MappingMode.NORMAL)
+    root = keyGroup.getKeyRoot(MappingMode.NORMAL)
+  }
+
+  @Benchmark
+  public fun parseKeys(): Int = injector.parser.parseKeys("wwwbbWlhhlzzzt,m42gg<Esc><C-W>l").size
+
+  @Benchmark
+  public fun dispatch(): Int {
+    val pending = ArrayList<KeyStroke>()
+    var node: CommandPartNode<VimActionsInitiator> = root
+    var found = 0
+    for (key in typedKeys) {
+      pending.add(key)
+      if (mappingLayer.isPrefix(pending)) continue
+      if (mappingLayer.getLayer(pending) != null) {
+        found++
+        pending.clear()
+        continue
+      }
+      pending.clear()
+
+      when (val child = node[key]) {
+        is CommandNode -> {
+          found++
+          node = root
+        }
+        is CommandPartNode -> node = child
+        else -> node = root
+      }
+    }
+    return found
+  }
+}
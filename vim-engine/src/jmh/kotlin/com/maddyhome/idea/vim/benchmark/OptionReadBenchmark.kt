@@ -0,0 +1,62 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.benchmark
+
+import com.maddyhome.idea.vim.api.injector
+import com.maddyhome.idea.vim.api.optionSnapshot
+import com.maddyhome.idea.vim.api.options
+import com.maddyhome.idea.vim.headless.HeadlessVimEditor
+import com.maddyhome.idea.vim.headless.HeadlessVimInjector
+import com.maddyhome.idea.vim.options.OptionConstants
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+
+/**
+ * Reads of the options that are checked on every keystroke or every increment, through the option accessor and
+ *   through the cached [com.maddyhome.idea.vim.options.OptionSnapshot]
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public open class OptionReadBenchmark {
+  private lateinit var editor: HeadlessVimEditor
+
+  @Setup
+  public fun setUp() {
+    editor = HeadlessVimInjector.install().createEditor(generateCode(100))
+  }
+
+  @Benchmark
+  public fun accessor(): Int {
+    val options = injector.options(editor)
+    var result = 0
+    if ("hex" in options.getStringListValues(OptionConstants.nrformats)) result++
+    if (options.isSet(OptionConstants.timeout)) result++
+    result += options.getIntValue(OptionConstants.timeoutlen)
+    result += options.getIntValue(OptionConstants.maxmapdepth)
+    return result
+  }
+
+  @Benchmark
+  public fun snapshot(): Int {
+    val options = injector.optionSnapshot(editor)
+    var result = 0
+    if (options.isHexNumberFormat) result++
+    if (options.isTimeout) result++
+    result += options.timeoutLength
+    result += options.maxMapDepth
+    return result
+  }
+}
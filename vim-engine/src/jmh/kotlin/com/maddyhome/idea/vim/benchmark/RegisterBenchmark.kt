@@ -0,0 +1,63 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.benchmark
+
+import com.maddyhome.idea.vim.api.injector
+import com.maddyhome.idea.vim.command.SelectionType
+import com.maddyhome.idea.vim.common.TextRange
+import com.maddyhome.idea.vim.headless.HeadlessVimEditor
+import com.maddyhome.idea.vim.headless.HeadlessVimInjector
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+
+/**
+ * Yanks and deletes to the registers: `yy`, `10yy`, `dd` and the shift of the numbered registers, and reading the
+ *   yanked text back
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public open class RegisterBenchmark {
+  @JvmField
+  @Param("1", "10", "1000")
+  public var yankedLines: Int = 0
+
+  private lateinit var editor: HeadlessVimEditor
+  private lateinit var range: TextRange
+
+  @Setup
+  public fun setUp() {
+    editor = HeadlessVimInjector.install().createEditor(generateCode(2000))
+    range = TextRange(editor.getLineStartOffset(100), editor.getLineStartOffset(100 + yankedLines))
+  }
+
+  @Benchmark
+  public fun yank(): Boolean {
+    return injector.registerGroup.storeText(editor, editor.primaryCaret(), range, SelectionType.LINE_WISE, false)
+  }
+
+  @Benchmark
+  public fun delete(): Boolean {
+    // Deletes go to the numbered registers, which are shifted on every delete
+    return injector.registerGroup.storeText(editor, editor.primaryCaret(), range, SelectionType.LINE_WISE, true)
+  }
+
+  @Benchmark
+  public fun yankAndRead(): Int {
+    injector.registerGroup.storeText(editor, editor.primaryCaret(), range, SelectionType.LINE_WISE, false)
+    return injector.registerGroup.getRegister('0')?.text?.length ?: -1
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.benchmark
+
+import com.maddyhome.idea.vim.api.injector
+import com.maddyhome.idea.vim.ex.ranges.Ranges
+import com.maddyhome.idea.vim.headless.HeadlessVimEditor
+import com.maddyhome.idea.vim.headless.HeadlessVimInjector
+import com.maddyhome.idea.vim.vimscript.model.Script
+import com.maddyhome.idea.vim.vimscript.model.commands.LetCommand
+import com.maddyhome.idea.vim.vimscript.model.expressions.BinExpression
+import com.maddyhome.idea.vim.vimscript.model.expressions.Expression
+import com.maddyhome.idea.vim.vimscript.model.expressions.Scope
+import com.maddyhome.idea.vim.vimscript.model.expressions.SimpleExpression
+import com.maddyhome.idea.vim.vimscript.model.expressions.Variable
+import com.maddyhome.idea.vim.vimscript.model.expressions.operators.AssignmentOperator
+import com.maddyhome.idea.vim.vimscript.model.expressions.operators.BinaryOperator
+import com.maddyhome.idea.vim.vimscript.model.statements.loops.WhileLoop
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+import org.openjdk.jmh.annotations.Scope as StateScope
+
+/**
+ * Execution of a Vimscript loop:
+ *
+ * ```
+ * let g:i = 0
+ * let g:sum = 0
+ * while g:i < {iterations}
+ *   let g:sum += g:i
+ *   let g:i += 1
+ * endwhile
+ * ```
+ *
+ * The script is built as a syntax tree, because the Vimscript parser is a part of the IntelliJ plugin.
+ */
+@State(StateScope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public open class VimscriptBenchmark {
+  @JvmField
+  @Param("1000")
+  public var iterations: Int = 0
+
+  private lateinit var editor: HeadlessVimEditor
+  private lateinit var script: Script
+
+  @Setup
+  public fun setUp() {
+    editor = HeadlessVimInjector.install().createEditor("")
+    val i = Variable(Scope.GLOBAL_VARIABLE, "i")
+    val sum = Variable(Scope.GLOBAL_VARIABLE, "sum")
+    script = Script(
+      listOf(
+        let(i, AssignmentOperator.ASSIGNMENT, SimpleExpression(0)),
+        let(sum, AssignmentOperator.ASSIGNMENT, SimpleExpression(0)),
+        WhileLoop(
+          BinExpression(i, SimpleExpression(iterations), BinaryOperator.LESS),
+          listOf(
+            let(sum, AssignmentOperator.ADDITION, i),
+            let(i, AssignmentOperator.ADDITION, SimpleExpression(1)),
+          ),
+        ),
+      ),
+    )
+  }
+
+  @Benchmark
+  public fun whileLoop(): Any {
+    return script.execute(editor, injector.executionContextManager.onEditor(editor))
+  }
+
+  private fun let(variable: Variable, operator: AssignmentOperator, expression: Expression) =
+    LetCommand(Ranges(), variable, operator, expression, true)
+}
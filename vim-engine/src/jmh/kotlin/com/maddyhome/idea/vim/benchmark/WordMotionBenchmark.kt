@@ -0,0 +1,73 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.benchmark
+
+import com.maddyhome.idea.vim.api.VimSearchHelperBase
+import com.maddyhome.idea.vim.headless.HeadlessVimInjector
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+
+/**
+ * Word motions (`w`, `W`, `e`, `E`) over the whole text, one motion at a time, like a repeated `w` from the start of
+ *   the file
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public open class WordMotionBenchmark {
+  @JvmField
+  @Param("1000", "10000")
+  public var lines: Int = 0
+
+  private lateinit var chars: CharSequence
+
+  @Setup
+  public fun setUp() {
+    HeadlessVimInjector.install()
+    chars = generateCode(lines)
+  }
+
+  @Benchmark
+  public fun nextWord(): Long = walkWords(bigWord = false)
+
+  @Benchmark
+  public fun nextBigWord(): Long = walkWords(bigWord = true)
+
+  @Benchmark
+  public fun nextWordEnd(): Int {
+    val size = chars.length
+    var offset = 0
+    var steps = 0
+    while (true) {
+      val next = VimSearchHelperBase.findNextWordEnd(chars, offset, size, 1, false, false)
+      if (next <= offset || next >= size - 1) return steps
+      offset = next
+      steps++
+    }
+  }
+
+  private fun walkWords(bigWord: Boolean): Long {
+    val size = chars.length.toLong()
+    var offset = 0L
+    var steps = 0L
+    while (true) {
+      val next = VimSearchHelperBase.findNextWord(chars, offset, size, 1, bigWord, false)
+      if (next <= offset || next >= size - 1) return steps
+      offset = next
+      steps++
+    }
+  }
+}
@@ -10,8 +10,8 @@ package com.maddyhome.idea.vim
 import com.maddyhome.idea.vim.api.ExecutionContext
 import com.maddyhome.idea.vim.api.VimActionsInitiator
 import com.maddyhome.idea.vim.api.VimEditor
-import com.maddyhome.idea.vim.api.globalOptions
 import com.maddyhome.idea.vim.api.injector
+import com.maddyhome.idea.vim.api.optionSnapshot
 import com.maddyhome.idea.vim.command.Argument
 import com.maddyhome.idea.vim.command.Command
 import com.maddyhome.idea.vim.command.CommandBuilder
@@ -24,6 +24,7 @@ import com.maddyhome.idea.vim.command.VimStateMachine.Companion.getInstance
 import com.maddyhome.idea.vim.common.CurrentCommandState
 import com.maddyhome.idea.vim.common.DigraphResult
 import com.maddyhome.idea.vim.common.argumentCaptured
+import com.maddyhome.idea.vim.diagnostic.KeyLatencyHistogram
 import com.maddyhome.idea.vim.diagnostic.VimLogger
 import com.maddyhome.idea.vim.diagnostic.debug
 import com.maddyhome.idea.vim.diagnostic.trace
@@ -38,7 +39,6 @@ import com.maddyhome.idea.vim.key.CommandNode
 import com.maddyhome.idea.vim.key.CommandPartNode
 import com.maddyhome.idea.vim.key.KeyStack
 import com.maddyhome.idea.vim.key.Node
-import com.maddyhome.idea.vim.options.OptionConstants
 import java.awt.event.InputEvent
 import java.awt.event.KeyEvent
 import javax.swing.KeyStroke
@@ -50,8 +50,15 @@ import javax.swing.KeyStroke
 public class KeyHandler {
 
   private var handleKeyRecursionCount = 0
+  private var timedKeyDepth = 0
 
   public val keyStack: KeyStack = KeyStack()
+
+  /**
+   * Time [handleKey] takes for every keystroke typed by the user, i.e. not counting the keys of mappings
+   */
+  public val keyLatency: KeyLatencyHistogram = KeyLatencyHistogram()
+
   public val modalEntryKeys: MutableList<KeyStroke> = ArrayList()
 
   /**
@@ -80,6 +87,30 @@ public class KeyHandler {
     context: ExecutionContext,
     allowKeyMappings: Boolean,
     mappingCompleted: Boolean,
+  ) {
+    // Keys handled while handling another key (mappings, macros, repeats) are part of the time of the outer key
+    if (timedKeyDepth > 0) {
+      processKey(editor, key, context, allowKeyMappings, mappingCompleted)
+      return
+    }
+
+    val mode = editor.vimStateMachine.mode
+    val start = System.nanoTime()
+    timedKeyDepth++
+    try {
+      processKey(editor, key, context, allowKeyMappings, mappingCompleted)
+    } finally {
+      timedKeyDepth--
+      keyLatency.record(mode, System.nanoTime() - start)
+    }
+  }
+
+  private fun processKey(
+    editor: VimEditor,
+    key: KeyStroke,
+    context: ExecutionContext,
+    allowKeyMappings: Boolean,
+    mappingCompleted: Boolean,
   ) {
     LOG.trace {
       """
@@ -88,7 +119,7 @@ public class KeyHandler {
         Key: $key
       """.trimIndent()
     }
-    val maxMapDepth = injector.globalOptions().getIntValue(OptionConstants.maxmapdepth)
+    val maxMapDepth = injector.optionSnapshot(null).maxMapDepth
     if (handleKeyRecursionCount >= maxMapDepth) {
       injector.messages.showStatusBarMessage(editor, injector.messages.message("E223"))
       injector.messages.indicateError()
@@ -96,6 +127,9 @@ public class KeyHandler {
       return
     }
 
+    // Ask before anything else is handled, so only this key is taken for the key just fed from the stack
+    val fedFromKeyStack = keyStack.takeFedStroke(key)
+
     injector.messages.clearError()
     val editorState = editor.vimStateMachine
     val commandBuilder = editorState.commandBuilder
@@ -149,7 +183,12 @@ public class KeyHandler {
             // If we are in insert/replace mode send this key in for processing
             if (editorState.mode == VimStateMachine.Mode.INSERT || editorState.mode == VimStateMachine.Mode.REPLACE) {
               LOG.trace("Process insert or replace")
-              shouldRecord = injector.changeGroup.processKey(editor, context, key) && shouldRecord
+              val typedText = takeTypedText(key, fedFromKeyStack, editorState)
+              if (typedText != null) {
+                injector.changeGroup.type(editor, context, typedText)
+              } else {
+                shouldRecord = injector.changeGroup.processKey(editor, context, key) && shouldRecord
+              }
             } else if (editorState.mode == VimStateMachine.Mode.SELECT) {
               LOG.trace("Process select")
               shouldRecord = injector.changeGroup.processKeyInSelectMode(editor, context, key) && shouldRecord
@@ -203,6 +242,44 @@ public class KeyHandler {
     LOG.trace("----------- Key Handler Finished -----------")
   }
 
+  /**
+   * Returns the char of the [key] together with the chars of the keys after it in the [keyStack] that would be typed
+   *   as they are, or null if there are no such keys
+   *
+   * Macros, `:normal` and mappings feed their keys through the key stack one by one. A run of letters and digits in
+   *   Insert mode is taken from the stack here and typed as one change, instead of one change per key. A key is taken
+   *   only if it can't start a mapping or a command, and nothing is taken while a macro is recorded, so the keys that
+   *   are taken would have been typed one by one anyway. The keys after [key] are taken only if [key] itself was
+   *   [fedFromKeyStack] by the first frame: a key that is handed in directly (e.g. by an extension that runs while a
+   *   macro is played) is followed by its own keys, not by the keys of the stack.
+   */
+  private fun takeTypedText(key: KeyStroke, fedFromKeyStack: Boolean, editorState: VimStateMachine): String? {
+    if (!fedFromKeyStack || editorState.mode != VimStateMachine.Mode.INSERT || editorState.isRecording ||
+      editorState.mappingState.keyCount != 0 || !isPlainTypedKey(key)
+    ) {
+      return null
+    }
+    var next = keyStack.peekStroke() ?: return null
+    val mapping = injector.keyGroup.getKeyMappingLayer(editorState.mappingState.mappingMode)
+    val commandBuilder = editorState.commandBuilder
+    var text: StringBuilder? = null
+    while (isPlainTypedKey(next) && commandBuilder.getChildNode(next) == null) {
+      val keys = listOf(next)
+      if (mapping.isPrefix(keys) || mapping.getLayer(keys) != null) break
+      keyStack.skipStroke()
+      if (text == null) text = StringBuilder().append(key.keyChar)
+      text.append(next.keyChar)
+      next = keyStack.peekStroke() ?: break
+    }
+    return text?.toString()
+  }
+
+  private fun isPlainTypedKey(key: KeyStroke): Boolean {
+    val ch = key.keyChar
+    return ch != KeyEvent.CHAR_UNDEFINED && key.modifiers and (InputEvent.CTRL_DOWN_MASK or InputEvent.ALT_DOWN_MASK or
+      InputEvent.META_DOWN_MASK) == 0 && (Character.isLetterOrDigit(ch) || ch == '_')
+  }
+
   /**
    * See the description for [com.maddyhome.idea.vim.command.DuplicableOperatorAction]
    */
@@ -630,6 +707,10 @@ public class KeyHandler {
       if (register != null) {
         injector.registerGroup.selectRegister(register)
       }
+      // All changes of an Insert or Replace mode session are undone together
+      if (editorState.mode !== VimStateMachine.Mode.INSERT && editorState.mode !== VimStateMachine.Mode.REPLACE) {
+        injector.undo.breakUndoSequence(editor)
+      }
       injector.actionExecutor.executeVimAction(editor, cmd.action, context, operatorArguments)
       if (editorState.mode === VimStateMachine.Mode.INSERT || editorState.mode === VimStateMachine.Mode.REPLACE) {
         injector.changeGroup.processCommand(editor, cmd)
@@ -23,11 +23,6 @@ public class RedoAction : VimActionHandler.SingleExecution() {
     cmd: Command,
     operatorArguments: OperatorArguments,
   ): Boolean {
-    var count = operatorArguments.count1
-    var result = injector.undo.redo(editor, context)
-    while ((--count > 0) && result) {
-      result = injector.undo.redo(editor, context)
-    }
-    return result
+    return injector.undo.redo(editor, context, operatorArguments.count1)
   }
 }
@@ -31,11 +31,6 @@ public class UndoAction : VimActionHandler.SingleExecution(), ComplicatedKeysAct
     cmd: Command,
     operatorArguments: OperatorArguments,
   ): Boolean {
-    var count = operatorArguments.count1
-    var result = injector.undo.undo(editor, context)
-    while ((--count > 0) && result) {
-      result = injector.undo.undo(editor, context)
-    }
-    return result
+    return injector.undo.undo(editor, context, operatorArguments.count1)
   }
 }
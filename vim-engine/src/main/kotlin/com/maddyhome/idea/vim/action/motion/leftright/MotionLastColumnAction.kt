@@ -13,7 +13,7 @@ import com.maddyhome.idea.vim.api.ImmutableVimCaret
 import com.maddyhome.idea.vim.api.VimEditor
 import com.maddyhome.idea.vim.api.VimMotionGroupBase
 import com.maddyhome.idea.vim.api.injector
-import com.maddyhome.idea.vim.api.options
+import com.maddyhome.idea.vim.api.optionSnapshot
 import com.maddyhome.idea.vim.command.Argument
 import com.maddyhome.idea.vim.command.CommandFlags
 import com.maddyhome.idea.vim.command.MotionType
@@ -23,7 +23,6 @@ import com.maddyhome.idea.vim.handler.MotionActionHandler
 import com.maddyhome.idea.vim.helper.enumSetOf
 import com.maddyhome.idea.vim.helper.inVisualMode
 import com.maddyhome.idea.vim.helper.isEndAllowed
-import com.maddyhome.idea.vim.options.OptionConstants
 import java.util.*
 
 public class MotionLastColumnInsertAction : MotionLastColumnAction() {
@@ -41,7 +40,7 @@ public open class MotionLastColumnAction : MotionActionHandler.ForEachCaret() {
     operatorArguments: OperatorArguments,
   ): Motion {
     val allow = if (editor.inVisualMode) {
-      !injector.options(editor).hasValue(OptionConstants.selection, "old")
+      !injector.optionSnapshot(editor).isOldSelection
     } else {
       if (operatorArguments.isOperatorPending) false else editor.isEndAllowed
     }
@@ -8,7 +8,9 @@
 
 package com.maddyhome.idea.vim.api
 
+import com.maddyhome.idea.vim.common.CharSequenceView
 import com.maddyhome.idea.vim.common.TextRange
+import com.maddyhome.idea.vim.common.view
 import java.nio.CharBuffer
 
 // TODO: [visual] try to remove all uses of visual line/position. This is an IntelliJ concept
@@ -223,19 +225,22 @@ public fun VimEditor.getText(range: TextRange): String {
   } else {
     val res = StringBuilder()
     val max = range.maxLength
+    val chars = text()
+    val length = chars.length
     for (i in 0 until len) {
       if (i > 0 && res.isNotEmpty() && res[res.length - 1] != '\n') {
         res.append('\n')
       }
-      val start = range.startOffsets[i]
-      val end = range.endOffsets[i]
-      val line = getText(start, end)
-      if (line.isEmpty()) {
+      // The lines are appended straight from the text, without a string per line. With the end of the line allowed,
+      // normalizing an offset only keeps it inside the text, so the bounds of its line aren't looked up
+      val start = range.startOffsets[i].coerceIn(0, length)
+      val end = range.endOffsets[i].coerceIn(0, length)
+      if (start >= end) {
         for (j in 0 until max) {
           res.append(' ')
         }
       } else {
-        res.append(line)
+        res.append(chars, start, end)
       }
     }
     res.toString()
@@ -247,8 +252,24 @@ public fun VimEditor.getOffset(line: Int, column: Int): Int {
 }
 
 public fun VimEditor.getLineBuffer(line: Int): CharBuffer {
-  val start: Int = getLineStartOffset(line)
-  return CharBuffer.wrap(text(), start, start + getLineEndOffset(line, true) - getLineStartOffset(line))
+  return CharBuffer.wrap(text(), getLineStartOffset(line), getLineEndOffset(line, true))
+}
+
+/**
+ * Returns the chars of the [line] without its new line character, as a view of the text that isn't copied
+ *
+ * Use it instead of [VimEditor.getLineText] to scan a line. See [CharSequenceView]
+ */
+public fun VimEditor.getLineChars(line: Int): CharSequence {
+  return text().view(getLineStartOffset(line), getLineEndOffset(line, true))
+}
+
+/**
+ * Returns the chars `[start, end)` as a view of the text that isn't copied. Use it instead of [getText] to scan a range
+ */
+public fun VimEditor.getTextChars(start: Int, end: Int): CharSequence {
+  if (start == end) return ""
+  return text().view(normalizeOffset(start), normalizeOffset(end))
 }
 
 public fun VimEditor.anyNonWhitespace(offset: Int, dir: Int): Boolean {
@@ -13,6 +13,7 @@ import com.maddyhome.idea.vim.command.OperatorArguments
 import com.maddyhome.idea.vim.command.SelectionType
 import com.maddyhome.idea.vim.command.VimStateMachine
 import com.maddyhome.idea.vim.common.TextRange
+import com.maddyhome.idea.vim.common.TextReplacement
 import com.maddyhome.idea.vim.ex.ranges.LineRange
 import com.maddyhome.idea.vim.group.visual.VimSelection
 import org.jetbrains.annotations.TestOnly
@@ -192,5 +193,20 @@ public interface VimChangeGroup {
   )
 
   public fun type(vimEditor: VimEditor, context: ExecutionContext, key: Char)
+
+  /**
+   * Types the plain [text] at every caret, as if its characters were typed one by one, but as a single change
+   */
+  public fun type(vimEditor: VimEditor, context: ExecutionContext, text: String) {
+    text.forEach { type(vimEditor, context, it) }
+  }
+
   public fun replaceText(editor: VimEditor, caret: VimCaret, start: Int, end: Int, str: String)
+
+  /**
+   * Replaces several ranges in one batch, setting the change marks to the first replaced range
+   *
+   * @see MutableVimEditor.replaceStrings
+   */
+  public fun replaceTexts(editor: VimEditor, caret: VimCaret, replacements: List<TextReplacement>)
 }
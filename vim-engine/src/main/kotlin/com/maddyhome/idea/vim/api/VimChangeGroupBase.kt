@@ -20,6 +20,7 @@ import com.maddyhome.idea.vim.common.ChangesListener
 import com.maddyhome.idea.vim.common.Offset
 import com.maddyhome.idea.vim.common.OperatedRange
 import com.maddyhome.idea.vim.common.TextRange
+import com.maddyhome.idea.vim.common.TextReplacement
 import com.maddyhome.idea.vim.common.offset
 import com.maddyhome.idea.vim.diagnostic.debug
 import com.maddyhome.idea.vim.diagnostic.vimLogger
@@ -217,6 +218,10 @@ public abstract class VimChangeGroupBase : VimChangeGroup {
 
   /**
    * This repeats the previous insert count times
+   *
+   * Every stroke is repeated at all carets before the next one, like the strokes were typed at all carets: the actions
+   *   and the recorded deletes and caret moves apply to all carets anyway, and the text is inserted at each of them.
+   *
    * @param editor  The editor to insert into
    * @param context The data context
    * @param count   The number of times to repeat the previous insert
@@ -228,33 +233,69 @@ public abstract class VimChangeGroupBase : VimChangeGroup {
     operatorArguments: OperatorArguments,
   ) {
     val myLastStrokes = lastStrokes ?: return
-    for (caret in editor.nativeCarets()) {
-      for (i in 0 until count) {
-        for (lastStroke in myLastStrokes) {
-          when (lastStroke) {
-            is NativeAction -> {
-              injector.actionExecutor.executeAction(editor, lastStroke, context)
-              strokes.add(lastStroke)
-            }
+    for (i in 0 until count) {
+      for (lastStroke in myLastStrokes) {
+        when (lastStroke) {
+          is NativeAction -> {
+            injector.actionExecutor.executeAction(editor, lastStroke, context)
+            strokes.add(lastStroke)
+          }
 
-            is EditorActionHandlerBase -> {
-              injector.actionExecutor.executeVimAction(editor, lastStroke, context, operatorArguments)
-              strokes.add(lastStroke)
-            }
+          is EditorActionHandlerBase -> {
+            injector.actionExecutor.executeVimAction(editor, lastStroke, context, operatorArguments)
+            strokes.add(lastStroke)
+          }
 
-            is CharArray -> {
-              insertText(editor, caret, String(lastStroke))
+          is CharArray -> {
+            val text = String(lastStroke)
+            for (caret in editor.nativeCarets()) {
+              insertText(editor, caret, text)
             }
+          }
 
-            else -> {
-              throw RuntimeException("Unexpected stroke type: ${lastStroke.javaClass} $lastStroke")
-            }
+          is DeleteStroke -> {
+            deleteAtCarets(editor, lastStroke)
+            strokes.add(lastStroke)
+          }
+
+          is CaretMoveStroke -> {
+            val motionName = if (lastStroke.delta < 0) "VimMotionLeftAction" else "VimMotionRightAction"
+            val action = injector.actionExecutor.findVimActionOrDie(motionName)
+            injector.actionExecutor.executeVimAction(
+              editor,
+              action,
+              context,
+              operatorArguments.copy(count0 = abs(lastStroke.delta)),
+            )
+            strokes.add(lastStroke)
+          }
+
+          else -> {
+            throw RuntimeException("Unexpected stroke type: ${lastStroke.javaClass} $lastStroke")
           }
         }
       }
     }
   }
 
+  /**
+   * Deletes the chars around every caret, like the native delete and backspace actions do for all carets
+   *
+   * The chars before the caret are deleted only up to the start of its line, as a recorded backspace run is replayed
+   *   on a line that may be shorter than the line it was recorded on.
+   */
+  private fun deleteAtCarets(editor: VimEditor, stroke: DeleteStroke) {
+    val fileSize = editor.fileSize().toInt()
+    for (caret in editor.nativeCarets().sortedByDescending { it.offset.point }) {
+      val offset = caret.offset.point
+      val start = (offset - stroke.before).coerceAtLeast(editor.getLineStartForOffset(offset))
+      val end = (offset + stroke.after).coerceAtMost(fileSize)
+      if (start < end) {
+        editor.deleteString(TextRange(start, end))
+      }
+    }
+  }
+
   /**
    * This repeats the previous insert count times
    *
@@ -269,11 +310,18 @@ public abstract class VimChangeGroupBase : VimChangeGroup {
     started: Boolean,
     operatorArguments: OperatorArguments,
   ) {
+    if (repeatLines == 0) {
+      repeatInsertText(editor, context, count, operatorArguments)
+    }
     for (caret in editor.nativeCarets()) {
       if (repeatLines > 0) {
         val visualLine = caret.getVisualPosition().line
         val bufferLine = caret.getBufferPosition().line
         val position = editor.bufferPositionToOffset(BufferPosition(bufferLine, repeatColumn, false))
+        if (repeatBlockInsertInOneChange(editor, context, caret, visualLine, bufferLine, count, started)) {
+          caret.moveToOffset(position)
+          continue
+        }
         for (i in 0 until repeatLines) {
           if (repeatAppend &&
             (repeatColumn < VimMotionGroupBase.LAST_COLUMN) &&
@@ -298,7 +346,6 @@ public abstract class VimChangeGroupBase : VimChangeGroup {
         }
         caret.moveToOffset(position)
       } else {
-        repeatInsertText(editor, context, count, operatorArguments)
         val position = injector.motion.getHorizontalMotion(editor, caret, -1, false)
         caret.moveToMotion(position)
       }
@@ -308,6 +355,72 @@ public abstract class VimChangeGroupBase : VimChangeGroup {
     repeatAppend = false
   }
 
+  /**
+   * Repeats a blockwise insert on all lines of the block with one batched edit
+   *
+   * This is only possible when the inserted text is plain text on a single line and there is a single caret. The lines
+   * that are too short for an append are padded with spaces in the same batch, unless the padding needs tabs.
+   * Otherwise, the insert is repeated line by line.
+   *
+   * @return false if the insert wasn't repeated
+   */
+  private fun repeatBlockInsertInOneChange(
+    editor: VimEditor,
+    context: ExecutionContext,
+    caret: VimCaret,
+    visualLine: Int,
+    bufferLine: Int,
+    count: Int,
+    started: Boolean,
+  ): Boolean {
+    if (editor.nativeCarets().size != 1) return false
+    val myLastStrokes = lastStrokes ?: return false
+    if (myLastStrokes.any { it !is CharArray }) return false
+    val text = myLastStrokes.joinToString("") { String(it as CharArray) }
+    if (text.contains('\n')) return false
+    if (text.isEmpty()) return true
+
+    val replacements = ArrayList<TextReplacement>(repeatLines)
+    for (i in 0 until repeatLines) {
+      var pad = ""
+      val offset = if (repeatColumn >= VimMotionGroupBase.LAST_COLUMN) {
+        injector.motion.moveCaretToLineEnd(editor, bufferLine + i, true)
+      } else if (editor.getVisualLineLength(visualLine + i) >= repeatColumn) {
+        val visualPosition = VimVisualPosition(visualLine + i, repeatColumn, false)
+        val inlaysCount = injector.engineEditorHelper.amountOfInlaysBeforeVisualPosition(editor, visualPosition)
+        editor.visualPositionToOffset(VimVisualPosition(visualLine + i, repeatColumn + inlaysCount, false)).point
+      } else if (repeatAppend) {
+        // The line is padded up to the column and the text is appended after the padding
+        pad = injector.engineEditorHelper.pad(editor, context, bufferLine + i, repeatColumn)
+        if (pad.isEmpty()) continue
+        if (pad.any { it != ' ' }) return false
+        editor.getLineEndOffset(bufferLine + i)
+      } else {
+        continue
+      }
+      val updatedCount = if (started) (if (i == 0) count else count + 1) else count
+      if (pad.isNotEmpty() || updatedCount > 0) {
+        replacements.add(TextReplacement(offset, offset, pad + text.repeat(updatedCount)))
+      }
+    }
+    if (replacements.isEmpty()) return true
+
+    replacements.sortBy { it.startOffset }
+    (editor as MutableVimEditor).replaceStrings(replacements)
+
+    // Same change mark as inserting the text line by line: the start of the last chunk of text inserted on the last
+    // line, after the text inserted on the lines above it and the earlier repeats on the last line
+    val last = replacements.last()
+    val insertedBefore = replacements.sumOf { it.text.length } - last.text.length
+    val lastChunkLength = (myLastStrokes.last() as CharArray).size
+    injector.markService.setMark(
+      caret,
+      MARK_CHANGE_POS,
+      last.startOffset + insertedBefore + last.text.length - lastChunkLength,
+    )
+    return true
+  }
+
   protected inner class VimChangesListener : ChangesListener {
     override fun documentChanged(change: ChangesListener.Change) {
       val newFragment = change.newFragment
@@ -323,7 +436,7 @@ public abstract class VimChangeGroupBase : VimChangeGroup {
       // <Enter> is added to strokes as an action during processing in order to indent code properly in the repeat
       // command
       if (newFragment.startsWith("\n") && newFragment.trim { it <= ' ' }.isEmpty()) {
-        strokes.addAll(getAdjustCaretActions(change))
+        addCaretMoveStroke(change)
         oldOffset = -1
         return
       }
@@ -333,38 +446,70 @@ public abstract class VimChangeGroupBase : VimChangeGroup {
         return
       }
       tabAction = false
-      strokes.addAll(getAdjustCaretActions(change))
-      if (oldFragmentLength > 0) {
-        val editorDelete = injector.nativeActionManager.deleteAction
-        if (editorDelete != null) {
-          for (i in 0 until oldFragmentLength) {
-            strokes.add(editorDelete)
-          }
+      if (oldFragmentLength > 0 && newFragmentLength == 0 && isBackspace(change)) {
+        addDeleteStroke(DeleteStroke(oldFragmentLength, 0))
+      } else {
+        addCaretMoveStroke(change)
+        if (oldFragmentLength > 0) {
+          addDeleteStroke(DeleteStroke(0, oldFragmentLength))
         }
       }
       if (newFragmentLength > 0) {
-        strokes.add(newFragment.toCharArray())
+        addTextStroke(newFragment)
       }
       repeatCharsCount += newFragmentLength
       oldOffset = change.offset + newFragmentLength
     }
 
-    private fun getAdjustCaretActions(change: ChangesListener.Change): List<EditorActionHandlerBase> {
+    /**
+     * True if the change deleted the chars right before the caret on its line. Such a deletion is recorded without
+     *   the caret move, and its repeat stops at the start of the line
+     */
+    private fun isBackspace(change: ChangesListener.Change): Boolean {
+      return oldOffset >= 0 && change.offset + change.oldFragment.length == oldOffset &&
+        !change.oldFragment.contains('\n')
+    }
+
+    private fun addCaretMoveStroke(change: ChangesListener.Change) {
       val delta: Int = change.offset - oldOffset
       if (oldOffset >= 0 && delta != 0) {
-        val positionCaretActions: MutableList<EditorActionHandlerBase> = ArrayList()
-        val motionName = if (delta < 0) "VimMotionLeftAction" else "VimMotionRightAction"
-        val action = injector.actionExecutor.findVimAction(motionName)!!
-        val count = abs(delta)
-        for (i in 0 until count) {
-          positionCaretActions.add(action)
-        }
-        return positionCaretActions
+        strokes.add(CaretMoveStroke(delta))
+      }
+    }
+
+    /** Adds the deletion, joining it with the previous one if the caret wasn't moved in between */
+    private fun addDeleteStroke(stroke: DeleteStroke) {
+      val last = strokes.lastOrNull()
+      if (last is DeleteStroke) {
+        strokes[strokes.lastIndex] = DeleteStroke(last.before + stroke.before, last.after + stroke.after)
+      } else {
+        strokes.add(stroke)
+      }
+    }
+
+    /** Adds the inserted text, joining it with the previous text if it is still short */
+    private fun addTextStroke(text: String) {
+      val last = strokes.lastOrNull()
+      if (last is CharArray && last.size + text.length <= MAX_TEXT_STROKE_LENGTH) {
+        strokes[strokes.lastIndex] = last + text.toCharArray()
+      } else {
+        strokes.add(text.toCharArray())
       }
-      return emptyList()
     }
   }
 
+  /**
+   * Deletion of [before] chars before the caret and [after] chars after it, recorded for the repeat of an insert.
+   *   A run of backspaces or deletes is recorded as a single stroke
+   */
+  private data class DeleteStroke(val before: Int, val after: Int)
+
+  /**
+   * Move of the caret by [delta] chars on its line, recorded for the repeat of an insert. It is repeated as a single
+   *   `h` or `l` motion with a count
+   */
+  private data class CaretMoveStroke(val delta: Int)
+
   /**
    * Begin insert before the cursor position
    * @param editor  The editor to insert into
@@ -1089,6 +1234,17 @@ public abstract class VimChangeGroupBase : VimChangeGroup {
     injector.markService.setMark(caret, VimMarkService.LAST_CHANGE_MARK, newEnd)
   }
 
+  override fun replaceTexts(editor: VimEditor, caret: VimCaret, replacements: List<TextReplacement>) {
+    if (replacements.isEmpty()) return
+    (editor as MutableVimEditor).replaceStrings(replacements)
+
+    // Same marks as replacing the ranges one by one, bottom up
+    val first = replacements.first()
+    val newEnd = first.startOffset + first.text.length
+    injector.markService.setChangeMarks(caret, TextRange(first.startOffset, newEnd))
+    injector.markService.setMark(caret, VimMarkService.LAST_CHANGE_MARK, newEnd)
+  }
+
   /**
    * Inserts a new line above the caret position
    *
@@ -1282,6 +1438,9 @@ public abstract class VimChangeGroupBase : VimChangeGroup {
 
   public companion object {
     private const val MAX_REPEAT_CHARS_COUNT = 10000
+
+    /** Typed text is joined into strokes of up to this length, so a joined stroke is never copied for too long */
+    private const val MAX_TEXT_STROKE_LENGTH = 256
     private val logger = vimLogger<VimChangeGroupBase>()
 
     /**
@@ -16,6 +16,7 @@ import com.maddyhome.idea.vim.common.LiveRange
 import com.maddyhome.idea.vim.common.Offset
 import com.maddyhome.idea.vim.common.Pointer
 import com.maddyhome.idea.vim.common.TextRange
+import com.maddyhome.idea.vim.common.TextReplacement
 
 /**
  * Every line in [VimEditor] ends with a new line TODO <- this is probably not true already
@@ -272,6 +273,23 @@ public interface MutableVimEditor : VimEditor {
   public fun addLine(atPosition: EditorLine.Offset): EditorLine.Pointer?
   public fun insertText(atPosition: Offset, text: CharSequence)
   public fun replaceString(start: Int, end: Int, newString: String)
+
+  /**
+   * Applies several replacements as one batch
+   *
+   * The [replacements] must be sorted by their offsets and must not overlap. All offsets refer to the text before the
+   * change, so the caller doesn't have to shift the later ranges. Only the ranges themselves are changed: the text
+   * between them keeps its marks, folds and other markers.
+   *
+   * Every range is still a separate change of the document, so listeners are notified once per range. The batch is a
+   * single step for undo only because it runs inside a single command. An implementation may wrap many replacements
+   * in a bulk update of its document.
+   */
+  public fun replaceStrings(replacements: List<TextReplacement>) {
+    for (replacement in replacements.asReversed()) {
+      replaceString(replacement.startOffset, replacement.endOffset, replacement.text)
+    }
+  }
 }
 
 public abstract class LinearEditor : VimEditor {
@@ -15,6 +15,7 @@ import com.maddyhome.idea.vim.group.VimWindowGroup
 import com.maddyhome.idea.vim.helper.VimCommandLineHelper
 import com.maddyhome.idea.vim.history.VimHistory
 import com.maddyhome.idea.vim.macro.VimMacro
+import com.maddyhome.idea.vim.options.OptionSnapshot
 import com.maddyhome.idea.vim.options.OptionValueAccessor
 import com.maddyhome.idea.vim.put.VimPut
 import com.maddyhome.idea.vim.register.VimRegisterGroup
@@ -206,3 +207,11 @@ public fun VimInjector.globalOptions(): OptionValueAccessor = this.optionGroup.g
  * options. It should not be used to access options that are local to buffer, local to window or global-local.
  */
 public fun VimInjector.options(editor: VimEditor): OptionValueAccessor = this.optionGroup.getValueAccessor(editor)
+
+/**
+ * Gets the typed values of the frequently read options
+ *
+ * The values are the same as the ones returned by [options] (or [globalOptions] if [editor] is `null`), but they are
+ * parsed once and reused until an option is changed. Prefer this in code that runs for every keystroke.
+ */
+public fun VimInjector.optionSnapshot(editor: VimEditor?): OptionSnapshot = this.optionGroup.getOptionSnapshot(editor)
@@ -11,8 +11,17 @@ package com.maddyhome.idea.vim.api
 import com.maddyhome.idea.vim.mark.Jump
 
 public abstract class VimJumpServiceBase : VimJumpService {
+  /**
+   * The jump list, oldest jump first. It's a ring buffer, so dropping the oldest jump when the list is full is O(1)
+   */
   @JvmField
-  protected val jumps: MutableList<Jump> = ArrayList() // todo should it be mutable?
+  protected val jumps: MutableList<Jump> = ArrayDeque(SAVE_JUMP_COUNT + 1) // todo should it be mutable?
+
+  /**
+   * Jumps of each file by their line. There is at most one jump per line, so this is used to find the duplicate of a
+   * new jump and to update the jumps of a file after a document change without scanning the whole jump list
+   */
+  private val jumpsByFile: HashMap<String, HashMap<Int, Jump>> = HashMap()
 
   @JvmField
   protected var jumpSpot: Int = -1
@@ -37,17 +46,14 @@ public abstract class VimJumpServiceBase : VimJumpService {
 
   override fun addJump(jump: Jump, reset: Boolean) {
     lastJumpTimeStamp = System.currentTimeMillis()
-    val filename = jump.filepath
 
-    for (i in jumps.indices) {
-      val j = jumps[i]
-      if (filename == j.filepath && j.line == jump.line) {
-        jumps.removeAt(i)
-        break
-      }
+    val duplicate = jumpsByFile[jump.filepath]?.get(jump.line)
+    if (duplicate != null) {
+      removeFromList(duplicate)
     }
 
     jumps.add(jump)
+    jumpsByFile.getOrPut(jump.filepath) { HashMap() }[jump.line] = jump
 
     if (reset) {
       jumpSpot = -1
@@ -56,7 +62,22 @@ public abstract class VimJumpServiceBase : VimJumpService {
     }
 
     if (jumps.size > SAVE_JUMP_COUNT) {
-      jumps.removeAt(0)
+      unindex(jumps.removeFirst())
+    }
+  }
+
+  /**
+   * Adds a jump restored from the saved state to the end of the jump list
+   */
+  protected fun restoreJump(jump: Jump) {
+    val duplicate = jumpsByFile[jump.filepath]?.get(jump.line)
+    if (duplicate != null) {
+      removeFromList(duplicate)
+    }
+    jumps.add(jump)
+    jumpsByFile.getOrPut(jump.filepath) { HashMap() }[jump.line] = jump
+    if (jumps.size > SAVE_JUMP_COUNT) {
+      unindex(jumps.removeFirst())
     }
   }
 
@@ -67,27 +88,78 @@ public abstract class VimJumpServiceBase : VimJumpService {
   }
 
   override fun removeJump(jump: Jump) {
-    val lastIndex = jumps.withIndex().findLast { it.value == jump }?.index ?: return
-    jumps.removeAt(lastIndex)
+    val indexed = jumpsByFile[jump.filepath]?.get(jump.line) ?: return
+    if (indexed != jump) return
+    removeFromList(indexed)
+    unindex(indexed)
   }
 
   override fun dropLastJump() {
-    jumps.removeLast()
+    unindex(jumps.removeLast())
   }
 
   override fun updateJumpsFromInsert(editor: VimEditor, startOffset: Int, length: Int) {
-    TODO("Not yet implemented")
+    val path = editor.getPath() ?: return
+    val fileJumps = jumpsByFile[path] ?: return
+
+    val insStart = editor.offsetToBufferPosition(startOffset)
+    val insEnd = editor.offsetToBufferPosition(startOffset + length)
+    val lines = insEnd.line - insStart.line
+    if (lines == 0) return
+
+    // All the shifted jumps move by the same number of lines, so they can't collide with each other
+    val shifted = fileJumps.values.filter { it.line > insStart.line }
+    shifted.forEach { fileJumps.remove(it.line) }
+    for (jump in shifted) {
+      jump.line += lines
+      fileJumps[jump.line] = jump
+    }
   }
 
   override fun updateJumpsFromDelete(editor: VimEditor, startOffset: Int, length: Int) {
-    TODO("Not yet implemented")
+    val path = editor.getPath() ?: return
+    val fileJumps = jumpsByFile[path] ?: return
+
+    val delStart = editor.offsetToBufferPosition(startOffset)
+    val delEnd = editor.offsetToBufferPosition(startOffset + length)
+    val lines = delEnd.line - delStart.line
+    if (lines == 0) return
+
+    val shifted = fileJumps.values.filter { it.line > delStart.line }
+    shifted.forEach { fileJumps.remove(it.line) }
+    for (jump in shifted) {
+      // Jumps from the deleted lines are moved to the first deleted line, like Vim does
+      jump.line = if (jump.line > delEnd.line) jump.line - lines else delStart.line
+      val duplicate = fileJumps[jump.line]
+      if (duplicate != null) {
+        // Keep only the most recent jump of the line
+        val older = if (jumps.indexOfLast { it === duplicate } < jumps.indexOfLast { it === jump }) duplicate else jump
+        removeFromList(older)
+        if (older === jump) continue
+      }
+      fileJumps[jump.line] = jump
+    }
   }
 
   override fun resetJumps() {
     jumps.clear()
+    jumpsByFile.clear()
     jumpSpot = -1
   }
 
+  private fun removeFromList(jump: Jump) {
+    val index = jumps.indexOfLast { it === jump }
+    if (index >= 0) jumps.removeAt(index)
+  }
+
+  private fun unindex(jump: Jump) {
+    val fileJumps = jumpsByFile[jump.filepath] ?: return
+    if (fileJumps[jump.line] === jump) {
+      fileJumps.remove(jump.line)
+      if (fileJumps.isEmpty()) jumpsByFile.remove(jump.filepath)
+    }
+  }
+
   public companion object {
     public const val SAVE_JUMP_COUNT: Int = 100
   }
@@ -57,6 +57,12 @@ public interface VimKeyGroup {
   public fun getKeyMapping(mode: MappingMode): KeyMapping
   public fun getKeyMappingByOwner(owner: MappingOwner): List<Pair<List<KeyStroke>, MappingInfo>>
   public fun updateShortcutKeysRegistration()
+
+  /**
+   * Runs [action] and updates the shortcut keys registration once after it, instead of once for every mapping that
+   *   [action] adds or removes. Used when sourcing a script or initializing extensions, which add many mappings
+   */
+  public fun <T> batchShortcutKeysRegistration(action: () -> T): T
   public fun getMapTo(mode: MappingMode, toKeys: List<KeyStroke>): List<Pair<List<KeyStroke>, MappingInfo>>
   public fun unregisterCommandActions()
   public fun resetKeyMappings()
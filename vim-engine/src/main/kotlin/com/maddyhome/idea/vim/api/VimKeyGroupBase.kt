@@ -35,6 +35,9 @@ public abstract class VimKeyGroupBase : VimKeyGroup {
 
   override var operatorFunction: OperatorFunction? = null
 
+  private var shortcutRegistrationBatchDepth = 0
+  private var shortcutRegistrationPending = false
+
   override fun removeKeyMapping(modes: Set<MappingMode>, keys: List<KeyStroke>) {
     modes.map { getKeyMapping(it) }.forEach { it.delete(keys) }
   }
@@ -134,7 +137,7 @@ public abstract class VimKeyGroupBase : VimKeyGroup {
       }
     }
     if (requiredShortcutKeys.size != oldSize) {
-      updateShortcutKeysRegistration()
+      requestShortcutKeysRegistration()
     }
   }
 
@@ -142,10 +145,31 @@ public abstract class VimKeyGroupBase : VimKeyGroup {
     val oldSize = requiredShortcutKeys.size
     requiredShortcutKeys.removeIf { it.owner == owner }
     if (requiredShortcutKeys.size != oldSize) {
+      requestShortcutKeysRegistration()
+    }
+  }
+
+  private fun requestShortcutKeysRegistration() {
+    if (shortcutRegistrationBatchDepth > 0) {
+      shortcutRegistrationPending = true
+    } else {
       updateShortcutKeysRegistration()
     }
   }
 
+  override fun <T> batchShortcutKeysRegistration(action: () -> T): T {
+    shortcutRegistrationBatchDepth++
+    try {
+      return action()
+    } finally {
+      shortcutRegistrationBatchDepth--
+      if (shortcutRegistrationBatchDepth == 0 && shortcutRegistrationPending) {
+        shortcutRegistrationPending = false
+        updateShortcutKeysRegistration()
+      }
+    }
+  }
+
   override fun removeKeyMapping(owner: MappingOwner) {
     MappingMode.values().map { getKeyMapping(it) }.forEach { it.delete(owner) }
     unregisterKeyMapping(owner)
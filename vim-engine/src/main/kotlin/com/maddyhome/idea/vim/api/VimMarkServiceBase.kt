@@ -308,18 +308,21 @@ public abstract class VimMarkServiceBase : VimMarkService {
   }
 
   override fun updateMarksFromInsert(editor: VimEditor, insertStartOffset: Int, insertLength: Int) {
-    val caretToMarks = getAllMarksForFile(editor)
-    if (caretToMarks.isEmpty()) return
-
     val insertEndOffset = insertStartOffset + insertLength
     val insStart = editor.offsetToBufferPosition(insertStartOffset)
     val insEnd = editor.offsetToBufferPosition(insertEndOffset)
     logger.debug { "mark insert. insStart = $insertStartOffset, insEnd = $insertEndOffset" }
     val lines = insEnd.line - insStart.line
+    // Marks are line based, so an insert that doesn't add lines doesn't move them. Check this before collecting the
+    // marks of the file, because it's the case for almost every typed character
     if (lines == 0) return
 
+    val caretToMarks = getAllMarksForFile(editor)
+    if (caretToMarks.isEmpty()) return
+
     for ((_, marks) in caretToMarks) {
-      for (mark in marks.filterIsInstance<VimMark>()) {
+      for (mark in marks) {
+        if (mark !is VimMark) continue
         logger.debug { "mark = $mark" }
         if (mark.key == SELECTION_START_MARK || mark.key == SELECTION_END_MARK) continue
         if (insStart.line < mark.line) {
@@ -351,16 +354,19 @@ public abstract class VimMarkServiceBase : VimMarkService {
   }
 
   override fun updateMarksFromDelete(editor: VimEditor, delStartOffset: Int, delLength: Int) {
-    val caretToMarks = getAllMarksForFile(editor)
-    if (caretToMarks.isEmpty()) return
-
     val delEndOffset = delStartOffset + delLength - 1
     val delStart = editor.offsetToBufferPosition(delStartOffset)
     val delEnd = editor.offsetToBufferPosition(delEndOffset + 1)
     logger.debug { "mark delete. delStart = $delStart, delEnd = $delEnd" }
+    // A deletion inside a single line neither shifts marks nor removes a whole marked line
+    if (delStart.line == delEnd.line) return
+
+    val caretToMarks = getAllMarksForFile(editor)
+    if (caretToMarks.isEmpty()) return
 
     for ((caret, marks) in caretToMarks) {
-      for (mark in marks.filterIsInstance<VimMark>()) {
+      for (mark in marks) {
+        if (mark !is VimMark) continue
         logger.debug { "mark = $mark" }
         if (delEnd.line < mark.line) {
           val lines = delEnd.line - delStart.line
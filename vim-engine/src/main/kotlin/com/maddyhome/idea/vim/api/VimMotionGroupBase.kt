@@ -339,11 +339,10 @@ public abstract class VimMotionGroupBase : VimMotionGroup {
     }
 
     // This is a kludge for dw, dW, and d[w. Without this kludge, an extra newline is operated when it shouldn't be.
-    val text = editor.text().subSequence(start, end).toString()
-    val lastNewLine = text.lastIndexOf('\n')
-    if (lastNewLine > 0) {
-      val id = argument.motion.action.id
-      if (id == "VimMotionWordRightAction" || id == "VimMotionBigWordRightAction" || id == "VimMotionCamelRightAction") {
+    val id = argument.motion.action.id
+    if (id == "VimMotionWordRightAction" || id == "VimMotionBigWordRightAction" || id == "VimMotionCamelRightAction") {
+      val lastNewLine = editor.getTextChars(start, end).lastIndexOf('\n')
+      if (lastNewLine > 0) {
         if (!editor.anyNonWhitespace(end, -1)) {
           end = start + lastNewLine
         }
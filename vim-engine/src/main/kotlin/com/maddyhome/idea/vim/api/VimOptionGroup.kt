@@ -11,6 +11,7 @@ package com.maddyhome.idea.vim.api
 import com.maddyhome.idea.vim.options.Option
 import com.maddyhome.idea.vim.options.OptionChangeListener
 import com.maddyhome.idea.vim.options.OptionScope
+import com.maddyhome.idea.vim.options.OptionSnapshot
 import com.maddyhome.idea.vim.options.OptionValueAccessor
 import com.maddyhome.idea.vim.options.StringOption
 import com.maddyhome.idea.vim.options.ToggleOption
@@ -80,6 +81,16 @@ public interface VimOptionGroup {
    * @return An instance of [OptionValueAccessor] to provide easy API to get option values
    */
   public fun getValueAccessor(editor: VimEditor?): OptionValueAccessor
+
+  /**
+   * Return the typed values of the frequently read options
+   *
+   * The snapshot is parsed once and reused until any option is changed, so it is cheaper than reading the same values
+   * through [getValueAccessor] on every keystroke.
+   *
+   * @param editor The editor to use to retrieve local option values. If `null`, then only global values are used
+   */
+  public fun getOptionSnapshot(editor: VimEditor?): OptionSnapshot
 }
 
 /**
@@ -99,7 +110,7 @@ public fun VimOptionGroup.resetDefaultValue(option: Option<out VimDataType>, sco
  * Checks if the given string option matches the value, or a string list contains the value
  */
 public fun VimOptionGroup.hasValue(option: StringOption, scope: OptionScope, value: String): Boolean =
-  value in option.split(getOptionValue(option, scope).asString())
+  value in option.splitCached(getOptionValue(option, scope).asString())
 
 /**
  * Splits a string list option into flags, or returns a list with a single string value
@@ -107,7 +118,7 @@ public fun VimOptionGroup.hasValue(option: StringOption, scope: OptionScope, val
  * E.g. the `fileencodings` option with value "ucs-bom,utf-8,default,latin1" will result listOf("ucs-bom", "utf-8", "default", "latin1")
  */
 public fun VimOptionGroup.getStringListValues(option: StringOption, scope: OptionScope): List<String> {
-  return option.split(getOptionValue(option, scope).asString())
+  return option.splitCached(getOptionValue(option, scope).asString())
 }
 
 /**
@@ -17,6 +17,7 @@ import com.maddyhome.idea.vim.options.Option
 import com.maddyhome.idea.vim.options.OptionChangeListener
 import com.maddyhome.idea.vim.options.OptionConstants
 import com.maddyhome.idea.vim.options.OptionScope
+import com.maddyhome.idea.vim.options.OptionSnapshot
 import com.maddyhome.idea.vim.options.OptionValueAccessor
 import com.maddyhome.idea.vim.options.StringOption
 import com.maddyhome.idea.vim.options.ToggleOption
@@ -32,6 +33,19 @@ public abstract class VimOptionGroupBase : VimOptionGroup {
   private lateinit var globalOptions: OptionValueAccessor
 
   private val localOptionsKey = Key<MutableMap<String, VimDataType>>("localOptions")
+  private val optionSnapshotKey = Key<VersionedSnapshot>("optionSnapshot")
+
+  /**
+   * Incremented on every change of any option value or of the set of options
+   *
+   * Cached [OptionSnapshot]s are checked against this counter rather than being updated by option listeners, because
+   * [resetAllOptions] doesn't notify the listeners.
+   */
+  @Volatile
+  private var modificationCount = 0L
+  private var globalSnapshot: VersionedSnapshot? = null
+
+  private class VersionedSnapshot(val snapshot: OptionSnapshot, val modificationCount: Long)
 
   private val logger = vimLogger<VimOptionGroupBase>()
   private val globalValues = mutableMapOf<String, VimDataType>()
@@ -181,6 +195,7 @@ public abstract class VimOptionGroupBase : VimOptionGroup {
 
     // IdeaVim specific options. Put any editor/IDE specific options in IjVimOptionService
     ToggleOption(OptionConstants.ideaglobalmode, OptionConstants.ideaglobalmode, false),
+    UnsignedNumberOption(OptionConstants.idearegistermemory, OptionConstants.idearegistermemory, 65536),
     ToggleOption(OptionConstants.ideastrictmode, OptionConstants.ideastrictmode, false),
     ToggleOption(OptionConstants.ideatracetime, OptionConstants.ideatracetime, false),
     ToggleOption(OptionConstants.octopushandler, OptionConstants.octopushandler, false),
@@ -206,6 +221,7 @@ public abstract class VimOptionGroupBase : VimOptionGroup {
       is OptionScope.LOCAL -> setLocalOptionValue(option.name, value, scope.editor)
       is OptionScope.GLOBAL -> setGlobalOptionValue(option.name, value)
     }
+    modificationCount++
     option.onChanged(scope, oldValue)
   }
 
@@ -246,14 +262,17 @@ public abstract class VimOptionGroupBase : VimOptionGroup {
     globalValues.clear()
     injector.editorGroup.localEditors()
       .forEach { injector.vimStorageService.getDataFromEditor(it, localOptionsKey)?.clear() }
+    modificationCount++
   }
 
   override fun addOption(option: Option<out VimDataType>) {
     options.put(option.name, option.abbrev, option)
+    modificationCount++
   }
 
   override fun removeOption(optionName: String) {
     options.remove(optionName)
+    modificationCount++
   }
 
   override fun addListener(optionName: String, listener: OptionChangeListener<VimDataType>, executeOnAdd: Boolean) {
@@ -278,6 +297,22 @@ public abstract class VimOptionGroupBase : VimOptionGroup {
       OptionValueAccessor(this, OptionScope.LOCAL(editor))
     }
   }
+
+  override fun getOptionSnapshot(editor: VimEditor?): OptionSnapshot {
+    val count = modificationCount
+    if (editor == null) {
+      val cached = globalSnapshot
+      if (cached != null && cached.modificationCount == count) return cached.snapshot
+      return OptionSnapshot(getValueAccessor(null)).also { globalSnapshot = VersionedSnapshot(it, count) }
+    }
+
+    val storageService = injector.vimStorageService
+    val cached = storageService.getDataFromEditor(editor, optionSnapshotKey)
+    if (cached != null && cached.modificationCount == count) return cached.snapshot
+    val snapshot = OptionSnapshot(getValueAccessor(editor))
+    storageService.putDataToEditor(editor, optionSnapshotKey, VersionedSnapshot(snapshot, count))
+    return snapshot
+  }
 }
 
 private class MultikeyMap(vararg entries: Option<out VimDataType>) {
@@ -12,6 +12,7 @@ import com.maddyhome.idea.vim.common.Direction
 import com.maddyhome.idea.vim.common.TextRange
 import com.maddyhome.idea.vim.helper.CharacterHelper
 import com.maddyhome.idea.vim.helper.CharacterHelper.charType
+import com.maddyhome.idea.vim.helper.CharacterHelper.skipCharType
 import kotlin.math.abs
 import kotlin.math.min
 
@@ -88,22 +89,19 @@ public abstract class VimSearchHelperBase : VimSearchHelper {
       if (type === CharacterHelper.CharacterType.WHITESPACE && step < 0 && _pos > 0 && !spaceWords) {
         type = charType(chars[_pos - 1], bigWord)
       }
-      _pos += step
-      while (_pos in 0 until size && !found) {
+      val limit = if (step > 0) size else -1L
+      _pos = skipCharType(chars, (_pos + step).toInt(), limit.toInt(), step, type, bigWord).toLong()
+      if (_pos != limit) {
         val newType = charType(chars[_pos], bigWord)
-        if (newType !== type) {
-          if (newType === CharacterHelper.CharacterType.WHITESPACE && step >= 0 && !spaceWords) {
-            _pos = skipSpace(chars, _pos, step, size)
-            res = _pos
-          } else if (step < 0) {
-            res = _pos + 1
-          } else {
-            res = _pos
-          }
-          type = charType(chars[res], bigWord)
-          found = true
+        if (newType === CharacterHelper.CharacterType.WHITESPACE && step >= 0 && !spaceWords) {
+          _pos = skipSpace(chars, _pos, step, size)
+          res = _pos
+        } else if (step < 0) {
+          res = _pos + 1
+        } else {
+          res = _pos
         }
-        _pos += step
+        found = true
       }
       if (found) {
         if (res < 0) { // (pos <= 0)
@@ -174,21 +172,19 @@ public abstract class VimSearchHelperBase : VimSearchHelper {
       if (type === CharacterHelper.CharacterType.WHITESPACE && step >= 0 && pos < size - 1 && !spaceWords) {
         type = charType(chars[pos + 1], bigWord)
       }
-      pos += step
-      while (pos >= 0 && pos < size && !found) {
+      val limit = if (step > 0) size else -1
+      pos = skipCharType(chars, pos + step, limit, step, type, bigWord)
+      if (pos != limit) {
         val newType = charType(chars[pos], bigWord)
-        if (newType !== type) {
-          if (step >= 0) {
-            res = pos - 1
-          } else if (newType === CharacterHelper.CharacterType.WHITESPACE && step < 0 && !spaceWords) {
-            pos = skipSpace(chars, pos.toLong(), step, size.toLong()).toInt()
-            res = pos
-          } else {
-            res = pos
-          }
-          found = true
+        if (step >= 0) {
+          res = pos - 1
+        } else if (newType === CharacterHelper.CharacterType.WHITESPACE && !spaceWords) {
+          pos = skipSpace(chars, pos.toLong(), step, size.toLong()).toInt()
+          res = pos
+        } else {
+          res = pos
         }
-        pos += step
+        found = true
       }
       if (found) {
         if (res < 0) {
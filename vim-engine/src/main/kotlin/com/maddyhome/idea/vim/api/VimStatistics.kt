@@ -8,13 +8,24 @@
 
 package com.maddyhome.idea.vim.api
 
+import com.maddyhome.idea.vim.vimscript.model.Executable
+import com.maddyhome.idea.vim.vimscript.model.expressions.Expression
+
 public interface VimStatistics {
   public fun logTrackedAction(actionId: String)
   public fun logCopiedAction(actionId: String)
-  public fun setIfIfUsed(value: Boolean)
-  public fun setIfFunctionCallUsed(value: Boolean)
-  public fun setIfFunctionDeclarationUsed(value: Boolean)
-  public fun setIfLoopUsed(value: Boolean)
+
+  /**
+   * Records the Vimscript features used by parsed code, a script or a single command. The code is scanned right away
+   *   and only the used features are kept, see [com.maddyhome.idea.vim.vimscript.model.ScriptFeatures]
+   */
+  public fun addParsedCode(code: Executable)
+
+  /**
+   * Records the Vimscript features used by an expression that is parsed on its own, e.g. for an `<expr>` mapping
+   */
+  public fun addParsedExpression(expression: Expression)
+
   public fun setIfMapExprUsed(value: Boolean)
   public fun addExtensionEnabledWithPlug(extension: String)
   public fun addSourcedFile(path: String)
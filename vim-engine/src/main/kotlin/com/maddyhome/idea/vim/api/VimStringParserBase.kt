@@ -17,11 +17,10 @@ import java.util.*
 import javax.swing.KeyStroke
 
 public abstract class VimStringParserBase : VimStringParser {
-  override val plugKeyStroke: KeyStroke
-    get() = parseKeys("<Plug>")[0]
+  // Both are compared against on every typed key, so they are parsed once
+  override val plugKeyStroke: KeyStroke by lazy { parseKeys("<Plug>")[0] }
 
-  override val actionKeyStroke: KeyStroke
-    get() = parseKeys("<Action>")[0]
+  override val actionKeyStroke: KeyStroke by lazy { parseKeys("<Action>")[0] }
 
   // todo what is the difference between this one and com.maddyhome.idea.vim.helper.EngineStringHelper#toPrintableCharacters
   override fun toPrintableString(keys: List<KeyStroke>): String {
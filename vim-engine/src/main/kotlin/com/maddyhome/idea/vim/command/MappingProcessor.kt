@@ -12,13 +12,12 @@ import com.maddyhome.idea.vim.KeyHandler
 import com.maddyhome.idea.vim.api.ExecutionContext
 import com.maddyhome.idea.vim.api.VimEditor
 import com.maddyhome.idea.vim.api.injector
-import com.maddyhome.idea.vim.api.options
+import com.maddyhome.idea.vim.api.optionSnapshot
 import com.maddyhome.idea.vim.diagnostic.debug
 import com.maddyhome.idea.vim.diagnostic.trace
 import com.maddyhome.idea.vim.diagnostic.vimLogger
 import com.maddyhome.idea.vim.helper.vimStateMachine
 import com.maddyhome.idea.vim.key.KeyMappingLayer
-import com.maddyhome.idea.vim.options.OptionConstants
 import javax.swing.KeyStroke
 
 public object MappingProcessor {
@@ -97,8 +96,7 @@ public object MappingProcessor {
     // Every time a key is pressed and handled, the timer is stopped. E.g. if there is a mapping for "dweri", and the
     // user has typed "dw" wait for the timeout, and then replay "d" and "w" without any mapping (which will of course
     // delete a word)
-    if (injector.options(editor).isSet(OptionConstants.timeout)
-    ) {
+    if (injector.optionSnapshot(editor).isTimeout) {
       log.trace("timeout is set. schedule a mapping timer")
       // XXX There is a strange issue that reports that mapping state is empty at the moment of the function call.
       //   At the moment, I see the only one possibility this to happen - other key is handled after the timer executed,
@@ -163,11 +161,9 @@ public object MappingProcessor {
       // mappingState.detachKeys and look for the longest complete sequence in the returned list, evaluate it, and then
       // replay any keys not yet handled. NB: The actual implementation should be compared to Vim behaviour to see what
       // should actually happen.
-      val previouslyUnhandledKeySequence = ArrayList<KeyStroke>()
-      mappingState.keys.forEach { e: KeyStroke -> previouslyUnhandledKeySequence.add(e) }
-      if (previouslyUnhandledKeySequence.size > 1) {
-        previouslyUnhandledKeySequence.removeAt(previouslyUnhandledKeySequence.size - 1)
-        mappingInfo = mapping.getLayer(previouslyUnhandledKeySequence)
+      val keyCount = mappingState.keyCount
+      if (keyCount > 1) {
+        mappingInfo = mapping.getLayer(mappingState.keyPrefix(keyCount - 1))
       }
     }
     if (mappingInfo == null) {
@@ -220,13 +216,14 @@ public object MappingProcessor {
     // The user has terminated a mapping sequence with an unexpected key
     // E.g. if there is a mapping for "hello" and user enters command "help" the processing of "h", "e" and "l" will be
     //   prevented by this handler. Make sure the currently unhandled keys are processed as normal.
-    val unhandledKeyStrokes = mappingState.detachKeys()
-
-    // If there is only the current key to handle, do nothing
-    if (unhandledKeyStrokes.size == 1) {
+    // If there is only the current key to handle, do nothing. This is the case for most of the typed keys, so the key
+    // list is cleared in place instead of being detached
+    if (mappingState.keyCount == 1) {
       log.trace("There is only one key in mapping. Return false.")
+      mappingState.clearKeys()
       return false
     }
+    val unhandledKeyStrokes = mappingState.detachKeys()
 
     // Okay, look at the code below. Why is the first key handled separately?
     // Let's assume the next mappings:
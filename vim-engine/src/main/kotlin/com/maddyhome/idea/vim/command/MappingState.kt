@@ -10,6 +10,7 @@ package com.maddyhome.idea.vim.command
 
 import com.maddyhome.idea.vim.api.globalOptions
 import com.maddyhome.idea.vim.api.injector
+import com.maddyhome.idea.vim.api.optionSnapshot
 import com.maddyhome.idea.vim.diagnostic.trace
 import com.maddyhome.idea.vim.diagnostic.vimLogger
 import com.maddyhome.idea.vim.options.OptionConstants
@@ -38,36 +39,54 @@ public class MappingState {
 
   public var mappingMode: MappingMode = MappingMode.NORMAL
 
-  private val timer = Timer(injector.globalOptions().getIntValue(OptionConstants.timeoutlen), null)
+  // Every editor has a mapping state, but only the editors that get an ambiguous mapping need the timer
+  private val timer by lazy(LazyThreadSafetyMode.NONE) {
+    Timer(injector.globalOptions().getIntValue(OptionConstants.timeoutlen), null).apply { isRepeats = false }
+  }
+  private var timerListener: ActionListener? = null
   private var keyList = mutableListOf<KeyStroke>()
 
-  init {
-    timer.isRepeats = false
-  }
+  /** Number of the keys in the current mapping sequence */
+  public val keyCount: Int
+    get() = keyList.size
 
   public fun startMappingTimer(actionListener: ActionListener) {
-    timer.initialDelay = injector.globalOptions().getIntValue(OptionConstants.timeoutlen)
-    timer.actionListeners.forEach { timer.removeActionListener(it) }
+    timer.initialDelay = injector.optionSnapshot(null).timeoutLength
+    timerListener?.let { timer.removeActionListener(it) }
     timer.addActionListener(actionListener)
+    timerListener = actionListener
     timer.start()
   }
 
   public fun stopMappingTimer() {
     LOG.trace { "Stop mapping timer" }
+    // This is called for every typed key, so the timer is only touched if it was started
+    val listener = timerListener ?: return
     timer.stop()
-    timer.actionListeners.forEach { timer.removeActionListener(it) }
+    timer.removeActionListener(listener)
+    timerListener = null
   }
 
   public fun addKey(key: KeyStroke) {
     keyList.add(key)
   }
 
+  /**
+   * Returns a view of the first [count] keys of the current mapping sequence. The view is only valid until the sequence
+   *   is changed
+   */
+  public fun keyPrefix(count: Int): List<KeyStroke> = keyList.subList(0, count)
+
   public fun detachKeys(): List<KeyStroke> {
     val currentKeys = keyList
     keyList = mutableListOf()
     return currentKeys
   }
 
+  public fun clearKeys() {
+    keyList.clear()
+  }
+
   public fun resetMappingSequence() {
     LOG.trace("Reset mapping sequence")
     stopMappingTimer()
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.common
+
+/**
+ * The chars `[start, end)` of [chars], without copying them
+ *
+ * Unlike [String.subSequence], [subSequence] of a view is a view again, so a line or a range of the text can be
+ *   passed around and scanned without creating a string. The chars are copied only by [toString].
+ *
+ * A view of a mutable sequence sees the changes of the sequence, so it should not be kept after a change of the text.
+ */
+public class CharSequenceView(private val chars: CharSequence, private val start: Int, private val end: Int) :
+  CharSequence {
+  init {
+    require(start in 0..end && end <= chars.length) { "Range [$start, $end) is out of [0, ${chars.length})" }
+  }
+
+  override val length: Int
+    get() = end - start
+
+  override fun get(index: Int): Char {
+    if (index < 0 || index >= length) throw IndexOutOfBoundsException("Index $index is out of [0, $length)")
+    return chars[start + index]
+  }
+
+  override fun subSequence(startIndex: Int, endIndex: Int): CharSequence {
+    if (startIndex < 0 || startIndex > endIndex || endIndex > length) {
+      throw IndexOutOfBoundsException("Range [$startIndex, $endIndex) is out of [0, $length)")
+    }
+    return CharSequenceView(chars, start + startIndex, start + endIndex)
+  }
+
+  override fun toString(): String = StringBuilder(length).append(chars, start, end).toString()
+}
+
+/** Returns a view of the chars `[start, end)` that doesn't copy them. See [CharSequenceView] */
+public fun CharSequence.view(start: Int, end: Int): CharSequence {
+  return if (start == 0 && end == length) this else CharSequenceView(this, start, end)
+}
@@ -0,0 +1,16 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.common
+
+/**
+ * Replacement of the text in `[startOffset, endOffset)` with [text]. An insertion has equal offsets
+ *
+ * @see com.maddyhome.idea.vim.api.MutableVimEditor.replaceStrings
+ */
+public data class TextReplacement(val startOffset: Int, val endOffset: Int, val text: String)
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.diagnostic
+
+import com.maddyhome.idea.vim.command.VimStateMachine
+
+/**
+ * Histogram of the time [com.maddyhome.idea.vim.KeyHandler.handleKey] takes for a keystroke, kept separately for
+ *   every mode the keystroke was typed in
+ *
+ * The buckets are log-linear: every power of two is split into [SUB_BUCKETS] buckets, so a percentile is off by less
+ *   than a quarter of its value. Recording a keystroke is an increment in a preallocated array and doesn't allocate.
+ */
+public class KeyLatencyHistogram {
+  private val counts = Array(MODES.size) { LongArray(BUCKET_COUNT) }
+  private val totals = LongArray(MODES.size)
+  private val maximums = LongArray(MODES.size)
+
+  public fun record(mode: VimStateMachine.Mode, nanos: Long) {
+    val value = nanos.coerceAtLeast(0)
+    val i = mode.ordinal
+    counts[i][bucketOf(value)]++
+    totals[i]++
+    if (value > maximums[i]) maximums[i] = value
+  }
+
+  /** Number of keystrokes recorded in the [mode] */
+  public fun count(mode: VimStateMachine.Mode): Long = totals[mode.ordinal]
+
+  /** Longest recorded keystroke in the [mode], in nanoseconds */
+  public fun max(mode: VimStateMachine.Mode): Long = maximums[mode.ordinal]
+
+  /**
+   * Returns the upper bound of the bucket that holds the [percentile] (0-100) of the keystrokes recorded in the [mode],
+   *   in nanoseconds, or 0 if there are none
+   */
+  public fun percentile(mode: VimStateMachine.Mode, percentile: Double): Long {
+    val i = mode.ordinal
+    val total = totals[i]
+    if (total == 0L) return 0
+    val rank = Math.ceil(total * percentile.coerceIn(0.0, 100.0) / 100).toLong().coerceAtLeast(1)
+    var seen = 0L
+    for (bucket in 0 until BUCKET_COUNT) {
+      seen += counts[i][bucket]
+      if (seen >= rank) return bucketUpperBound(bucket).coerceAtMost(maximums[i])
+    }
+    return maximums[i]
+  }
+
+  public fun reset() {
+    counts.forEach { it.fill(0) }
+    totals.fill(0)
+    maximums.fill(0)
+  }
+
+  /** Table of the keystroke count, p50, p99 and the maximum of every mode that has recorded keystrokes */
+  public fun report(): String {
+    val builder = StringBuilder()
+    builder.append(String.format("%-14s %8s %10s %10s %10s", "mode", "keys", "p50 ms", "p99 ms", "max ms"))
+    for (mode in MODES) {
+      val count = count(mode)
+      if (count == 0L) continue
+      builder.append('\n').append(
+        String.format(
+          "%-14s %8d %10.3f %10.3f %10.3f",
+          mode.name.lowercase(),
+          count,
+          toMillis(percentile(mode, 50.0)),
+          toMillis(percentile(mode, 99.0)),
+          toMillis(max(mode)),
+        ),
+      )
+    }
+    return builder.toString()
+  }
+
+  private companion object {
+    val MODES = VimStateMachine.Mode.values()
+
+    const val SUB_BUCKET_BITS = 2
+    const val SUB_BUCKETS = 1 shl SUB_BUCKET_BITS
+    const val BUCKET_COUNT = 64 * SUB_BUCKETS
+
+    fun bucketOf(value: Long): Int {
+      if (value < SUB_BUCKETS) return value.toInt()
+      val exponent = 63 - java.lang.Long.numberOfLeadingZeros(value)
+      val subBucket = (value ushr (exponent - SUB_BUCKET_BITS)).toInt() and (SUB_BUCKETS - 1)
+      return exponent * SUB_BUCKETS + subBucket
+    }
+
+    fun bucketUpperBound(bucket: Int): Long {
+      if (bucket < SUB_BUCKETS) return bucket.toLong()
+      val exponent = bucket / SUB_BUCKETS
+      val subBucket = bucket % SUB_BUCKETS
+      return ((SUB_BUCKETS + subBucket + 1).toLong() shl (exponent - SUB_BUCKET_BITS)) - 1
+    }
+
+    fun toMillis(nanos: Long): Double = nanos / 1_000_000.0
+  }
+}
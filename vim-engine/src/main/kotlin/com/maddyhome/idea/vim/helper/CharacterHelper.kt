@@ -18,6 +18,13 @@ public object CharacterHelper {
   public const val CASE_UPPER: Char = 'u'
   public const val CASE_LOWER: Char = 'l'
 
+  private const val LATIN1_SIZE = 0x100
+  private val latin1Whitespace = BooleanArray(LATIN1_SIZE) { Character.isWhitespace(it) }
+
+  /** Types of the chars from `\u0100`, as the ordinal of the type plus one, or zero if not computed yet */
+  private val nonLatin1Types = ByteArray(Char.MAX_VALUE.code + 1)
+  private val characterTypes = CharacterType.values()
+
   /**
    * This returns the type of the supplied character. The logic is as follows:<br></br>
    * If the character is whitespace, `WHITESPACE` is returned.<br></br>
@@ -31,6 +38,52 @@ public object CharacterHelper {
    */
   @JvmStatic
   public fun charType(ch: Char, punctuationAsLetters: Boolean): CharacterType {
+    val code = ch.code
+    if (code < LATIN1_SIZE) {
+      // None of the Latin-1 chars are in the Japanese or CJK blocks, so only the whitespace and the keywords matter
+      return if (latin1Whitespace[code]) {
+        CharacterType.WHITESPACE
+      } else if (punctuationAsLetters || KeywordOptionHelper.isKeyword(ch)) {
+        CharacterType.KEYWORD
+      } else {
+        CharacterType.PUNCTUATION
+      }
+    }
+
+    // The rest of the chars are always keywords, so their type depends only on the char and can be cached
+    val cached = nonLatin1Types[code]
+    if (cached != 0.toByte()) return characterTypes[cached - 1]
+    val type = computeNonLatin1Type(ch)
+    nonLatin1Types[code] = (type.ordinal + 1).toByte()
+    return type
+  }
+
+  /**
+   * Skips the run of characters of the [type] that starts at [start]
+   *
+   * The characters are checked from [start] in the direction of [step] (1 or -1) until [limit], which is exclusive and
+   *   is usually the length of the text or -1. This is the inner loop of the word motions and text objects, so a word
+   *   or a run of whitespace is passed in one call.
+   *
+   * @return the offset of the first character that is not of the [type], or [limit] if there is no such character
+   */
+  @JvmStatic
+  public fun skipCharType(
+    chars: CharSequence,
+    start: Int,
+    limit: Int,
+    step: Int,
+    type: CharacterType,
+    punctuationAsLetters: Boolean,
+  ): Int {
+    var pos = start
+    while (pos != limit && charType(chars[pos], punctuationAsLetters) === type) {
+      pos += step
+    }
+    return pos
+  }
+
+  private fun computeNonLatin1Type(ch: Char): CharacterType {
     val block = UnicodeBlock.of(ch)
     return if (Character.isWhitespace(ch)) {
       CharacterType.WHITESPACE
@@ -42,10 +95,8 @@ public object CharacterHelper {
       CharacterType.HALF_WIDTH_KATAKANA
     } else if (block == UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS) {
       CharacterType.CJK_UNIFIED_IDEOGRAPHS
-    } else if (punctuationAsLetters || KeywordOptionHelper.isKeyword(ch)) {
-      CharacterType.KEYWORD
     } else {
-      CharacterType.PUNCTUATION
+      CharacterType.KEYWORD
     }
   }
 
@@ -9,11 +9,10 @@
 package com.maddyhome.idea.vim.helper
 
 import com.maddyhome.idea.vim.api.VimEditor
-import com.maddyhome.idea.vim.api.globalOptions
 import com.maddyhome.idea.vim.api.injector
+import com.maddyhome.idea.vim.api.optionSnapshot
 import com.maddyhome.idea.vim.command.VimStateMachine
 import com.maddyhome.idea.vim.common.TextRange
-import com.maddyhome.idea.vim.options.OptionConstants
 import java.util.*
 
 public inline fun <reified T : Enum<T>> noneOfEnum(): EnumSet<T> = EnumSet.noneOf(T::class.java)
@@ -59,7 +58,7 @@ public val VimStateMachine.Mode.isEndAllowed: Boolean
   }
 
 public val usesVirtualSpace: Boolean
-  get() = injector.globalOptions().hasValue(OptionConstants.virtualedit, OptionConstants.virtualedit_onemore)
+  get() = injector.optionSnapshot(null).isVirtualEditOneMore
 
 public val VimEditor.isEndAllowed: Boolean
   get() = when (this.mode) {
@@ -8,34 +8,113 @@
 
 package com.maddyhome.idea.vim.history
 
-import com.maddyhome.idea.vim.api.globalOptions
 import com.maddyhome.idea.vim.api.injector
-import com.maddyhome.idea.vim.options.OptionConstants
+import com.maddyhome.idea.vim.api.optionSnapshot
+import java.util.*
 
+/**
+ * History of a single kind (commands, searches...)
+ *
+ * The entries are kept in insertion order in a hash map keyed by their text, so removing a duplicate and dropping the
+ * oldest entry are both O(1), even with a large `'history'` value. A prefix tree over the first characters of the
+ * entries answers the filtered recall of the command line (see [findEntryWithPrefix]).
+ */
 public class HistoryBlock {
-  private val entries: MutableList<HistoryEntry> = ArrayList()
+  private val entries: LinkedHashMap<String, HistoryEntry> = LinkedHashMap()
+  private val entriesByNumber: HashMap<Int, HistoryEntry> = HashMap()
+  private val prefixIndex = PrefixNode()
 
   private var counter = 0
 
+  /**
+   * Incremented on every change of the block. Used to persist only the blocks that were changed
+   */
+  public var modificationCount: Int = 0
+    private set
+
   public fun addEntry(text: String) {
-    for (i in entries.indices) {
-      val entry = entries[i]
-      if (text == entry.entry) {
-        entries.removeAt(i)
-        break
-      }
+    entries.remove(text)?.let { removeFromIndex(it) }
+    val entry = HistoryEntry(++counter, text)
+    entries[text] = entry
+    addToIndex(entry)
+    val maxLength = maxLength()
+    val iterator = entries.values.iterator()
+    while (entries.size > maxLength && iterator.hasNext()) {
+      removeFromIndex(iterator.next())
+      iterator.remove()
+    }
+    modificationCount++
+  }
+
+  /**
+   * Returns a read-only view of the entries, from the oldest to the newest
+   */
+  public fun getEntries(): Collection<HistoryEntry> {
+    return Collections.unmodifiableCollection(entries.values)
+  }
+
+  /**
+   * Finds the entry closest to the entry with the [number] that starts with the [prefix]
+   *
+   * The node of the prefix in the prefix tree holds the numbers of all the entries that start with it, so the closest
+   * one is a lookup in a sorted set. Only the first [INDEXED_PREFIX_LENGTH] characters are indexed: for a longer
+   * prefix, the entries that share these characters are checked from the [number] in the requested direction.
+   *
+   * @param forward if true, looks for the oldest entry that is newer than [number], otherwise for the newest entry
+   *   that is older than [number]
+   */
+  public fun findEntryWithPrefix(prefix: String, number: Int, forward: Boolean): HistoryEntry? {
+    var node = prefixIndex
+    for (i in 0 until minOf(prefix.length, INDEXED_PREFIX_LENGTH)) {
+      node = node.children[prefix[i]] ?: return null
+    }
+    val numbers = if (forward) node.numbers.tailSet(number, false) else node.numbers.headSet(number, false).descendingSet()
+    return numbers.asSequence()
+      .map { entriesByNumber.getValue(it) }
+      .firstOrNull { prefix.length <= INDEXED_PREFIX_LENGTH || it.entry.startsWith(prefix) }
+  }
+
+  private fun addToIndex(entry: HistoryEntry) {
+    entriesByNumber[entry.number] = entry
+    var node = prefixIndex
+    node.numbers.add(entry.number)
+    for (i in 0 until minOf(entry.entry.length, INDEXED_PREFIX_LENGTH)) {
+      node = node.children.getOrPut(entry.entry[i]) { PrefixNode() }
+      node.numbers.add(entry.number)
     }
-    entries.add(HistoryEntry(++counter, text))
-    if (entries.size > maxLength()) {
-      entries.removeAt(0)
+  }
+
+  private fun removeFromIndex(entry: HistoryEntry) {
+    entriesByNumber.remove(entry.number)
+    var node = prefixIndex
+    node.numbers.remove(entry.number)
+    for (i in 0 until minOf(entry.entry.length, INDEXED_PREFIX_LENGTH)) {
+      val child = node.children.getValue(entry.entry[i])
+      child.numbers.remove(entry.number)
+      if (child.numbers.isEmpty()) {
+        // No other entry goes through this node or the nodes below it
+        node.children.remove(entry.entry[i])
+        return
+      }
+      node = child
     }
   }
 
-  public fun getEntries(): List<HistoryEntry> {
-    return entries
+  /**
+   * A node of the prefix tree, with the numbers of all the entries that start with the characters on the path to it
+   */
+  private class PrefixNode {
+    val children: HashMap<Char, PrefixNode> = HashMap()
+    val numbers: TreeSet<Int> = TreeSet()
   }
 
   public companion object {
-    private fun maxLength() = injector.globalOptions().getIntValue(OptionConstants.history)
+    /**
+     * The number of characters of every entry kept in the prefix tree. Typed prefixes are usually short, and every
+     * indexed character costs one set element per entry
+     */
+    private const val INDEXED_PREFIX_LENGTH = 8
+
+    private fun maxLength() = injector.optionSnapshot(null).history
   }
 }
@@ -11,4 +11,10 @@ package com.maddyhome.idea.vim.history
 public interface VimHistory {
   public fun addEntry(key: String, text: String)
   public fun getEntries(key: String, first: Int, last: Int): List<HistoryEntry>
+
+  /**
+   * Finds the entry that starts with [prefix] and is the closest to the entry with the [number], newer than it if
+   * [forward] is true, older otherwise
+   */
+  public fun findEntryWithPrefix(key: String, prefix: String, number: Int, forward: Boolean): HistoryEntry?
 }
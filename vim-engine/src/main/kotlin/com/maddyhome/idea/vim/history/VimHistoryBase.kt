@@ -33,7 +33,7 @@ public open class VimHistoryBase : VimHistory {
       myFirst = if (-myFirst > entries.size) {
         Integer.MAX_VALUE
       } else {
-        val entry = entries[entries.size + myFirst]
+        val entry = entries.elementAt(entries.size + myFirst)
         entry.number
       }
     }
@@ -41,7 +41,7 @@ public open class VimHistoryBase : VimHistory {
       myLast = if (-myLast > entries.size) {
         Integer.MIN_VALUE
       } else {
-        val entry = entries[entries.size + myLast]
+        val entry = entries.elementAt(entries.size + myLast)
         entry.number
       }
     } else if (myLast == 0) {
@@ -59,6 +59,10 @@ public open class VimHistoryBase : VimHistory {
     return res
   }
 
+  override fun findEntryWithPrefix(key: String, prefix: String, number: Int, forward: Boolean): HistoryEntry? {
+    return blocks(key).findEntryWithPrefix(prefix, number, forward)
+  }
+
   private fun blocks(key: String): HistoryBlock {
     return histories.getOrPut(key) { HistoryBlock() }
   }
@@ -49,7 +49,8 @@ public class KeyMapping : Iterable<List<KeyStroke?>?>, KeyMappingLayer {
         for (i in 2 until keyStrokes.size - 1) {
           builder.append(keyStrokes[i].keyChar)
         }
-        return ToActionMappingInfo(builder.toString(), keyStrokes, false, MappingOwner.IdeaVim.System)
+        // The keys may be a view of the pending keys, that is cleared once the mapping is executed
+        return ToActionMappingInfo(builder.toString(), keyStrokes.toList(), false, MappingOwner.IdeaVim.System)
       }
     }
     return null
@@ -22,11 +22,16 @@ import javax.swing.KeyStroke
 public class KeyStack {
   private val stack = ArrayDeque<Frame>()
 
+  // The frame and the key of the last [feedStroke], until the key handler takes them with [takeFedStroke]
+  private var fedFrame: Frame? = null
+  private var fedKey: KeyStroke? = null
+
   public fun hasStroke(): Boolean {
     return stack.isNotEmpty() && stack.first().hasStroke()
   }
 
   public fun feedSomeStroke(): KeyStroke? {
+    forgetFedStroke()
     stack.forEach {
       if (it.hasStroke()) {
         return it.feed()
@@ -35,27 +40,65 @@ public class KeyStack {
     return null
   }
 
+  /** Returns the key that [feedStroke] would return, without taking it, or null if there is none */
+  public fun peekStroke(): KeyStroke? {
+    val frame = stack.firstOrNull() ?: return null
+    return if (frame.hasStroke()) frame.peek() else null
+  }
+
   public fun feedStroke(): KeyStroke {
     val frame = stack.first()
     val key = frame.feed()
+    fedFrame = frame
+    fedKey = key
     return key
   }
 
+  /**
+   * Returns true if [key] is the key that was just returned by [feedStroke] and its frame is still the first one
+   *
+   * The answer is true only once per fed key: the key handler asks as soon as it gets a key, so the keys that are
+   *   handed to it directly while the fed key is handled (extensions, `<expr>` mappings, replayed mapping prefixes)
+   *   are never taken for keys of the stack.
+   */
+  public fun takeFedStroke(key: KeyStroke): Boolean {
+    val frame = fedFrame
+    val fed = fedKey
+    forgetFedStroke()
+    return frame != null && fed === key && stack.firstOrNull() === frame
+  }
+
+  /**
+   * Takes the key that [peekStroke] returns to handle it together with the key before it. Unlike [feedStroke], the key
+   *   is not remembered for [takeFedStroke]
+   */
+  public fun skipStroke() {
+    forgetFedStroke()
+    stack.first().feed()
+  }
+
   public fun addKeys(keyStrokes: List<KeyStroke>) {
     stack.addFirst(Frame(keyStrokes))
   }
 
   public fun removeFirst() {
+    forgetFedStroke()
     if (stack.isNotEmpty()) {
       stack.removeFirst()
     }
   }
 
   public fun resetFirst() {
+    forgetFedStroke()
     if (stack.isNotEmpty()) {
       stack.first().resetPointer()
     }
   }
+
+  private fun forgetFedStroke() {
+    fedFrame = null
+    fedKey = null
+  }
 }
 
 private class Frame(
@@ -66,6 +109,8 @@ private class Frame(
     return pointer < keys.size
   }
 
+  fun peek(): KeyStroke = keys[pointer]
+
   fun feed(): KeyStroke {
     val key = keys[pointer]
     pointer += 1
@@ -105,6 +105,25 @@ public open class StringOption(name: String, abbrev: String, defaultValue: VimSt
     }
   }
 
+  @Volatile
+  private var lastSplit: SplitValue? = null
+
+  private class SplitValue(val value: String, val values: List<String>)
+
+  /**
+   * Splits the value the same way as [split], reusing the result of the previous call if the value hasn't changed
+   *
+   * Option values are read far more often than they are changed, so this saves splitting the same string on every read.
+   * The returned list is read only.
+   */
+  public fun splitCached(value: String): List<String> {
+    val cached = lastSplit
+    if (cached != null && cached.value == value) return cached.values
+    val values = Collections.unmodifiableList(split(value))
+    lastSplit = SplitValue(value, values)
+    return values
+  }
+
   private fun joinValues(first: String, second: String): String {
     val separator = if (isList && first.isNotEmpty()) "," else ""
     return first + separator + second
@@ -75,6 +75,7 @@ public class OptionConstants {
 
     // IdeaVim specific options
     public const val ideaglobalmode: String = "ideaglobalmode"
+    public const val idearegistermemory: String = "idearegistermemory"
     public const val ideastrictmode: String = "ideastrictmode"
     public const val ideatracetime: String = "ideatracetime"
     public const val octopushandler: String = "octopushandler"
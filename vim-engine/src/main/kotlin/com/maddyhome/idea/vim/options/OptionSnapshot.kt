@@ -0,0 +1,65 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.options
+
+import com.maddyhome.idea.vim.api.VimOptionGroup
+
+/**
+ * Typed values of the options that are read on hot paths: for every keystroke, motion or number change
+ *
+ * Each value is parsed on its first read and then kept. The option group keeps the snapshot until any option is changed
+ * (see [VimOptionGroup.getOptionSnapshot]), so a repeated read is a field access, instead of an option lookup and a
+ * split of the option string. The values are parsed lazily, so creating a snapshot doesn't read the options that are
+ * never used.
+ */
+public class OptionSnapshot(private val options: OptionValueAccessor) {
+  private val nrformats by snapshotValue { options.getStringListValues(OptionConstants.nrformats) }
+
+  /** `'nrformats'` contains `alpha` */
+  public val isAlphaNumberFormat: Boolean by snapshotValue { "alpha" in nrformats }
+
+  /** `'nrformats'` contains `hex` */
+  public val isHexNumberFormat: Boolean by snapshotValue { "hex" in nrformats }
+
+  /** `'nrformats'` contains `octal` */
+  public val isOctalNumberFormat: Boolean by snapshotValue { "octal" in nrformats }
+
+  /** `'selection'` is `exclusive` */
+  public val isExclusiveSelection: Boolean by snapshotValue { options.hasValue(OptionConstants.selection, "exclusive") }
+
+  /** `'selection'` is `old` */
+  public val isOldSelection: Boolean by snapshotValue { options.hasValue(OptionConstants.selection, "old") }
+
+  /** `'virtualedit'` is `onemore` */
+  public val isVirtualEditOneMore: Boolean by snapshotValue {
+    options.hasValue(OptionConstants.virtualedit, OptionConstants.virtualedit_onemore)
+  }
+
+  /** `'clipboard'` contains `ideaput` */
+  public val isIdeaPutClipboard: Boolean by snapshotValue {
+    options.hasValue(OptionConstants.clipboard, OptionConstants.clipboard_ideaput)
+  }
+
+  /** `'history'` */
+  public val history: Int by snapshotValue { options.getIntValue(OptionConstants.history) }
+
+  /** `'maxmapdepth'` */
+  public val maxMapDepth: Int by snapshotValue { options.getIntValue(OptionConstants.maxmapdepth) }
+
+  /** `'timeout'` */
+  public val isTimeout: Boolean by snapshotValue { options.isSet(OptionConstants.timeout) }
+
+  /** `'timeoutlen'` */
+  public val timeoutLength: Int by snapshotValue { options.getIntValue(OptionConstants.timeoutlen) }
+
+  private companion object {
+    // Parsing an option value twice is harmless, so a racing read doesn't need a lock
+    fun <T> snapshotValue(initializer: () -> T): Lazy<T> = lazy(LazyThreadSafetyMode.PUBLICATION, initializer)
+  }
+}
@@ -17,12 +17,16 @@ import java.util.regex.Pattern
 
 public object KeywordOptionHelper {
 
+  private const val LATIN1_SIZE = 0x100
   private const val allLettersRegex = "\\p{L}"
   private val validationPattern =
     Pattern.compile("(\\^?(([^0-9^]|[0-9]{1,3})-([^0-9]|[0-9]{1,3})|([^0-9^]|[0-9]{1,3})),)*\\^?(([^0-9^]|[0-9]{1,3})-([^0-9]|[0-9]{1,3})|([^0-9]|[0-9]{1,3})),?$")
 
   private lateinit var keywordSpecs: MutableList<KeywordSpec>
 
+  /** [isKeyword] of the Latin-1 chars, computed from [keywordSpecs]. The chars from `\u0100` are always keywords */
+  private var latin1Keywords = BooleanArray(LATIN1_SIZE)
+
   init {
     updateSpecs()
   }
@@ -31,6 +35,10 @@ public object KeywordOptionHelper {
     keywordSpecs = valuesToValidatedAndReversedSpecs(
       parseValues(injector.globalOptions().getStringValue(OptionConstants.iskeyword)),
     )!!.toMutableList()
+    latin1Keywords = BooleanArray(LATIN1_SIZE) { code ->
+      val spec = keywordSpecs.firstOrNull { it.contains(code) }
+      spec != null && !spec.negate()
+    }
   }
 
   public fun isValueInvalid(value: String): Boolean {
@@ -40,15 +48,8 @@ public object KeywordOptionHelper {
   }
 
   public fun isKeyword(c: Char): Boolean {
-    if (c.code >= '\u0100'.code) {
-      return true
-    }
-    for (spec in keywordSpecs) {
-      if (spec.contains(c.code)) {
-        return !spec.negate()
-      }
-    }
-    return false
+    val code = c.code
+    return code >= LATIN1_SIZE || latin1Keywords[code]
   }
 
   public fun toRegex(): List<String> {
@@ -17,11 +17,11 @@ import com.maddyhome.idea.vim.api.VimEditor
 import com.maddyhome.idea.vim.api.getLineEndForOffset
 import com.maddyhome.idea.vim.api.getLineEndOffset
 import com.maddyhome.idea.vim.api.getText
-import com.maddyhome.idea.vim.api.globalOptions
 import com.maddyhome.idea.vim.api.injector
 import com.maddyhome.idea.vim.api.isLineEmpty
 import com.maddyhome.idea.vim.api.lineLength
 import com.maddyhome.idea.vim.api.moveToMotion
+import com.maddyhome.idea.vim.api.optionSnapshot
 import com.maddyhome.idea.vim.api.setChangeMarks
 import com.maddyhome.idea.vim.api.setVisualSelectionMarks
 import com.maddyhome.idea.vim.command.OperatorArguments
@@ -32,6 +32,7 @@ import com.maddyhome.idea.vim.command.isChar
 import com.maddyhome.idea.vim.command.isLine
 import com.maddyhome.idea.vim.common.Offset
 import com.maddyhome.idea.vim.common.TextRange
+import com.maddyhome.idea.vim.common.TextReplacement
 import com.maddyhome.idea.vim.common.offset
 import com.maddyhome.idea.vim.diagnostic.VimLogger
 import com.maddyhome.idea.vim.diagnostic.vimLogger
@@ -40,7 +41,6 @@ import com.maddyhome.idea.vim.helper.firstOrNull
 import com.maddyhome.idea.vim.helper.mode
 import com.maddyhome.idea.vim.helper.subMode
 import com.maddyhome.idea.vim.mark.VimMarkConstants.MARK_CHANGE_POS
-import com.maddyhome.idea.vim.options.OptionConstants
 import java.util.*
 import kotlin.math.abs
 import kotlin.math.max
@@ -288,15 +288,18 @@ public abstract class VimPutBase : VimPut {
     var updated = caret
     if (currentLine + lineCount >= editor.nativeLineCount()) {
       val limit = currentLine + lineCount - editor.nativeLineCount()
-      for (i in 0 until limit) {
-        updated = updated.moveToOffset(editor.fileSize().toInt())
-        updated = injector.changeGroup.insertText(editor, updated, "\n")
+      if (limit > 0) {
+        updated = injector.changeGroup.insertText(editor, updated, editor.fileSize().toInt(), "\n".repeat(limit))
       }
     }
 
+    // Every segment goes to a line of its own and has no new lines, so all the inserts are found before the text is
+    //   changed and are applied as one batch
     val maxLen = getMaxSegmentLength(text)
     val tokenizer = StringTokenizer(text, "\n")
-    var endOffset = startOffset
+    val replacements = ArrayList<TextReplacement>(lineCount)
+    var lastCaretShift = 0
+    var lastMarkShift = 0
     while (tokenizer.hasMoreTokens()) {
       var segment = tokenizer.nextToken()
       var origSegment = segment
@@ -309,29 +312,34 @@ public abstract class VimPutBase : VimPut {
         }
       }
 
-      val pad = injector.engineEditorHelper.pad(editor, context, currentLine, currentColumn)
-
       val insertOffset = editor.bufferPositionToOffset(BufferPosition(currentLine, currentColumn))
-      updated = updated.moveToOffset(insertOffset)
       val insertedText = origSegment + segment.repeat(count - 1)
-      updated = injector.changeGroup.insertText(editor, updated, insertedText)
-      endOffset += insertedText.length
-
       if (mode == VimStateMachine.SubMode.VISUAL_LINE) {
-        updated = updated.moveToOffset(endOffset)
-        updated = injector.changeGroup.insertText(editor, updated, "\n")
-        ++endOffset
+        replacements.add(TextReplacement(insertOffset, insertOffset, insertedText + "\n"))
+        lastMarkShift = insertedText.length
+        lastCaretShift = insertedText.length + 1
       } else {
-        if (pad.isNotEmpty()) {
-          updated = updated.moveToOffset(insertOffset)
-          updated = injector.changeGroup.insertText(editor, updated, pad)
-          endOffset += pad.length
-        }
+        val pad = injector.engineEditorHelper.pad(editor, context, currentLine, currentColumn)
+        replacements.add(TextReplacement(insertOffset, insertOffset, pad + insertedText))
+        lastMarkShift = 0
+        lastCaretShift = if (pad.isNotEmpty()) pad.length else insertedText.length
       }
 
       ++currentLine
     }
 
+    val insertedLength = replacements.sumOf { it.text.length }
+    var endOffset = startOffset + insertedLength
+    if (replacements.isNotEmpty()) {
+      (editor as MutableVimEditor).replaceStrings(replacements)
+
+      // Same caret and change mark as inserting the segments line by line
+      val last = replacements.last()
+      val lastOffset = last.startOffset + insertedLength - last.text.length
+      updated = updated.moveToInlayAwareOffset(lastOffset + lastCaretShift)
+      injector.markService.setMark(updated, MARK_CHANGE_POS, lastOffset + lastMarkShift)
+    }
+
     if (indent) endOffset = doIndent(editor, updated, context, startOffset, endOffset)
     updated = moveCaretToEndPosition(editor, updated, startOffset, endOffset, type, mode, cursorAfter)
 
@@ -424,7 +432,7 @@ public abstract class VimPutBase : VimPut {
         }
         visualSelection.typeInEditor.isLine -> {
           val lastChar = if (vimEditor.fileSize() > 0) {
-            vimEditor.getText(TextRange(vimEditor.fileSize().toInt() - 1, vimEditor.fileSize().toInt()))[0]
+            vimEditor.text()[vimEditor.fileSize().toInt() - 1]
           } else {
             null
           }
@@ -537,7 +545,7 @@ public abstract class VimPutBase : VimPut {
   ) {
     val visualSelection = data.visualSelection
     val subMode = visualSelection?.typeInEditor?.toSubMode() ?: VimStateMachine.SubMode.NONE
-    if (injector.globalOptions().hasValue(OptionConstants.clipboard, OptionConstants.clipboard_ideaput)) {
+    if (injector.optionSnapshot(null).isIdeaPutClipboard) {
       val idePasteProvider = getProviderForPasteViaIde(editor, text.typeInRegister, data)
       if (idePasteProvider != null) {
         logger.debug("Perform put via idea paste")
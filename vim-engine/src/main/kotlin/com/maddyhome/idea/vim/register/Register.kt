@@ -13,17 +13,32 @@ import org.jetbrains.annotations.NonNls
 import java.awt.event.KeyEvent
 import javax.swing.KeyStroke
 
+/**
+ * Content of a register, either text (yanks, deletes) or keys (recorded macros)
+ *
+ * A register keeps the form it was created with and converts to the other one on the first access only. The text is
+ *   an immutable string, so the registers that hold the same yank (the named or unnamed register, `"0` or `"1`, the
+ *   shifted numbered registers) share one buffer, and [rawText] shares it too when it's the same text.
+ */
 public class Register {
   public var name: Char
   public val type: SelectionType
-  public val keys: MutableList<KeyStroke>
   public val transferableData: MutableList<out Any>
   public val rawText: String?
 
+  /** The text, up to date if [keyList] is null or has [textKeyCount] keys */
+  private var textValue: String?
+  private var textKeyCount = -1
+
+  /** [textValue] was checked for characters that are stored as keys without a char */
+  private var textChecked = false
+  private var keyList: MutableList<KeyStroke>?
+
   public constructor(name: Char, type: SelectionType, keys: MutableList<KeyStroke>) {
     this.name = name
     this.type = type
-    this.keys = keys
+    this.keyList = keys
+    this.textValue = null
     this.transferableData = mutableListOf()
     this.rawText = text
   }
@@ -36,7 +51,8 @@ public class Register {
   ) {
     this.name = name
     this.type = type
-    this.keys = injector.parser.stringToKeys(text).toMutableList()
+    this.keyList = null
+    this.textValue = text
     this.transferableData = transferableData
     this.rawText = text
   }
@@ -50,29 +66,56 @@ public class Register {
   ) {
     this.name = name
     this.type = type
-    this.keys = injector.parser.stringToKeys(text).toMutableList()
+    this.keyList = null
+    this.textValue = text
     this.transferableData = transferableData
-    this.rawText = rawText
+    this.rawText = if (rawText !== text && rawText == text) text else rawText
   }
 
+  public val keys: MutableList<KeyStroke>
+    get() {
+      keyList?.let { return it }
+      val text = textValue ?: ""
+      val keys = injector.parser.stringToKeys(text).toMutableList()
+      keyList = keys
+      textKeyCount = if (hasKeysWithoutChar(text)) -1 else keys.size
+      return keys
+    }
+
   public val text: String?
     get() {
-      val builder = StringBuilder()
-      for (key in keys) {
-        val c = key.keyChar
-        if (c == KeyEvent.CHAR_UNDEFINED) {
-          return null
+      if (keyList == null && !textChecked) {
+        textChecked = true
+        val text = textValue
+        if (text != null && hasKeysWithoutChar(text)) {
+          // Such a text has no text form, only keys
+          textKeyCount = keys.size
+          textValue = null
         }
-        builder.append(c)
       }
-      return builder.toString()
+      val keys = keyList ?: return textValue
+      if (keys.size != textKeyCount) {
+        textValue = textOf(keys)
+        textKeyCount = keys.size
+      }
+      return textValue
     }
 
+  /** Length of the text, without building it from the keys. Used to account for the memory held by the registers */
+  public val length: Int
+    get() = keyList?.size ?: textValue?.length ?: 0
+
   /**
    * Append the supplied text to any existing text.
    */
   public fun addTextAndResetTransferableData(text: String) {
-    addKeys(injector.parser.stringToKeys(text))
+    val current = textValue
+    if (keyList == null && current != null) {
+      textValue = current + text
+      textChecked = false
+    } else {
+      addKeys(injector.parser.stringToKeys(text))
+    }
     transferableData.clear()
   }
 
@@ -88,4 +131,21 @@ public class Register {
       return ORDER.indexOf(o1.name.lowercaseChar()) - ORDER.indexOf(o2.name.lowercaseChar())
     }
   }
+
+  private companion object {
+    fun textOf(keys: List<KeyStroke>): String? {
+      val builder = StringBuilder(keys.size)
+      for (key in keys) {
+        val c = key.keyChar
+        if (c == KeyEvent.CHAR_UNDEFINED) {
+          return null
+        }
+        builder.append(c)
+      }
+      return builder.toString()
+    }
+
+    /** True if [text] has control characters that are typed as a key code, not as a char (see `stringToKeys`) */
+    fun hasKeysWithoutChar(text: String): Boolean = text.any { it < ' ' && it != '\n' && it != '\t' }
+  }
 }
@@ -30,6 +30,8 @@ import com.maddyhome.idea.vim.register.RegisterConstants.SMALL_DELETION_REGISTER
 import com.maddyhome.idea.vim.register.RegisterConstants.UNNAMED_REGISTER
 import com.maddyhome.idea.vim.register.RegisterConstants.VALID_REGISTERS
 import com.maddyhome.idea.vim.register.RegisterConstants.WRITABLE_REGISTERS
+import java.util.Collections
+import java.util.IdentityHashMap
 import javax.swing.KeyStroke
 
 public abstract class VimRegisterGroupBase : VimRegisterGroup {
@@ -46,6 +48,10 @@ public abstract class VimRegisterGroupBase : VimRegisterGroup {
   @JvmField
   protected var defaultRegisterChar: Char = UNNAMED_REGISTER
 
+  /** Time of the last use of the numbered registers `"1`-`"9`, by digit, for the `'idearegistermemory'` eviction */
+  private val numberedRegisterUse = LongArray(10)
+  private var useCounter = 0L
+
   override var lastRegisterChar: Char = defaultRegisterChar
 
   override var isRegisterSpecifiedExplicitly: Boolean = false
@@ -234,10 +240,12 @@ public abstract class VimRegisterGroupBase : VimRegisterGroup {
           if (t != null) {
             t.name = (d.code + 1).toChar()
             myRegisters[(d.code + 1).toChar()] = t
+            numberedRegisterUse[d - '0' + 1] = numberedRegisterUse[d - '0']
           }
           d--
         }
         myRegisters['1'] = Register('1', type, processedText, ArrayList(transferableData))
+        markNumberedRegisterUsed('1')
       }
 
       // Deletes smaller than one line and without specified register go the the "-" register
@@ -250,6 +258,8 @@ public abstract class VimRegisterGroupBase : VimRegisterGroup {
       logger.debug { "register '0' contains: \"$processedText\"" }
     } // Yanks also go to register 0 if the default register was used
 
+    evictNumberedRegisters()
+
     if (start != -1) {
       // todo it's the worst place to do it, setting mark and storing something to register are two different things
 //      injector.markService.setChangeMarks(caret, TextRange(start, end))
@@ -258,6 +268,44 @@ public abstract class VimRegisterGroupBase : VimRegisterGroup {
     return true
   }
 
+  private fun markNumberedRegisterUsed(r: Char) {
+    if (r in '1'..'9') numberedRegisterUse[r - '0'] = ++useCounter
+  }
+
+  /**
+   * Clears the least recently used numbered registers while the registers take more than `'idearegistermemory'`
+   *
+   * The registers that hold the same yank share the text, so a text is counted once, and a numbered register is
+   *   cleared only if no other register holds its text.
+   */
+  private fun evictNumberedRegisters() {
+    val limit = injector.globalOptions().getIntValue(OptionConstants.idearegistermemory).toLong() * 1024
+    if (limit <= 0) return
+
+    var memory = registersMemory()
+    while (memory > limit) {
+      val shared = Collections.newSetFromMap(IdentityHashMap<String, Boolean>())
+      myRegisters.filterKeys { it !in '1'..'9' }.values.mapNotNullTo(shared) { it.rawText }
+      val victim = ('1'..'9')
+        .filter { r -> myRegisters[r]?.let { it.rawText == null || it.rawText !in shared } == true }
+        .minByOrNull { numberedRegisterUse[it - '0'] } ?: return
+      logger.debug { "register '$victim' is cleared to stay within 'idearegistermemory'" }
+      myRegisters.remove(victim)
+      memory = registersMemory()
+    }
+  }
+
+  /** Approximate memory, in bytes, of the text of all registers. Registers that share a text count it once */
+  private fun registersMemory(): Long {
+    val seen = Collections.newSetFromMap(IdentityHashMap<String, Boolean>())
+    var chars = 0L
+    for (register in myRegisters.values) {
+      val rawText = register.rawText
+      if (rawText == null || seen.add(rawText)) chars += register.length
+    }
+    return chars * Char.SIZE_BYTES
+  }
+
   /**
    * Store text into the last register.
    *
@@ -359,6 +407,7 @@ public abstract class VimRegisterGroupBase : VimRegisterGroup {
     if (Character.isUpperCase(myR)) {
       myR = Character.toLowerCase(myR)
     }
+    markNumberedRegisterUsed(myR)
     return if (CLIPBOARD_REGISTERS.indexOf(myR) >= 0) refreshClipboardRegister(myR) else myRegisters[myR]
   }
 
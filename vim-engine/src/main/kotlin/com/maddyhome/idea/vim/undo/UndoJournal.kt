@@ -0,0 +1,324 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.undo
+
+import com.maddyhome.idea.vim.common.TextReplacement
+
+/**
+ * Linear history of the text changes of a buffer, grouped into undo steps of one Vim command each
+ *
+ * A step keeps only the changed fragments: the offset, the removed text and the inserted text of every change. The
+ *   changes of a step that continue each other (typing, backspacing) are merged into one delta, so an insert session
+ *   costs one delta instead of one per typed character.
+ *
+ * Any number of steps is undone or redone with one batch of [TextReplacement]s: the deltas are composed into
+ *   replacements of the current text (see [compose]), so `100u` costs one batched edit instead of a hundred. Only the
+ *   changed ranges are replaced, so the text between them keeps its marks, folds and other markers.
+ *
+ * The journal is not an undo tree. A change made after an undo drops the steps that could be redone, the way the IDE
+ *   undo does.
+ */
+public class UndoJournal {
+  private class Delta(val offset: Int, val oldText: String, var newText: CharSequence)
+
+  private class Step(val time: Long) {
+    val deltas = ArrayList<Delta>(1)
+    var keptChars = 0L
+  }
+
+  private class LineUndo(val lineStart: Int, val text: String)
+
+  private val steps = ArrayDeque<Step>()
+
+  /** Steps `[0, current)` are applied to the text, steps `[current, size)` can be redone */
+  private var current = 0
+  private var stepOpen = false
+  private var recording = true
+  private var keptChars = 0L
+  private var lineUndo: LineUndo? = null
+
+  /** Maximum number of kept steps, the value of 'undolevels' when the last step was closed */
+  public var maxSteps: Int = Int.MAX_VALUE
+
+  /** Number of steps that can be undone */
+  public val undoSteps: Int
+    get() = current
+
+  /** Number of steps that can be redone */
+  public val redoSteps: Int
+    get() = steps.size - current
+
+  /**
+   * Records a change of the text. [chars] is the text after the change
+   *
+   * The change is added to the open step, or starts a new one after [closeStep]. Changes made inside of
+   *   [withoutRecording] are ignored.
+   */
+  public fun recordChange(offset: Int, oldText: CharSequence, newText: CharSequence, chars: CharSequence) {
+    if (!recording) return
+    if (oldText.isEmpty() && newText.isEmpty()) return
+
+    updateLineUndo(offset, oldText, newText, chars)
+
+    dropRedoSteps()
+    val changeSize = (oldText.length + newText.length).toLong()
+    if (changeSize > MAX_KEPT_CHARS) {
+      // A change this large can't be kept, and the steps before it can't be undone without it
+      clear()
+      return
+    }
+
+    val step = if (stepOpen && steps.isNotEmpty()) {
+      steps.last()
+    } else {
+      Step(System.currentTimeMillis()).also {
+        steps.addLast(it)
+        current = steps.size
+        stepOpen = true
+      }
+    }
+    if (!mergeIntoLast(step, offset, oldText, newText)) {
+      step.deltas.add(Delta(offset, oldText.toString(), StringBuilder(newText)))
+    }
+    step.keptChars += changeSize
+    keptChars += changeSize
+
+    val stepLimit = maxSteps.coerceAtLeast(1)
+    while (steps.size > 1 && (steps.size > stepLimit || keptChars > MAX_KEPT_CHARS)) {
+      dropOldestStep()
+    }
+  }
+
+  /** Closes the open step, so the next change starts a new one */
+  public fun closeStep() {
+    if (!stepOpen) return
+    stepOpen = false
+    val step = steps.lastOrNull() ?: return
+    for (delta in step.deltas) {
+      delta.newText = delta.newText.toString()
+    }
+  }
+
+  /**
+   * Moves [count] steps back and returns the replacements that turn [chars] into the text before these steps, or null
+   *   if there is nothing to undo or the journal doesn't match [chars]. See [compose] for the order of the replacements
+   */
+  public fun undo(count: Int, chars: CharSequence): List<TextReplacement>? {
+    val stepCount = count.coerceAtMost(current)
+    if (stepCount <= 0) return null
+    closeStep()
+
+    val edits = ArrayList<Edit>()
+    for (i in current - 1 downTo current - stepCount) {
+      for (delta in steps[i].deltas.asReversed()) {
+        edits.add(Edit(delta.offset, delta.newText.length, delta.oldText))
+      }
+    }
+    val replacements = compose(edits, chars)
+    if (replacements == null) {
+      clear()
+      return null
+    }
+    current -= stepCount
+    lineUndo = null
+    return replacements
+  }
+
+  /**
+   * Moves [count] steps forward and returns the replacements that turn [chars] into the text after these steps, or
+   *   null if there is nothing to redo or the journal doesn't match [chars]. See [compose] for the order of the
+   *   replacements
+   */
+  public fun redo(count: Int, chars: CharSequence): List<TextReplacement>? {
+    val stepCount = count.coerceAtMost(redoSteps)
+    if (stepCount <= 0) return null
+    closeStep()
+
+    val edits = ArrayList<Edit>()
+    for (i in current until current + stepCount) {
+      for (delta in steps[i].deltas) {
+        edits.add(Edit(delta.offset, delta.oldText.length, delta.newText))
+      }
+    }
+    val replacements = compose(edits, chars)
+    if (replacements == null) {
+      clear()
+      return null
+    }
+    current += stepCount
+    lineUndo = null
+    return replacements
+  }
+
+  /**
+   * Returns the replacement that restores the last changed line to the state before its latest run of changes (`U`),
+   *   or null if there is no such line
+   *
+   * The replacement is a regular change: once applied, it's recorded as a new step, and the next call undoes it.
+   */
+  public fun undoLine(chars: CharSequence): TextReplacement? {
+    val line = lineUndo ?: return null
+    val start = line.lineStart
+    if (start > chars.length || (start > 0 && chars[start - 1] != '\n')) return null
+    var end = start
+    while (end < chars.length && chars[end] != '\n') end++
+    // The restored line is tracked anew when the replacement is recorded, so the next call undoes it
+    lineUndo = null
+    return TextReplacement(start, end, line.text)
+  }
+
+  /** Number of applied steps that were made after the current text state minus [millis] (`:earlier {N}s`) */
+  public fun undoStepsWithin(millis: Long): Int {
+    if (current == 0) return 0
+    val target = steps[current - 1].time - millis
+    var count = 0
+    while (count < current && steps[current - 1 - count].time > target) count++
+    return count
+  }
+
+  /** Number of steps to redo that were made before the current text state plus [millis] (`:later {N}s`) */
+  public fun redoStepsWithin(millis: Long): Int {
+    if (redoSteps == 0) return 0
+    val stateTime = if (current > 0) steps[current - 1].time else steps[0].time
+    val target = stateTime + millis
+    var count = 0
+    while (current + count < steps.size && steps[current + count].time <= target) count++
+    return count
+  }
+
+  /** Runs [action] without recording the changes it makes, e.g. when applying a replacement from [undo] */
+  public fun <T> withoutRecording(action: () -> T): T {
+    val wasRecording = recording
+    recording = false
+    try {
+      return action()
+    } finally {
+      recording = wasRecording
+    }
+  }
+
+  public fun clear() {
+    steps.clear()
+    current = 0
+    stepOpen = false
+    keptChars = 0
+    lineUndo = null
+  }
+
+  private fun mergeIntoLast(step: Step, offset: Int, oldText: CharSequence, newText: CharSequence): Boolean {
+    val last = step.deltas.lastOrNull() ?: return false
+    val text = last.newText as? StringBuilder ?: return false
+
+    // The change is composed with the last delta only if it replaces a part of the text inserted by that delta
+    val from = offset - last.offset
+    val to = from + oldText.length
+    if (from < 0 || to > text.length) return false
+    text.replace(from, to, newText.toString())
+    return true
+  }
+
+  private fun dropRedoSteps() {
+    while (steps.size > current) {
+      keptChars -= steps.removeLast().keptChars
+    }
+  }
+
+  private fun dropOldestStep() {
+    keptChars -= steps.removeFirst().keptChars
+    current = (current - 1).coerceAtLeast(0)
+  }
+
+  private fun updateLineUndo(offset: Int, oldText: CharSequence, newText: CharSequence, chars: CharSequence) {
+    if (oldText.contains('\n') || newText.contains('\n') || offset + newText.length > chars.length) {
+      lineUndo = null
+      return
+    }
+    var lineStart = offset
+    while (lineStart > 0 && chars[lineStart - 1] != '\n') lineStart--
+    if (lineUndo?.lineStart == lineStart) return
+
+    var lineEnd = offset + newText.length
+    while (lineEnd < chars.length && chars[lineEnd] != '\n') lineEnd++
+    val text = StringBuilder(lineEnd - lineStart - newText.length + oldText.length)
+      .append(chars, lineStart, offset)
+      .append(oldText)
+      .append(chars, offset + newText.length, lineEnd)
+    lineUndo = LineUndo(lineStart, text.toString())
+  }
+
+  /** Replacement of [removeLength] characters at [offset] with [text] */
+  private class Edit(val offset: Int, val removeLength: Int, val text: CharSequence)
+
+  /** Replacement of `[start, end)` of the original text with [text] */
+  private class Piece(val start: Int, val end: Int, val text: StringBuilder) {
+    val delta: Int
+      get() = text.length - (end - start)
+  }
+
+  private companion object {
+    /** Upper bound of the kept text, removed and inserted, of all steps */
+    const val MAX_KEPT_CHARS = 16L * 1024 * 1024
+
+    /**
+     * Composes the [edits], applied one after another to [chars], into replacements of [chars]
+     *
+     * The replacements are sorted, don't overlap and have offsets in [chars], as
+     *   [com.maddyhome.idea.vim.api.MutableVimEditor.replaceStrings] expects. Every edit is merged with the replacements
+     *   it overlaps or touches, so the text that no edit reaches stays out of the replacements. Replacements that end up
+     *   with their original text are dropped.
+     */
+    fun compose(edits: List<Edit>, chars: CharSequence): List<TextReplacement>? {
+      val pieces = ArrayList<Piece>()
+      var length = chars.length
+      for (edit in edits) {
+        val editEnd = edit.offset + edit.removeLength
+        if (edit.offset < 0 || editEnd > length) return null
+
+        // The pieces [i, j) overlap or touch the edit. The shift is the offset in the edited text minus the offset in
+        //   [chars] after the pieces passed so far
+        var shift = 0
+        var i = 0
+        while (i < pieces.size && pieces[i].end + shift + pieces[i].delta < edit.offset) {
+          shift += pieces[i].delta
+          i++
+        }
+        val shiftBefore = shift
+        var j = i
+        while (j < pieces.size && pieces[j].start + shift <= editEnd) {
+          shift += pieces[j].delta
+          j++
+        }
+
+        var start = edit.offset - shiftBefore
+        var end = editEnd - shift
+        if (i < j) {
+          start = minOf(start, pieces[i].start)
+          end = maxOf(end, pieces[j - 1].end)
+        }
+        val text = StringBuilder()
+        var offset = start
+        for (k in i until j) {
+          text.append(chars, offset, pieces[k].start).append(pieces[k].text)
+          offset = pieces[k].end
+        }
+        text.append(chars, offset, end)
+        val editedStart = start + shiftBefore
+        text.replace(edit.offset - editedStart, editEnd - editedStart, edit.text.toString())
+
+        pieces.subList(i, j).clear()
+        pieces.add(i, Piece(start, end, text))
+        length += edit.text.length - edit.removeLength
+      }
+
+      return pieces
+        .filterNot { it.text.contentEquals(chars.subSequence(it.start, it.end)) }
+        .map { TextReplacement(it.start, it.end, it.text.toString()) }
+    }
+  }
+}
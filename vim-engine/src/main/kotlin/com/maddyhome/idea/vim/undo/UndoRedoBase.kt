@@ -8,4 +8,32 @@
 
 package com.maddyhome.idea.vim.undo
 
-public abstract class UndoRedoBase : VimUndoRedo
+import com.maddyhome.idea.vim.api.ExecutionContext
+import com.maddyhome.idea.vim.api.VimEditor
+
+public abstract class UndoRedoBase : VimUndoRedo {
+  override fun undo(editor: VimEditor, context: ExecutionContext, count: Int): Boolean {
+    var remaining = count
+    var result = undo(editor, context)
+    while ((--remaining > 0) && result) {
+      result = undo(editor, context)
+    }
+    return result
+  }
+
+  override fun redo(editor: VimEditor, context: ExecutionContext, count: Int): Boolean {
+    var remaining = count
+    var result = redo(editor, context)
+    while ((--remaining > 0) && result) {
+      result = redo(editor, context)
+    }
+    return result
+  }
+
+  // Line undo and time based undo need the history of the changes, which the base implementation doesn't keep
+  override fun undoLine(editor: VimEditor, context: ExecutionContext): Boolean = false
+  override fun undoTime(editor: VimEditor, context: ExecutionContext, millis: Long): Boolean = false
+  override fun redoTime(editor: VimEditor, context: ExecutionContext, millis: Long): Boolean = false
+
+  override fun breakUndoSequence(editor: VimEditor) {}
+}
@@ -14,4 +14,36 @@ import com.maddyhome.idea.vim.api.VimEditor
 public interface VimUndoRedo {
   public fun undo(editor: VimEditor, context: ExecutionContext): Boolean
   public fun redo(editor: VimEditor, context: ExecutionContext): Boolean
+
+  /**
+   * Undoes [count] changes. Returns false if not a single change was undone
+   */
+  public fun undo(editor: VimEditor, context: ExecutionContext, count: Int): Boolean
+
+  /**
+   * Redoes [count] changes. Returns false if not a single change was redone
+   */
+  public fun redo(editor: VimEditor, context: ExecutionContext, count: Int): Boolean
+
+  /**
+   * Undoes all latest changes on the last changed line (`U`)
+   */
+  public fun undoLine(editor: VimEditor, context: ExecutionContext): Boolean
+
+  /**
+   * Goes back to the text state about [millis] milliseconds before the current one (`:earlier {N}s`)
+   */
+  public fun undoTime(editor: VimEditor, context: ExecutionContext, millis: Long): Boolean
+
+  /**
+   * Goes forward to the text state about [millis] milliseconds after the current one (`:later {N}s`)
+   */
+  public fun redoTime(editor: VimEditor, context: ExecutionContext, millis: Long): Boolean
+
+  /**
+   * Starts a new undo step: the changes made after this call are undone separately from the previous ones
+   *
+   * Called before every command that is not executed in Insert or Replace mode.
+   */
+  public fun breakUndoSequence(editor: VimEditor)
 }
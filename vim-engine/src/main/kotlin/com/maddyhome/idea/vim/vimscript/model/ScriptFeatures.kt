@@ -0,0 +1,179 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.vimscript.model
+
+import com.maddyhome.idea.vim.vimscript.model.commands.CallCommand
+import com.maddyhome.idea.vim.vimscript.model.commands.EchoCommand
+import com.maddyhome.idea.vim.vimscript.model.commands.ExecuteCommand
+import com.maddyhome.idea.vim.vimscript.model.commands.LetCommand
+import com.maddyhome.idea.vim.vimscript.model.expressions.BinExpression
+import com.maddyhome.idea.vim.vimscript.model.expressions.CurlyBracesName
+import com.maddyhome.idea.vim.vimscript.model.expressions.DictionaryExpression
+import com.maddyhome.idea.vim.vimscript.model.expressions.Expression
+import com.maddyhome.idea.vim.vimscript.model.expressions.FalsyExpression
+import com.maddyhome.idea.vim.vimscript.model.expressions.FuncrefCallExpression
+import com.maddyhome.idea.vim.vimscript.model.expressions.FunctionCallExpression
+import com.maddyhome.idea.vim.vimscript.model.expressions.LambdaExpression
+import com.maddyhome.idea.vim.vimscript.model.expressions.LambdaFunctionCallExpression
+import com.maddyhome.idea.vim.vimscript.model.expressions.ListExpression
+import com.maddyhome.idea.vim.vimscript.model.expressions.OneElementSublistExpression
+import com.maddyhome.idea.vim.vimscript.model.expressions.SublistExpression
+import com.maddyhome.idea.vim.vimscript.model.expressions.TernaryExpression
+import com.maddyhome.idea.vim.vimscript.model.expressions.UnaryExpression
+import com.maddyhome.idea.vim.vimscript.model.expressions.Variable
+import com.maddyhome.idea.vim.vimscript.model.statements.AnonymousFunctionDeclaration
+import com.maddyhome.idea.vim.vimscript.model.statements.FunctionDeclaration
+import com.maddyhome.idea.vim.vimscript.model.statements.IfStatement
+import com.maddyhome.idea.vim.vimscript.model.statements.ReturnStatement
+import com.maddyhome.idea.vim.vimscript.model.statements.ThrowStatement
+import com.maddyhome.idea.vim.vimscript.model.statements.TryStatement
+import com.maddyhome.idea.vim.vimscript.model.statements.loops.ForLoop
+import com.maddyhome.idea.vim.vimscript.model.statements.loops.ForLoopWithList
+import com.maddyhome.idea.vim.vimscript.model.statements.loops.WhileLoop
+
+/**
+ * The Vimscript features used by parsed scripts, for the usage statistics
+ *
+ * The features are found by walking the syntax tree of parsed code once, when it is parsed and without executing it,
+ *   so the statements and expressions don't have to report themselves on every execution. A feature counts as used if
+ *   it is anywhere in the code, e.g. in the body of a function that is never called.
+ */
+public class ScriptFeatures {
+  public var isLoopUsed: Boolean = false
+    private set
+  public var isIfUsed: Boolean = false
+    private set
+  public var isFunctionCallUsed: Boolean = false
+    private set
+  public var isFunctionDeclarationUsed: Boolean = false
+    private set
+
+  /** True if all the features are found, so there is no need to scan more scripts */
+  public val isComplete: Boolean
+    get() = isLoopUsed && isIfUsed && isFunctionCallUsed && isFunctionDeclarationUsed
+
+  /** Adds the features used by the [code], a whole script or a single command */
+  public fun scan(code: Executable) {
+    if (!isComplete) scanExecutable(code)
+  }
+
+  /** Adds the features used by the [expression], e.g. the right-hand side of an `<expr>` mapping */
+  public fun scan(expression: Expression) {
+    if (!isComplete) scanExpression(expression)
+  }
+
+  private fun scanExecutables(executables: List<Executable>) {
+    for (executable in executables) {
+      if (isComplete) return
+      scanExecutable(executable)
+    }
+  }
+
+  private fun scanExecutable(executable: Executable) {
+    when (executable) {
+      is Script -> scanExecutables(executable.units)
+      is IfStatement -> {
+        isIfUsed = true
+        for ((condition, body) in executable.conditionToBody) {
+          scanExpression(condition)
+          scanExecutables(body)
+        }
+      }
+      is ForLoop -> {
+        isLoopUsed = true
+        scanExpression(executable.iterable)
+        scanExecutables(executable.body)
+      }
+      is ForLoopWithList -> {
+        isLoopUsed = true
+        scanExpression(executable.iterable)
+        scanExecutables(executable.body)
+      }
+      is WhileLoop -> {
+        isLoopUsed = true
+        scanExpression(executable.condition)
+        scanExecutables(executable.body)
+      }
+      is FunctionDeclaration -> {
+        isFunctionDeclarationUsed = true
+        executable.defaultArgs.forEach { scanExpression(it.second) }
+        scanExecutables(executable.body)
+      }
+      is AnonymousFunctionDeclaration -> {
+        isFunctionDeclarationUsed = true
+        executable.defaultArgs.forEach { scanExpression(it.second) }
+        scanExecutables(executable.body)
+      }
+      is TryStatement -> {
+        scanExecutables(executable.tryBlock.body)
+        executable.catchBlocks.forEach { scanExecutables(it.body) }
+        executable.finallyBlock?.let { scanExecutables(it.body) }
+      }
+      is ReturnStatement -> scanExpression(executable.expression)
+      is ThrowStatement -> scanExpression(executable.expression)
+      is CallCommand -> scanExpression(executable.functionCall)
+      is LetCommand -> {
+        scanExpression(executable.variable)
+        scanExpression(executable.expression)
+      }
+      is EchoCommand -> executable.args.forEach { scanExpression(it) }
+      is ExecuteCommand -> executable.expressions.forEach { scanExpression(it) }
+    }
+  }
+
+  private fun scanExpression(expression: Expression?) {
+    when (expression) {
+      is FunctionCallExpression -> {
+        isFunctionCallUsed = true
+        scanExpression(expression.functionName)
+        expression.arguments.forEach { scanExpression(it) }
+      }
+      is BinExpression -> {
+        scanExpression(expression.left)
+        scanExpression(expression.right)
+      }
+      is FalsyExpression -> {
+        scanExpression(expression.left)
+        scanExpression(expression.right)
+      }
+      is TernaryExpression -> {
+        scanExpression(expression.condition)
+        scanExpression(expression.then)
+        scanExpression(expression.otherwise)
+      }
+      is UnaryExpression -> scanExpression(expression.expression)
+      is CurlyBracesName -> expression.parts.forEach { scanExpression(it) }
+      is Variable -> scanExpression(expression.name)
+      is ListExpression -> expression.list.forEach { scanExpression(it) }
+      is DictionaryExpression -> expression.dictionary.forEach { (key, value) ->
+        scanExpression(key)
+        scanExpression(value)
+      }
+      is SublistExpression -> {
+        scanExpression(expression.from)
+        scanExpression(expression.to)
+        scanExpression(expression.expression)
+      }
+      is OneElementSublistExpression -> {
+        scanExpression(expression.index)
+        scanExpression(expression.expression)
+      }
+      is FuncrefCallExpression -> {
+        scanExpression(expression.expression)
+        expression.args.forEach { scanExpression(it) }
+      }
+      is LambdaExpression -> scanExpression(expression.expr)
+      is LambdaFunctionCallExpression -> {
+        scanExpression(expression.lambda)
+        expression.arguments.forEach { scanExpression(it) }
+      }
+      else -> {}
+    }
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.vimscript.model.commands
+
+import com.maddyhome.idea.vim.api.ExecutionContext
+import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.api.injector
+import com.maddyhome.idea.vim.command.OperatorArguments
+import com.maddyhome.idea.vim.ex.ExException
+import com.maddyhome.idea.vim.ex.ranges.Ranges
+import com.maddyhome.idea.vim.vimscript.model.ExecutionResult
+
+/**
+ * see "h :earlier"
+ *
+ * The undo history is linear, so `:earlier {count}` is the same as `{count}u`. `:earlier {N}f` is not supported
+ */
+public data class EarlierCommand(val ranges: Ranges, val argument: String) : Command.SingleExecution(ranges, argument) {
+  override val argFlags: CommandHandlerFlags = flags(RangeFlag.RANGE_FORBIDDEN, ArgumentFlag.ARGUMENT_OPTIONAL, Access.WRITABLE)
+
+  override fun processCommand(editor: VimEditor, context: ExecutionContext, operatorArguments: OperatorArguments): ExecutionResult {
+    val undone = when (val step = parseUndoStep(argument)) {
+      is UndoStep.Count -> injector.undo.undo(editor, context, step.count)
+      is UndoStep.Time -> injector.undo.undoTime(editor, context, step.millis)
+    }
+    return if (undone) ExecutionResult.Success else ExecutionResult.Error
+  }
+}
+
+/**
+ * Argument of `:earlier` and `:later`: a number of changes, or a time span with the `s`, `m`, `h` or `d` suffix
+ */
+internal sealed class UndoStep {
+  data class Count(val count: Int) : UndoStep()
+  data class Time(val millis: Long) : UndoStep()
+}
+
+internal fun parseUndoStep(argument: String): UndoStep {
+  val arg = argument.trim()
+  if (arg.isEmpty()) return UndoStep.Count(1)
+
+  val number = arg.takeWhile { it.isDigit() }
+  val value = number.toLongOrNull() ?: throw ExException("E475: Invalid argument: $argument")
+  val secondMillis = 1000L
+  return when (arg.substring(number.length)) {
+    "" -> UndoStep.Count(value.coerceAtMost(Int.MAX_VALUE.toLong()).toInt())
+    "s" -> UndoStep.Time(value * secondMillis)
+    "m" -> UndoStep.Time(value * 60 * secondMillis)
+    "h" -> UndoStep.Time(value * 60 * 60 * secondMillis)
+    "d" -> UndoStep.Time(value * 24 * 60 * 60 * secondMillis)
+    else -> throw ExException("E475: Invalid argument: $argument")
+  }
+}
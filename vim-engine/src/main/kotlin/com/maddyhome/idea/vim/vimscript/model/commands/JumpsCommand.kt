@@ -10,6 +10,7 @@ package com.maddyhome.idea.vim.vimscript.model.commands
 
 import com.maddyhome.idea.vim.api.ExecutionContext
 import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.api.getLineChars
 import com.maddyhome.idea.vim.api.injector
 import com.maddyhome.idea.vim.command.OperatorArguments
 import com.maddyhome.idea.vim.ex.ranges.Ranges
@@ -40,7 +41,7 @@ public data class JumpsCommand(val ranges: Ranges, val argument: String) : Comma
       text.append(" ")
       val vf = editor.getVirtualFile()
       if (vf != null && vf.path == jump.filepath) {
-        val line = editor.getLineText(jump.line).trim().take(200)
+        val line = editor.getLineChars(jump.line).trim().take(200).toString()
         val keys = injector.parser.stringToKeys(line)
         text.append(EngineStringHelper.toPrintableCharacters(keys).take(200))
       } else {
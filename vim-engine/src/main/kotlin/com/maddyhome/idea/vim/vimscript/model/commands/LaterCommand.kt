@@ -0,0 +1,33 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.vimscript.model.commands
+
+import com.maddyhome.idea.vim.api.ExecutionContext
+import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.api.injector
+import com.maddyhome.idea.vim.command.OperatorArguments
+import com.maddyhome.idea.vim.ex.ranges.Ranges
+import com.maddyhome.idea.vim.vimscript.model.ExecutionResult
+
+/**
+ * see "h :later"
+ *
+ * The undo history is linear, so `:later {count}` is the same as `{count}CTRL-R`. `:later {N}f` is not supported
+ */
+public data class LaterCommand(val ranges: Ranges, val argument: String) : Command.SingleExecution(ranges, argument) {
+  override val argFlags: CommandHandlerFlags = flags(RangeFlag.RANGE_FORBIDDEN, ArgumentFlag.ARGUMENT_OPTIONAL, Access.WRITABLE)
+
+  override fun processCommand(editor: VimEditor, context: ExecutionContext, operatorArguments: OperatorArguments): ExecutionResult {
+    val redone = when (val step = parseUndoStep(argument)) {
+      is UndoStep.Count -> injector.undo.redo(editor, context, step.count)
+      is UndoStep.Time -> injector.undo.redoTime(editor, context, step.millis)
+    }
+    return if (redone) ExecutionResult.Success else ExecutionResult.Error
+  }
+}
@@ -10,6 +10,7 @@ package com.maddyhome.idea.vim.vimscript.model.commands
 
 import com.maddyhome.idea.vim.api.ExecutionContext
 import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.api.getLineChars
 import com.maddyhome.idea.vim.api.injector
 import com.maddyhome.idea.vim.command.OperatorArguments
 import com.maddyhome.idea.vim.ex.ranges.Ranges
@@ -38,7 +39,7 @@ public data class MarksCommand(val ranges: Ranges, val argument: String) : Comma
         val column = mark.col.toString().padStart(3)
         val vf = editor.getVirtualFile()
         val text = if (vf != null && vf.path == mark.filepath) {
-          val lineText = editor.getLineText(mark.line).trim().take(200)
+          val lineText = editor.getLineChars(mark.line).trim().take(200).toString()
           EngineStringHelper.toPrintableCharacters(injector.parser.stringToKeys(lineText)).take(200)
         } else {
           mark.filepath
@@ -73,8 +73,14 @@ public data class NormalCommand(val ranges: Ranges, val argument: String) : Comm
       val keys = injector.parser.stringToKeys(argument)
       val keyHandler = KeyHandler.getInstance()
       keyHandler.reset(editor)
-      for (key in keys) {
-        keyHandler.handleKey(editor, key, context, useMappings, true)
+      // The keys go through the key stack, like the keys of a mapping, so the typed text can be taken in runs
+      keyHandler.keyStack.addKeys(keys)
+      try {
+        while (keyHandler.keyStack.hasStroke()) {
+          keyHandler.handleKey(editor, keyHandler.keyStack.feedStroke(), context, useMappings, true)
+        }
+      } finally {
+        keyHandler.keyStack.removeFirst()
       }
 
       // Exit if state leaves as insert or cmd_line
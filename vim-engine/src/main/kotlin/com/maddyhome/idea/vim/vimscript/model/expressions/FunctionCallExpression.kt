@@ -24,7 +24,6 @@ public data class FunctionCallExpression(val scope: Scope?, val functionName: Cu
     this(scope, CurlyBracesName(listOf(SimpleExpression(functionName))), arguments)
 
   override fun evaluate(editor: VimEditor, context: ExecutionContext, vimContext: VimLContext): VimDataType {
-    injector.statisticsService.setIfFunctionCallUsed(true)
     val handler = injector.functionService.getFunctionHandlerOrNull(scope, functionName.evaluate(editor, context, vimContext).value, vimContext)
     if (handler != null) {
       if (handler is DefinedFunctionHandler && handler.function.flags.contains(FunctionFlag.DICT)) {
@@ -40,7 +40,6 @@ public data class FunctionDeclaration(
   val localVariables: MutableMap<String, VimDataType> = mutableMapOf()
 
   override fun execute(editor: VimEditor, context: ExecutionContext): ExecutionResult {
-    injector.statisticsService.setIfFunctionDeclarationUsed(true)
     val forbiddenArgumentNames = setOf("firstline", "lastline")
     val forbiddenArgument = args.firstOrNull { forbiddenArgumentNames.contains(it) }
     if (forbiddenArgument != null) {
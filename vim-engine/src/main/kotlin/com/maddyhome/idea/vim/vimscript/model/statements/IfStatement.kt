@@ -10,7 +10,6 @@ package com.maddyhome.idea.vim.vimscript.model.statements
 
 import com.maddyhome.idea.vim.api.ExecutionContext
 import com.maddyhome.idea.vim.api.VimEditor
-import com.maddyhome.idea.vim.api.injector
 import com.maddyhome.idea.vim.vimscript.model.Executable
 import com.maddyhome.idea.vim.vimscript.model.ExecutionResult
 import com.maddyhome.idea.vim.vimscript.model.VimLContext
@@ -20,7 +19,6 @@ public data class IfStatement(val conditionToBody: List<Pair<Expression, List<Ex
   override lateinit var vimContext: VimLContext
 
   override fun execute(editor: VimEditor, context: ExecutionContext): ExecutionResult {
-    injector.statisticsService.setIfIfUsed(true)
     var result: ExecutionResult = ExecutionResult.Success
     var statementsToExecute: List<Executable>? = null
     for ((condition, statements) in conditionToBody) {
@@ -27,7 +27,6 @@ public data class ForLoop(val variable: Variable, val iterable: Expression, val
   override lateinit var vimContext: VimLContext
 
   override fun execute(editor: VimEditor, context: ExecutionContext): ExecutionResult {
-    injector.statisticsService.setIfLoopUsed(true)
     var result: ExecutionResult = ExecutionResult.Success
     body.forEach { it.vimContext = this }
 
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import kotlin.random.Random
+
+class HeadlessVimDocumentTest {
+  @Test
+  fun `test random edits`() {
+    for (seed in 0 until 20) {
+      val random = Random(seed)
+      val expected = StringBuilder(randomText(random, 200))
+      val document = HeadlessVimDocument(expected)
+      assertSameText(expected, document, "seed $seed, initial text")
+
+      repeat(500) { step ->
+        // Mostly local edits, like typing, with jumps to other places of the text
+        val start = random.nextInt(expected.length + 1)
+        val end = (start + random.nextInt(minOf(8, expected.length - start) + 1))
+        val newText = randomText(random, random.nextInt(12))
+        expected.replace(start, end, newText)
+        document.replaceString(start, end, newText)
+        assertSameText(expected, document, "seed $seed, step $step")
+      }
+    }
+  }
+
+  @Test
+  fun `test large edits`() {
+    val random = Random(42)
+    val expected = StringBuilder(randomText(random, 1000))
+    val document = HeadlessVimDocument(expected)
+
+    repeat(100) { step ->
+      val start = random.nextInt(expected.length + 1)
+      val end = start + random.nextInt(expected.length - start + 1)
+      val newText = randomText(random, random.nextInt(2000))
+      expected.replace(start, end, newText)
+      document.replaceString(start, end, newText)
+      assertSameText(expected, document, "step $step")
+    }
+  }
+
+  @Test
+  fun `test edits of an empty document`() {
+    val document = HeadlessVimDocument()
+    assertEquals(0, document.getLineCount())
+
+    document.replaceString(0, 0, "\n")
+    assertSameText(StringBuilder("\n"), document, "new line")
+    document.replaceString(0, 1, "")
+    assertEquals(0, document.getLineCount())
+    assertEquals("", document.text.toString())
+  }
+
+  @Test
+  fun `test snapshot doesn't see later edits`() {
+    val random = Random(7)
+    val expected = StringBuilder(randomText(random, 300))
+    val document = HeadlessVimDocument(expected)
+
+    repeat(50) {
+      val snapshot = document.snapshot()
+      val before = expected.toString()
+      val start = random.nextInt(expected.length + 1)
+      val newText = randomText(random, 10)
+      expected.insert(start, newText)
+      document.replaceString(start, start, newText)
+
+      assertEquals(before, snapshot.toString())
+      assertEquals(before.substring(10, 20), snapshot.subSequence(10, 20).toString())
+      assertSameText(expected, document, "after snapshot")
+    }
+  }
+
+  private fun assertSameText(expected: StringBuilder, document: HeadlessVimDocument, message: String) {
+    val text = expected.toString()
+    assertEquals(text, document.text.toString(), message)
+    assertEquals(text.length, document.textLength, message)
+
+    val lines = if (text.isEmpty()) emptyList() else text.split('\n')
+    assertEquals(lines.size, document.getLineCount(), message)
+    var offset = 0
+    for ((line, lineText) in lines.withIndex()) {
+      assertEquals(offset, document.getLineStartOffset(line), "$message, start of line $line")
+      assertEquals(offset + lineText.length, document.getLineEndOffset(line), "$message, end of line $line")
+      assertEquals(lineText, document.getLineChars(line).toString(), "$message, chars of line $line")
+      for (i in 0..lineText.length) {
+        assertEquals(line, document.getLineNumber(offset + i), "$message, line of offset ${offset + i}")
+      }
+      offset += lineText.length + 1
+    }
+  }
+
+  private fun randomText(random: Random, length: Int): String {
+    val builder = StringBuilder(length)
+    repeat(length) {
+      builder.append(if (random.nextInt(6) == 0) '\n' else 'a' + random.nextInt(26))
+    }
+    return builder.toString()
+  }
+}
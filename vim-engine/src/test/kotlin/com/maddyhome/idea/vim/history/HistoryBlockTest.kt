@@ -0,0 +1,70 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.history
+
+import com.maddyhome.idea.vim.headless.HeadlessVimInjector
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+
+class HistoryBlockTest {
+  @BeforeEach
+  fun setUp() {
+    HeadlessVimInjector.install()
+  }
+
+  @Test
+  fun `test find entry with prefix in both directions`() {
+    val block = HistoryBlock()
+    listOf("set digraph", "digraph", "set incsearch", "sort", "set hlsearch").forEach(block::addEntry)
+    val numbers = block.getEntries().associate { it.entry to it.number }
+
+    assertEquals("set hlsearch", block.findEntryWithPrefix("set", Int.MAX_VALUE, false)?.entry)
+    assertEquals("set incsearch", block.findEntryWithPrefix("set", numbers.getValue("set hlsearch"), false)?.entry)
+    assertEquals("set digraph", block.findEntryWithPrefix("set", numbers.getValue("set incsearch"), false)?.entry)
+    assertNull(block.findEntryWithPrefix("set", numbers.getValue("set digraph"), false))
+
+    assertEquals("set incsearch", block.findEntryWithPrefix("set", numbers.getValue("set digraph"), true)?.entry)
+    assertNull(block.findEntryWithPrefix("set", numbers.getValue("set hlsearch"), true))
+    assertEquals("sort", block.findEntryWithPrefix("so", 0, true)?.entry)
+  }
+
+  @Test
+  fun `test repeated entry moves to the end`() {
+    val block = HistoryBlock()
+    listOf("set digraph", "digraph", "set digraph").forEach(block::addEntry)
+
+    assertEquals(listOf("digraph", "set digraph"), block.getEntries().map { it.entry })
+    val digraph = block.getEntries().first().number
+    assertEquals("set digraph", block.findEntryWithPrefix("set", digraph, true)?.entry)
+    assertNull(block.findEntryWithPrefix("set", digraph, false))
+  }
+
+  @Test
+  fun `test find entry with prefix longer than the indexed characters`() {
+    val block = HistoryBlock()
+    listOf("set incsearch", "set invlist", "set incsearch ignorecase", "set hlsearch").forEach(block::addEntry)
+
+    assertEquals("set incsearch ignorecase", block.findEntryWithPrefix("set incs", Int.MAX_VALUE, false)?.entry)
+    assertEquals("set invlist", block.findEntryWithPrefix("set invl", Int.MAX_VALUE, false)?.entry)
+    assertEquals("set incsearch ignorecase", block.findEntryWithPrefix("set incsearch ", Int.MAX_VALUE, false)?.entry)
+    assertNull(block.findEntryWithPrefix("set incsearch!", Int.MAX_VALUE, false))
+  }
+
+  @Test
+  fun `test removed entry is not found by prefix`() {
+    val block = HistoryBlock()
+    listOf("set digraph", "digraph", "set digraph").forEach(block::addEntry)
+
+    assertEquals(1, block.getEntries().count { block.findEntryWithPrefix("set", it.number, true) != null })
+    assertNull(block.findEntryWithPrefix("set digraph", block.getEntries().last().number, false))
+    assertEquals("digraph", block.findEntryWithPrefix("d", Int.MAX_VALUE, false)?.entry)
+  }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+import com.maddyhome.idea.vim.api.ExecutionContext
+import com.maddyhome.idea.vim.api.ExecutionContextManagerBase
+import com.maddyhome.idea.vim.api.VimCaret
+import com.maddyhome.idea.vim.api.VimEditor
+
+/**
+ * Execution context of [HeadlessVimInjector]. The [context] is the editor or the caret the context is created for
+ */
+public open class HeadlessEditorExecutionContext(override val context: Any) : ExecutionContext.Editor {
+  override fun updateEditor(editor: VimEditor): ExecutionContext = HeadlessEditorExecutionContext(editor)
+}
+
+public class HeadlessCaretAndEditorExecutionContext(override val context: Any) :
+  HeadlessEditorExecutionContext(context),
+  ExecutionContext.CaretAndEditor
+
+public class HeadlessExecutionContextManager : ExecutionContextManagerBase() {
+  override fun onEditor(editor: VimEditor, prevContext: ExecutionContext?): ExecutionContext.Editor {
+    if (prevContext is ExecutionContext.CaretAndEditor) {
+      return prevContext
+    }
+    return HeadlessEditorExecutionContext(editor)
+  }
+
+  override fun onCaret(caret: VimCaret, prevContext: ExecutionContext.Editor): ExecutionContext.CaretAndEditor {
+    return HeadlessCaretAndEditorExecutionContext(caret)
+  }
+}
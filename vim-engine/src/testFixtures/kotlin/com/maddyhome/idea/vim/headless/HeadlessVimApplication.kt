@@ -0,0 +1,58 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+import com.maddyhome.idea.vim.KeyHandler
+import com.maddyhome.idea.vim.api.VimApplicationBase
+import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.api.injector
+import javax.swing.KeyStroke
+
+/**
+ * [com.maddyhome.idea.vim.api.VimApplication] of [HeadlessVimInjector]
+ *
+ * There is a single thread and no locks, so all the actions and commands are run right away.
+ */
+public class HeadlessVimApplication : VimApplicationBase() {
+  override fun isMainThread(): Boolean = true
+
+  override fun invokeLater(action: () -> Unit, editor: VimEditor) {
+    action()
+  }
+
+  override fun invokeLater(action: () -> Unit) {
+    action()
+  }
+
+  override fun isUnitTest(): Boolean = false
+
+  override fun postKey(stroke: KeyStroke, editor: VimEditor) {
+    KeyHandler.getInstance().handleKey(editor, stroke, injector.executionContextManager.onEditor(editor))
+  }
+
+  override fun localEditors(): List<VimEditor> = injector.editorGroup.localEditors().toList()
+
+  override fun runWriteCommand(editor: VimEditor, name: String?, groupId: Any?, command: Runnable) {
+    command.run()
+  }
+
+  override fun runReadCommand(editor: VimEditor, name: String?, groupId: Any?, command: Runnable) {
+    command.run()
+  }
+
+  override fun <T> runWriteAction(action: () -> T): T = action()
+
+  override fun <T> runReadAction(action: () -> T): T = action()
+
+  override fun currentStackTrace(): String = Thread.currentThread().stackTrace.joinToString("\n")
+
+  override fun runAfterGotFocus(runnable: Runnable) {
+    runnable.run()
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+import com.maddyhome.idea.vim.api.BufferPosition
+import com.maddyhome.idea.vim.api.CaretRegisterStorage
+import com.maddyhome.idea.vim.api.CaretRegisterStorageBase
+import com.maddyhome.idea.vim.api.LocalMarkStorage
+import com.maddyhome.idea.vim.api.SelectionInfo
+import com.maddyhome.idea.vim.api.VimCaret
+import com.maddyhome.idea.vim.api.VimCaretBase
+import com.maddyhome.idea.vim.api.VimVisualPosition
+import com.maddyhome.idea.vim.api.getLineStartForOffset
+import com.maddyhome.idea.vim.command.SelectionType
+import com.maddyhome.idea.vim.common.EditorLine
+import com.maddyhome.idea.vim.common.LiveRange
+import com.maddyhome.idea.vim.common.Offset
+import com.maddyhome.idea.vim.common.offset
+import com.maddyhome.idea.vim.group.visual.VisualChange
+
+/**
+ * Caret of a [HeadlessVimEditor]
+ *
+ * The caret keeps its offset and selection itself. They are moved with the changes of the text by the editor.
+ */
+public class HeadlessVimCaret(override val editor: HeadlessVimEditor, initialOffset: Int = 0) : VimCaretBase() {
+  private var caretOffset = initialOffset
+  private var selectionStartOffset = -1
+  private var selectionEndOffset = -1
+  private var lastColumn: Int? = null
+  private var removed = false
+
+  override val offset: Offset
+    get() = caretOffset.offset
+
+  override val isValid: Boolean
+    get() = !removed
+
+  override val isPrimary: Boolean
+    get() = editor.primaryCaret() === this
+
+  override val selectionStart: Int
+    get() = if (hasSelection()) selectionStartOffset else caretOffset
+
+  override val selectionEnd: Int
+    get() = if (hasSelection()) selectionEndOffset else caretOffset
+
+  override var vimSelectionStart: Int = -1
+
+  override var vimLastColumn: Int
+    get() = lastColumn ?: getBufferPosition().column
+    set(value) {
+      lastColumn = value
+    }
+
+  override val vimLine: Int
+    get() = getBufferPosition().line + 1
+
+  override val visualLineStart: Int
+    get() = editor.getLineStartForOffset(caretOffset)
+
+  override var lastSelectionInfo: SelectionInfo = SelectionInfo(null, null, SelectionType.CHARACTER_WISE)
+
+  override val registerStorage: CaretRegisterStorage by lazy { CaretRegisterStorageBase(this) }
+  override val markStorage: LocalMarkStorage by lazy { LocalMarkStorage(this) }
+
+  override var vimInsertStart: LiveRange = editor.createLiveMarker(initialOffset.offset, initialOffset.offset)
+  override var vimLastVisualOperatorRange: VisualChange? = null
+
+  override fun resetLastColumn() {
+    lastColumn = null
+  }
+
+  override fun vimSelectionStartClear() {
+    vimSelectionStart = -1
+  }
+
+  override fun getBufferPosition(): BufferPosition = editor.offsetToBufferPosition(caretOffset)
+
+  override fun getVisualPosition(): VimVisualPosition = editor.offsetToVisualPosition(caretOffset)
+
+  override fun getLine(): EditorLine.Pointer = EditorLine.Pointer.init(getBufferPosition().line, editor)
+
+  override fun hasSelection(): Boolean = selectionStartOffset != selectionEndOffset
+
+  override fun setSelection(start: Offset, end: Offset) {
+    selectionStartOffset = minOf(start.point, end.point)
+    selectionEndOffset = maxOf(start.point, end.point)
+  }
+
+  override fun removeSelection() {
+    selectionStartOffset = -1
+    selectionEndOffset = -1
+  }
+
+  override fun moveToOffsetNative(offset: Int) {
+    caretOffset = offset.coerceIn(0, editor.fileSize().toInt())
+  }
+
+  override fun moveToInlayAwareOffset(newOffset: Int): VimCaret {
+    moveToOffsetNative(newOffset)
+    return this
+  }
+
+  override fun moveToBufferPosition(position: BufferPosition) {
+    moveToOffsetNative(editor.bufferPositionToOffset(position))
+  }
+
+  override fun moveToVisualPosition(position: VimVisualPosition) {
+    moveToOffsetNative(editor.visualPositionToOffset(position).point)
+  }
+
+  override fun setVimLastColumnAndGetCaret(col: Int): VimCaret {
+    vimLastColumn = col
+    return this
+  }
+
+  /** Moves the caret and the selection with a change of the text that replaced `[start, end)` with [newLength] chars */
+  internal fun updateForChange(start: Int, end: Int, newLength: Int) {
+    val delta = newLength - (end - start)
+    caretOffset = moveOffset(caretOffset, start, end, delta)
+    if (hasSelection()) {
+      selectionStartOffset = moveOffset(selectionStartOffset, start, end, delta)
+      selectionEndOffset = moveOffset(selectionEndOffset, start, end, delta)
+    }
+  }
+
+  internal fun invalidate() {
+    removed = true
+  }
+
+  private fun moveOffset(offset: Int, start: Int, end: Int, delta: Int): Int = when {
+    offset <= start -> offset
+    offset >= end -> offset + delta
+    else -> start
+  }
+}
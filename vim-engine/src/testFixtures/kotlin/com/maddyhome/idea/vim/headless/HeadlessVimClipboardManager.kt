@@ -0,0 +1,39 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+import com.maddyhome.idea.vim.api.VimClipboardManager
+import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.common.TextRange
+import java.awt.datatransfer.Transferable
+
+/**
+ * [VimClipboardManager] of [HeadlessVimInjector]. The clipboard is a field, so the system clipboard is not touched
+ */
+public class HeadlessVimClipboardManager : VimClipboardManager {
+  private var clipboardText: String? = null
+
+  override fun getClipboardTextAndTransferableData(): Pair<String, List<Any>?>? {
+    return clipboardText?.let { it to null }
+  }
+
+  override fun setClipboardText(text: String, rawText: String, transferableData: List<Any>): Transferable? {
+    clipboardText = text
+    return null
+  }
+
+  override fun getTransferableData(vimEditor: VimEditor, textRange: TextRange, text: String): List<Any> = emptyList()
+
+  override fun preprocessText(
+    vimEditor: VimEditor,
+    textRange: TextRange,
+    text: String,
+    transferableData: List<*>,
+  ): String = text
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+import com.maddyhome.idea.vim.api.VimDocument
+import com.maddyhome.idea.vim.common.ChangesListener
+import com.maddyhome.idea.vim.common.CharSequenceView
+import com.maddyhome.idea.vim.common.LiveRange
+import com.maddyhome.idea.vim.common.Offset
+import com.maddyhome.idea.vim.common.offset
+import java.util.*
+
+/**
+ * In-memory document of a [HeadlessVimEditor]
+ *
+ * The text is kept in a gap buffer: a char array with a gap at the place of the last change, so typing and the other
+ *   local changes move only the chars between the old and the new place of the gap. The start offsets of the lines
+ *   are kept the same way, in an int array with a gap at the line of the last change. The offsets before the gap are
+ *   absolute and the offsets after the gap are counted from the end of the text, so a change doesn't have to update
+ *   the lines after it. Getting the start of a line is O(1) and getting the line of an offset is a binary search.
+ *
+ * The lines follow the IntelliJ document: an empty text has no lines, and a text that ends with a new line has an
+ *   empty last line.
+ *
+ * [text] and the views of it are live and see the changes of the document. [snapshot] returns an immutable text that
+ *   shares the chars with the document until the next change, which copies them.
+ */
+public class HeadlessVimDocument(text: CharSequence = "") : VimDocument {
+  private var chars = CharArray(text.length + MIN_GAP)
+  private var gapStart = text.length
+  private var gapEnd = chars.size
+
+  /** Set when a snapshot shares [chars], so the next change copies them first */
+  private var shared = false
+
+  /** Start offsets of the lines after the first one, that is the offsets after every new line character */
+  private var lineStarts = IntArray(16)
+  private var lineGapStart = 0
+  private var lineGapEnd = lineStarts.size
+
+  private val listeners = mutableListOf<ChangesListener>()
+  private val liveRanges = Collections.newSetFromMap(WeakHashMap<HeadlessLiveRange, Boolean>())
+
+  init {
+    for (i in text.indices) {
+      chars[i] = text[i]
+    }
+    insertLineStarts(text, 0)
+  }
+
+  /** Incremented on every change of the text */
+  public var modificationStamp: Long = 0
+    private set
+
+  /** Live view of the text. It should not be kept after a change, use [snapshot] for that */
+  public val text: CharSequence = LiveText()
+
+  public val textLength: Int
+    get() = chars.size - (gapEnd - gapStart)
+
+  /** Returns the current text, which stays the same when the document is changed */
+  public fun snapshot(): CharSequence {
+    shared = true
+    return Snapshot(chars, gapStart, gapEnd)
+  }
+
+  public fun getLineCount(): Int = if (textLength == 0) 0 else newLineCount() + 1
+
+  public fun getLineStartOffset(line: Int): Int = if (line <= 0) 0 else lineStart(line - 1)
+
+  /** Offset of the end of the [line], before its new line character */
+  public fun getLineEndOffset(line: Int): Int {
+    return if (line < newLineCount()) lineStart(line) - 1 else textLength
+  }
+
+  public fun getLineNumber(offset: Int): Int {
+    // The number of the lines that start at or before the offset, not counting the first line
+    var low = 0
+    var high = newLineCount()
+    while (low < high) {
+      val mid = (low + high) ushr 1
+      if (lineStart(mid) <= offset) low = mid + 1 else high = mid
+    }
+    return low
+  }
+
+  /** Returns the chars of the [line] without its new line character as a live view */
+  public fun getLineChars(line: Int): CharSequence {
+    return CharSequenceView(text, getLineStartOffset(line), getLineEndOffset(line))
+  }
+
+  public fun replaceString(startOffset: Int, endOffset: Int, newText: CharSequence) {
+    val length = textLength
+    if (startOffset < 0 || startOffset > endOffset || endOffset > length) {
+      throw IndexOutOfBoundsException("Range [$startOffset, $endOffset) is out of [0, $length)")
+    }
+    val oldFragment = if (listeners.isEmpty()) "" else text.subSequence(startOffset, endOffset).toString()
+
+    replaceLineStarts(startOffset, endOffset, newText)
+    replaceChars(startOffset, endOffset, newText)
+    modificationStamp++
+
+    for (range in liveRanges) {
+      range.update(startOffset, endOffset, newText.length)
+    }
+    if (listeners.isNotEmpty()) {
+      val change = ChangesListener.Change(oldFragment, newText.toString(), startOffset)
+      for (listener in listeners.toList()) {
+        listener.documentChanged(change)
+      }
+    }
+  }
+
+  /** Creates a range that is moved and resized with the changes of the text */
+  public fun createLiveRange(startOffset: Int, endOffset: Int): LiveRange {
+    val range = HeadlessLiveRange(startOffset, endOffset)
+    liveRanges.add(range)
+    return range
+  }
+
+  override fun addChangeListener(listener: ChangesListener) {
+    listeners.add(listener)
+  }
+
+  override fun removeChangeListener(listener: ChangesListener) {
+    listeners.remove(listener)
+  }
+
+  override fun getOffsetGuard(offset: Offset): LiveRange? = null
+
+  // The text
+
+  private fun charAt(index: Int): Char = if (index < gapStart) chars[index] else chars[index + gapEnd - gapStart]
+
+  private fun replaceChars(startOffset: Int, endOffset: Int, newText: CharSequence) {
+    if (shared) {
+      chars = chars.copyOf()
+      shared = false
+    }
+    moveGap(startOffset)
+    gapEnd += endOffset - startOffset
+    if (gapEnd - gapStart < newText.length) {
+      growGap(newText.length)
+    }
+    for (i in newText.indices) {
+      chars[gapStart + i] = newText[i]
+    }
+    gapStart += newText.length
+  }
+
+  private fun moveGap(offset: Int) {
+    if (offset < gapStart) {
+      val count = gapStart - offset
+      System.arraycopy(chars, offset, chars, gapEnd - count, count)
+      gapStart -= count
+      gapEnd -= count
+    } else if (offset > gapStart) {
+      val count = offset - gapStart
+      System.arraycopy(chars, gapEnd, chars, gapStart, count)
+      gapStart += count
+      gapEnd += count
+    }
+  }
+
+  private fun growGap(required: Int) {
+    val tail = chars.size - gapEnd
+    val newSize = maxOf(chars.size * 2, textLength + required + MIN_GAP)
+    val newChars = CharArray(newSize)
+    System.arraycopy(chars, 0, newChars, 0, gapStart)
+    System.arraycopy(chars, gapEnd, newChars, newSize - tail, tail)
+    chars = newChars
+    gapEnd = newSize - tail
+  }
+
+  // The line index
+
+  private fun newLineCount(): Int = lineStarts.size - (lineGapEnd - lineGapStart)
+
+  /** Start offset of the line after the new line character number [index] */
+  private fun lineStart(index: Int): Int {
+    return if (index < lineGapStart) {
+      lineStarts[index]
+    } else {
+      textLength - lineStarts[index + lineGapEnd - lineGapStart]
+    }
+  }
+
+  private fun replaceLineStarts(startOffset: Int, endOffset: Int, newText: CharSequence) {
+    // The gap goes before the first line that starts after startOffset. The lines after the gap that start in
+    //   (startOffset, endOffset] lose their new line characters and are removed
+    moveLineGap(getLineNumber(startOffset))
+    val length = textLength
+    while (lineGapEnd < lineStarts.size && length - lineStarts[lineGapEnd] <= endOffset) {
+      lineGapEnd++
+    }
+    insertLineStarts(newText, startOffset)
+  }
+
+  /** Adds the lines of the new line characters of [newText] inserted at [offset] before the gap */
+  private fun insertLineStarts(newText: CharSequence, offset: Int) {
+    for (i in newText.indices) {
+      if (newText[i] != '\n') continue
+      if (lineGapStart == lineGapEnd) growLineGap()
+      lineStarts[lineGapStart++] = offset + i + 1
+    }
+  }
+
+  private fun moveLineGap(index: Int) {
+    val length = textLength
+    while (lineGapStart > index) {
+      lineStarts[--lineGapEnd] = length - lineStarts[--lineGapStart]
+    }
+    while (lineGapStart < index) {
+      lineStarts[lineGapStart++] = length - lineStarts[lineGapEnd++]
+    }
+  }
+
+  private fun growLineGap() {
+    val tail = lineStarts.size - lineGapEnd
+    val newSize = lineStarts.size * 2
+    val newStarts = IntArray(newSize)
+    System.arraycopy(lineStarts, 0, newStarts, 0, lineGapStart)
+    System.arraycopy(lineStarts, lineGapEnd, newStarts, newSize - tail, tail)
+    lineStarts = newStarts
+    lineGapEnd = newSize - tail
+  }
+
+  private inner class LiveText : CharSequence {
+    override val length: Int
+      get() = textLength
+
+    override fun get(index: Int): Char {
+      if (index < 0 || index >= textLength) throw IndexOutOfBoundsException("Index $index is out of [0, $textLength)")
+      return charAt(index)
+    }
+
+    override fun subSequence(startIndex: Int, endIndex: Int): CharSequence = CharSequenceView(this, startIndex, endIndex)
+
+    override fun toString(): String = gapText(chars, gapStart, gapEnd)
+  }
+
+  private class Snapshot(private val chars: CharArray, private val gapStart: Int, private val gapEnd: Int) :
+    CharSequence {
+    override val length: Int = chars.size - (gapEnd - gapStart)
+
+    override fun get(index: Int): Char {
+      if (index < 0 || index >= length) throw IndexOutOfBoundsException("Index $index is out of [0, $length)")
+      return if (index < gapStart) chars[index] else chars[index + gapEnd - gapStart]
+    }
+
+    override fun subSequence(startIndex: Int, endIndex: Int): CharSequence = CharSequenceView(this, startIndex, endIndex)
+
+    override fun toString(): String = gapText(chars, gapStart, gapEnd)
+  }
+
+  private class HeadlessLiveRange(var start: Int, var end: Int) : LiveRange {
+    override val startOffset: Offset
+      get() = start.offset
+
+    fun update(changeStart: Int, changeEnd: Int, newLength: Int) {
+      val delta = newLength - (changeEnd - changeStart)
+      start = move(start, changeStart, changeEnd, delta)
+      end = move(end, changeStart, changeEnd, delta).coerceAtLeast(start)
+    }
+
+    private fun move(offset: Int, changeStart: Int, changeEnd: Int, delta: Int): Int = when {
+      offset < changeStart -> offset
+      offset >= changeEnd -> offset + delta
+      else -> changeStart
+    }
+  }
+
+  private companion object {
+    private const val MIN_GAP = 64
+
+    private fun gapText(chars: CharArray, gapStart: Int, gapEnd: Int): String {
+      val builder = StringBuilder(chars.size - (gapEnd - gapStart))
+      builder.append(chars, 0, gapStart)
+      builder.append(chars, gapEnd, chars.size - gapEnd)
+      return builder.toString()
+    }
+  }
+}
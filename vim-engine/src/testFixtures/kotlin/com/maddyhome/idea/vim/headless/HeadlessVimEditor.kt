@@ -0,0 +1,322 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+import com.maddyhome.idea.vim.api.BufferPosition
+import com.maddyhome.idea.vim.api.ExecutionContext
+import com.maddyhome.idea.vim.api.ImmutableVimCaret
+import com.maddyhome.idea.vim.api.LineDeleteShift
+import com.maddyhome.idea.vim.api.MutableLinearEditor
+import com.maddyhome.idea.vim.api.VimCaret
+import com.maddyhome.idea.vim.api.VimCaretListener
+import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.api.VimScrollingModel
+import com.maddyhome.idea.vim.api.VimSelectionModel
+import com.maddyhome.idea.vim.api.VimVisualPosition
+import com.maddyhome.idea.vim.api.VirtualFile
+import com.maddyhome.idea.vim.api.getLineEndForOffset
+import com.maddyhome.idea.vim.api.getLineStartForOffset
+import com.maddyhome.idea.vim.api.injector
+import com.maddyhome.idea.vim.command.OperatorArguments
+import com.maddyhome.idea.vim.command.SelectionType
+import com.maddyhome.idea.vim.command.VimStateMachine
+import com.maddyhome.idea.vim.common.ChangesListener
+import com.maddyhome.idea.vim.common.EditorLine
+import com.maddyhome.idea.vim.common.LiveRange
+import com.maddyhome.idea.vim.common.Offset
+import com.maddyhome.idea.vim.common.TextRange
+import com.maddyhome.idea.vim.common.offset
+import com.maddyhome.idea.vim.helper.inBlockSubMode
+import com.maddyhome.idea.vim.helper.inSelectMode
+import com.maddyhome.idea.vim.helper.vimStateMachine
+
+/**
+ * [VimEditor] that works without an IDE, for tests and benchmarks of the engine
+ *
+ * The editor has no view: there are no folds, soft wraps or inlays, so visual positions are the same as buffer
+ *   positions, and every character takes one column. The text is kept in a [HeadlessVimDocument].
+ */
+public class HeadlessVimEditor(text: CharSequence = "", private val path: String? = null) : MutableLinearEditor() {
+  override val document: HeadlessVimDocument = HeadlessVimDocument(text)
+
+  private val caretList = mutableListOf<HeadlessVimCaret>()
+  private var primary: HeadlessVimCaret
+  private var current: HeadlessVimCaret? = null
+  private val caretListeners = mutableListOf<VimCaretListener>()
+
+  /** State of the editor returned by `injector.commandStateFor`, created on the first use */
+  public val stateMachine: VimStateMachine by lazy { VimStateMachine(this) }
+
+  override val lfMakesNewLine: Boolean = true
+  override var vimChangeActionSwitchMode: VimStateMachine.Mode? = null
+  override var vimKeepingVisualOperatorAction: Boolean = false
+  override var vimLastSelectionType: SelectionType? = null
+  override var insertMode: Boolean = true
+
+  /** Set to false to make the editor read-only */
+  public var writable: Boolean = true
+
+  init {
+    primary = HeadlessVimCaret(this)
+    caretList.add(primary)
+    document.addChangeListener(object : ChangesListener {
+      override fun documentChanged(change: ChangesListener.Change) {
+        val end = change.offset + change.oldFragment.length
+        caretList.forEach { it.updateForChange(change.offset, end, change.newFragment.length) }
+      }
+    })
+  }
+
+  override fun fileSize(): Long = document.textLength.toLong()
+
+  override fun text(): CharSequence = document.text
+
+  override fun nativeLineCount(): Int = document.getLineCount()
+
+  override fun getLineRange(line: EditorLine.Pointer): Pair<Offset, Offset> {
+    return document.getLineStartOffset(line.line).offset to document.getLineEndOffset(line.line).offset
+  }
+
+  override fun getLine(offset: Offset): EditorLine.Pointer {
+    return EditorLine.Pointer.init(document.getLineNumber(offset.point), this)
+  }
+
+  override fun getText(left: Offset, right: Offset): CharSequence = document.text.subSequence(left.point, right.point)
+
+  override fun getLineStartOffset(line: Int): Int {
+    return when {
+      line < 0 -> 0
+      line >= nativeLineCount() -> document.textLength
+      else -> document.getLineStartOffset(line)
+    }
+  }
+
+  override fun getLineEndOffset(line: Int): Int = document.getLineEndOffset(line)
+
+  override fun deleteRange(leftOffset: Offset, rightOffset: Offset) {
+    document.replaceString(leftOffset.point, rightOffset.point, "")
+  }
+
+  override fun deleteString(range: TextRange) {
+    document.replaceString(range.startOffset, range.endOffset, "")
+  }
+
+  override fun addLine(atPosition: EditorLine.Offset): EditorLine.Pointer {
+    // Like IjVimEditor, the new line character is inserted before the new line character of the previous line
+    val offset = if (atPosition.line < lineCount()) {
+      (document.getLineStartOffset(atPosition.line) - 1).coerceAtLeast(0)
+    } else {
+      document.textLength
+    }
+    document.replaceString(offset, offset, "\n")
+    return EditorLine.Pointer.init(atPosition.line, this)
+  }
+
+  override fun insertText(atPosition: Offset, text: CharSequence) {
+    document.replaceString(atPosition.point, atPosition.point, text)
+  }
+
+  override fun replaceString(start: Int, end: Int, newString: String) {
+    document.replaceString(start, end, newString)
+  }
+
+  // Carets
+
+  override fun carets(): List<VimCaret> = if (inBlockSubMode) listOf(primary) else nativeCarets()
+
+  override fun nativeCarets(): List<VimCaret> = caretList.sortedBy { it.offset.point }
+
+  override fun forEachCaret(action: (VimCaret) -> Unit) {
+    if (inBlockSubMode) {
+      runForCaret(primary, action)
+    } else {
+      forEachNativeCaret(action)
+    }
+  }
+
+  override fun forEachNativeCaret(action: (VimCaret) -> Unit, reverse: Boolean) {
+    val carets = caretList.sortedBy { it.offset.point }
+    for (caret in if (reverse) carets.asReversed() else carets) {
+      if (caret.isValid) runForCaret(caret, action)
+    }
+  }
+
+  private fun runForCaret(caret: HeadlessVimCaret, action: (VimCaret) -> Unit) {
+    val previous = current
+    current = caret
+    try {
+      action(caret)
+    } finally {
+      current = previous
+    }
+  }
+
+  override fun primaryCaret(): VimCaret = primary
+
+  override fun currentCaret(): VimCaret = current ?: primary
+
+  /** Adds a caret at the [offset] and makes it the primary caret, like IntelliJ does for a new caret */
+  public fun addCaret(offset: Int): VimCaret {
+    val caret = HeadlessVimCaret(this, offset)
+    caretList.add(caret)
+    primary = caret
+    return caret
+  }
+
+  override fun removeCaret(caret: VimCaret) {
+    if (caret !is HeadlessVimCaret || caretList.size == 1 || !caretList.remove(caret)) return
+    caret.invalidate()
+    if (primary === caret) primary = caretList.last()
+    caretListeners.toList().forEach { it.caretRemoved(caret) }
+  }
+
+  override fun removeSecondaryCarets() {
+    caretList.filter { it !== primary }.forEach { removeCaret(it) }
+  }
+
+  override fun addCaretListener(listener: VimCaretListener) {
+    caretListeners.add(listener)
+  }
+
+  override fun removeCaretListener(listener: VimCaretListener) {
+    caretListeners.remove(listener)
+  }
+
+  override fun <T : ImmutableVimCaret> findLastVersionOfCaret(caret: T): T = caret
+
+  // Selection
+
+  override fun getSelectionModel(): VimSelectionModel {
+    return object : VimSelectionModel {
+      override val selectionStart = primary.selectionStart
+      override val selectionEnd = primary.selectionEnd
+
+      override fun hasSelection(): Boolean = primary.hasSelection()
+    }
+  }
+
+  override fun removeSelection() {
+    caretList.forEach { it.removeSelection() }
+  }
+
+  override fun vimSetSystemBlockSelectionSilently(start: BufferPosition, end: BufferPosition) {
+    primary.setSelection(bufferPositionToOffset(start).offset, bufferPositionToOffset(end).offset)
+  }
+
+  override fun exitSelectModeNative(adjustCaret: Boolean) {
+    if (!inSelectMode) return
+
+    vimStateMachine.popModes()
+    for (caret in caretList) {
+      caret.removeSelection()
+      caret.vimSelectionStartClear()
+      if (adjustCaret) {
+        val offset = caret.offset.point
+        if (offset == getLineEndForOffset(offset) && offset != getLineStartForOffset(offset)) {
+          caret.moveToInlayAwareOffset(offset - 1)
+        }
+      }
+    }
+  }
+
+  override fun exitInsertMode(context: ExecutionContext, operatorArguments: OperatorArguments) {
+    injector.changeGroup.processEscape(this, context, operatorArguments)
+  }
+
+  // Positions. There are no folds, soft wraps and inlays, so visual positions are buffer positions
+
+  override fun offsetToBufferPosition(offset: Int): BufferPosition {
+    val line = document.getLineNumber(offset)
+    return BufferPosition(line, offset - document.getLineStartOffset(line))
+  }
+
+  override fun bufferPositionToOffset(position: BufferPosition): Int {
+    if (position.line >= nativeLineCount()) return document.textLength
+    val lineStart = document.getLineStartOffset(position.line)
+    return (lineStart + position.column).coerceAtMost(document.getLineEndOffset(position.line))
+  }
+
+  override fun offsetToVisualPosition(offset: Int): VimVisualPosition {
+    return offsetToBufferPosition(offset).let { VimVisualPosition(it.line, it.column) }
+  }
+
+  override fun visualPositionToOffset(position: VimVisualPosition): Offset {
+    return bufferPositionToOffset(BufferPosition(position.line, position.column)).offset
+  }
+
+  override fun visualPositionToBufferPosition(position: VimVisualPosition): BufferPosition {
+    return BufferPosition(position.line, position.column)
+  }
+
+  override fun bufferPositionToVisualPosition(position: BufferPosition): VimVisualPosition {
+    return VimVisualPosition(position.line, position.column)
+  }
+
+  override fun getLastVisualLineColumnNumber(line: Int): Int {
+    return document.getLineEndOffset(line) - document.getLineStartOffset(line)
+  }
+
+  override fun getCollapsedRegionAtOffset(offset: Int): TextRange? = null
+
+  // The rest of the editor
+
+  override fun isWritable(): Boolean = writable
+
+  override fun isDocumentWritable(): Boolean = writable
+
+  override fun isOneLineMode(): Boolean = false
+
+  override fun search(
+    pair: Pair<Offset, Offset>,
+    editor: VimEditor,
+    shiftType: LineDeleteShift,
+  ): Pair<Pair<Offset, Offset>, LineDeleteShift> {
+    // There are no guarded blocks
+    return pair to shiftType
+  }
+
+  override fun updateCaretsVisualAttributes() {}
+
+  override fun updateCaretsVisualPosition() {}
+
+  override fun getVirtualFile(): VirtualFile? {
+    return path?.let {
+      object : VirtualFile {
+        override val path = it
+      }
+    }
+  }
+
+  override fun getPath(): String? = path
+
+  override fun extractProtocol(): String? = null
+
+  override fun getScrollingModel(): VimScrollingModel {
+    return object : VimScrollingModel {
+      override fun accumulateViewportChanges() {}
+      override fun flushViewportChanges() {}
+    }
+  }
+
+  override fun isDisposed(): Boolean = false
+
+  override fun isTemplateActive(): Boolean = false
+
+  override fun startGuardedBlockChecking() {}
+
+  override fun stopGuardedBlockChecking() {}
+
+  override fun hasUnsavedChanges(): Boolean = document.modificationStamp != 0L
+
+  override fun createLiveMarker(start: Offset, end: Offset): LiveRange {
+    return document.createLiveRange(start.point, end.point)
+  }
+
+  override fun createIndentBySize(size: Int): String = " ".repeat(size)
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+import com.maddyhome.idea.vim.api.EngineEditorHelper
+import com.maddyhome.idea.vim.api.ExEntryPanel
+import com.maddyhome.idea.vim.api.ExecutionContextManager
+import com.maddyhome.idea.vim.api.IdeLookup
+import com.maddyhome.idea.vim.api.NativeAction
+import com.maddyhome.idea.vim.api.NativeActionManager
+import com.maddyhome.idea.vim.api.SystemInfoService
+import com.maddyhome.idea.vim.api.VimActionExecutor
+import com.maddyhome.idea.vim.api.VimApplication
+import com.maddyhome.idea.vim.api.VimChangeGroup
+import com.maddyhome.idea.vim.api.VimClipboardManager
+import com.maddyhome.idea.vim.api.VimCommandGroup
+import com.maddyhome.idea.vim.api.VimCommandGroupBase
+import com.maddyhome.idea.vim.api.VimDigraphGroup
+import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.api.VimEditorGroup
+import com.maddyhome.idea.vim.api.VimEnabler
+import com.maddyhome.idea.vim.api.VimExOutputPanelService
+import com.maddyhome.idea.vim.api.VimExtensionRegistrator
+import com.maddyhome.idea.vim.api.VimFile
+import com.maddyhome.idea.vim.api.VimInjectorBase
+import com.maddyhome.idea.vim.api.VimJumpService
+import com.maddyhome.idea.vim.api.VimKeyGroup
+import com.maddyhome.idea.vim.api.VimLookupManager
+import com.maddyhome.idea.vim.api.VimMarkService
+import com.maddyhome.idea.vim.api.VimMessages
+import com.maddyhome.idea.vim.api.VimMotionGroup
+import com.maddyhome.idea.vim.api.VimRegexpService
+import com.maddyhome.idea.vim.api.VimScrollGroup
+import com.maddyhome.idea.vim.api.VimSearchGroup
+import com.maddyhome.idea.vim.api.VimSearchHelper
+import com.maddyhome.idea.vim.api.VimStatistics
+import com.maddyhome.idea.vim.api.VimStorageService
+import com.maddyhome.idea.vim.api.VimTemplateManager
+import com.maddyhome.idea.vim.api.VimTemplateState
+import com.maddyhome.idea.vim.api.VimVisualMotionGroup
+import com.maddyhome.idea.vim.api.VimVisualMotionGroupBase
+import com.maddyhome.idea.vim.api.VimrcFileState
+import com.maddyhome.idea.vim.api.VimscriptExecutor
+import com.maddyhome.idea.vim.api.VimscriptFunctionService
+import com.maddyhome.idea.vim.api.VimscriptParser
+import com.maddyhome.idea.vim.api.injector
+import com.maddyhome.idea.vim.command.VimStateMachine
+import com.maddyhome.idea.vim.diagnostic.VimLogger
+import com.maddyhome.idea.vim.group.TabService
+import com.maddyhome.idea.vim.group.VimWindowGroup
+import com.maddyhome.idea.vim.helper.VimCommandLineHelper
+import com.maddyhome.idea.vim.history.VimHistory
+import com.maddyhome.idea.vim.history.VimHistoryBase
+import com.maddyhome.idea.vim.macro.VimMacro
+import com.maddyhome.idea.vim.put.VimPut
+import com.maddyhome.idea.vim.undo.VimUndoRedo
+import java.util.*
+
+/**
+ * [com.maddyhome.idea.vim.api.VimInjector] that runs the engine without an IDE, for tests and benchmarks
+ *
+ * The editors are [HeadlessVimEditor]s created with [createEditor]. The services that the engine can provide itself,
+ *   like the options, variables, registers, key mappings and history, work as in IdeaVim. The application runs
+ *   everything on the calling thread, and the clipboard, the storage and the messages are kept in memory.
+ *
+ * The services that are implemented only by the IntelliJ plugin (changes, motions, search, put, undo, the Vimscript
+ *   parser...) are not set, so the benchmarks measure only the code of the engine. There are no windows, tabs, files
+ *   or lookups.
+ */
+public class HeadlessVimInjector : VimInjectorBase() {
+  private val editors: MutableSet<HeadlessVimEditor> = Collections.newSetFromMap(WeakHashMap())
+
+  override val messages: VimMessages by lazy { HeadlessVimMessages() }
+  override val application: VimApplication by lazy { HeadlessVimApplication() }
+  override val executionContextManager: ExecutionContextManager by lazy { HeadlessExecutionContextManager() }
+  override val keyGroup: VimKeyGroup by lazy { HeadlessVimKeyGroup() }
+  override val clipboardManager: VimClipboardManager by lazy { HeadlessVimClipboardManager() }
+  override val statisticsService: VimStatistics by lazy { HeadlessVimStatistics() }
+  override val vimStorageService: VimStorageService by lazy { HeadlessVimStorageService() }
+  override val historyGroup: VimHistory by lazy { VimHistoryBase() }
+
+  override val editorGroup: VimEditorGroup = object : VimEditorGroup {
+    override fun notifyIdeaJoin(editor: VimEditor) {}
+    override fun localEditors(): Collection<VimEditor> = editors.toList()
+  }
+
+  override val enabler: VimEnabler = object : VimEnabler {
+    override fun isEnabled(): Boolean = true
+  }
+
+  override val systemInfoService: SystemInfoService = object : SystemInfoService {
+    override val isWindows: Boolean = false
+  }
+
+  /** Creates an editor with the [text] and the caret at the start of the text */
+  public fun createEditor(text: CharSequence, path: String? = null): HeadlessVimEditor {
+    val editor = HeadlessVimEditor(text, path)
+    editors.add(editor)
+    return editor
+  }
+
+  override fun commandStateFor(editor: VimEditor): VimStateMachine = (editor as HeadlessVimEditor).stateMachine
+
+  override fun commandStateFor(editor: Any): VimStateMachine = (editor as HeadlessVimEditor).stateMachine
+
+  override fun <T : Any> getLogger(clazz: Class<T>): VimLogger = HeadlessVimLogger(clazz.name)
+
+  override val visualMotionGroup: VimVisualMotionGroup by lazy { object : VimVisualMotionGroupBase() {} }
+  override val commandGroup: VimCommandGroup by lazy { object : VimCommandGroupBase() {} }
+
+  override val exEntryPanel: ExEntryPanel = object : ExEntryPanel {
+    override fun isActive(): Boolean = false
+    override fun clearCurrentAction() {}
+    override fun setCurrentActionPromptCharacter(char: Char) {}
+  }
+
+  override val nativeActionManager: NativeActionManager = object : NativeActionManager {
+    override val enterAction: NativeAction? = null
+    override val createLineAboveCaret: NativeAction? = null
+    override val joinLines: NativeAction? = null
+    override val indentLines: NativeAction? = null
+    override val saveAll: NativeAction? = null
+    override val saveCurrent: NativeAction? = null
+    override val deleteAction: NativeAction? = null
+  }
+
+  override val extensionRegistrator: VimExtensionRegistrator = object : VimExtensionRegistrator {
+    override fun setOptionByPluginAlias(alias: String): Boolean = false
+    override fun getExtensionNameByAlias(alias: String): String? = null
+  }
+
+  override val lookupManager: VimLookupManager = object : VimLookupManager {
+    override fun getActiveLookup(editor: VimEditor): IdeLookup? = null
+  }
+
+  override val templateManager: VimTemplateManager = object : VimTemplateManager {
+    override fun getTemplateState(editor: VimEditor): VimTemplateState? = null
+  }
+
+  override val commandLineHelper: VimCommandLineHelper = object : VimCommandLineHelper {
+    override fun inputString(vimEditor: VimEditor, prompt: String, finishOn: Char?): String? = null
+  }
+
+  override val vimrcFileState: VimrcFileState = object : VimrcFileState {
+    override var filePath: String? = null
+    override fun saveFileState(filePath: String) {}
+  }
+
+  // Implemented only by the IntelliJ plugin. A test or benchmark that needs one of them sets it in its setup
+
+  override lateinit var changeGroup: VimChangeGroup
+  override lateinit var motion: VimMotionGroup
+  override lateinit var searchHelper: VimSearchHelper
+  override lateinit var searchGroup: VimSearchGroup
+  override lateinit var regexpService: VimRegexpService
+  override lateinit var put: VimPut
+  override lateinit var markService: VimMarkService
+  override lateinit var jumpService: VimJumpService
+  override lateinit var undo: VimUndoRedo
+  override lateinit var macro: VimMacro
+  override lateinit var scroll: VimScrollGroup
+  override lateinit var engineEditorHelper: EngineEditorHelper
+  override lateinit var actionExecutor: VimActionExecutor
+  override lateinit var digraphGroup: VimDigraphGroup
+  override lateinit var exOutputPanel: VimExOutputPanelService
+  override lateinit var vimscriptParser: VimscriptParser
+  override lateinit var vimscriptExecutor: VimscriptExecutor
+  override lateinit var functionService: VimscriptFunctionService
+  override lateinit var file: VimFile
+  override lateinit var window: VimWindowGroup
+  override lateinit var tabService: TabService
+
+  public companion object {
+    /** Creates the injector and sets it as the [injector] of the engine */
+    public fun install(): HeadlessVimInjector {
+      val headless = HeadlessVimInjector()
+      injector = headless
+      return headless
+    }
+  }
+}
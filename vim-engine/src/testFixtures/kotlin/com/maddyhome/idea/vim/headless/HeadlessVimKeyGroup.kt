@@ -0,0 +1,54 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+import com.maddyhome.idea.vim.api.NativeAction
+import com.maddyhome.idea.vim.api.VimActionsInitiator
+import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.api.VimKeyGroupBase
+import com.maddyhome.idea.vim.command.MappingMode
+import com.maddyhome.idea.vim.handler.EditorActionHandlerBase
+import com.maddyhome.idea.vim.key.ShortcutOwnerInfo
+import com.maddyhome.idea.vim.key.addLeafs
+import javax.swing.KeyStroke
+
+/**
+ * [com.maddyhome.idea.vim.api.VimKeyGroup] of [HeadlessVimInjector]
+ *
+ * There are no IDE shortcuts and actions, so no key is registered as a shortcut and there are no keymap conflicts.
+ *   The command tree is empty until the actions are added with [registerCommandAction].
+ */
+public class HeadlessVimKeyGroup : VimKeyGroupBase() {
+  override val shortcutConflicts: MutableMap<KeyStroke, ShortcutOwnerInfo>
+    get() = savedShortcutConflicts
+
+  /** Adds the [action] to the command trees of the [modes] for each sequence of the [keys] */
+  public fun registerCommandAction(
+    action: EditorActionHandlerBase,
+    modes: Set<MappingMode>,
+    keys: Set<List<KeyStroke>>,
+  ) {
+    val holder = object : VimActionsInitiator {
+      override fun getInstance(): EditorActionHandlerBase = action
+    }
+    for (keyStrokes in keys) {
+      for (mode in modes) {
+        getKeyRoot(mode).addLeafs(keyStrokes, holder)
+      }
+    }
+  }
+
+  override fun getActions(editor: VimEditor, keyStroke: KeyStroke): List<NativeAction> = emptyList()
+
+  override fun getKeymapConflicts(keyStroke: KeyStroke): List<NativeAction> = emptyList()
+
+  override fun showKeyMappings(modes: Set<MappingMode>, editor: VimEditor): Boolean = false
+
+  override fun updateShortcutKeysRegistration() {}
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+import com.maddyhome.idea.vim.diagnostic.VimLogger
+
+/**
+ * [VimLogger] of [HeadlessVimInjector]. Nothing is printed, so the logging doesn't disturb the benchmarks. The last
+ *   warning or error is kept in [lastProblem] and can be checked
+ */
+public class HeadlessVimLogger(private val name: String) : VimLogger {
+  override fun isTrace(): Boolean = false
+
+  override fun trace(data: String) {}
+
+  override fun isDebug(): Boolean = false
+
+  override fun debug(data: String) {}
+
+  override fun warn(message: String) {
+    lastProblem = "$name: $message"
+  }
+
+  override fun error(message: String) {
+    lastProblem = "$name: $message"
+  }
+
+  override fun info(message: String) {}
+
+  public companion object {
+    /** The last warning or error of any logger, or null */
+    @Volatile
+    public var lastProblem: String? = null
+  }
+}
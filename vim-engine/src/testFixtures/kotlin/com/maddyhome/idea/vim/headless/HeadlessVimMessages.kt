@@ -0,0 +1,45 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.api.VimMessagesBase
+
+/**
+ * [com.maddyhome.idea.vim.api.VimMessages] of [HeadlessVimInjector]
+ *
+ * Keeps the last status bar message and the error flag, so they can be checked. There is no message bundle, so
+ *   [message] returns the key followed by the parameters.
+ */
+public class HeadlessVimMessages : VimMessagesBase() {
+  private var statusBarMessage: String? = null
+  private var error = false
+
+  override fun showStatusBarMessage(editor: VimEditor?, message: String?) {
+    statusBarMessage = message
+  }
+
+  override fun getStatusBarMessage(): String? = statusBarMessage
+
+  override fun indicateError() {
+    error = true
+  }
+
+  override fun clearError() {
+    error = false
+  }
+
+  override fun isError(): Boolean = error
+
+  override fun message(key: String, vararg params: Any): String {
+    return if (params.isEmpty()) key else "$key ${params.joinToString(" ")}"
+  }
+
+  override fun updateStatusBar() {}
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+import com.maddyhome.idea.vim.api.VimStatistics
+import com.maddyhome.idea.vim.vimscript.model.Executable
+import com.maddyhome.idea.vim.vimscript.model.expressions.Expression
+
+/**
+ * [VimStatistics] of [HeadlessVimInjector]. Nothing is collected
+ */
+public class HeadlessVimStatistics : VimStatistics {
+  override fun logTrackedAction(actionId: String) {}
+  override fun logCopiedAction(actionId: String) {}
+  override fun addParsedCode(code: Executable) {}
+  override fun addParsedExpression(expression: Expression) {}
+  override fun setIfMapExprUsed(value: Boolean) {}
+  override fun addExtensionEnabledWithPlug(extension: String) {}
+  override fun addSourcedFile(path: String) {}
+}
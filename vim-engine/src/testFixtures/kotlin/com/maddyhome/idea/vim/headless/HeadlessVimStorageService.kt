@@ -0,0 +1,46 @@
+/*
+ * Copyright 2003-2023 The IdeaVim authors
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE.txt file or at
+ * https://opensource.org/licenses/MIT.
+ */
+
+package com.maddyhome.idea.vim.headless
+
+import com.maddyhome.idea.vim.api.Key
+import com.maddyhome.idea.vim.api.VimEditor
+import com.maddyhome.idea.vim.api.VimStorageServiceBase
+import java.util.*
+
+/**
+ * [com.maddyhome.idea.vim.api.VimStorageService] of [HeadlessVimInjector]
+ *
+ * The data of an editor is kept by the editor, the data of a buffer by the document, and there is a single tab.
+ */
+public class HeadlessVimStorageService : VimStorageServiceBase() {
+  private val editorData = WeakHashMap<VimEditor, MutableMap<Key<*>, Any?>>()
+  private val bufferData = WeakHashMap<Any, MutableMap<Key<*>, Any?>>()
+  private val tabData = HashMap<Key<*>, Any?>()
+
+  override fun <T> getDataFromEditor(editor: VimEditor, key: Key<T>): T? = get(editorData[editor], key)
+
+  override fun <T> putDataToEditor(editor: VimEditor, key: Key<T>, data: T) {
+    editorData.getOrPut(editor) { HashMap() }[key] = data
+  }
+
+  override fun <T> getDataFromBuffer(editor: VimEditor, key: Key<T>): T? = get(bufferData[editor.document], key)
+
+  override fun <T> putDataToBuffer(editor: VimEditor, key: Key<T>, data: T) {
+    bufferData.getOrPut(editor.document) { HashMap() }[key] = data
+  }
+
+  override fun <T> getDataFromTab(editor: VimEditor, key: Key<T>): T? = get(tabData, key)
+
+  override fun <T> putDataToTab(editor: VimEditor, key: Key<T>, data: T) {
+    tabData[key] = data
+  }
+
+  @Suppress("UNCHECKED_CAST")
+  private fun <T> get(data: Map<Key<*>, Any?>?, key: Key<T>): T? = data?.get(key) as T?
+}